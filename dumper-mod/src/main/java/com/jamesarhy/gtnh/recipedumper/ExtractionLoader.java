@@ -0,0 +1,198 @@
+package com.jamesarhy.gtnh.recipedumper;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * Where dumps get their extraction code (RecipeDumpRunner and everything under gt/ and io/).
+ *
+ * Until a jar changes in the reload directory (RECIPE_DUMP_RELOAD_DIR, default
+ * config/recipedumper/reload), the mod's own classes run. When the newest *.jar there changes
+ * after startup, it is copied aside and loaded in a child-first class loader: its extraction
+ * classes replace the bundled ones, with fresh static state, while Minecraft, Forge, GregTech,
+ * Gson and the bootstrap classes still come from the server. The directory is checked before
+ * every run; {@link #reload()} (/recipedump reload) loads the newest jar regardless.
+ */
+final class ExtractionLoader {
+
+    private static final String PACKAGE = "com.jamesarhy.gtnh.recipedumper.";
+    private static final String RUNNER_CLASS = PACKAGE + "RecipeDumpRunner";
+
+    // Stay with the mod: FML holds the mod instance, the server holds the command.
+    private static final String[] BOOTSTRAP_CLASSES = {
+            PACKAGE + "RecipeDumperMod",
+            PACKAGE + "RecipeDumpCommand",
+            PACKAGE + "ExtractionLoader",
+    };
+
+    private final File reloadDir;
+    private final ClassLoader parent;
+
+    private URLClassLoader loader; // null = the mod's own classes
+    private File loadedCopy;
+    private int generation;
+    private String loadedFrom;
+    private long seenModified;     // newest jar's stamp when last loaded (or at startup)
+    private long seenLength;
+
+    ExtractionLoader(File reloadDir) {
+        this.reloadDir = reloadDir;
+        this.parent = ExtractionLoader.class.getClassLoader();
+        if (!reloadDir.exists()) reloadDir.mkdirs();
+        // A jar already there at startup is the one the server booted with (the docker setup
+        // points this at the build output); only later changes count as a reload.
+        File jar = newestJar();
+        if (jar != null) {
+            seenModified = jar.lastModified();
+            seenLength = jar.length();
+        }
+    }
+
+    File reloadDir() {
+        return reloadDir;
+    }
+
+    /** "bundled" or which reloaded jar runs. */
+    synchronized String describe() {
+        if (loader == null) return "bundled";
+        return "reload #" + generation + " (" + loadedFrom + ")";
+    }
+
+    /** RecipeDumpRunner.run(dir, request) in the current extraction code, after picking up a changed jar. */
+    synchronized Map run(File dir, Map request) throws Exception {
+        File jar = newestJar();
+        if (jar != null && (jar.lastModified() != seenModified || jar.length() != seenLength)) {
+            load(jar);
+        }
+        Class runner = Class.forName(RUNNER_CLASS, true, (loader == null) ? parent : loader);
+        Method run = runner.getMethod("run", new Class[] { File.class, Map.class });
+        try {
+            return (Map) run.invoke(null, new Object[] { dir, request });
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    /** Load the newest jar now, even if it has not changed; returns what runs afterwards. */
+    synchronized String reload() {
+        File jar = newestJar();
+        if (jar == null) {
+            System.out.println("[" + RecipeDumperMod.MODID + "] No jar in " + reloadDir.getAbsolutePath());
+        } else {
+            load(jar);
+        }
+        return describe();
+    }
+
+    /** Swap to {@code jar}; on any failure the previous code keeps running. */
+    private void load(File jar) {
+        long start = System.currentTimeMillis();
+        long modified = jar.lastModified();
+        long length = jar.length();
+        File copy = null;
+        URLClassLoader next = null;
+        try {
+            // Load from a private copy, so the build can overwrite the jar while it is open.
+            copy = File.createTempFile("recipedumper-extraction-", ".jar");
+            copy.deleteOnExit();
+            copyFile(jar, copy);
+            next = new ChildFirstLoader(new URL[] { copy.toURI().toURL() }, parent);
+            Class.forName(RUNNER_CLASS, true, next).getMethod("run", new Class[] { File.class, Map.class });
+        } catch (Throwable t) {
+            System.out.println("[" + RecipeDumperMod.MODID + "] Could not load extraction code from "
+                    + jar.getAbsolutePath() + "; keeping " + describe() + ": " + t);
+            closeQuietly(next);
+            if (copy != null) copy.delete();
+            return;
+        }
+
+        closeQuietly(loader);
+        if (loadedCopy != null) loadedCopy.delete();
+        loader = next;
+        loadedCopy = copy;
+        generation++;
+        loadedFrom = jar.getName() + ", " + new Date(modified);
+        seenModified = modified;
+        seenLength = length;
+        System.out.println("[" + RecipeDumperMod.MODID + "] Extraction code: " + describe()
+                + " loaded in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private File newestJar() {
+        File[] files = reloadDir.listFiles();
+        File newest = null;
+        for (int i = 0; files != null && i < files.length; i++) {
+            File f = files[i];
+            if (!f.isFile() || !f.getName().toLowerCase().endsWith(".jar")) continue;
+            if (newest == null || f.lastModified() > newest.lastModified()) newest = f;
+        }
+        return newest;
+    }
+
+    private static void copyFile(File from, File to) throws IOException {
+        InputStream in = new FileInputStream(from);
+        try {
+            OutputStream out = new FileOutputStream(to);
+            try {
+                byte[] buf = new byte[64 * 1024];
+                int n;
+                while ((n = in.read(buf)) > 0) out.write(buf, 0, n);
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void closeQuietly(URLClassLoader l) {
+        if (l == null) return;
+        try {
+            l.close();
+        } catch (Exception ignored) {
+        }
+    }
+
+    static boolean isExtractionClass(String name) {
+        if (!name.startsWith(PACKAGE)) return false;
+        for (int i = 0; i < BOOTSTRAP_CLASSES.length; i++) {
+            String b = BOOTSTRAP_CLASSES[i];
+            if (name.equals(b) || name.startsWith(b + "$")) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Defines the extraction classes from its own jar, never the parent's copy (which the server
+     * loaded from the mod jar); everything else is delegated as usual.
+     */
+    private static final class ChildFirstLoader extends URLClassLoader {
+
+        ChildFirstLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        protected Class loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isExtractionClass(name)) return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name)) {
+                Class c = findLoadedClass(name);
+                if (c == null) c = findClass(name);
+                if (resolve) resolveClass(c);
+                return c;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.jamesarhy.gtnh.recipedumper;
+
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.ChatComponentText;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * /recipedump: re-dump part of a running server into a new numbered directory under the runs
+ * directory, without a restart.
+ *
+ *   /recipedump full                      everything, like the startup dump (no scope)
+ *   /recipedump provider gt               one provider's recipe maps (gt, crafting, smelting, railcraft)
+ *   /recipedump machine gt.recipe.*blast* maps, machine index and debug introspection of matching machines
+ *   /recipedump metatile 1000[-1010]      machine index and full debug introspection of those meta tiles
+ *   /recipedump reload                    load the newest jar in the reload directory now
+ *
+ * Each run writes run.json (scope, counts, phase timings) next to its outputs. Runs go through
+ * ExtractionLoader, so a rebuilt jar in the reload directory is picked up by the next run.
+ */
+final class RecipeDumpCommand extends CommandBase {
+
+    private static final String USAGE = "/recipedump <full | provider <name> | machine <id|glob|re:regex> | metatile <id>[-<id>] | reload>";
+
+    private final File runsDir;
+    private final File providerCacheDir;
+    private final ExtractionLoader extraction;
+
+    RecipeDumpCommand(File runsDir, File providerCacheDir, ExtractionLoader extraction) {
+        this.runsDir = runsDir;
+        this.providerCacheDir = providerCacheDir;
+        this.extraction = extraction;
+    }
+
+    public String getCommandName() {
+        return "recipedump";
+    }
+
+    public String getCommandUsage(ICommandSender sender) {
+        return USAGE;
+    }
+
+    public int getRequiredPermissionLevel() {
+        return 4;
+    }
+
+    public List addTabCompletionOptions(ICommandSender sender, String[] args) {
+        if (args.length == 1) return getListOfStringsMatchingLastWord(args, "full", "provider", "machine", "metatile", "reload");
+        if (args.length == 2 && "provider".equals(args[0])) {
+            return getListOfStringsMatchingLastWord(args, "gt", "crafting", "smelting", "railcraft");
+        }
+        return null;
+    }
+
+    public void processCommand(ICommandSender sender, String[] args) {
+        if (args.length == 1 && "reload".equals(args[0])) {
+            send(sender, "[recipedump] extraction code: " + extraction.reload());
+            return;
+        }
+        Map req = request(args);
+        req.put("providerCacheDir", providerCacheDir.getPath()); // the startup dump's, so its entries are hit
+        String label = (String) req.get("label");
+        File dir = nextRunDir(label);
+        send(sender, "[recipedump] " + label + " -> " + dir.getAbsolutePath());
+        try {
+            Map r = extraction.run(dir, req);
+            if (r.get("abandoned") instanceof List) {
+                send(sender, "[recipedump] " + label + ": " + ((List) r.get("abandoned")).size()
+                        + " unit(s) abandoned over their time budget, see run.json");
+            }
+            if (r.get("derivedErrors") instanceof List) {
+                send(sender, "[recipedump] " + label + ": not written: " + r.get("derivedErrors"));
+            }
+            send(sender, "[recipedump] " + label + " (" + extraction.describe() + "): "
+                    + r.get("recipeMaps") + " maps, " + r.get("recipes") + " recipes, "
+                    + r.get("machineIndexEntries") + " machine index entries, " + r.get("debugEntries") + " debug entries; "
+                    + "extract " + seconds(r.get("extractMs")) + ", machine index " + seconds(r.get("machineIndexMs"))
+                    + ", write " + seconds(r.get("writeMs")) + ", total " + seconds(r.get("totalMs")));
+        } catch (Throwable t) {
+            t.printStackTrace();
+            send(sender, "[recipedump] " + label + " failed: " + t);
+        }
+    }
+
+    /** RecipeDumpRunner's request fields by name (see RecipeDumpRunner.run(File, Map)). */
+    private static Map request(String[] args) {
+        if (args.length == 0) throw new WrongUsageException(USAGE);
+        String mode = args[0];
+        Map req = new LinkedHashMap();
+        req.put("journal", Boolean.FALSE); // each run gets a new directory, so there is nothing to resume
+        if ("full".equals(mode) && args.length == 1) {
+            req.put("label", "full");
+            req.put("scope", new LinkedHashMap()); // a full dump, whatever RECIPE_DUMP_* the server started with
+            return req;
+        }
+        if (args.length != 2) throw new WrongUsageException(USAGE);
+        String arg = args[1];
+        req.put("label", mode + " " + arg);
+        if ("provider".equals(mode)) {
+            req.put("scope", scope("RECIPE_DUMP_PROVIDERS", arg));
+            req.put("machineIndex", Boolean.FALSE);
+            req.put("debug", Boolean.FALSE);
+        } else if ("machine".equals(mode)) {
+            req.put("scope", scope("RECIPE_DUMP_MACHINES", arg));
+            req.put("debugEveryTileInScope", Boolean.TRUE);
+        } else if ("metatile".equals(mode)) {
+            // Meta tiles only: recipe maps would merge unrelated machines into the index.
+            req.put("scope", scope("RECIPE_DUMP_META_TILES", arg));
+            req.put("recipes", Boolean.FALSE);
+            req.put("debugEveryTileInScope", Boolean.TRUE);
+        } else {
+            throw new WrongUsageException(USAGE);
+        }
+        return req;
+    }
+
+    /** Settings for a single RECIPE_DUMP_* scope variable, keeping the environment's sampling. */
+    private static Map scope(String name, String value) {
+        Map m = new LinkedHashMap();
+        m.put(name, value);
+        String sample = System.getenv("RECIPE_DUMP_SAMPLE");
+        if (sample != null) m.put("RECIPE_DUMP_SAMPLE", sample);
+        String seed = System.getenv("RECIPE_DUMP_SAMPLE_SEED");
+        if (seed != null) m.put("RECIPE_DUMP_SAMPLE_SEED", seed);
+        return m;
+    }
+
+    /** runs/NNNN-label, numbered after the highest existing run. */
+    private File nextRunDir(String label) {
+        int next = 1;
+        File[] existing = runsDir.listFiles();
+        for (int i = 0; existing != null && i < existing.length; i++) {
+            String name = existing[i].getName();
+            int dash = name.indexOf('-');
+            if (dash <= 0) continue;
+            try {
+                next = Math.max(next, Integer.parseInt(name.substring(0, dash)) + 1);
+            } catch (NumberFormatException ignored) {}
+        }
+        String slug = label.replaceAll("[^A-Za-z0-9._-]+", "_");
+        String n = String.valueOf(next);
+        while (n.length() < 4) n = "0" + n;
+        return new File(runsDir, n + "-" + slug);
+    }
+
+    private static String seconds(Object msValue) {
+        long ms = (msValue instanceof Number) ? ((Number) msValue).longValue() : 0L;
+        return (ms / 1000) + "." + ((ms % 1000) / 100) + " s";
+    }
+
+    /** Always logged; players also get it in chat (the console already shows the log line). */
+    private static void send(ICommandSender sender, String msg) {
+        System.out.println(msg);
+        if (sender != null && !(sender instanceof MinecraftServer)) sender.addChatMessage(new ChatComponentText(msg));
+    }
+}
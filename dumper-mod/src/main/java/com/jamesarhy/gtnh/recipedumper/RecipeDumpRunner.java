@@ -0,0 +1,423 @@
+package com.jamesarhy.gtnh.recipedumper;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.jamesarhy.gtnh.recipedumper.gt.GTReflectionDump;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot;
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+import com.jamesarhy.gtnh.recipedumper.io.NameIndex;
+import com.jamesarhy.gtnh.recipedumper.io.RecipeGraphIndex;
+import com.jamesarhy.gtnh.recipedumper.io.RecipeStore;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One dump into one directory: recipe maps, machine index, debug introspection and every file
+ * derived from them. Used for the startup dump and for each /recipedump invocation.
+ *
+ * This is the entry point into the extraction code. The bootstrap (RecipeDumperMod,
+ * RecipeDumpCommand) only calls {@link #run(File, Map)} through ExtractionLoader, by reflection and
+ * with plain maps, so a reloaded jar can replace this class and everything under gt/ and io/.
+ *
+ * {@link #main} runs the same dump outside the game, from a registry snapshot a live run recorded
+ * (RECIPE_DUMP_SNAPSHOT), so interpretation changes can be checked without starting a server.
+ */
+public final class RecipeDumpRunner {
+
+    static final String RECIPES_FILE = "recipes.json";
+    static final String MACHINE_INDEX_FILE = "machine_index.json";
+    static final String MACHINE_INDEX_DEBUG_FILE = "machine_index_debug.json";
+    static final String MEMBERSHIP_FILE = "recipe_membership.json";
+    static final String ORE_DICTIONARY_FILE = "ore_dictionary.json";
+    static final String LOCALIZED_NAMES_FILE = "localized_names.json";
+    static final String THROUGHPUT_FILE = "recipe_throughput.json";
+    static final String RUN_FILE = "run.json";
+
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    /** What a dump covers. The defaults are the full startup dump. */
+    static final class Request {
+        String label = "full";
+        Map scope;                       // RECIPE_DUMP_* settings; null = process environment
+        boolean recipes = true;          // recipe providers and the files derived from them
+        boolean machineIndex = true;
+        boolean debug = true;            // machine_index_debug.json
+        boolean debugEveryTileInScope;   // introspect every meta tile in scope, not just debug targets
+        File snapshot;                   // registry snapshot to re-extract from instead of the live game
+        File journalDir;                 // where the journal lives; null = journal/ in the dump directory
+        File providerCacheDir;           // shared between runs; null = provider_cache/ in the dump directory
+        boolean journal = !"false".equalsIgnoreCase(System.getenv("RECIPE_DUMP_JOURNAL")); // resumable, see DumpJournal
+        boolean providerCache = !"false".equalsIgnoreCase(System.getenv("RECIPE_DUMP_PROVIDER_CACHE")); // see ProviderCache
+    }
+
+    /** Counts and phase timings of one run (run.json). */
+    static final class Result {
+        String label;
+        String generatedAt;
+        Map scope;
+        List abandoned;                  // units that overran their time budget; null when none
+        int resumedUnits;                // units taken from an earlier run's journal
+        List cachedProviders;            // providers taken from the provider cache; null when none
+        List derivedErrors;              // "file: error" per derived output that was not written; null when none
+        int recipeMaps;
+        int recipes;
+        int machineIndexEntries;
+        int debugEntries;
+        long extractMs;
+        long machineIndexMs;
+        long writeMs;
+        long totalMs;
+    }
+
+    /**
+     * Entry point for ExtractionLoader. {@code request} holds Request's fields by name (label,
+     * scope, recipes, machineIndex, debug, debugEveryTileInScope, snapshot as a path, journal,
+     * journalDir as a path, providerCache, providerCacheDir as a path; missing = default); the result
+     * holds Result's fields by name.
+     */
+    public static Map run(File dir, Map request) throws IOException {
+        Request req = new Request();
+        if (request.get("label") instanceof String) req.label = (String) request.get("label");
+        if (request.get("scope") instanceof Map) req.scope = (Map) request.get("scope");
+        req.recipes = flag(request, "recipes", req.recipes);
+        req.machineIndex = flag(request, "machineIndex", req.machineIndex);
+        req.debug = flag(request, "debug", req.debug);
+        req.debugEveryTileInScope = flag(request, "debugEveryTileInScope", req.debugEveryTileInScope);
+        if (request.get("snapshot") instanceof String) req.snapshot = new File((String) request.get("snapshot"));
+        req.journal = flag(request, "journal", req.journal);
+        if (request.get("journalDir") instanceof String) req.journalDir = new File((String) request.get("journalDir"));
+        req.providerCache = flag(request, "providerCache", req.providerCache);
+        if (request.get("providerCacheDir") instanceof String) req.providerCacheDir = new File((String) request.get("providerCacheDir"));
+
+        Result r;
+        try {
+            r = dump(dir, req);
+        } finally {
+            GTReflectionDump.abortSnapshot(); // only left over when the dump failed
+            GTReflectionDump.endJournal(false); // likewise; kept for the next run to resume from
+            GTReflectionDump.useProviderCache(null);
+            GTReflectionDump.endRecipesJsonStage();
+            GTReflectionDump.stopWatchdog();
+        }
+        Map out = new LinkedHashMap();
+        out.put("label", r.label);
+        out.put("generatedAt", r.generatedAt);
+        out.put("scope", r.scope);
+        out.put("abandoned", r.abandoned);
+        out.put("resumedUnits", new Integer(r.resumedUnits));
+        out.put("cachedProviders", r.cachedProviders);
+        out.put("derivedErrors", r.derivedErrors);
+        out.put("recipeMaps", new Integer(r.recipeMaps));
+        out.put("recipes", new Integer(r.recipes));
+        out.put("machineIndexEntries", new Integer(r.machineIndexEntries));
+        out.put("debugEntries", new Integer(r.debugEntries));
+        out.put("extractMs", new Long(r.extractMs));
+        out.put("machineIndexMs", new Long(r.machineIndexMs));
+        out.put("writeMs", new Long(r.writeMs));
+        out.put("totalMs", new Long(r.totalMs));
+        return out;
+    }
+
+    private static boolean flag(Map request, String name, boolean dflt) {
+        Object v = request.get(name);
+        return (v instanceof Boolean) ? ((Boolean) v).booleanValue() : dflt;
+    }
+
+    private static Result dump(File dir, Request req) throws IOException {
+        long start = System.currentTimeMillis();
+        if (!dir.exists()) dir.mkdirs();
+        Result result = new Result();
+        result.label = req.label;
+
+        GTReflectionDump.setDumpScope(req.scope);
+
+        GTReflectionDump.DumpRoot root = new GTReflectionDump.DumpRoot();
+        RegistrySnapshot source = (req.snapshot == null) ? null : RegistrySnapshot.read(req.snapshot);
+        GTReflectionDump.useSnapshot(source);
+        GTReflectionDump.startWatchdog();
+        if (source != null) {
+            // The game the snapshot was taken from, so outputs compare with that run's.
+            root.generatedAt = source.generatedAt();
+            root.minecraft = source.minecraft();
+            root.mod = source.mod();
+        } else {
+            root.generatedAt = new Date().toString();
+            root.minecraft = "1.7.10";
+            root.mod = RecipeDumperMod.MODID;
+        }
+        result.generatedAt = root.generatedAt;
+        // Record a registry snapshot of what this live dump reads; written once the dump completes.
+        File snapshotFile = new File(dir, RegistrySnapshot.FILE_NAME);
+        File snapshotTmp = new File(snapshotFile.getAbsolutePath() + ".tmp");
+        boolean recordSnapshot = source == null && "true".equalsIgnoreCase(System.getenv("RECIPE_DUMP_SNAPSHOT"));
+        if (recordSnapshot) {
+            GTReflectionDump.beginSnapshot(snapshotTmp, root.generatedAt, root.minecraft, root.mod);
+        }
+        // Resume what a crashed run with the same settings completed here; the rest is captured and journaled.
+        if (req.journal && source == null) {
+            File journalDir = (req.journalDir != null) ? req.journalDir : new File(dir, GTReflectionDump.JOURNAL_DIR_NAME);
+            GTReflectionDump.beginJournal(journalDir, "recipes=" + req.recipes + " machineIndex=" + req.machineIndex
+                    + " debug=" + req.debug + " debugEveryTileInScope=" + req.debugEveryTileInScope);
+        }
+        File cacheDir = (req.providerCacheDir != null) ? req.providerCacheDir : new File(dir, GTReflectionDump.PROVIDER_CACHE_DIR_NAME);
+        GTReflectionDump.useProviderCache((req.providerCache && source == null) ? cacheDir : null);
+        // Columnar mode drops per-recipe objects as each map lands in the store and streams
+        // recipes.json from it; otherwise the objects are kept and serialized by Gson as before.
+        boolean columnar = "true".equalsIgnoreCase(System.getenv("RECIPE_DUMP_COLUMNAR"));
+        root.store = new RecipeStore();
+        if (req.recipes) {
+            // Columnar mode also encodes recipes.json's maps off-heap while extraction goes on.
+            if (columnar) GTReflectionDump.beginRecipesJsonStage(new File(dir, RECIPES_FILE + ".stage"));
+            long heapBefore = usedHeap();
+            root.recipeMaps = GTReflectionDump.dumpAllRecipeMapsWithProviders(root.store, !columnar);
+            long heapAfter = usedHeap();
+            System.out.println("[" + RecipeDumperMod.MODID + "] " + (columnar ? "columnar" : "object") + " extraction: "
+                    + root.store.recipeCount() + " recipes (" + root.store.bodyCount() + " distinct bodies), "
+                    + root.store.itemStackCount() + " item stacks, "
+                    + root.store.strings().size() + " distinct strings; heap " + mb(heapBefore) + " -> " + mb(heapAfter)
+                    + " MB (store ~" + mb(root.store.estimatedBytes()) + " MB)");
+        } else {
+            root.recipeMaps = new ArrayList();
+        }
+        result.recipeMaps = root.recipeMaps.size();
+        result.recipes = root.store.recipeCount();
+        List cached = GTReflectionDump.cachedProviders();
+        result.cachedProviders = (req.recipes && cached.size() > 0) ? cached : null;
+        long t = System.currentTimeMillis();
+        result.extractMs = t - start;
+
+        GTReflectionDump.DumpMachineIndexRoot miRoot = new GTReflectionDump.DumpMachineIndexRoot();
+        miRoot.generatedAt = root.generatedAt;
+        miRoot.minecraft = root.minecraft;
+        miRoot.mod = root.mod;
+        miRoot.machineIndex = new ArrayList();
+        if (req.machineIndex) {
+            List metaTiles = GTReflectionDump.dumpMachineIndexFromMetaTiles();
+            try {
+                List railcraft = GTReflectionDump.dumpMachineIndexFromRailcraftAlpha();
+                if (railcraft != null && railcraft.size() > 0) metaTiles.addAll(railcraft);
+            } catch (Throwable e) {
+                e.printStackTrace();
+            }
+            miRoot.machineIndex = GTReflectionDump.mergeMachineIndexWithRecipeMaps(
+                metaTiles,
+                GTReflectionDump.dumpMachineIndexFromRecipeMaps(root.recipeMaps));
+        }
+        result.machineIndexEntries = miRoot.machineIndex.size();
+
+        GTReflectionDump.DumpMachineIndexDebugRoot midRoot = new GTReflectionDump.DumpMachineIndexDebugRoot();
+        midRoot.generatedAt = root.generatedAt;
+        midRoot.minecraft = root.minecraft;
+        midRoot.mod = root.mod;
+        if (req.debug) {
+            try {
+                midRoot.machineIndexDebug = GTReflectionDump.dumpMachineIndexDebugFromMetaTiles(req.debugEveryTileInScope);
+            } catch (Throwable e) {
+                e.printStackTrace();
+                midRoot.machineIndexDebug = new ArrayList();
+            }
+            result.debugEntries = midRoot.machineIndexDebug.size();
+        }
+        long t2 = System.currentTimeMillis();
+        result.machineIndexMs = t2 - t;
+
+        // After the meta-tile scans, so the skip counts cover them too.
+        root.scope = GTReflectionDump.dumpScopeMetadata();
+        miRoot.scope = root.scope;
+        result.scope = root.scope;
+        // Likewise for units abandoned over their time budget: every file records all of them.
+        root.abandoned = GTReflectionDump.abandonedUnits();
+        miRoot.abandoned = root.abandoned;
+        midRoot.abandoned = root.abandoned;
+        result.abandoned = root.abandoned;
+        if (result.abandoned != null) {
+            System.out.println("[" + RecipeDumperMod.MODID + "] " + req.label + ": " + result.abandoned.size()
+                    + " unit(s) abandoned over their time budget; the outputs are partial");
+        }
+
+        if (req.recipes) {
+            File outFile = new File(dir, RECIPES_FILE);
+            File tmp = new File(outFile.getAbsolutePath() + ".tmp");
+            if (columnar) {
+                GTReflectionDump.writeRecipesJson(root, tmp);
+                GTReflectionDump.endRecipesJsonStage();
+            } else {
+                FileWriter fw = null;
+                try {
+                    fw = new FileWriter(tmp);
+                    fw.write(GSON.toJson(root));
+                } finally {
+                    if (fw != null) {
+                        try { fw.close(); } catch (Exception ignored) {}
+                    }
+                }
+            }
+            replace(tmp, outFile);
+        }
+        if (req.machineIndex) writeGson(new File(dir, MACHINE_INDEX_FILE), miRoot);
+        if (req.debug) writeGson(new File(dir, MACHINE_INDEX_DEBUG_FILE), midRoot);
+
+        if (req.recipes) result.derivedErrors = writeDerived(dir, root, miRoot);
+
+        if (recordSnapshot) {
+            try {
+                GTReflectionDump.endSnapshot();
+                replace(snapshotTmp, snapshotFile);
+                System.out.println("[" + RecipeDumperMod.MODID + "] wrote " + snapshotFile.getAbsolutePath()
+                        + " (" + (snapshotFile.length() / 1024) + " KB)");
+            } catch (IOException e) {
+                System.out.println("[" + RecipeDumperMod.MODID + "] registry snapshot not written: " + e);
+            }
+        }
+
+        result.resumedUnits = GTReflectionDump.resumedUnits();
+        // Every file is written: the journal has served its purpose unless a unit still has to be retried.
+        GTReflectionDump.endJournal(result.abandoned == null);
+
+        result.writeMs = System.currentTimeMillis() - t2;
+        result.totalMs = System.currentTimeMillis() - start;
+        writeGson(new File(dir, RUN_FILE), result);
+        System.out.println("[" + RecipeDumperMod.MODID + "] " + req.label + ": wrote " + dir.getAbsolutePath()
+                + " in " + result.totalMs + " ms");
+        return result;
+    }
+
+    /**
+     * Offline re-extraction: {@code <registry_snapshot.bin> <output dir>} writes the same files a
+     * live dump would, interpreted by this build's code from the snapshot instead of the game.
+     * Needs only this jar and Gson on the classpath; RECIPE_DUMP_* scope settings apply as usual.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: RecipeDumpRunner <" + RegistrySnapshot.FILE_NAME + "> <output dir>");
+            System.exit(2);
+        }
+        Map request = new LinkedHashMap();
+        request.put("label", "reextract");
+        request.put("snapshot", args[0]);
+        run(new File(args[1]), request);
+    }
+
+    /**
+     * Outputs built from the recipe store. One failing does not stop the rest; each failure is
+     * returned as "file: error" for run.json's derivedErrors, or null when all were written.
+     */
+    private static List writeDerived(File dir, final GTReflectionDump.DumpRoot root,
+                                     final GTReflectionDump.DumpMachineIndexRoot miRoot) {
+        Derived[] outputs = new Derived[] {
+            new Derived(MEMBERSHIP_FILE, false) {
+                void write(Writer w) throws Exception { GTReflectionDump.writeRecipeMembershipJson(root, w); }
+            },
+            new Derived(ORE_DICTIONARY_FILE, false) {
+                void write(Writer w) throws Exception { GTReflectionDump.writeOreDictionaryJson(root, w); }
+            },
+            new Derived(RecipeGraphIndex.FILE_NAME) {
+                void write(File tmp) throws Exception { GTReflectionDump.writeRecipeGraphIndex(root, tmp); }
+            },
+            new Derived(BinaryDump.FILE_NAME) {
+                void write(File tmp) throws Exception { GTReflectionDump.writeBinaryDump(root, tmp); }
+            },
+            new Derived(NameIndex.FILE_NAME) {
+                void write(File tmp) throws Exception { GTReflectionDump.writeNameIndex(root, miRoot.machineIndex, tmp); }
+            },
+            // Explicit UTF-8: non-English names must survive a container's ASCII default charset.
+            new Derived(LOCALIZED_NAMES_FILE, true) {
+                void write(Writer w) throws Exception { GTReflectionDump.writeLocalizedNamesJson(root, miRoot.machineIndex, w); }
+            },
+            new Derived(THROUGHPUT_FILE, false) {
+                void write(Writer w) throws Exception { GTReflectionDump.writeThroughputJson(root, miRoot.machineIndex, w); }
+            },
+        };
+        List errors = new ArrayList();
+        for (int i = 0; i < outputs.length; i++) {
+            File file = new File(dir, outputs[i].fileName);
+            File tmp = new File(file.getAbsolutePath() + ".tmp");
+            try {
+                outputs[i].write(tmp);
+                replace(tmp, file);
+                System.out.println("[" + RecipeDumperMod.MODID + "] wrote " + file.getAbsolutePath());
+            } catch (Throwable t) {
+                t.printStackTrace();
+                tmp.delete();
+                errors.add(outputs[i].fileName + ": " + t);
+            }
+        }
+        return errors.isEmpty() ? null : errors;
+    }
+
+    /** One derived output, written to a temporary file that replaces the old one once complete. */
+    private abstract static class Derived {
+        final String fileName;
+        private final boolean utf8; // text outputs: UTF-8 rather than the platform charset
+
+        /** An output that writes its own file. */
+        Derived(String fileName) {
+            this(fileName, false);
+        }
+
+        /** A text output. */
+        Derived(String fileName, boolean utf8) {
+            this.fileName = fileName;
+            this.utf8 = utf8;
+        }
+
+        void write(File tmp) throws Exception {
+            Writer w = null;
+            try {
+                w = utf8 ? new OutputStreamWriter(new FileOutputStream(tmp), "UTF-8") : new FileWriter(tmp);
+                write(w);
+            } finally {
+                if (w != null) {
+                    try { w.close(); } catch (Exception ignored) {}
+                }
+            }
+        }
+
+        void write(Writer w) throws Exception {
+            throw new UnsupportedOperationException(fileName);
+        }
+    }
+
+    private static void writeGson(File file, Object value) throws IOException {
+        File tmp = new File(file.getAbsolutePath() + ".tmp");
+        FileWriter fw = null;
+        try {
+            fw = new FileWriter(tmp);
+            fw.write(GSON.toJson(value));
+        } finally {
+            if (fw != null) {
+                try { fw.close(); } catch (Exception ignored) {}
+            }
+        }
+        replace(tmp, file);
+    }
+
+    private static void replace(File tmp, File file) {
+        if (file.exists()) file.delete();
+        tmp.renameTo(file);
+    }
+
+    /** Live heap after a full GC request; good enough to compare extraction modes run to run. */
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static long mb(long bytes) {
+        return bytes / (1024L * 1024L);
+    }
+}
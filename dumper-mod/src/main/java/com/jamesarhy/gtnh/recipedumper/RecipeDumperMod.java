@@ -1,20 +1,22 @@
 package com.jamesarhy.gtnh.recipedumper;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.jamesarhy.gtnh.recipedumper.gt.GTReflectionDump;
-
 import cpw.mods.fml.common.Mod;
 import cpw.mods.fml.common.event.FMLInitializationEvent;
 import cpw.mods.fml.common.event.FMLPreInitializationEvent;
 import cpw.mods.fml.common.event.FMLServerStartedEvent;
+import cpw.mods.fml.common.event.FMLServerStartingEvent;
 
 import net.minecraft.server.MinecraftServer;
 
 import java.io.File;
-import java.io.FileWriter;
-import java.util.Date;
-
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bootstrap: FML entry points, the startup dump and /recipedump. The extraction code itself
+ * (RecipeDumpRunner, gt/, io/) is only reached through ExtractionLoader, so it can be reloaded
+ * from a rebuilt jar without restarting the server.
+ */
 @Mod(
         modid = RecipeDumperMod.MODID,
         name = "Recipe Dumper",
@@ -24,22 +26,20 @@ import java.util.Date;
 public class RecipeDumperMod {
     public static final String MODID = "recipedumper";
 
-    private static final Gson GSON = new GsonBuilder()
-            .setPrettyPrinting()
-            .disableHtmlEscaping()
-            .create();
-
+    private File dir;
     private File outFile;
     private File machineIndexFile;
     private File machineIndexDebugFile;
+    private ExtractionLoader extraction;
 
     @Mod.EventHandler
     public void preInit(FMLPreInitializationEvent e) {
-        File dir = new File(e.getModConfigurationDirectory(), MODID);
+        dir = new File(e.getModConfigurationDirectory(), MODID);
         if (!dir.exists()) dir.mkdirs();
         outFile = new File(dir, "recipes.json");
         machineIndexFile = new File(dir, "machine_index.json");
         machineIndexDebugFile = new File(dir, "machine_index_debug.json");
+        extraction = new ExtractionLoader(reloadDir());
     }
 
     @Mod.EventHandler
@@ -47,6 +47,11 @@ public class RecipeDumperMod {
         // no-op (do not register on EventBus)
     }
 
+    @Mod.EventHandler
+    public void onServerStarting(FMLServerStartingEvent e) {
+        e.registerServerCommand(new RecipeDumpCommand(runsDir(), providerCacheDir(), extraction));
+    }
+
     @Mod.EventHandler
     public void onServerStarted(FMLServerStartedEvent e) {
         boolean hasRecipes = outFile.exists() && outFile.length() > 0;
@@ -59,84 +64,18 @@ public class RecipeDumperMod {
         }
 
         try {
-            GTReflectionDump.DumpRoot root = new GTReflectionDump.DumpRoot();
-            root.generatedAt = new Date().toString();
-            root.minecraft = "1.7.10";
-            root.mod = MODID;
-            root.recipeMaps = GTReflectionDump.dumpAllRecipeMapsWithProviders();
-
-            GTReflectionDump.DumpMachineIndexRoot miRoot = new GTReflectionDump.DumpMachineIndexRoot();
-            miRoot.generatedAt = root.generatedAt;
-            miRoot.minecraft = root.minecraft;
-            miRoot.mod = root.mod;
-            java.util.List metaTiles = GTReflectionDump.dumpMachineIndexFromMetaTiles();
-            try {
-                java.util.List railcraft = GTReflectionDump.dumpMachineIndexFromRailcraftAlpha();
-                if (railcraft != null && railcraft.size() > 0) metaTiles.addAll(railcraft);
-            } catch (Throwable t) {
-                t.printStackTrace();
-            }
-            miRoot.machineIndex = GTReflectionDump.mergeMachineIndexWithRecipeMaps(
-                metaTiles,
-                GTReflectionDump.dumpMachineIndexFromRecipeMaps(root.recipeMaps));
-
-            GTReflectionDump.DumpMachineIndexDebugRoot midRoot = new GTReflectionDump.DumpMachineIndexDebugRoot();
-            midRoot.generatedAt = root.generatedAt;
-            midRoot.minecraft = root.minecraft;
-            midRoot.mod = root.mod;
-            try {
-                midRoot.machineIndexDebug = GTReflectionDump.dumpMachineIndexDebugFromMetaTiles();
-            } catch (Throwable t) {
-                t.printStackTrace();
-                midRoot.machineIndexDebug = new java.util.ArrayList();
-            }
-
-            File tmp = new File(outFile.getAbsolutePath() + ".tmp");
-            File tmpMachine = new File(machineIndexFile.getAbsolutePath() + ".tmp");
-            File tmpMachineDebug = new File(machineIndexDebugFile.getAbsolutePath() + ".tmp");
-            FileWriter fw = null;
-            try {
-                fw = new FileWriter(tmp);
-                fw.write(GSON.toJson(root));
-            } finally {
-                if (fw != null) {
-                    try { fw.close(); } catch (Exception ignored) {}
-                }
-            }
-
-            if (outFile.exists()) outFile.delete();
-            tmp.renameTo(outFile);
-
-            fw = null;
-            try {
-                fw = new FileWriter(tmpMachine);
-                fw.write(GSON.toJson(miRoot));
-            } finally {
-                if (fw != null) {
-                    try { fw.close(); } catch (Exception ignored) {}
-                }
-            }
-
-            if (machineIndexFile.exists()) machineIndexFile.delete();
-            tmpMachine.renameTo(machineIndexFile);
-
-            fw = null;
-            try {
-                fw = new FileWriter(tmpMachineDebug);
-                fw.write(GSON.toJson(midRoot));
-            } finally {
-                if (fw != null) {
-                    try { fw.close(); } catch (Exception ignored) {}
-                }
+            Map req = new LinkedHashMap(); // defaults: full dump, RECIPE_DUMP_* from the environment
+            req.put("journalDir", journalDir().getPath());
+            req.put("providerCacheDir", providerCacheDir().getPath());
+            extraction.run(dir, req);
+
+            if (keepAlive()) {
+                System.out.println("[" + MODID + "] keep-alive: server stays up; use /recipedump for further dumps into "
+                        + runsDir().getAbsolutePath() + "; rebuilt jars in " + extraction.reloadDir().getAbsolutePath()
+                        + " are picked up by the next run");
+                return;
             }
 
-            if (machineIndexDebugFile.exists()) machineIndexDebugFile.delete();
-            tmpMachineDebug.renameTo(machineIndexDebugFile);
-
-            System.out.println("[" + MODID + "] wrote " + outFile.getAbsolutePath());
-            System.out.println("[" + MODID + "] wrote " + machineIndexFile.getAbsolutePath());
-            System.out.println("[" + MODID + "] wrote " + machineIndexDebugFile.getAbsolutePath());
-
             // Shut down server so CI/docker can finish.
             MinecraftServer srv = MinecraftServer.getServer();
             if (srv != null) {
@@ -147,4 +86,42 @@ public class RecipeDumperMod {
             t.printStackTrace();
         }
     }
+
+    private static boolean keepAlive() {
+        return "true".equalsIgnoreCase(System.getenv("RECIPE_DUMP_KEEP_ALIVE"));
+    }
+
+    /** Where /recipedump writes its numbered run directories (RECIPE_DUMP_RUNS_DIR or config/recipedumper/runs). */
+    private File runsDir() {
+        String env = System.getenv("RECIPE_DUMP_RUNS_DIR");
+        if (env != null && env.trim().length() > 0) return new File(env.trim());
+        return new File(dir, "runs");
+    }
+
+    /**
+     * The startup dump's checkpoint journal (RECIPE_DUMP_JOURNAL_DIR or config/recipedumper/journal).
+     * The docker runner unpacks a fresh server before every boot, so it points this at a volume.
+     */
+    private File journalDir() {
+        String env = System.getenv("RECIPE_DUMP_JOURNAL_DIR");
+        if (env != null && env.trim().length() > 0) return new File(env.trim());
+        return new File(dir, "journal");
+    }
+
+    /**
+     * The provider cache shared by the startup dump and every /recipedump run
+     * (RECIPE_DUMP_PROVIDER_CACHE_DIR or config/recipedumper/provider_cache).
+     */
+    private File providerCacheDir() {
+        String env = System.getenv("RECIPE_DUMP_PROVIDER_CACHE_DIR");
+        if (env != null && env.trim().length() > 0) return new File(env.trim());
+        return new File(dir, "provider_cache");
+    }
+
+    /** Watched for rebuilt jars (RECIPE_DUMP_RELOAD_DIR or config/recipedumper/reload). */
+    private File reloadDir() {
+        String env = System.getenv("RECIPE_DUMP_RELOAD_DIR");
+        if (env != null && env.trim().length() > 0) return new File(env.trim());
+        return new File(dir, "reload");
+    }
 }
@@ -0,0 +1,283 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawMap;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checkpoint journal of a dump (journal/ in the dump directory, or RECIPE_DUMP_JOURNAL_DIR), so a
+ * dump that dies part way (OOM, container kill) resumes on the next start instead of starting over.
+ * The directory has to outlive the server directory for that: the docker runner unpacks a fresh
+ * server before every boot.
+ *
+ * Each completed unit (one recipe map, one range of meta tiles in either meta-tile scan) is
+ * written as its own segment in the registry snapshot format (see RegistrySnapshot), then one
+ * line naming it is appended to journal.log; a provider whose maps all completed gets a line of
+ * its own. A resumed dump loads completed units from their segments instead of reading the game,
+ * interprets them exactly as a live capture, and writes the final files as usual. The journal
+ * is deleted once a dump completes with nothing abandoned.
+ *
+ * The first line holds a fingerprint of the mod list, the extraction jar and the dump settings;
+ * a journal with another fingerprint is discarded. A segment is renamed into place before its
+ * line is appended, so a unit interrupted half way is simply captured again; a line cut short
+ * by the crash is ignored.
+ */
+final class DumpJournal {
+
+    static final String DIR_NAME = "journal";
+    private static final String LOG_FILE = "journal.log";
+    private static final String HEADER = "recipedumper-journal";
+    private static final int VERSION = 1;
+
+    static final String MACHINE_INDEX_SCAN = "machineIndex";
+    static final String DEBUG_SCAN = "debug";
+    /** Meta-tile ids per journal unit in the meta-tile scans. */
+    static final int META_TILE_RANGE = 1000;
+
+    private final File dir;
+    private final Set doneProviders = new HashSet();
+    private final Map mapSegments = new HashMap();       // provider + "\t" + declaringField -> segment name
+    private final Map providerMaps = new HashMap();      // provider -> List of segment names, in capture order
+    private final Map metaTileSegments = new HashMap();  // scan + "\t" + lo + "\t" + hi -> segment name
+    private int segments;     // segment files named so far (numbers are not reused)
+    private int resumedUnits; // units completed by earlier runs
+    private OutputStream log;
+    private boolean failed;   // a write failed: stop journaling, the dump itself carries on
+
+    private DumpJournal(File dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * The journal in {@code dir}: resumed when its fingerprint matches, otherwise (or when it
+     * cannot be read) started afresh.
+     */
+    static DumpJournal open(File dir, String fingerprint) throws IOException {
+        DumpJournal j = new DumpJournal(dir);
+        File logFile = new File(dir, LOG_FILE);
+        boolean resumed = logFile.isFile() && j.load(logFile, fingerprint);
+        if (!resumed) {
+            clear(dir);
+            dir.mkdirs();
+        }
+        j.log = new FileOutputStream(logFile, resumed);
+        if (!resumed) j.append(HEADER + "\t" + VERSION + "\t" + fingerprint);
+        if (j.resumedUnits > 0) {
+            System.out.println("[recipedumper] Resuming from " + dir.getAbsolutePath() + ": " + j.resumedUnits
+                    + " completed unit(s) (" + j.doneProviders.size() + " provider(s), " + j.mapSegments.size()
+                    + " map(s), " + j.metaTileSegments.size() + " meta-tile range(s))");
+        }
+        return j;
+    }
+
+    /** Reads a journal written for {@code fingerprint}; false (nothing kept) for any other. */
+    private boolean load(File logFile, String fingerprint) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(logFile), "UTF-8"));
+        try {
+            String header = in.readLine();
+            if (header == null || !header.equals(HEADER + "\t" + VERSION + "\t" + fingerprint)) {
+                System.out.println("[recipedumper] Journal in " + dir.getAbsolutePath()
+                        + " is from another pack, jar or dump settings; starting over");
+                return false;
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] f = line.split("\t", -1);
+                if ("provider".equals(f[0]) && f.length == 2) {
+                    doneProviders.add(f[1]);
+                } else if ("map".equals(f[0]) && f.length == 4 && segmentExists(f[3])) {
+                    mapSegments.put(f[1] + "\t" + f[2], f[3]);
+                    providerList(f[1]).add(f[3]);
+                } else if ("metaTiles".equals(f[0]) && f.length == 5 && segmentExists(f[4])) {
+                    metaTileSegments.put(f[1] + "\t" + f[2] + "\t" + f[3], f[4]);
+                } else {
+                    continue; // cut short by the crash
+                }
+                resumedUnits++;
+            }
+        } finally {
+            in.close();
+        }
+        String[] names = dir.list();
+        for (int i = 0; names != null && i < names.length; i++) {
+            if (!names[i].endsWith(".seg")) continue;
+            try {
+                segments = Math.max(segments, Integer.parseInt(names[i].substring(0, names[i].length() - 4)));
+            } catch (NumberFormatException ignored) {}
+        }
+        return true;
+    }
+
+    private boolean segmentExists(String name) {
+        return new File(dir, name).isFile();
+    }
+
+    private List providerList(String provider) {
+        List l = (List) providerMaps.get(provider);
+        if (l == null) {
+            l = new ArrayList();
+            providerMaps.put(provider, l);
+        }
+        return l;
+    }
+
+    /* ---------- Completed units ---------- */
+
+    int resumedUnits() {
+        return resumedUnits;
+    }
+
+    boolean providerDone(String provider) {
+        return doneProviders.contains(provider);
+    }
+
+    /** Maps journaled for {@code provider}; read them one at a time with {@link #providerMap}. */
+    int providerMapCount(String provider) {
+        List names = (List) providerMaps.get(provider);
+        return (names == null) ? 0 : names.size();
+    }
+
+    /** The {@code i}th map journaled for {@code provider}, in capture order. */
+    RawMap providerMap(String provider, int i) throws IOException {
+        List maps = readSegment((String) ((List) providerMaps.get(provider)).get(i)).maps;
+        return maps.isEmpty() ? null : (RawMap) maps.get(0);
+    }
+
+    /**
+     * The journaled capture of one map, or null when it has not completed yet (or its segment
+     * cannot be read, and it is captured again).
+     */
+    RawMap map(String provider, String declaringField) {
+        String name = (String) mapSegments.get(provider + "\t" + declaringField);
+        RegistrySnapshot seg = (name == null) ? null : readSegmentOrNull(name);
+        return (seg == null || seg.maps.isEmpty()) ? null : (RawMap) seg.maps.get(0);
+    }
+
+    /** The journaled RawMetaTiles of ids lo..hi in {@code scan}, or null when the range has not completed. */
+    List metaTiles(String scan, int lo, int hi) {
+        String name = (String) metaTileSegments.get(scan + "\t" + lo + "\t" + hi);
+        RegistrySnapshot seg = (name == null) ? null : readSegmentOrNull(name);
+        return (seg == null) ? null : seg.metaTiles;
+    }
+
+    private RegistrySnapshot readSegmentOrNull(String name) {
+        try {
+            return readSegment(name);
+        } catch (IOException e) {
+            System.out.println("[recipedumper] Journal segment " + name + " unreadable, capturing it again: " + e);
+            return null;
+        }
+    }
+
+    private RegistrySnapshot readSegment(String name) throws IOException {
+        return RegistrySnapshot.read(new File(dir, name));
+    }
+
+    /* ---------- Recording ---------- */
+
+    void mapDone(RawMap raw, List keys, List recipes) {
+        if (failed) return;
+        RegistrySnapshot.Writer w = null;
+        try {
+            String name = nextSegment();
+            w = newSegment(name);
+            w.map(raw, keys, recipes);
+            finishSegment(w, name);
+            w = null;
+            append("map\t" + raw.provider + "\t" + raw.declaringField + "\t" + name);
+        } catch (IOException e) {
+            fail(w, e);
+        }
+    }
+
+    void metaTilesDone(String scan, int lo, int hi, List tiles) {
+        if (failed) return;
+        RegistrySnapshot.Writer w = null;
+        try {
+            String name = nextSegment();
+            w = newSegment(name);
+            for (int i = 0; i < tiles.size(); i++) w.metaTile((RegistrySnapshot.RawMetaTile) tiles.get(i));
+            finishSegment(w, name);
+            w = null;
+            append("metaTiles\t" + scan + "\t" + lo + "\t" + hi + "\t" + name);
+        } catch (IOException e) {
+            fail(w, e);
+        }
+    }
+
+    void markProviderDone(String provider) {
+        if (failed) return;
+        try {
+            append("provider\t" + provider);
+        } catch (IOException e) {
+            fail(null, e);
+        }
+    }
+
+    private String nextSegment() {
+        String n = String.valueOf(++segments);
+        while (n.length() < 5) n = "0" + n;
+        return n + ".seg";
+    }
+
+    private RegistrySnapshot.Writer newSegment(String name) throws IOException {
+        return new RegistrySnapshot.Writer(new File(dir, name + ".tmp"), null, null, null);
+    }
+
+    private void finishSegment(RegistrySnapshot.Writer w, String name) throws IOException {
+        w.finish();
+        File seg = new File(dir, name);
+        if (!new File(dir, name + ".tmp").renameTo(seg)) throw new IOException("cannot rename segment " + seg);
+    }
+
+    private void append(String line) throws IOException {
+        log.write((line + "\n").getBytes("UTF-8"));
+        log.flush();
+    }
+
+    private void fail(RegistrySnapshot.Writer w, IOException e) {
+        if (w != null) w.abort();
+        failed = true;
+        System.out.println("[recipedumper] Journal write failed, continuing without it: " + e);
+    }
+
+    /* ---------- End of the dump ---------- */
+
+    /** Closes the log; the journal stays for the next run to resume from. */
+    void close() {
+        if (log == null) return;
+        try {
+            log.close();
+        } catch (IOException ignored) {
+        }
+        log = null;
+    }
+
+    /** Closes and removes the journal once the dump it covers is complete. */
+    void delete() {
+        close();
+        clear(dir);
+        dir.delete(); // only when nothing else lives there
+    }
+
+    /** Deletes the journal's own files; the directory may be a configured one shared with others. */
+    private static void clear(File dir) {
+        File[] files = dir.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            String name = files[i].getName();
+            if (name.equals(LOG_FILE) || name.endsWith(".seg") || name.endsWith(".seg.tmp")) files[i].delete();
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * What part of the game a dump covers, from the RECIPE_DUMP_* scope variables.
+ *
+ * Provider, machine and meta-tile filters are checked before a provider, map or meta tile is
+ * reflected on. Sampling keeps a deterministic subset of each map's recipes: every rid gets a
+ * seeded 64-bit hash, and a map keeps the rids whose hash falls under the fraction (or the N
+ * smallest hashes), so the same seed selects the same recipes run to run.
+ */
+final class DumpScope {
+
+    private final List includeProviders; // lower-case names; empty = all
+    private final List excludeProviders;
+    private final List includeMachines;  // Pattern over machineId / declaringField; empty = all
+    private final List excludeMachines;
+    private final int[] metaTileRanges;  // inclusive [lo, hi] pairs; empty = all
+    private final int sampleCount;       // recipes per map; 0 = off
+    private final double sampleFraction; // 0 < f < 1; 0 = off
+    private final long sampleSeed;
+    private final Map config = new LinkedHashMap(); // env settings as given, for the metadata
+
+    private int skippedProviders;
+    private int skippedMaps;
+    private final BitSet skippedMetaTiles = new BitSet(); // ids; both meta-tile scans consult the scope
+    private long sampledOut;
+
+    private DumpScope(Map env) {
+        includeProviders = lowerList(setting(env, "RECIPE_DUMP_PROVIDERS"));
+        excludeProviders = lowerList(setting(env, "RECIPE_DUMP_EXCLUDE_PROVIDERS"));
+        includeMachines = patterns(setting(env, "RECIPE_DUMP_MACHINES"));
+        excludeMachines = patterns(setting(env, "RECIPE_DUMP_EXCLUDE_MACHINES"));
+        metaTileRanges = ranges(setting(env, "RECIPE_DUMP_META_TILES"));
+
+        String sample = setting(env, "RECIPE_DUMP_SAMPLE");
+        int count = 0;
+        double fraction = 0;
+        if (sample != null) {
+            if (sample.endsWith("%")) {
+                fraction = Double.parseDouble(sample.substring(0, sample.length() - 1).trim()) / 100.0;
+            } else if (sample.indexOf('.') >= 0) {
+                fraction = Double.parseDouble(sample);
+            } else {
+                count = Integer.parseInt(sample);
+            }
+            if (fraction >= 1) fraction = 0;
+            if (fraction < 0 || count < 0) throw new IllegalArgumentException("RECIPE_DUMP_SAMPLE must be positive: " + sample);
+        }
+        sampleCount = count;
+        sampleFraction = fraction;
+        String seed = setting(env, "RECIPE_DUMP_SAMPLE_SEED");
+        sampleSeed = (seed == null) ? 0L : Long.parseLong(seed);
+    }
+
+    static DumpScope fromEnvironment() {
+        return new DumpScope(System.getenv());
+    }
+
+    /** Same variable names as the environment, from a /recipedump invocation. */
+    static DumpScope fromSettings(Map settings) {
+        return new DumpScope(settings);
+    }
+
+    /** True when nothing is filtered or sampled (the metadata then omits the scope). */
+    boolean isFull() {
+        return includeProviders.isEmpty() && excludeProviders.isEmpty()
+                && includeMachines.isEmpty() && excludeMachines.isEmpty()
+                && metaTileRanges.length == 0 && !isSampling();
+    }
+
+    boolean isSampling() {
+        return sampleCount > 0 || sampleFraction > 0;
+    }
+
+    boolean includeProvider(String name) {
+        String n = (name == null) ? "" : name.toLowerCase();
+        boolean in = (includeProviders.isEmpty() || includeProviders.contains(n)) && !excludeProviders.contains(n);
+        if (!in) skippedProviders++;
+        return in;
+    }
+
+    /** Include patterns must match machineId or declaringField; exclude patterns must match neither. */
+    boolean includeMap(String machineId, String declaringField) {
+        boolean in = (includeMachines.isEmpty() || matchesAny(includeMachines, machineId, declaringField))
+                && !matchesAny(excludeMachines, machineId, declaringField);
+        if (!in) skippedMaps++;
+        return in;
+    }
+
+    boolean filtersMachines() {
+        return !includeMachines.isEmpty() || !excludeMachines.isEmpty();
+    }
+
+    /** Machine filters for meta tile {@code id} once its machineId is known (null when it has no recipe map). */
+    boolean includeMetaTileMachine(int id, String machineId) {
+        if (includeMachines.isEmpty() && excludeMachines.isEmpty()) return true;
+        boolean in = (includeMachines.isEmpty() || matchesAny(includeMachines, machineId, null))
+                && !matchesAny(excludeMachines, machineId, null);
+        if (!in) skippedMetaTiles.set(id);
+        return in;
+    }
+
+    boolean includeMetaTile(int id) {
+        if (metaTileRanges.length == 0) return true;
+        for (int i = 0; i < metaTileRanges.length; i += 2) {
+            if (id >= metaTileRanges[i] && id <= metaTileRanges[i + 1]) return true;
+        }
+        skippedMetaTiles.set(id);
+        return false;
+    }
+
+    /** Machine index entries that are not GT meta tiles (Railcraft): out whenever meta-tile ids are filtered. */
+    boolean includeOtherMachine(String machineId) {
+        if (metaTileRanges.length > 0) return false;
+        return (includeMachines.isEmpty() || matchesAny(includeMachines, machineId, null))
+                && !matchesAny(excludeMachines, machineId, null);
+    }
+
+    /** The sampled subset of {@code recipes} (List of DumpRecipe), in the original order. */
+    List sample(List recipes) {
+        if (!isSampling() || recipes == null) return recipes;
+        int n = recipes.size();
+        final long[] hash = new long[n];
+        for (int i = 0; i < n; i++) {
+            GTReflectionDump.DumpRecipe r = (GTReflectionDump.DumpRecipe) recipes.get(i);
+            hash[i] = (r == null) ? -1L : ridHash(r.rid); // nulls rank last
+        }
+        boolean[] keep = new boolean[n];
+        if (sampleFraction > 0) {
+            for (int i = 0; i < n; i++) keep[i] = unit(hash[i]) < sampleFraction;
+        } else if (n <= sampleCount) {
+            Arrays.fill(keep, true);
+        } else {
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = new Integer(i);
+            Arrays.sort(order, new Comparator() {
+                public int compare(Object a, Object b) {
+                    long ha = hash[((Integer) a).intValue()];
+                    long hb = hash[((Integer) b).intValue()];
+                    // Unsigned, so the ranking agrees with the fraction mode's unit interval.
+                    if (ha != hb) return (ha + Long.MIN_VALUE < hb + Long.MIN_VALUE) ? -1 : 1;
+                    return ((Integer) a).compareTo((Integer) b);
+                }
+            });
+            for (int i = 0; i < sampleCount; i++) keep[order[i].intValue()] = true;
+        }
+        List out = new ArrayList();
+        for (int i = 0; i < n; i++) {
+            if (keep[i] && recipes.get(i) != null) out.add(recipes.get(i));
+        }
+        sampledOut += n - out.size();
+        return out;
+    }
+
+    /** The RECIPE_DUMP_* settings as given (no counts), e.g. for the journal fingerprint. */
+    Map settings() {
+        return new LinkedHashMap(config);
+    }
+
+    /** Settings plus what they skipped; null for a full dump. */
+    Map describe() {
+        if (isFull()) return null;
+        Map out = new LinkedHashMap(config);
+        out.put("skippedProviders", new Integer(skippedProviders));
+        out.put("skippedMaps", new Integer(skippedMaps));
+        out.put("skippedMetaTiles", new Integer(skippedMetaTiles.cardinality()));
+        if (isSampling()) out.put("sampledOutRecipes", new Long(sampledOut));
+        return out;
+    }
+
+    /* ---------- Parsing ---------- */
+
+    private String setting(Map env, String name) {
+        Object v = env.get(name);
+        if (!(v instanceof String) || ((String) v).trim().length() == 0) return null;
+        String s = ((String) v).trim();
+        config.put(name, s);
+        return s;
+    }
+
+    private static List split(String s) {
+        List out = new ArrayList();
+        if (s == null) return out;
+        String[] parts = s.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            String p = parts[i].trim();
+            if (p.length() > 0) out.add(p);
+        }
+        return out;
+    }
+
+    private static List lowerList(String s) {
+        List parts = split(s);
+        for (int i = 0; i < parts.size(); i++) parts.set(i, ((String) parts.get(i)).toLowerCase());
+        return parts;
+    }
+
+    /** Comma-separated globs ({@code *}, {@code ?}; case-insensitive) or {@code re:<regex>}. */
+    private static List patterns(String s) {
+        List parts = split(s);
+        List out = new ArrayList();
+        for (int i = 0; i < parts.size(); i++) {
+            String p = (String) parts.get(i);
+            if (p.startsWith("re:")) {
+                out.add(Pattern.compile(p.substring(3)));
+                continue;
+            }
+            StringBuilder re = new StringBuilder();
+            for (int c = 0; c < p.length(); c++) {
+                char ch = p.charAt(c);
+                if (ch == '*') re.append(".*");
+                else if (ch == '?') re.append('.');
+                else re.append(Pattern.quote(String.valueOf(ch)));
+            }
+            out.add(Pattern.compile(re.toString(), Pattern.CASE_INSENSITIVE));
+        }
+        return out;
+    }
+
+    /** "lo-hi" or single ids, comma separated. */
+    private static int[] ranges(String s) {
+        List parts = split(s);
+        int[] out = new int[parts.size() * 2];
+        for (int i = 0; i < parts.size(); i++) {
+            String p = (String) parts.get(i);
+            int dash = p.indexOf('-', 1);
+            out[i * 2] = Integer.parseInt((dash < 0 ? p : p.substring(0, dash)).trim());
+            out[i * 2 + 1] = Integer.parseInt((dash < 0 ? p : p.substring(dash + 1)).trim());
+        }
+        return out;
+    }
+
+    private static boolean matchesAny(List patterns, String machineId, String declaringField) {
+        for (int i = 0; i < patterns.size(); i++) {
+            Pattern p = (Pattern) patterns.get(i);
+            if (machineId != null && p.matcher(machineId).matches()) return true;
+            if (declaringField != null && p.matcher(declaringField).matches()) return true;
+        }
+        return false;
+    }
+
+    /* ---------- Sampling hash ---------- */
+
+    private long ridHash(String rid) {
+        long h = 0xcbf29ce484222325L ^ sampleSeed;
+        if (rid != null) {
+            for (int i = 0; i < rid.length(); i++) {
+                h ^= rid.charAt(i);
+                h *= 0x100000001b3L;
+            }
+        }
+        // splitmix64 finalizer: FNV alone clusters on rids that differ only in their last chars.
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        h ^= h >>> 31;
+        return h;
+    }
+
+    /** Hash as a value in [0, 1). */
+    private static double unit(long h) {
+        return (h >>> 11) * 0x1.0p-53;
+    }
+}
@@ -1,5 +1,25 @@
 package com.jamesarhy.gtnh.recipedumper.gt;
 
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.OreTable;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawFluid;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawMap;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawMetaTile;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawObject;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawOtherMachine;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawRecipe;
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawStack;
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDumpWriter;
+import com.jamesarhy.gtnh.recipedumper.io.NameIndex;
+import com.jamesarhy.gtnh.recipedumper.io.NameIndexWriter;
+import com.jamesarhy.gtnh.recipedumper.io.RecipeGraphIndex;
+import com.jamesarhy.gtnh.recipedumper.io.RecipeGraphIndexWriter;
+import com.jamesarhy.gtnh.recipedumper.io.RecipeStore;
+import com.jamesarhy.gtnh.recipedumper.io.ThroughputTable;
+import com.jamesarhy.gtnh.recipedumper.io.VoltageTiers;
+
+import com.google.gson.stream.JsonWriter;
+
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Item;
 import net.minecraft.block.Block;
@@ -14,8 +34,12 @@ import net.minecraftforge.oredict.ShapedOreRecipe;
 import net.minecraftforge.oredict.ShapelessOreRecipe;
 import net.minecraftforge.fluids.FluidStack;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.*;
 import java.util.*;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,21 +62,432 @@ public final class GTReflectionDump {
             "(?i)(?:cap|max(?:imum)?|limit)\\s*(?:at|to|=)?\\s*([+-]?\\d+(?:\\.\\d+)?)\\s*%"
     );
 
-    private interface RecipeProvider {
-        List dumpRecipeMaps();
+    // Bonus members of recipe maps and of meta tiles (or their controllers): methods, then fields.
+    private static final String[] PARALLEL_BONUS_NAMES = new String[] {
+            "getParallelBonus", "getParallelMultiplier", "parallelBonus", "mParallelBonus",
+            "parallelMultiplier", "mParallelMultiplier", "mParallelProcessing", "parallelProcessing"
+    };
+    private static final String[] MAX_PARALLEL_NAMES = new String[] {
+            "getMaxParallel", "getParallelLimit", "maxParallel", "mMaxParallel",
+            "parallelLimit", "mParallelLimit", "getMaxParallelRecipes", "maxParallelRecipes"
+    };
+    private static final String[] COIL_BONUS_NAMES = new String[] {
+            "getCoilBonus", "coilBonus", "mCoilBonus", "coilSpeedBonus", "mCoilSpeedBonus",
+            "coilLevel", "mCoilLevel", "getCoilLevel"
+    };
+    private static final String[] SPEED_BONUS_NAMES = new String[] {
+            "getSpeedBonus", "speedBonus", "mSpeedBonus", "speedMultiplier", "mSpeedMultiplier"
+    };
+    private static final String[] EFFICIENCY_BONUS_NAMES = new String[] {
+            "getEfficiencyBonus", "efficiencyBonus", "mEfficiencyBonus", "getEfficiency",
+            "efficiency", "mEfficiency", "getEUtDiscount", "eutDiscount", "mEUtDiscount"
+    };
+    // Processing logic and its overclock calculator.
+    private static final String[] LOGIC_SPEED_NAMES = new String[] {
+            "getSpeedBonus", "getSpeedModifier", "getSpeedMultiplier",
+            "speedBonus", "mSpeedBonus", "speedModifier", "mSpeedModifier",
+            "speedMultiplier", "mSpeedMultiplier", "mSpeed"
+    };
+    private static final String[] LOGIC_EU_MODIFIER_NAMES = new String[] {
+            "getEuModifier", "getEUtModifier", "euModifier", "mEuModifier", "mEUtModifier", "eutModifier"
+    };
+    private static final String[] MAX_PARALLEL_SUPPLIER_NAMES = new String[] {
+            "getMaxParallelSupplier", "maxParallelSupplier", "mMaxParallelSupplier", "getMaxParallel"
+    };
+    private static final String[] DURATION_MODIFIER_NAMES = new String[] {
+            "getDurationModifier", "durationModifier", "mDurationModifier",
+            "getDurationMultiplier", "durationMultiplier", "mDurationMultiplier",
+            "getTimeModifier", "timeModifier", "mTimeModifier"
+    };
+    private static final String[] CALCULATOR_EU_NAMES = new String[] {
+            "getEUtDiscount", "getEuDiscount", "getEUtModifier", "getEuModifier",
+            "eutDiscount", "euDiscount", "mEUtDiscount", "mEuDiscount",
+            "euModifier", "mEuModifier", "eutModifier", "mEUtModifier"
+    };
+    // Multiblock tooltip builders.
+    private static final String[] TOOLTIP_PARALLEL_NAMES = new String[] {
+            "getParallel", "getParallelBonus", "getParallels", "getParallelism"
+    };
+    private static final String[] TOOLTIP_SPEED_NAMES = new String[] {
+            "getSpeedBonus", "getSpeedMultiplier", "getSpeedModifier", "getSpeed"
+    };
+    private static final String[] TOOLTIP_EFFICIENCY_NAMES = new String[] {
+            "getEuModifier", "getEUtModifier", "getEnergyModifier", "getEfficiencyBonus", "getEfficiency"
+    };
+    // The public no-arg methods captured per role, so the reads above also work from a snapshot.
+    private static final String[][] BONUS_SOURCE_METHODS = new String[][] {
+            PARALLEL_BONUS_NAMES, MAX_PARALLEL_NAMES, COIL_BONUS_NAMES, SPEED_BONUS_NAMES, EFFICIENCY_BONUS_NAMES
+    };
+    private static final String[][] LOGIC_METHODS = new String[][] {
+            LOGIC_SPEED_NAMES, LOGIC_EU_MODIFIER_NAMES, DURATION_MODIFIER_NAMES
+    };
+    private static final String[][] CALCULATOR_METHODS = new String[][] {
+            DURATION_MODIFIER_NAMES, CALCULATOR_EU_NAMES
+    };
+    private static final String[][] TOOLTIP_METHODS = new String[][] {
+            TOOLTIP_PARALLEL_NAMES, TOOLTIP_SPEED_NAMES, TOOLTIP_EFFICIENCY_NAMES
+    };
+
+    // Set for the duration of dumpAllRecipeMapsWithProviders; providers hand each finished map to storeMap.
+    private static RecipeStore activeStore;
+    private static boolean retainRecipeObjects = true;
+
+    // Encodes recipes.json's maps as they are stored (columnar mode), or null; see RecipeJsonStage.
+    private static RecipeJsonStage jsonStage;
+
+    /**
+     * Serializes each map of the following dump for recipes.json as it is stored, staging the
+     * text in {@code stagingFile}; {@link #writeRecipesJson(DumpRoot, File)} then assembles it.
+     */
+    public static void beginRecipesJsonStage(File stagingFile) {
+        endRecipesJsonStage();
+        jsonStage = RecipeJsonStage.open(stagingFile);
+    }
+
+    /** Stops the stage and deletes its staging file. */
+    public static void endRecipesJsonStage() {
+        if (jsonStage != null) jsonStage.close();
+        jsonStage = null;
+    }
+
+    // Ore dictionary snapshot for the current dump; built on first use, rebuilt at each dump start.
+    private static OreDictIndex oreIndex;
+
+    // Translation cache for the current dump; reset with the ore index.
+    private static Localization localization;
+
+    private static Localization localization() {
+        if (localization == null) localization = Localization.fromEnvironment();
+        return localization;
+    }
+
+    // Snapshot the dumps and meta-tile scans interpret instead of the live game, or null.
+    private static RegistrySnapshot source;
+
+    // Raw snapshot recorded while this dump reads the live game (RECIPE_DUMP_SNAPSHOT), or null.
+    private static RegistrySnapshot.Writer snapshot;
+
+    // ore_dictionary.json's content: captured from the ore index on first use, or the snapshot's.
+    private static OreTable oreTable;
+
+    /** Ore index, ore table and translations start afresh, from the live game or from the snapshot. */
+    private static void resetDumpCaches() {
+        oreIndex = null;
+        oreTable = (source == null) ? null : source.oreTable;
+        localization = (source == null) ? null : Localization.recorded(source.languages, source.translations);
+    }
+
+    /**
+     * Interpret {@code snap} instead of the live game in the following dumps and meta-tile scans
+     * (offline re-extraction); null goes back to the live game.
+     */
+    public static void useSnapshot(RegistrySnapshot snap) {
+        source = snap;
+        resetDumpCaches();
+    }
+
+    /** Records what the following live dump reads into {@code file}; see RegistrySnapshot. */
+    public static void beginSnapshot(File file, String generatedAt, String minecraft, String mod) throws IOException {
+        abortSnapshot();
+        snapshot = new RegistrySnapshot.Writer(file, generatedAt, minecraft, mod);
+    }
+
+    /** Adds the ore dictionary and the translations the dump looked up, and completes the snapshot. */
+    public static void endSnapshot() throws IOException {
+        RegistrySnapshot.Writer w = snapshot;
+        if (w == null) return;
+        w.oreTable(oreTable());
+        Localization loc = localization();
+        Map names = loc.recordedNames();
+        for (int i = 0; i < loc.languages().size(); i++) {
+            String lang = (String) loc.languages().get(i);
+            w.translations(lang, (Map) names.get(lang));
+        }
+        w.finish();
+        snapshot = null;
+    }
+
+    /** Drops an unfinished snapshot (the dump failed before endSnapshot) and its file. */
+    public static void abortSnapshot() {
+        if (snapshot == null) return;
+        snapshot.abort();
+        snapshot = null;
+    }
+
+    // Dump scope (filters and sampling); reset at each dump start, also read by the meta-tile scans.
+    // scopeSettings null means the RECIPE_DUMP_* process environment.
+    private static Map scopeSettings;
+    private static DumpScope scope;
+
+    private static DumpScope scope() {
+        if (scope == null) scope = newScope();
+        return scope;
+    }
+
+    private static DumpScope newScope() {
+        return (scopeSettings == null) ? DumpScope.fromEnvironment() : DumpScope.fromSettings(scopeSettings);
+    }
+
+    /**
+     * Scope for the following dumps and meta-tile scans, as RECIPE_DUMP_* name -> value settings
+     * (an empty map is a full dump); null goes back to the process environment.
+     */
+    public static void setDumpScope(Map settings) {
+        scopeSettings = settings;
+        scope = newScope();
+    }
+
+    /** Active scope settings and what they skipped, for the output metadata; null for a full dump. */
+    public static Map dumpScopeMetadata() {
+        return scope().describe();
+    }
+
+    // Time budgets of the current dump's providers, maps and meta tiles; see Watchdog.
+    private static Watchdog watchdog;
+
+    private static Watchdog watchdog() {
+        if (watchdog == null) watchdog = newWatchdog();
+        return watchdog;
+    }
+
+    private static Watchdog newWatchdog() {
+        return (source == null) ? Watchdog.fromEnvironment() : Watchdog.unlimited();
+    }
+
+    /** Fresh budgets (RECIPE_DUMP_*_BUDGET_SEC) for the following dump and meta-tile scans. */
+    public static void startWatchdog() {
+        stopWatchdog();
+        watchdog = newWatchdog();
+    }
+
+    /** Units abandoned so far (kind, provider, unit, reason, budgetMs, elapsedMs), for the metadata; null when none. */
+    public static List abandonedUnits() {
+        return watchdog().describe();
+    }
+
+    public static void stopWatchdog() {
+        if (watchdog != null) watchdog.close();
+        watchdog = null;
+    }
+
+    // Checkpoint journal of the current live dump, or null; see DumpJournal.
+    private static DumpJournal journal;
+
+    /** The journal's directory under a dump directory, when no other is configured. */
+    public static final String JOURNAL_DIR_NAME = DumpJournal.DIR_NAME;
+
+    /**
+     * Journals the following live dump in {@code dir}, resuming from the units an earlier run
+     * completed there with the same mods, extraction jar, scope and {@code settings}.
+     */
+    public static void beginJournal(File dir, String settings) throws IOException {
+        endJournal(false);
+        if (source != null) return; // offline re-extraction reads nothing from the game
+        journal = DumpJournal.open(dir, journalFingerprint(settings));
+    }
+
+    /** Units the current dump took from the journal of an earlier run (0 without a journal). */
+    public static int resumedUnits() {
+        return (journal == null) ? 0 : journal.resumedUnits();
+    }
+
+    /** Closes the journal; {@code complete} (the dump finished, nothing abandoned) also deletes it. */
+    public static void endJournal(boolean complete) {
+        if (journal == null) return;
+        if (complete) {
+            journal.delete();
+        } else {
+            journal.close();
+        }
+        journal = null;
+    }
+
+    // Per-provider cache of captured maps, or null; see ProviderCache.
+    private static ProviderCache providerCache;
+    // The running provider's cache entry while its live dump records into it, or null.
+    private static ProviderCache.Entry cacheEntry;
+    private static List cachedProviders = new ArrayList();
+
+    /** The provider cache's directory under a dump directory, when no other is configured. */
+    public static final String PROVIDER_CACHE_DIR_NAME = ProviderCache.DIR_NAME;
+
+    /**
+     * Serves the following dumps' providers from the cache in {@code dir} when their mods and the
+     * extraction jar are unchanged, and caches the ones captured live; null turns it off.
+     */
+    public static void useProviderCache(File dir) {
+        providerCache = (dir == null) ? null : new ProviderCache(dir);
+    }
+
+    /** Names of the providers the last dump took from the provider cache. */
+    public static List cachedProviders() {
+        return new ArrayList(cachedProviders);
+    }
+
+    /** {@code provider}'s cache key, or null when it is not cached (no cache, or no FML mod list). */
+    private static String providerCacheKey(RecipeProvider provider) {
+        if (providerCache == null || source != null) return null;
+        String mods = RecipeProviders.cacheKeyMods(provider);
+        if (mods == null) return null;
+        return sha1Hex("provider=" + provider.name() + "\nmods=" + mods + "\njar=" + codeFingerprint());
     }
 
-    public static List<DumpRecipeMap> dumpAllRecipeMapsWithProviders() {
+    private static String journalFingerprint(String settings) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("mods=").append(modVersions()).append('\n');
+        sb.append("jar=").append(codeFingerprint()).append('\n');
+        sb.append("scope=").append(scope().settings()).append('\n');
+        // A snapshot needs the debug fields of every meta tile, so journaled tiles must have them too.
+        sb.append("snapshot=").append(snapshot != null).append('\n');
+        sb.append("settings=").append(settings);
+        return sha1Hex(sb.toString());
+    }
+
+    /** modid@version of every active FML mod in load order; empty outside the game. */
+    private static String modVersions() {
+        StringBuilder sb = new StringBuilder();
+        Map mods = RecipeProviders.modVersions();
+        if (mods == null) return "";
+        for (Iterator it = mods.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            sb.append(e.getKey()).append('@').append(e.getValue()).append(',');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * SHA-1 of the jar this code was loaded from; for a class directory (development runs), the
+     * path, size and time of every file under it.
+     */
+    private static String codeFingerprint() {
+        if (codeFingerprint == null) codeFingerprint = computeCodeFingerprint();
+        return codeFingerprint;
+    }
+
+    private static String codeFingerprint; // the jar does not change under a loaded class
+
+    private static String computeCodeFingerprint() {
+        try {
+            File f = new File(GTReflectionDump.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-1");
+            if (f.isFile()) {
+                java.io.InputStream in = new java.io.FileInputStream(f);
+                try {
+                    byte[] buf = new byte[1 << 16];
+                    int n;
+                    while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+                } finally {
+                    in.close();
+                }
+            } else {
+                digestTree(md, f, "");
+            }
+            byte[] b = md.digest();
+            StringBuilder out = new StringBuilder(b.length * 2);
+            for (int i = 0; i < b.length; i++) {
+                int v = b[i] & 0xff;
+                if (v < 16) out.append('0');
+                out.append(Integer.toHexString(v));
+            }
+            return out.toString();
+        } catch (Throwable t) {
+            return "unknown";
+        }
+    }
+
+    private static void digestTree(java.security.MessageDigest md, File dir, String prefix) throws IOException {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        Arrays.sort(files);
+        for (int i = 0; i < files.length; i++) {
+            String name = prefix + files[i].getName();
+            if (files[i].isDirectory()) {
+                digestTree(md, files[i], name + "/");
+            } else {
+                md.update((name + ":" + files[i].length() + ":" + files[i].lastModified() + "\n").getBytes("UTF-8"));
+            }
+        }
+    }
+
+    private static OreDictIndex oreIndex() {
+        if (oreIndex == null) {
+            long start = System.currentTimeMillis();
+            oreIndex = OreDictIndex.build();
+            System.out.println("[recipedumper] Ore dictionary index: " + oreIndex.oreCount() + " ores, "
+                    + oreIndex.entryCount() + " entries in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        return oreIndex;
+    }
+
+    private static OreTable oreTable() {
+        if (oreTable == null) oreTable = (source == null) ? captureOreTable(oreIndex()) : new OreTable(0);
+        return oreTable;
+    }
+
+    /**
+     * Dumps every provider's maps, appending each map's recipes to {@code store} as soon as the
+     * map is finished. With {@code retainObjects} false the per-recipe objects are dropped once
+     * stored (map.recipes becomes null), so peak heap is one map's worth of objects plus the store.
+     */
+    public static List<DumpRecipeMap> dumpAllRecipeMapsWithProviders(RecipeStore store, boolean retainObjects) {
         List out = new ArrayList();
-        List providers = getRecipeProviders();
-        for (int i = 0; i < providers.size(); i++) {
-            RecipeProvider provider = (RecipeProvider) providers.get(i);
-            try {
-                List maps = provider.dumpRecipeMaps();
-                if (maps != null && maps.size() > 0) out.addAll(maps);
-            } catch (Throwable t) {
-                System.out.println("[recipedumper] Provider failed: " + provider.getClass().getName() + ": " + t);
+        List providers = RecipeProviders.discover();
+        cachedProviders.clear();
+        activeStore = store;
+        retainRecipeObjects = retainObjects;
+        resetDumpCaches();
+        scope = newScope();
+        if (!scope.isFull()) System.out.println("[recipedumper] Scoped dump: " + scope.describe());
+        try {
+            if (source == null) oreIndex();
+            for (int i = 0; i < providers.size(); i++) {
+                RecipeProvider provider = (RecipeProvider) providers.get(i);
+                if (!scope.includeProvider(provider.name())) continue;
+                watchdog().beginProvider(provider.name());
+                int abandonedBefore = watchdog().abandonedCount();
+                try {
+                    List maps;
+                    if (source != null) {
+                        maps = recipeMapsFromSnapshot(provider.name());
+                    } else if (journal != null && journal.providerDone(provider.name())) {
+                        maps = recipeMapsFromJournal(provider.name());
+                    } else {
+                        // Only this mod's providers capture raw maps, which is what the cache holds.
+                        boolean builtIn = provider.getClass().getDeclaringClass() == GTReflectionDump.class;
+                        String key = builtIn ? providerCacheKey(provider) : null;
+                        List cached = (key == null) ? null : providerCache.read(provider.name(), key);
+                        if (cached != null) {
+                            maps = recipeMapsFromRaw(provider.name(), cached);
+                            cachedProviders.add(provider.name());
+                            System.out.println("[recipedumper] Provider " + provider.name() + ": " + maps.size()
+                                    + " map(s) from the provider cache");
+                        } else {
+                            // An entry holds every map, so only a full-scope dump writes one.
+                            if (key != null && scope.isFull()) cacheEntry = providerCache.begin(provider.name(), key);
+                            maps = provider.dumpRecipeMaps();
+                            if (!builtIn && maps != null) {
+                                for (int m = 0; m < maps.size(); m++) storeMap((DumpRecipeMap) maps.get(m));
+                            }
+                            boolean complete = watchdog().abandonedCount() == abandonedBefore;
+                            if (journal != null && complete) journal.markProviderDone(provider.name());
+                            if (cacheEntry != null && complete && cacheEntry.mapCount() == ((maps == null) ? 0 : maps.size())) {
+                                cacheEntry.commit();
+                                cacheEntry = null;
+                            }
+                        }
+                    }
+                    if (maps != null && maps.size() > 0) out.addAll(maps);
+                } catch (Throwable t) {
+                    System.out.println("[recipedumper] Provider failed: " + provider.getClass().getName() + ": " + t);
+                } finally {
+                    if (cacheEntry != null) cacheEntry.abort(); // incomplete: captured again next time
+                    cacheEntry = null;
+                    watchdog().endProvider();
+                }
             }
+        } finally {
+            activeStore = null;
+            retainRecipeObjects = true;
         }
 
         sortRecipeMaps(out);
@@ -61,7 +496,26 @@ public final class GTReflectionDump {
     }
 
     public static List<DumpRecipeMap> dumpAllRecipeMaps() {
+        return dumpGTRecipeMaps();
+    }
+
+    /** One GT map's capture: which recipe objects it lists, and each one's fields unless already extracted. */
+    private static final class CapturedGTMap {
+        RawMap raw;
+        List keys = new ArrayList(); // recipe objects
+        List raws = new ArrayList(); // RawRecipe, or null for an object extracted from an earlier map
+    }
+
+    private static List dumpGTRecipeMaps() {
         List out = new ArrayList(); // List<DumpRecipeMap>
+        // RecipeMaps and GTPPRecipeMaps can expose the same map object, and one recipe object is
+        // often registered in several maps: extract each object once.
+        Map visitedMaps = new IdentityHashMap(); // map object -> declaring field
+        Map extracted = new IdentityHashMap();   // recipe object -> DumpRecipe
+        // Journal segments stand alone: the captured fields of each extracted object, so a later
+        // map's segment can hold the bodies it shares without reading the object again.
+        Map capturedRecipes = (journal == null) ? null : new IdentityHashMap(); // recipe object -> RawRecipe
+        int reused = 0;
 
         List mapClasses = loadAll(RECIPE_MAPS_CANDIDATES);
         if (mapClasses == null || mapClasses.size() == 0) {
@@ -70,6 +524,7 @@ public final class GTReflectionDump {
         }
 
         for (int c = 0; c < mapClasses.size(); c++) {
+            if (watchdog().providerExpired()) break;
             Class mapsClass = (Class) mapClasses.get(c);
             Field[] fields = mapsClass.getDeclaredFields();
             for (int i = 0; i < fields.length; i++) {
@@ -84,24 +539,56 @@ public final class GTReflectionDump {
                     String cn = mapObj.getClass().getName();
                     if (cn.indexOf("RecipeMap") < 0 && cn.indexOf("GT_Recipe_Map") < 0) continue;
 
-                    DumpRecipeMap map = new DumpRecipeMap();
-                    map.declaringField = mapsClass.getName() + "." + f.getName();
-                    map.machineId = bestMachineId(mapObj, f.getName());
-                    map.displayName = bestDisplayName(mapObj, f.getName(), map.machineId);
-                    populateMachineBonuses(mapObj, map);
+                    String declaringField = mapsClass.getName() + "." + f.getName();
+                    Object firstField = visitedMaps.get(mapObj);
+                    if (firstField != null) {
+                        System.out.println("[recipedumper] Skipping " + declaringField + ": same map object as " + firstField);
+                        continue;
+                    }
+                    visitedMaps.put(mapObj, declaringField);
 
-                    Collection recipes = getRecipesFromMap(mapObj);
-                    map.recipeCount = recipes.size();
-                    map.recipes = new ArrayList(); // List<DumpRecipe>
+                    String machineId = bestMachineId(mapObj, f.getName());
+                    if (!scope().includeMap(machineId, declaringField)) continue;
 
-                    Iterator it = recipes.iterator();
-                    while (it.hasNext()) {
-                        Object rObj = it.next();
-                        DumpRecipe r = dumpRecipe(rObj, map.machineId);
-                        if (r != null) map.recipes.add(r);
+                    if (watchdog().providerExpired()) break;
+                    RawMap done = (journal == null) ? null : journal.map("gt", declaringField);
+                    if (done != null) {
+                        out.add(resumeRecipeMap(done));
+                        continue;
+                    }
+                    final Object mapToCapture = mapObj;
+                    final String fieldName = declaringField;
+                    final String id = machineId;
+                    final Map seenRecipes = extracted;
+                    CapturedGTMap cap = (CapturedGTMap) watchdog().map(machineId, new Callable() {
+                        public Object call() {
+                            return captureGTMap(mapToCapture, fieldName, id, seenRecipes);
+                        }
+                    });
+                    if (cap == null) continue; // abandoned
+
+                    DumpRecipeMap map = newRecipeMap(cap.raw);
+                    map.recipes = new ArrayList(); // List<DumpRecipe>
+                    for (int r = 0; r < cap.keys.size(); r++) {
+                        Object rObj = cap.keys.get(r);
+                        DumpRecipe d;
+                        DumpRecipe seen = (DumpRecipe) extracted.get(rObj);
+                        if (seen != null) {
+                            d = rebindRecipe(seen, map.machineId);
+                            reused++;
+                        } else {
+                            d = interpretRecipe((RawRecipe) cap.raws.get(r), map.machineId);
+                            if (d != null) extracted.put(rObj, d);
+                            if (d != null && capturedRecipes != null) capturedRecipes.put(rObj, cap.raws.get(r));
+                        }
+                        if (d != null) map.recipes.add(d);
                     }
 
                     ensureUniqueRids(map.recipes);
+                    storeMap(map);
+                    if (snapshot != null) snapshot.map(cap.raw, cap.keys, cap.raws);
+                    if (cacheEntry != null) cacheEntry.map(cap.raw, cap.keys, cap.raws);
+                    if (journal != null) journal.mapDone(cap.raw, cap.keys, withSharedRecipes(cap, capturedRecipes));
                     out.add(map);
 
                 } catch (Throwable t) {
@@ -110,11 +597,161 @@ public final class GTReflectionDump {
             }
         }
 
+        if (reused > 0) System.out.println("[recipedumper] Reused " + reused + " recipe objects already extracted from another map");
         sortRecipeMaps(out);
         //noinspection unchecked
         return (List<DumpRecipeMap>) out;
     }
 
+    /** {@code cap.raws} with the recipes extracted from an earlier map filled in from {@code captured}. */
+    private static List withSharedRecipes(CapturedGTMap cap, Map captured) {
+        List raws = new ArrayList(cap.raws.size());
+        for (int r = 0; r < cap.raws.size(); r++) {
+            Object rr = cap.raws.get(r);
+            raws.add((rr != null) ? rr : captured.get(cap.keys.get(r)));
+        }
+        return raws;
+    }
+
+    /**
+     * Reads one GT map on the watchdog's worker. Recipe objects in {@code extracted} (only read
+     * here; the dump thread adds to it) are listed without capturing them again; null captures all.
+     */
+    private static CapturedGTMap captureGTMap(Object mapObj, String declaringField, String machineId, Map extracted) {
+        CapturedGTMap c = new CapturedGTMap();
+        RawMap raw = new RawMap();
+        raw.provider = "gt";
+        raw.declaringField = declaringField;
+        raw.machineId = machineId;
+        raw.nameCandidates = mapNameCandidates(mapObj, machineId);
+        raw.map = captureObject(mapObj, BONUS_SOURCE_METHODS, false);
+        Collection recipes = getRecipesFromMap(mapObj);
+        raw.recipeCount = recipes.size();
+        c.raw = raw;
+
+        Iterator it = recipes.iterator();
+        while (it.hasNext()) {
+            Watchdog.checkpoint();
+            Object rObj = it.next();
+            if (rObj == null) continue;
+            RawRecipe rr = null;
+            if (extracted == null || !extracted.containsKey(rObj)) {
+                rr = captureRecipe(rObj);
+                if (rr == null) continue;
+            }
+            c.keys.add(rObj);
+            c.raws.add(rr);
+        }
+        return c;
+    }
+
+    private static List recipeMapsFromSnapshot(String provider) {
+        return recipeMapsFromRaw(provider, source.maps);
+    }
+
+    /**
+     * A provider's maps re-derived from captured ones (a snapshot, or the provider cache), as its
+     * live dump would have produced them: the same scope checks, recipe rebinding for shared
+     * recipe objects, rid de-duplication for GT maps, storage, and a live run's snapshot.
+     */
+    private static List recipeMapsFromRaw(String provider, List raws) {
+        List out = new ArrayList();
+        Map extracted = new IdentityHashMap(); // RawRecipe -> DumpRecipe
+        int reused = 0;
+        for (int i = 0; i < raws.size(); i++) {
+            RawMap raw = (RawMap) raws.get(i);
+            if (!provider.equals(raw.provider)) continue;
+            if (!scope().includeMap(raw.machineId, raw.declaringField)) continue;
+            DumpRecipeMap map = newRecipeMap(raw);
+            map.recipes = new ArrayList();
+            for (int r = 0; r < raw.recipes.size(); r++) {
+                RawRecipe rr = (RawRecipe) raw.recipes.get(r);
+                DumpRecipe d;
+                DumpRecipe seen = (DumpRecipe) extracted.get(rr);
+                if (seen != null) {
+                    d = rebindRecipe(seen, map.machineId);
+                    reused++;
+                } else {
+                    d = interpretRecipe(rr, map.machineId);
+                    if (d != null) extracted.put(rr, d);
+                }
+                if (d != null) map.recipes.add(d);
+            }
+            if ("gt".equals(provider)) ensureUniqueRids(map.recipes);
+            storeMap(map);
+            // Read recipes are shared between maps like the objects were, so they serve as the keys.
+            if (snapshot != null) snapshot.map(raw, raw.recipes, raw.recipes);
+            out.add(map);
+        }
+        if (reused > 0) System.out.println("[recipedumper] Reused " + reused + " recipe objects already extracted from another map");
+        if ("gt".equals(provider)) sortRecipeMaps(out);
+        return out;
+    }
+
+    /** A provider's maps as an earlier run journaled them, in capture order. */
+    private static List recipeMapsFromJournal(String provider) throws IOException {
+        List out = new ArrayList();
+        for (int i = 0; i < journal.providerMapCount(provider); i++) {
+            RawMap raw = journal.providerMap(provider, i);
+            if (raw != null) out.add(resumeRecipeMap(raw));
+        }
+        if ("gt".equals(provider)) sortRecipeMaps(out);
+        return out;
+    }
+
+    /** A map an earlier run captured and journaled, interpreted, stored and recorded as if just captured. */
+    private static DumpRecipeMap resumeRecipeMap(RawMap raw) {
+        DumpRecipeMap map = newRecipeMap(raw);
+        map.recipes = new ArrayList();
+        Map extracted = new IdentityHashMap(); // RawRecipe -> DumpRecipe, for a recipe listed twice in the map
+        for (int r = 0; r < raw.recipes.size(); r++) {
+            RawRecipe rr = (RawRecipe) raw.recipes.get(r);
+            DumpRecipe d;
+            DumpRecipe seen = (DumpRecipe) extracted.get(rr);
+            if (seen != null) {
+                d = rebindRecipe(seen, map.machineId);
+            } else {
+                d = interpretRecipe(rr, map.machineId);
+                if (d != null) extracted.put(rr, d);
+            }
+            if (d != null) map.recipes.add(d);
+        }
+        if ("gt".equals(raw.provider)) ensureUniqueRids(map.recipes);
+        storeMap(map);
+        if (snapshot != null) snapshot.map(raw, null, raw.recipes);
+        if (cacheEntry != null) cacheEntry.map(raw, null, raw.recipes);
+        return map;
+    }
+
+    private static DumpRecipeMap newRecipeMap(RawMap raw) {
+        DumpRecipeMap map = new DumpRecipeMap();
+        map.declaringField = raw.declaringField;
+        map.machineId = raw.machineId;
+        map.displayName = mapDisplayName(raw);
+        map.recipeCount = raw.recipeCount;
+        if (raw.map != null) populateMachineBonuses(raw.map, map);
+        return map;
+    }
+
+    /**
+     * Interprets a captured crafting, smelting or Railcraft map, stores it and adds it to the
+     * snapshot; recipeCount is what was captured, as those maps have always reported it.
+     */
+    private static DumpRecipeMap finishPlainRecipeMap(RawMap raw) {
+        raw.recipeCount = raw.recipes.size();
+        DumpRecipeMap map = newRecipeMap(raw);
+        map.recipes = new ArrayList();
+        for (int i = 0; i < raw.recipes.size(); i++) {
+            DumpRecipe r = interpretRecipe((RawRecipe) raw.recipes.get(i), raw.machineId);
+            if (r != null) map.recipes.add(r);
+        }
+        storeMap(map);
+        if (snapshot != null) snapshot.map(raw, null, raw.recipes);
+        if (cacheEntry != null) cacheEntry.map(raw, null, raw.recipes);
+        if (journal != null) journal.mapDone(raw, null, raw.recipes);
+        return map;
+    }
+
     private static void sortRecipeMaps(List maps) {
         Collections.sort(maps, new Comparator() {
             public int compare(Object oa, Object ob) {
@@ -127,40 +764,55 @@ public final class GTReflectionDump {
         });
     }
 
-    private static List getRecipeProviders() {
-        List providers = new ArrayList();
-        providers.add(new GTRecipeMapProvider());
-        providers.add(new VanillaCraftingProvider());
-        providers.add(new VanillaSmeltingProvider());
-        providers.add(new RailcraftProvider());
-        return providers;
-    }
+    @RecipeProvider.Mods(value = {"gregtech"}, cacheKey = {"*"}) // GT++, BartWorks and others add to GT's maps
+    public static final class GTRecipeMapProvider implements RecipeProvider {
+        public String name() {
+            return "gt";
+        }
 
-    private static final class GTRecipeMapProvider implements RecipeProvider {
         public List dumpRecipeMaps() {
-            return dumpAllRecipeMaps();
+            return dumpGTRecipeMaps();
         }
     }
 
-    private static final class VanillaCraftingProvider implements RecipeProvider {
-        public List dumpRecipeMaps() {
+    // Any mod can add to or remove from CraftingManager, and nothing records which one did, so
+    // every loaded mod keys it: the entry only survives while the mod list is unchanged.
+    @RecipeProvider.Mods(cacheKey = {"*"})
+    public static final class VanillaCraftingProvider implements RecipeProvider {
+        public String name() {
+            return "crafting";
+        }
+
+        public List dumpRecipeMaps() throws Exception {
             return dumpVanillaCraftingRecipeMaps();
         }
     }
 
-    private static final class VanillaSmeltingProvider implements RecipeProvider {
-        public List dumpRecipeMaps() {
+    // Likewise for FurnaceRecipes.
+    @RecipeProvider.Mods(cacheKey = {"*"})
+    public static final class VanillaSmeltingProvider implements RecipeProvider {
+        public String name() {
+            return "smelting";
+        }
+
+        public List dumpRecipeMaps() throws Exception {
             return dumpVanillaSmeltingRecipeMaps();
         }
     }
 
-    private static final class RailcraftProvider implements RecipeProvider {
-        public List dumpRecipeMaps() {
+    // GregTech and the GTNH core mod register most of the pack's Railcraft machine recipes.
+    @RecipeProvider.Mods(value = {"Railcraft"}, cacheKey = {"gregtech", "dreamcraft"})
+    public static final class RailcraftProvider implements RecipeProvider {
+        public String name() {
+            return "railcraft";
+        }
+
+        public List dumpRecipeMaps() throws Exception {
             return dumpRailcraftRecipeMaps();
         }
     }
 
-    private static List dumpVanillaCraftingRecipeMaps() {
+    private static List dumpVanillaCraftingRecipeMaps() throws Exception {
         List out = new ArrayList();
         List recipes = null;
         try {
@@ -169,29 +821,40 @@ public final class GTReflectionDump {
             System.out.println("[recipedumper] CraftingManager not accessible: " + t);
         }
         if (recipes == null || recipes.size() == 0) return out;
-
-        DumpRecipeMap map = new DumpRecipeMap();
-        map.machineId = "minecraft:crafting";
-        map.displayName = firstNonNull(
-                bestLocalizedName("tile.workbench.name"),
-                bestLocalizedName("container.crafting"),
-                "Crafting"
-        );
-        map.declaringField = "provider:vanilla.crafting";
-        map.recipes = new ArrayList();
-
-        for (int i = 0; i < recipes.size(); i++) {
-            Object rObj = recipes.get(i);
-            DumpRecipe r = dumpCraftingRecipe(rObj, map.machineId);
-            if (r != null) map.recipes.add(r);
+        if (!scope().includeMap("minecraft:crafting", "provider:vanilla.crafting")) return out;
+        RawMap done = (journal == null) ? null : journal.map("crafting", "provider:vanilla.crafting");
+        if (done != null) {
+            out.add(resumeRecipeMap(done));
+            return out;
         }
 
-        map.recipeCount = map.recipes.size();
-        out.add(map);
+        RawMap raw = new RawMap();
+        raw.provider = "crafting";
+        raw.machineId = "minecraft:crafting";
+        raw.declaringField = "provider:vanilla.crafting";
+        raw.nameCandidates.add(bestLocalizedName("tile.workbench.name"));
+        raw.nameCandidates.add(bestLocalizedName("container.crafting"));
+
+        final List recipeList = recipes;
+        List captured = (List) watchdog().map(raw.machineId, new Callable() {
+            public Object call() {
+                List out = new ArrayList();
+                for (int i = 0; i < recipeList.size(); i++) {
+                    Watchdog.checkpoint();
+                    RawRecipe r = captureCraftingRecipe(recipeList.get(i));
+                    if (r != null) out.add(r);
+                }
+                return out;
+            }
+        });
+        if (captured == null) return out; // abandoned
+        raw.recipes = captured;
+
+        out.add(finishPlainRecipeMap(raw));
         return out;
     }
 
-    private static List dumpVanillaSmeltingRecipeMaps() {
+    private static List dumpVanillaSmeltingRecipeMaps() throws Exception {
         List out = new ArrayList();
         Map smeltMap = null;
         try {
@@ -200,27 +863,37 @@ public final class GTReflectionDump {
             System.out.println("[recipedumper] FurnaceRecipes not accessible: " + t);
         }
         if (smeltMap == null || smeltMap.size() == 0) return out;
-
-        DumpRecipeMap map = new DumpRecipeMap();
-        map.machineId = "minecraft:smelting";
-        map.displayName = firstNonNull(
-                bestLocalizedName("tile.furnace.name"),
-                "Furnace"
-        );
-        map.declaringField = "provider:vanilla.smelting";
-        map.recipes = new ArrayList();
-
-        Iterator it = smeltMap.entrySet().iterator();
-        while (it.hasNext()) {
-            Map.Entry entry = (Map.Entry) it.next();
-            Object inObj = entry.getKey();
-            Object outObj = entry.getValue();
-            DumpRecipe r = dumpSmeltingRecipe(inObj, outObj, map.machineId);
-            if (r != null) map.recipes.add(r);
+        if (!scope().includeMap("minecraft:smelting", "provider:vanilla.smelting")) return out;
+        RawMap done = (journal == null) ? null : journal.map("smelting", "provider:vanilla.smelting");
+        if (done != null) {
+            out.add(resumeRecipeMap(done));
+            return out;
         }
 
-        map.recipeCount = map.recipes.size();
-        out.add(map);
+        RawMap raw = new RawMap();
+        raw.provider = "smelting";
+        raw.machineId = "minecraft:smelting";
+        raw.declaringField = "provider:vanilla.smelting";
+        raw.nameCandidates.add(bestLocalizedName("tile.furnace.name"));
+
+        final Map smelting = smeltMap;
+        List captured = (List) watchdog().map(raw.machineId, new Callable() {
+            public Object call() {
+                List out = new ArrayList();
+                Iterator it = smelting.entrySet().iterator();
+                while (it.hasNext()) {
+                    Watchdog.checkpoint();
+                    Map.Entry entry = (Map.Entry) it.next();
+                    RawRecipe r = captureSmeltingRecipe(entry.getKey(), entry.getValue());
+                    if (r != null) out.add(r);
+                }
+                return out;
+            }
+        });
+        if (captured == null) return out; // abandoned
+        raw.recipes = captured;
+
+        out.add(finishPlainRecipeMap(raw));
         return out;
     }
 
@@ -235,6 +908,7 @@ public final class GTReflectionDump {
         Map alphaTags = railcraftAlphaTagsByNormalizedName();
         Field[] fields = mgrClass.getDeclaredFields();
         for (int i = 0; i < fields.length; i++) {
+            if (watchdog().providerExpired()) break;
             Field f = fields[i];
             try {
                 if (!Modifier.isStatic(f.getModifiers())) continue;
@@ -244,17 +918,9 @@ public final class GTReflectionDump {
 
                 String machineId = railcraftAlphaTagFromField(alphaTags, f.getName());
                 if (!isUsableName(machineId)) continue;
+                if (!scope().includeMap(machineId, "provider:railcraft." + f.getName())) continue;
 
-                DumpRecipeMap map = dumpRailcraftManager(
-                        manager,
-                        machineId,
-                        firstNonNull(
-                                bestLocalizedName(machineId),
-                                humanizeRailcraftTag(machineId),
-                                "Railcraft"
-                        ),
-                        "provider:railcraft." + f.getName()
-                );
+                DumpRecipeMap map = dumpRailcraftManager(manager, machineId, "provider:railcraft." + f.getName());
                 if (map != null) out.add(map);
             } catch (Throwable ignored) {}
         }
@@ -262,8 +928,10 @@ public final class GTReflectionDump {
         return out;
     }
 
-    private static DumpRecipeMap dumpRailcraftManager(Object manager, String machineId, String displayName, String declaringField) {
+    private static DumpRecipeMap dumpRailcraftManager(Object manager, String machineId, String declaringField) throws Exception {
         if (manager == null) return null;
+        RawMap done = (journal == null) ? null : journal.map("railcraft", declaringField);
+        if (done != null) return resumeRecipeMap(done);
         Object recipesObj = tryInvokeAny(manager, new String[] {"getRecipes", "getRecipeList", "getRecipesList"});
         if (recipesObj == null) recipesObj = getAny(manager, new String[] {"recipes", "recipeList"});
 
@@ -275,24 +943,32 @@ public final class GTReflectionDump {
         }
         if (recipes == null || recipes.size() == 0) return null;
 
-        DumpRecipeMap map = new DumpRecipeMap();
-        map.machineId = machineId;
-        map.displayName = displayName;
-        map.declaringField = declaringField;
-        map.recipes = new ArrayList();
-
-        Iterator it = recipes.iterator();
-        while (it.hasNext()) {
-            Object rObj = it.next();
-            DumpRecipe r = dumpRailcraftRecipe(rObj, machineId);
-            if (r != null) map.recipes.add(r);
-        }
+        RawMap raw = new RawMap();
+        raw.provider = "railcraft";
+        raw.machineId = machineId;
+        raw.declaringField = declaringField;
+        raw.nameCandidates.add(bestLocalizedName(machineId));
+
+        final Collection recipeList = recipes;
+        List captured = (List) watchdog().map(machineId, new Callable() {
+            public Object call() {
+                List out = new ArrayList();
+                Iterator it = recipeList.iterator();
+                while (it.hasNext()) {
+                    Watchdog.checkpoint();
+                    RawRecipe r = captureRailcraftRecipe(it.next());
+                    if (r != null) out.add(r);
+                }
+                return out;
+            }
+        });
+        if (captured == null) return null; // abandoned
+        raw.recipes = captured;
 
-        map.recipeCount = map.recipes.size();
-        return map;
+        return finishPlainRecipeMap(raw);
     }
 
-    private static DumpRecipe dumpCraftingRecipe(Object rObj, String machineId) {
+    private static RawRecipe captureCraftingRecipe(Object rObj) {
         if (!(rObj instanceof IRecipe)) return null;
         IRecipe recipe = (IRecipe) rObj;
         ItemStack output = null;
@@ -304,73 +980,55 @@ public final class GTReflectionDump {
         List inputs = extractCraftingInputs(rObj);
         if (inputs == null || inputs.size() == 0) return null;
 
-        DumpRecipe r = new DumpRecipe();
-        r.machineId = machineId;
+        RawRecipe r = new RawRecipe();
         r.recipeClass = rObj.getClass().getName();
-        r.durationTicks = 0;
-        r.eut = 0;
         r.itemInputs = inputs;
-        r.itemOutputs = dumpItemStacks(output);
-        r.fluidInputs = new ArrayList();
-        r.fluidOutputs = new ArrayList();
-        r.rid = stableRid(machineId, r);
+        r.itemOutputs = captureItemStacks(output);
         return r;
     }
 
-    private static DumpRecipe dumpSmeltingRecipe(Object inObj, Object outObj, String machineId) {
+    private static RawRecipe captureSmeltingRecipe(Object inObj, Object outObj) {
         if (inObj == null || outObj == null) return null;
-        DumpItemStack in = dumpIngredient(inObj);
+        RawStack in = captureIngredient(inObj);
         if (in == null) return null;
-        List inputs = new ArrayList();
-        inputs.add(in);
 
-        List outputs = dumpItemStacks(outObj);
+        List outputs = captureItemStacks(outObj);
         if (outputs == null || outputs.size() == 0) return null;
 
-        DumpRecipe r = new DumpRecipe();
-        r.machineId = machineId;
+        RawRecipe r = new RawRecipe();
         r.recipeClass = (outObj != null) ? outObj.getClass().getName() : "smelting";
-        r.durationTicks = 200;
-        r.eut = 0;
-        r.itemInputs = inputs;
+        r.duration = 200;
+        r.itemInputs.add(in);
         r.itemOutputs = outputs;
-        r.fluidInputs = new ArrayList();
-        r.fluidOutputs = new ArrayList();
-        r.rid = stableRid(machineId, r);
         return r;
     }
 
-    private static DumpRecipe dumpRailcraftRecipe(Object rObj, String machineId) {
+    private static RawRecipe captureRailcraftRecipe(Object rObj) {
         if (rObj == null) return null;
         Object inputObj = tryInvokeAny(rObj, new String[] {"getInput", "getInputs", "getInputStack"});
         if (inputObj == null) inputObj = getAny(rObj, new String[] {"input", "inputs"});
-        List inputs = dumpIngredientList(inputObj);
+        List inputs = captureIngredientList(inputObj);
         if (inputs == null || inputs.size() == 0) return null;
 
         Object outputObj = tryInvokeAny(rObj, new String[] {"getOutput", "getOutputStack", "getResult"});
         if (outputObj == null) outputObj = getAny(rObj, new String[] {"output", "result"});
-        List outputs = dumpItemStacks(outputObj);
+        List outputs = captureItemStacks(outputObj);
         if (outputs == null || outputs.size() == 0) return null;
 
         Object fluidOutObj = tryInvokeAny(rObj, new String[] {"getFluidOutput", "getOutputFluid", "getFluid"});
         if (fluidOutObj == null) fluidOutObj = getAny(rObj, new String[] {"fluid", "fluidOutput", "outputFluid"});
-        List fluidOutputs = dumpFluids(fluidOutObj);
 
         int duration = 0;
         Object durObj = tryInvokeAny(rObj, new String[] {"getTime", "getCookTime", "getDuration", "getCookTimeTicks"});
         if (durObj == null) durObj = getAny(rObj, new String[] {"time", "cookTime", "duration"});
         if (durObj instanceof Number) duration = ((Number) durObj).intValue();
 
-        DumpRecipe r = new DumpRecipe();
-        r.machineId = machineId;
+        RawRecipe r = new RawRecipe();
         r.recipeClass = rObj.getClass().getName();
-        r.durationTicks = duration;
-        r.eut = 0;
+        r.duration = duration;
         r.itemInputs = inputs;
         r.itemOutputs = outputs;
-        r.fluidInputs = new ArrayList();
-        r.fluidOutputs = (fluidOutputs == null) ? new ArrayList() : fluidOutputs;
-        r.rid = stableRid(machineId, r);
+        r.fluidOutputs = captureFluids(fluidOutObj);
         return r;
     }
 
@@ -395,95 +1053,103 @@ public final class GTReflectionDump {
             input = getAny(rObj, new String[] {"input", "inputs", "ingredients", "recipeItems"});
         }
 
-        return dumpIngredientList(input);
+        return captureIngredientList(input);
     }
 
-    private static List dumpIngredientList(Object input) {
+    /** Ingredients in order (merging equal ones is interpretation: see interpretIngredients). */
+    private static List captureIngredientList(Object input) {
         if (input == null) return null;
-        Map counts = new LinkedHashMap();
+        List out = new ArrayList();
         if (input instanceof List) {
             List list = (List) input;
             for (int i = 0; i < list.size(); i++) {
-                addIngredientCount(counts, list.get(i));
+                addIngredient(out, list.get(i));
             }
         } else if (input.getClass().isArray()) {
             int len = Array.getLength(input);
             for (int i = 0; i < len; i++) {
-                addIngredientCount(counts, Array.get(input, i));
+                addIngredient(out, Array.get(input, i));
             }
         } else {
-            addIngredientCount(counts, input);
+            addIngredient(out, input);
         }
-        if (counts.size() == 0) return null;
-        return new ArrayList(counts.values());
+        if (out.size() == 0) return null;
+        return out;
     }
 
-    private static void addIngredientCount(Map counts, Object obj) {
+    private static void addIngredient(List out, Object obj) {
         if (obj == null) return;
         if (obj instanceof Character) return;
-        DumpItemStack st = dumpIngredient(obj);
-        if (st == null) return;
-        String key = st.id + "|" + st.meta;
-        DumpItemStack existing = (DumpItemStack) counts.get(key);
-        if (existing == null) {
-            counts.put(key, st);
-        } else {
-            existing.count += st.count;
-        }
+        RawStack st = captureIngredient(obj);
+        if (st != null) out.add(st);
     }
 
-    private static DumpItemStack dumpIngredient(Object obj) {
+    private static RawStack captureIngredient(Object obj) {
         if (obj == null) return null;
         if (obj instanceof ItemStack) {
-            ItemStack st = (ItemStack) obj;
-            DumpItemStack d = new DumpItemStack();
-            d.id = itemKey(st);
-            d.count = Math.max(1, st.stackSize);
-            d.meta = st.getItemDamage();
-            d.displayName = safeDisplayName(st);
-            d.unlocalizedName = safeUnlocName(st);
-            d.oreDict = oreDictNames(st);
-            return d;
+            return captureStack((ItemStack) obj);
         }
         if (obj instanceof Item) {
-            return dumpIngredient(new ItemStack((Item) obj));
+            return captureIngredient(new ItemStack((Item) obj));
         }
         if (obj instanceof Block) {
-            return dumpIngredient(new ItemStack((Block) obj));
+            return captureIngredient(new ItemStack((Block) obj));
         }
         if (obj instanceof String) {
-            return oreIngredient((String) obj, 1);
+            return oreIngredient((String) obj);
         }
         if (obj instanceof List) {
-            return dumpOreList((List) obj);
+            return captureOreList((List) obj);
         }
         return null;
     }
 
-    private static DumpItemStack dumpOreList(List list) {
+    private static RawStack captureOreList(List list) {
         if (list == null || list.size() == 0) return null;
         String name = findOreNameForList(list);
-        if (name != null) return oreIngredient(name, 1);
+        if (name != null) return oreIngredient(name);
         Object first = list.get(0);
         if (first instanceof ItemStack) {
             int[] ids = OreDictionary.getOreIDs((ItemStack) first);
             if (ids != null && ids.length > 0) {
-                return oreIngredient(OreDictionary.getOreName(ids[0]), 1);
+                return oreIngredient(OreDictionary.getOreName(ids[0]));
             }
         }
-        return oreIngredient("unresolved", 1);
+        return oreIngredient("unresolved");
     }
 
-    private static DumpItemStack oreIngredient(String name, int count) {
-        DumpItemStack d = new DumpItemStack();
-        d.id = "ore:" + name;
-        d.count = Math.max(1, count);
-        d.meta = 0;
-        return d;
+    private static RawStack oreIngredient(String name) {
+        RawStack s = new RawStack();
+        s.id = "ore:" + name;
+        s.count = 1;
+        return s;
+    }
+
+    /** Crafting-style inputs: at least one of each, equal (id, meta) ingredients merged in first-seen order. */
+    private static List interpretIngredients(List raw) {
+        Map counts = new LinkedHashMap();
+        for (int i = 0; i < raw.size(); i++) {
+            DumpItemStack st = interpretStack((RawStack) raw.get(i));
+            st.count = Math.max(1, st.count);
+            String key = st.id + "|" + st.meta;
+            DumpItemStack existing = (DumpItemStack) counts.get(key);
+            if (existing == null) {
+                counts.put(key, st);
+            } else {
+                existing.count += st.count;
+            }
+        }
+        return new ArrayList(counts.values());
     }
 
     private static String findOreNameForList(List list) {
         if (list == null || list.size() == 0) return null;
+        try {
+            String indexed = oreIndex().nameForList(list);
+            if (indexed != null) return indexed;
+        } catch (Throwable t) {
+            // fall through to the per-stack scan
+        }
         Object first = list.get(0);
         if (!(first instanceof ItemStack)) return null;
         ItemStack st = (ItemStack) first;
@@ -528,13 +1194,6 @@ public final class GTReflectionDump {
         return am == OreDictionary.WILDCARD_VALUE || bm == OreDictionary.WILDCARD_VALUE;
     }
 
-    private static String firstNonNull(String a, String b, String c) {
-        if (isUsableName(a)) return a;
-        if (isUsableName(b)) return b;
-        if (isUsableName(c)) return c;
-        return null;
-    }
-
     private static String firstNonNull(String a, String b) {
         if (isUsableName(a)) return a;
         if (isUsableName(b)) return b;
@@ -542,10 +1201,83 @@ public final class GTReflectionDump {
     }
 
     public static List<DumpMachineIndex> dumpMachineIndexFromMetaTiles() {
+        if (source != null) return machineIndexFromSnapshot();
+        Object arrObj = metaTileEntities();
+        if (arrObj == null) return Collections.emptyList();
+
+        int len = Array.getLength(arrObj);
+        List out = new ArrayList();
+
+        final DumpScope scope = scope();
+        final boolean withDebug = snapshot != null;
+        // Ranges of ids are the journal's units: resumed from their segment or captured and journaled.
+        for (int lo = 0; lo < len; lo += DumpJournal.META_TILE_RANGE) {
+            int hi = Math.min(len, lo + DumpJournal.META_TILE_RANGE) - 1;
+            List tiles = (journal == null) ? null : journal.metaTiles(DumpJournal.MACHINE_INDEX_SCAN, lo, hi);
+            if (tiles != null) {
+                for (int i = lo; i <= hi; i++) scope.includeMetaTile(i); // for the skip counts
+            } else {
+                tiles = new ArrayList();
+                int abandonedBefore = watchdog().abandonedCount();
+                for (int i = lo; i <= hi; i++) {
+                    if (!scope.includeMetaTile(i)) continue;
+                    final Object mte = Array.get(arrObj, i);
+                    if (mte == null) continue;
+
+                    final int id = i;
+                    RawMetaTile t;
+                    try {
+                        t = (RawMetaTile) watchdog().metaTile(id, new Callable() {
+                            public Object call() {
+                                // The recipe map first: machine filters need its machineId before the name lookups.
+                                Object mapObj = resolveRecipeMap(mte);
+                                String machineId = (mapObj != null) ? bestMachineId(mapObj, "meta." + id) : null;
+                                Watchdog.checkpoint();
+                                if (!scope.includeMetaTileMachine(id, machineId)) return null;
+                                // With a snapshot, each tile is captured once with what the debug scan reads as well.
+                                return captureMetaTile(id, mte, mapObj, machineId, withDebug);
+                            }
+                        });
+                    } catch (Exception e) {
+                        System.out.println("[recipedumper] Failed meta tile " + i + ": " + e);
+                        continue;
+                    }
+                    if (t != null) tiles.add(t); // else out of scope or abandoned
+                }
+                if (journal != null && watchdog().abandonedCount() == abandonedBefore) {
+                    journal.metaTilesDone(DumpJournal.MACHINE_INDEX_SCAN, lo, hi, tiles);
+                }
+            }
+            for (int i = 0; i < tiles.size(); i++) {
+                RawMetaTile t = (RawMetaTile) tiles.get(i);
+                if (snapshot != null) snapshot.metaTile(t);
+                DumpMachineIndex d = interpretMachineIndex(t);
+                if (d != null) out.add(d);
+            }
+        }
+
+        return out;
+    }
+
+    private static List machineIndexFromSnapshot() {
+        List out = new ArrayList();
+        DumpScope scope = scope();
+        for (int i = 0; i < source.metaTiles.size(); i++) {
+            RawMetaTile t = (RawMetaTile) source.metaTiles.get(i);
+            if (!scope.includeMetaTile(t.id)) continue;
+            if (!scope.includeMetaTileMachine(t.id, t.machineId)) continue;
+            DumpMachineIndex d = interpretMachineIndex(t);
+            if (d != null) out.add(d);
+        }
+        return out;
+    }
+
+    /** GregTechAPI.METATILEENTITIES, or null (logged) when GregTech is missing. */
+    private static Object metaTileEntities() {
         Class apiClass = loadFirst(new String[] {"gregtech.api.GregTechAPI"});
         if (apiClass == null) {
             System.out.println("[recipedumper] GregTechAPI not found");
-            return Collections.emptyList();
+            return null;
         }
 
         Object arrObj = null;
@@ -557,64 +1289,82 @@ public final class GTReflectionDump {
             System.out.println("[recipedumper] GregTechAPI.METATILEENTITIES not accessible: " + t);
         }
 
-        if (arrObj == null || !arrObj.getClass().isArray()) return Collections.emptyList();
-
-        int len = Array.getLength(arrObj);
-        List out = new ArrayList();
-
-        for (int i = 0; i < len; i++) {
-            Object mte = Array.get(arrObj, i);
-            if (mte == null) continue;
-
-            DumpMachineIndex d = new DumpMachineIndex();
-            d.metaTileId = new Integer(i);
-            d.metaTileClass = mte.getClass().getName();
-            d.metaTileName = bestMetaTileName(mte);
-            d.displayName = bestDisplayNameFromMetaTile(mte);
-            d.machineTypes = collectMachineTypes(mte);
-
-            Object mapObj = resolveRecipeMap(mte);
-            if (mapObj != null) {
-                d.machineId = bestMachineId(mapObj, "meta." + i);
-            }
-
-            Object logic = tryCreateProcessingLogic(mte);
-            if (mapObj == null && !hasAvailableRecipeMaps(mte) && logic == null) continue;
-
+        if (arrObj == null || !arrObj.getClass().isArray()) return null;
+        return arrObj;
+    }
+
+    /**
+     * What the machine index reads from meta tile {@code id}. Tiles without a recipe map, map list
+     * or processing logic stop after their names; {@code withDebug} adds what the debug scan reads
+     * (numeric keyword methods, the debug machineId) for every tile.
+     */
+    private static RawMetaTile captureMetaTile(int id, Object mte, Object mapObj, String machineId, boolean withDebug) {
+        RawMetaTile t = new RawMetaTile();
+        t.id = id;
+        t.className = mte.getClass().getName();
+        t.metaName = bestMetaTileName(mte);
+        t.nameCandidates = collectDisplayNameCandidates(mte);
+        t.machineTypes = collectMachineTypes(mte);
+        t.machineId = machineId;
+        t.hasRecipeMap = mapObj != null;
+
+        Object logic = tryCreateProcessingLogic(mte);
+        if (mapObj == null) t.hasAvailableRecipeMaps = hasAvailableRecipeMaps(mte);
+        boolean indexed = t.hasRecipeMap || t.hasAvailableRecipeMaps || logic != null;
+        if (withDebug) t.debugMachineId = debugMachineId(mte, id);
+        if (indexed || withDebug) {
             Object bonusSource = bestBonusSource(mte);
-            d.parallelBonus = readNumberFromAny(bonusSource, new String[] {
-                    "getParallelBonus", "getParallelMultiplier", "parallelBonus", "mParallelBonus",
-                    "parallelMultiplier", "mParallelMultiplier", "mParallelProcessing", "parallelProcessing"
-            });
-            d.maxParallel = readNumberFromAny(bonusSource, new String[] {
-                    "getMaxParallel", "getParallelLimit", "maxParallel", "mMaxParallel",
-                    "parallelLimit", "mParallelLimit", "getMaxParallelRecipes", "maxParallelRecipes"
-            });
-            d.coilBonus = readNumberFromAny(bonusSource, new String[] {
-                    "getCoilBonus", "coilBonus", "mCoilBonus", "coilSpeedBonus", "mCoilSpeedBonus",
-                    "coilLevel", "mCoilLevel", "getCoilLevel"
-            });
-            d.speedBonus = readNumberFromAny(bonusSource, new String[] {
-                    "getSpeedBonus", "speedBonus", "mSpeedBonus", "speedMultiplier", "mSpeedMultiplier"
-            });
-            d.efficiencyBonus = readNumberFromAny(bonusSource, new String[] {
-                    "getEfficiencyBonus", "efficiencyBonus", "mEfficiencyBonus", "getEfficiency",
-                    "efficiency", "mEfficiency", "getEUtDiscount", "eutDiscount", "mEUtDiscount"
-            });
-
-            populateBonusesFromProcessingLogic(mte, d, logic);
-            Integer perTier = computeParallelPerTier(mte);
-            if (perTier != null && (d.parallelBonus == null || d.parallelBonus.doubleValue() == 0.0)) {
-                d.parallelBonus = new Double(perTier.doubleValue());
-            }
-            populateBonusesFromTooltip(mte, d);
-            sanitizeBonusFields(d);
-            roundBonusFields(d);
-
-            out.add(d);
+            if (bonusSource == mte || withDebug) {
+                t.tile = captureObject(mte, (bonusSource == mte) ? BONUS_SOURCE_METHODS : null, withDebug);
+            }
+            if (bonusSource != mte && bonusSource != null) {
+                t.controller = captureObject(bonusSource, BONUS_SOURCE_METHODS, withDebug);
+            }
         }
+        if (!indexed) return t;
 
-        return out;
+        if (logic != null) {
+            t.logic = captureObject(logic, LOGIC_METHODS, false);
+            t.overclockCalculator = captureObject(findOverclockCalculator(logic), CALCULATOR_METHODS, false);
+            t.logicMaxParallel = readIntSupplierFromAny(logic, MAX_PARALLEL_SUPPLIER_NAMES);
+        }
+        captureParallelPerTier(mte, t);
+        Object tooltip = tryCreateTooltip(mte);
+        if (tooltip != null) {
+            t.tooltip = captureObject(tooltip, TOOLTIP_METHODS, false);
+            t.tooltip.lines = captureTooltipLines(tooltip);
+        }
+        return t;
+    }
+
+    /** The machine index entry of a captured meta tile; null without a recipe map, map list or processing logic. */
+    private static DumpMachineIndex interpretMachineIndex(RawMetaTile t) {
+        if (!t.hasRecipeMap && !t.hasAvailableRecipeMaps && t.logic == null) return null;
+
+        DumpMachineIndex d = new DumpMachineIndex();
+        d.metaTileId = new Integer(t.id);
+        d.metaTileClass = t.className;
+        d.metaTileName = t.metaName;
+        d.displayName = pickBestDisplayName(t.nameCandidates, null);
+        d.machineTypes = t.machineTypes;
+        d.machineId = t.machineId;
+
+        RawObject bonusSource = (t.controller != null) ? t.controller : t.tile;
+        d.parallelBonus = readNumberFromAny(bonusSource, PARALLEL_BONUS_NAMES);
+        d.maxParallel = readNumberFromAny(bonusSource, MAX_PARALLEL_NAMES);
+        d.coilBonus = readNumberFromAny(bonusSource, COIL_BONUS_NAMES);
+        d.speedBonus = readNumberFromAny(bonusSource, SPEED_BONUS_NAMES);
+        d.efficiencyBonus = readNumberFromAny(bonusSource, EFFICIENCY_BONUS_NAMES);
+
+        populateBonusesFromProcessingLogic(t, d);
+        Integer perTier = parallelPerTier(t);
+        if (perTier != null && (d.parallelBonus == null || d.parallelBonus.doubleValue() == 0.0)) {
+            d.parallelBonus = new Double(perTier.doubleValue());
+        }
+        populateBonusesFromTooltip(t.tooltip, d);
+        sanitizeBonusFields(d);
+        roundBonusFields(d);
+        return d;
     }
 
     public static List<DumpMachineIndex> dumpMachineIndexFromRecipeMaps(List recipeMaps) {
@@ -719,81 +1469,163 @@ public final class GTReflectionDump {
     }
 
     public static List<DumpMachineIndexDebug> dumpMachineIndexDebugFromMetaTiles() {
-        Class apiClass = loadFirst(new String[] {"gregtech.api.GregTechAPI"});
-        if (apiClass == null) {
-            System.out.println("[recipedumper] GregTechAPI not found");
-            return Collections.emptyList();
-        }
+        return dumpMachineIndexDebugFromMetaTiles(false);
+    }
 
-        Object arrObj = null;
-        try {
-            Field f = apiClass.getDeclaredField("METATILEENTITIES");
-            f.setAccessible(true);
-            arrObj = f.get(null);
-        } catch (Throwable t) {
-            System.out.println("[recipedumper] GregTechAPI.METATILEENTITIES not accessible: " + t);
+    /**
+     * Debug introspection of meta tiles in the dump scope. Normally limited to the machines the
+     * bonus heuristics struggle with; {@code everyTileInScope} introspects every tile in scope
+     * (the /recipedump metatile command, where the scope is a handful of ids).
+     */
+    public static List<DumpMachineIndexDebug> dumpMachineIndexDebugFromMetaTiles(boolean everyTileInScope) {
+        if (source != null) return machineIndexDebugFromSnapshot(everyTileInScope);
+        Object arrObj = metaTileEntities();
+        if (arrObj == null) return Collections.emptyList();
+
+        int len = Array.getLength(arrObj);
+        List out = new ArrayList();
+
+        final DumpScope scope = scope();
+        final boolean every = everyTileInScope;
+        for (int lo = 0; lo < len; lo += DumpJournal.META_TILE_RANGE) {
+            int hi = Math.min(len, lo + DumpJournal.META_TILE_RANGE) - 1;
+            List tiles = (journal == null) ? null : journal.metaTiles(DumpJournal.DEBUG_SCAN, lo, hi);
+            if (tiles != null) {
+                for (int i = lo; i <= hi; i++) scope.includeMetaTile(i);
+            } else {
+                tiles = new ArrayList();
+                int abandonedBefore = watchdog().abandonedCount();
+                for (int i = lo; i <= hi; i++) {
+                    if (!scope.includeMetaTile(i)) continue;
+                    final Object mte = Array.get(arrObj, i);
+                    if (mte == null) continue;
+
+                    final int id = i;
+                    RawMetaTile t;
+                    try {
+                        t = (RawMetaTile) watchdog().metaTile(id, new Callable() {
+                            public Object call() {
+                                return captureMetaTileDebug(id, mte, scope, every);
+                            }
+                        });
+                    } catch (Exception e) {
+                        System.out.println("[recipedumper] Failed meta tile " + i + ": " + e);
+                        continue;
+                    }
+                    if (t != null) tiles.add(t);
+                }
+                if (journal != null && watchdog().abandonedCount() == abandonedBefore) {
+                    journal.metaTilesDone(DumpJournal.DEBUG_SCAN, lo, hi, tiles);
+                }
+            }
+            for (int i = 0; i < tiles.size(); i++) out.add(interpretMachineIndexDebug((RawMetaTile) tiles.get(i)));
         }
 
-        if (arrObj == null || !arrObj.getClass().isArray()) return Collections.emptyList();
-
-        int len = Array.getLength(arrObj);
-        List out = new ArrayList();
-
-        for (int i = 0; i < len; i++) {
-            Object mte = Array.get(arrObj, i);
-            if (mte == null) continue;
-
-            String className = mte.getClass().getName();
-            String metaName = bestMetaTileName(mte);
-            String[] displaySource = new String[1];
-            String displayName = bestDisplayNameFromMetaTile(mte, displaySource);
+        return out;
+    }
 
-            if (!isDebugTarget(className, metaName, displayName)) continue;
+    /** What the debug scan reads from meta tile {@code id}; null when out of scope or not a debug target. */
+    private static RawMetaTile captureMetaTileDebug(int id, Object mte, DumpScope scope, boolean everyTileInScope) {
+        // Machine filters need the machineId up front; otherwise only debug targets pay for it.
+        boolean early = scope.filtersMachines();
+        String machineId = early ? debugMachineId(mte, id) : null;
+        Watchdog.checkpoint();
+        if (early && !scope.includeMetaTileMachine(id, machineId)) return null;
 
-            DumpMachineIndexDebug d = new DumpMachineIndexDebug();
-            d.metaTileId = new Integer(i);
-            d.metaTileClass = className;
-            d.metaTileName = metaName;
-            d.displayName = displayName;
-            d.displayNameSource = (displaySource != null && displaySource.length > 0) ? displaySource[0] : null;
-            d.displayNameCandidates = collectDisplayNameCandidates(mte);
+        RawMetaTile t = new RawMetaTile();
+        t.id = id;
+        t.className = mte.getClass().getName();
+        t.metaName = bestMetaTileName(mte);
+        t.nameCandidates = collectDisplayNameCandidates(mte);
 
-            Object mapObj = tryInvokeAny(mte, new String[] {"getRecipeMap", "getRecipeMapForNEI", "getRecipeMapNEI"});
-            if (mapObj == null) {
-                mapObj = getAny(mte, new String[] {"mRecipeMap", "recipeMap", "mMap"});
-            }
-            if (mapObj != null) {
-                d.machineId = bestMachineId(mapObj, "meta." + i);
-            }
+        if (!everyTileInScope && !isDebugTarget(t.className, t.metaName, pickBestDisplayName(t.nameCandidates, null))) return null;
 
-            d.metaTileFields = collectNumericFields(mte);
-            d.metaTileMethods = collectNumericMethods(mte);
+        t.debugMachineId = early ? machineId : debugMachineId(mte, id);
+        t.tile = captureObject(mte, null, true);
+        Object controller = bestBonusSource(mte);
+        if (controller != mte && controller != null) t.controller = captureObject(controller, null, true);
+        return t;
+    }
 
-            Object controller = bestBonusSource(mte);
-            if (controller != mte && controller != null) {
-                d.controllerClass = controller.getClass().getName();
-                d.controllerFields = collectNumericFields(controller);
-                d.controllerMethods = collectNumericMethods(controller);
-            }
+    private static List machineIndexDebugFromSnapshot(boolean everyTileInScope) {
+        List out = new ArrayList();
+        DumpScope scope = scope();
+        for (int i = 0; i < source.metaTiles.size(); i++) {
+            RawMetaTile t = (RawMetaTile) source.metaTiles.get(i);
+            if (t.tile == null || !scope.includeMetaTile(t.id)) continue;
+            if (scope.filtersMachines() && !scope.includeMetaTileMachine(t.id, t.debugMachineId)) continue;
+            if (!everyTileInScope && !isDebugTarget(t.className, t.metaName, pickBestDisplayName(t.nameCandidates, null))) continue;
+            out.add(interpretMachineIndexDebug(t));
+        }
+        return out;
+    }
 
-            out.add(d);
+    private static DumpMachineIndexDebug interpretMachineIndexDebug(RawMetaTile t) {
+        DumpMachineIndexDebug d = new DumpMachineIndexDebug();
+        String[] displaySource = new String[1];
+        d.metaTileId = new Integer(t.id);
+        d.metaTileClass = t.className;
+        d.metaTileName = t.metaName;
+        d.displayName = pickBestDisplayName(t.nameCandidates, displaySource);
+        d.displayNameSource = displaySource[0];
+        d.displayNameCandidates = t.nameCandidates;
+        d.machineId = t.debugMachineId;
+
+        d.metaTileFields = numericFields(t.tile);
+        d.metaTileMethods = t.tile.keywordMethods;
+
+        if (t.controller != null) {
+            d.controllerClass = t.controller.className;
+            d.controllerFields = numericFields(t.controller);
+            d.controllerMethods = t.controller.keywordMethods;
         }
+        return d;
+    }
 
-        return out;
+    /** A GT recipe object's fields, or null when they cannot be read. */
+    private static RawRecipe captureRecipe(Object rObj) {
+        try {
+            RawRecipe r = new RawRecipe();
+            r.gregtech = true;
+            r.recipeClass = rObj.getClass().getName();
+            r.duration = asInt(getAny(rObj, new String[] {"mDuration", "duration", "durationTicks"}));
+            r.eut = asLong(getAny(rObj, new String[] {"mEUt", "EUt", "eut", "mEU"}));
+            r.specialValue = asInteger(getAny(rObj, new String[] {"mSpecialValue", "mSpecial", "specialValue"}));
+            r.itemInputs = captureItemStacks(getAny(rObj, new String[] {"mInputs", "inputs", "mInput"}));
+            r.itemOutputs = captureItemStacks(getAny(rObj, new String[] {"mOutputs", "outputs", "mOutput"}));
+            r.fluidInputs = captureFluids(getAny(rObj, new String[] {"mFluidInputs", "fluidInputs", "mFluidInput"}));
+            r.fluidOutputs = captureFluids(getAny(rObj, new String[] {"mFluidOutputs", "fluidOutputs", "mFluidOutput"}));
+            r.chances = asIntArray(getAny(rObj, new String[] {"mChances", "chances", "outputChances"}));
+            return r;
+        } catch (Throwable t) {
+            return null;
+        }
     }
 
-    private static DumpRecipe dumpRecipe(Object rObj, String machineId) {
+    /**
+     * The output recipe for a captured one in {@code machineId}'s map: tier and EBF temperature,
+     * the ghost circuit, chances and the rid for GT recipes; ingredient merging for the others.
+     */
+    private static DumpRecipe interpretRecipe(RawRecipe raw, String machineId) {
+        if (raw == null) return null;
         try {
             DumpRecipe r = new DumpRecipe();
             r.machineId = machineId;
-            r.recipeClass = rObj.getClass().getName();
-
-            r.durationTicks = asInt(getAny(rObj, new String[] {"mDuration", "duration", "durationTicks"}));
-            r.eut = asInt(getAny(rObj, new String[] {"mEUt", "EUt", "eut", "mEU"}));
+            r.recipeClass = raw.recipeClass;
+            r.durationTicks = raw.duration;
+            r.eut = raw.eut;
+            if (!raw.gregtech) {
+                r.itemInputs = interpretIngredients(raw.itemInputs);
+                r.itemOutputs = interpretStacks(raw.itemOutputs);
+                r.fluidInputs = new ArrayList();
+                r.fluidOutputs = interpretFluids(raw.fluidOutputs);
+                r.rid = stableRid(machineId, r);
+                return r;
+            }
 
             addPowerDerivedFields(r);
 
-            r.specialValue = asInteger(getAny(rObj, new String[] {"mSpecialValue", "mSpecial", "specialValue"}));
+            r.specialValue = raw.specialValue;
 
             // Interpret specialValue for EBF recipes
             if (machineId != null && machineId.indexOf("blastfurnace") >= 0) {
@@ -803,16 +1635,16 @@ public final class GTReflectionDump {
                 }
             }
 
-            r.itemInputs = dumpItemStacks(getAny(rObj, new String[] {"mInputs", "inputs", "mInput"}));
+            r.itemInputs = interpretStacks(raw.itemInputs);
 
             extractGhostCircuit(r);
 
-            r.itemOutputs = dumpItemStacks(getAny(rObj, new String[] {"mOutputs", "outputs", "mOutput"}));
+            r.itemOutputs = interpretStacks(raw.itemOutputs);
 
-            r.fluidInputs = dumpFluids(getAny(rObj, new String[] {"mFluidInputs", "fluidInputs", "mFluidInput"}));
-            r.fluidOutputs = dumpFluids(getAny(rObj, new String[] {"mFluidOutputs", "fluidOutputs", "mFluidOutput"}));
+            r.fluidInputs = interpretFluids(raw.fluidInputs);
+            r.fluidOutputs = interpretFluids(raw.fluidOutputs);
 
-            int[] chances = asIntArray(getAny(rObj, new String[] {"mChances", "chances", "outputChances"}));
+            int[] chances = raw.chances;
             if (chances != null) {
                 r.outputChances = toIntList(chances);
                 r.chanceScale = guessChanceScale(chances);
@@ -827,6 +1659,37 @@ public final class GTReflectionDump {
         }
     }
 
+    /**
+     * The same GT recipe object seen in another map: copy the extracted body instead of reflecting
+     * over it again. Only the machine-dependent fields (machineId, EBF temperature, rid) change;
+     * stack lists are shared, which is safe because they are not modified after extraction.
+     */
+    private static DumpRecipe rebindRecipe(DumpRecipe src, String machineId) {
+        DumpRecipe r = new DumpRecipe();
+        r.machineId = machineId;
+        r.recipeClass = src.recipeClass;
+        r.minTier = src.minTier;
+        r.durationTicks = src.durationTicks;
+        r.eut = src.eut;
+        r.specialValue = src.specialValue;
+        if (machineId != null && machineId.indexOf("blastfurnace") >= 0
+                && r.specialValue != null && r.specialValue.intValue() > 0) {
+            r.ebfTemp = r.specialValue;
+        }
+        r.circuitConfig = src.circuitConfig;
+        r.minVoltage = src.minVoltage;
+        r.ampsAtMinTier = src.ampsAtMinTier;
+        r.circuitGhost = src.circuitGhost;
+        r.itemInputs = src.itemInputs;
+        r.itemOutputs = src.itemOutputs;
+        r.fluidInputs = src.fluidInputs;
+        r.fluidOutputs = src.fluidOutputs;
+        r.outputChances = src.outputChances;
+        r.chanceScale = src.chanceScale;
+        r.rid = stableRid(machineId, r);
+        return r;
+    }
+
     /* ---------- Map identity (NEI-like) ---------- */
 
     private static String bestMachineId(Object mapObj, String fallbackFieldName) {
@@ -839,26 +1702,33 @@ public final class GTReflectionDump {
         return "gt.map." + fallbackFieldName;
     }
 
-    private static String bestDisplayName(Object mapObj, String fallbackFieldName, String machineId) {
-        String name = bestDisplayNameFromBlock(mapObj);
-        if (isUsableName(name)) return name;
-
-        name = localizedName(machineId);
-        if (isUsableName(name)) return name;
+    /** Display-name sources of a GT recipe map, best first; see mapDisplayName. */
+    private static List mapNameCandidates(Object mapObj, String machineId) {
+        List out = new ArrayList();
+        out.add(bestDisplayNameFromBlock(mapObj));
+        out.add(localizedName(machineId));
 
         Object rawName = tryInvokeAny(mapObj, new String[] {"getUnlocalizedName", "getName", "getID"});
-        if (rawName instanceof String) {
-            name = localizedName((String) rawName);
-            if (isUsableName(name)) return name;
-        }
+        out.add((rawName instanceof String) ? localizedName((String) rawName) : null);
 
         Object locName = tryInvokeAny(mapObj, new String[] {"getLocalizedName", "getDisplayName"});
-        if (locName instanceof String && ((String) locName).length() > 0) return (String) locName;
+        out.add((locName instanceof String) ? (String) locName : null);
 
         Object f = getAny(mapObj, new String[] {"mNEIName", "mName", "displayName", "name"});
-        if (f instanceof String && ((String) f).length() > 0) return (String) f;
+        out.add((f instanceof String) ? (String) f : null);
+        return out;
+    }
 
-        return fallbackFieldName;
+    /** The first usable name candidate, else the provider's fallback (the field name for GT maps). */
+    private static String mapDisplayName(RawMap raw) {
+        for (int i = 0; raw.nameCandidates != null && i < raw.nameCandidates.size(); i++) {
+            String name = (String) raw.nameCandidates.get(i);
+            if (isUsableName(name)) return name;
+        }
+        if ("gt".equals(raw.provider)) return raw.declaringField.substring(raw.declaringField.lastIndexOf('.') + 1);
+        if ("crafting".equals(raw.provider)) return "Crafting";
+        if ("smelting".equals(raw.provider)) return "Furnace";
+        return firstNonNull(humanizeRailcraftTag(raw.machineId), "Railcraft");
     }
 
     private static void extractGhostCircuit(DumpRecipe r) {
@@ -908,29 +1778,47 @@ public final class GTReflectionDump {
 
     /* ---------- Stack dumping ---------- */
 
-    private static List dumpItemStacks(Object v) {
-        List out = new ArrayList(); // List<DumpItemStack>
+    private static List captureItemStacks(Object v) {
+        List out = new ArrayList(); // List<RawStack>
         if (v == null) return out;
 
         if (v instanceof ItemStack[]) {
             ItemStack[] arr = (ItemStack[]) v;
-            for (int i = 0; i < arr.length; i++) addItem(out, arr[i]);
+            for (int i = 0; i < arr.length; i++) {
+                if (arr[i] != null) out.add(captureStack(arr[i]));
+            }
         } else if (v instanceof ItemStack) {
-            addItem(out, (ItemStack) v);
+            out.add(captureStack((ItemStack) v));
         }
         return out;
     }
 
-    private static void addItem(List out, ItemStack st) {
-        if (st == null) return;
-        DumpItemStack d = new DumpItemStack();
+    private static RawStack captureStack(ItemStack st) {
+        RawStack d = new RawStack();
         d.id = itemKey(st);
         d.count = st.stackSize;
         d.meta = st.getItemDamage();
         d.displayName = safeDisplayName(st);       // <--- key
         d.unlocalizedName = safeUnlocName(st);     // optional
         d.oreDict = oreDictNames(st);              // next section
-        out.add(d);
+        return d;
+    }
+
+    private static List interpretStacks(List raw) {
+        List out = new ArrayList(raw.size()); // List<DumpItemStack>
+        for (int i = 0; i < raw.size(); i++) out.add(interpretStack((RawStack) raw.get(i)));
+        return out;
+    }
+
+    private static DumpItemStack interpretStack(RawStack s) {
+        DumpItemStack d = new DumpItemStack();
+        d.id = s.id;
+        d.count = s.count;
+        d.meta = s.meta;
+        d.displayName = s.displayName;
+        d.unlocalizedName = s.unlocalizedName;
+        d.oreDict = s.oreDict;
+        return d;
     }
 
     private static String safeDisplayName(ItemStack st) {
@@ -942,20 +1830,14 @@ public final class GTReflectionDump {
 
     private static List oreDictNames(ItemStack st) {
         try {
-            int[] ids = net.minecraftforge.oredict.OreDictionary.getOreIDs(st);
-            if (ids == null || ids.length == 0) return null;
-            List out = new ArrayList();
-            for (int i = 0; i < ids.length; i++) {
-                out.add(net.minecraftforge.oredict.OreDictionary.getOreName(ids[i]));
-            }
-            return out;
+            return oreIndex().namesFor(st);
         } catch (Throwable t) {
             return null;
         }
     }
 
-    private static List dumpFluids(Object v) {
-        List out = new ArrayList(); // List<DumpFluidStack>
+    private static List captureFluids(Object v) {
+        List out = new ArrayList(); // List<RawFluid>
         if (v == null) return out;
 
         if (v instanceof FluidStack[]) {
@@ -969,15 +1851,30 @@ public final class GTReflectionDump {
 
     private static void addFluid(List out, FluidStack fs) {
         if (fs == null || fs.getFluid() == null) return;
-        DumpFluidStack d = new DumpFluidStack();
-        d.id = "fluid:" + fs.getFluid().getName();
-        d.mb = fs.amount;
-        d.isGas = isFluidGas(fs.getFluid());
+        RawFluid d = new RawFluid();
+        d.name = fs.getFluid().getName();
+        d.amount = fs.amount;
+        d.gas = isFluidGas(fs.getFluid());
         d.displayName = fluidDisplayName(fs);
         d.unlocalizedName = fluidUnlocalizedName(fs);
         out.add(d);
     }
 
+    private static List interpretFluids(List raw) {
+        List out = new ArrayList(raw.size()); // List<DumpFluidStack>
+        for (int i = 0; i < raw.size(); i++) {
+            RawFluid f = (RawFluid) raw.get(i);
+            DumpFluidStack d = new DumpFluidStack();
+            d.id = "fluid:" + f.name;
+            d.mb = f.amount;
+            d.isGas = f.gas;
+            d.displayName = f.displayName;
+            d.unlocalizedName = f.unlocalizedName;
+            out.add(d);
+        }
+        return out;
+    }
+
     private static String fluidDisplayName(FluidStack fs) {
         if (fs == null || fs.getFluid() == null) return null;
         Object fluid = fs.getFluid();
@@ -1031,6 +1928,13 @@ public final class GTReflectionDump {
 
     public static List<DumpMachineIndex> dumpMachineIndexFromRailcraftAlpha() {
         List out = new ArrayList();
+        if (source != null) {
+            for (int i = 0; i < source.otherMachines.size(); i++) {
+                RawOtherMachine m = (RawOtherMachine) source.otherMachines.get(i);
+                if (scope().includeOtherMachine(m.machineId)) out.add(interpretOtherMachine(m));
+            }
+            return out;
+        }
         Class enumClass = loadFirst(new String[] {
                 "mods.railcraft.common.blocks.machine.alpha.EnumMachineAlpha"
         });
@@ -1045,24 +1949,30 @@ public final class GTReflectionDump {
             if (!(tagObj instanceof String)) continue;
             String tag = (String) tagObj;
             if (!isUsableName(tag)) continue;
+            if (!scope().includeOtherMachine(tag)) continue;
 
-            DumpMachineIndex d = new DumpMachineIndex();
-            d.machineId = tag;
-            d.displayName = firstNonNull(
-                    bestLocalizedName(tag),
-                    humanizeRailcraftTag(tag)
-            );
-
+            RawOtherMachine m = new RawOtherMachine();
+            m.machineId = tag;
+            m.localizedName = bestLocalizedName(tag);
             Object tileClassObj = tryInvokeNoArg(constant, "getTileClass");
             if (tileClassObj instanceof Class) {
-                d.metaTileClass = ((Class) tileClassObj).getName();
+                m.tileClass = ((Class) tileClassObj).getName();
             }
 
-            out.add(d);
+            if (snapshot != null) snapshot.otherMachine(m);
+            out.add(interpretOtherMachine(m));
         }
         return out;
     }
 
+    private static DumpMachineIndex interpretOtherMachine(RawOtherMachine m) {
+        DumpMachineIndex d = new DumpMachineIndex();
+        d.machineId = m.machineId;
+        d.displayName = firstNonNull(m.localizedName, humanizeRailcraftTag(m.machineId));
+        d.metaTileClass = m.tileClass;
+        return d;
+    }
+
     private static String railcraftAlphaTagFromField(Map alphaTags, String fieldName) {
         if (!isUsableName(fieldName) || alphaTags == null) return null;
         String key = normalizeKey(fieldName);
@@ -1189,6 +2099,10 @@ public final class GTReflectionDump {
         return (o instanceof Number) ? ((Number) o).intValue() : 0;
     }
 
+    private static long asLong(Object o) {
+        return (o instanceof Number) ? ((Number) o).longValue() : 0L;
+    }
+
     private static Integer asInteger(Object o) {
         return (o instanceof Number) ? new Integer(((Number) o).intValue()) : null;
     }
@@ -1401,16 +2315,6 @@ public final class GTReflectionDump {
         return null;
     }
 
-    private static String bestDisplayNameFromMetaTile(Object mte) {
-        return bestDisplayNameFromMetaTile(mte, null);
-    }
-
-    private static String bestDisplayNameFromMetaTile(Object mte, String[] sourceOut) {
-        if (mte == null) return null;
-        Map candidates = collectDisplayNameCandidates(mte);
-        return pickBestDisplayName(candidates, sourceOut);
-    }
-
     private static String bestMetaTileName(Object mte) {
         if (mte == null) return null;
         Object v = tryInvokeAny(mte, new String[] {"getMetaName", "getName", "getMachineName"});
@@ -1547,21 +2451,7 @@ public final class GTReflectionDump {
 
     private static String bestLocalizedName(String key) {
         if (!isUsableName(key)) return null;
-        String v = localizedName(key);
-        if (isUsableName(v)) return v;
-        v = localizedName(key + ".name");
-        if (isUsableName(v)) return v;
-        if (!key.startsWith("tile.") && !key.startsWith("item.")) {
-            v = localizedName("tile." + key);
-            if (isUsableName(v)) return v;
-            v = localizedName("tile." + key + ".name");
-            if (isUsableName(v)) return v;
-            v = localizedName("item." + key);
-            if (isUsableName(v)) return v;
-            v = localizedName("item." + key + ".name");
-            if (isUsableName(v)) return v;
-        }
-        return null;
+        return localization().bestName(Localization.ACTIVE_LANGUAGE, key);
     }
 
     private static String pickBestDisplayName(Map candidates, String[] sourceOut) {
@@ -1639,9 +2529,28 @@ public final class GTReflectionDump {
         return false;
     }
 
-    private static Map collectNumericFields(Object o) {
+    /** Finite numeric and boolean fields whose names match a bonus keyword, keyed Class.field. */
+    private static Map numericFields(RawObject o) {
         if (o == null) return null;
         Map out = new LinkedHashMap();
+        for (int i = 0; i < o.fieldCount(); i++) {
+            String name = (String) o.fieldNames.get(i);
+            if (!isKeywordMatch(name) || !o.numericFields.get(i)) continue;
+            Object v = o.fieldValues.get(i);
+            if (v != null && isFiniteNumber(v)) out.put(o.fieldClasses.get(i) + "." + name, v);
+        }
+        return out;
+    }
+
+    /**
+     * Members of {@code o} for the interpretation: every declared field up the class hierarchy,
+     * the public no-arg methods named in {@code methodNames} that exist and return, and with
+     * {@code keywordMethods} the numeric keyword methods the debug output lists.
+     */
+    private static RawObject captureObject(Object o, String[][] methodNames, boolean keywordMethods) {
+        if (o == null) return null;
+        RawObject raw = new RawObject();
+        raw.className = o.getClass().getName();
         Class c = o.getClass();
         while (c != null) {
             Field[] fs;
@@ -1653,19 +2562,26 @@ public final class GTReflectionDump {
             }
             for (int i = 0; i < fs.length; i++) {
                 Field f = fs[i];
-                String name = f.getName();
-                if (!isKeywordMatch(name)) continue;
-                Class t = f.getType();
-                if (!isNumericOrBooleanType(t)) continue;
                 try {
                     f.setAccessible(true);
-                    Object v = f.get(o);
-                    if (v != null && isFiniteNumber(v)) out.put(c.getName() + "." + name, v);
+                    raw.addField(c.getName(), f.getName(), isNumericOrBooleanType(f.getType()), f.get(o));
                 } catch (Throwable ignored) {}
             }
             c = c.getSuperclass();
         }
-        return out;
+        for (int g = 0; methodNames != null && g < methodNames.length; g++) {
+            for (int i = 0; i < methodNames[g].length; i++) {
+                String name = methodNames[g][i];
+                if (raw.methods.containsKey(name)) continue;
+                try {
+                    Method m = o.getClass().getMethod(name, new Class[0]);
+                    m.setAccessible(true);
+                    raw.methods.put(name, RegistrySnapshot.scalar(m.invoke(o, new Object[0])));
+                } catch (Throwable ignored) {}
+            }
+        }
+        if (keywordMethods) raw.keywordMethods = collectNumericMethods(o);
+        return raw;
     }
 
     private static Map collectNumericMethods(Object o) {
@@ -1726,48 +2642,30 @@ public final class GTReflectionDump {
     private static String localizedName(String key) {
         if (key == null || key.length() == 0) return null;
         try {
-            String v = StatCollector.translateToLocal(key);
-            if (v != null && !v.equals(key) && v.length() > 0) return v;
+            return localization().translate(Localization.ACTIVE_LANGUAGE, key);
         } catch (Throwable ignored) {}
         return null;
     }
 
-    private static void populateMachineBonuses(Object mapObj, DumpRecipeMap map) {
-        map.parallelBonus = readNumberFromAny(mapObj, new String[] {
-                "getParallelBonus", "getParallelMultiplier", "parallelBonus", "mParallelBonus",
-                "parallelMultiplier", "mParallelMultiplier", "mParallelProcessing", "parallelProcessing"
-        });
-        map.maxParallel = readNumberFromAny(mapObj, new String[] {
-                "getMaxParallel", "getParallelLimit", "maxParallel", "mMaxParallel",
-                "parallelLimit", "mParallelLimit", "getMaxParallelRecipes", "maxParallelRecipes"
-        });
-        map.coilBonus = readNumberFromAny(mapObj, new String[] {
-                "getCoilBonus", "coilBonus", "mCoilBonus", "coilSpeedBonus", "mCoilSpeedBonus",
-                "coilLevel", "mCoilLevel", "getCoilLevel"
-        });
-        map.speedBonus = readNumberFromAny(mapObj, new String[] {
-                "getSpeedBonus", "speedBonus", "mSpeedBonus", "speedMultiplier", "mSpeedMultiplier"
-        });
-        map.efficiencyBonus = readNumberFromAny(mapObj, new String[] {
-                "getEfficiencyBonus", "efficiencyBonus", "mEfficiencyBonus", "getEfficiency",
-                "efficiency", "mEfficiency", "getEUtDiscount", "eutDiscount", "mEUtDiscount"
-        });
+    private static void populateMachineBonuses(RawObject mapObj, DumpRecipeMap map) {
+        map.parallelBonus = readNumberFromAny(mapObj, PARALLEL_BONUS_NAMES);
+        map.maxParallel = readNumberFromAny(mapObj, MAX_PARALLEL_NAMES);
+        map.coilBonus = readNumberFromAny(mapObj, COIL_BONUS_NAMES);
+        map.speedBonus = readNumberFromAny(mapObj, SPEED_BONUS_NAMES);
+        map.efficiencyBonus = readNumberFromAny(mapObj, EFFICIENCY_BONUS_NAMES);
     }
 
-    private static Double readNumberFromAny(Object o, String[] names) {
-        Object v = tryInvokeAny(o, names);
-        if (v == null) v = getAny(o, names);
+    /** The first of {@code names} as a captured method result, else as a field, when it is a number. */
+    private static Double readNumberFromAny(RawObject o, String[] names) {
+        if (o == null) return null;
+        Object v = o.invoked(names);
+        if (v == null) v = o.field(names);
         if (v instanceof Number) return new Double(((Number) v).doubleValue());
         return null;
     }
 
-    private static void populateBonusesFromProcessingLogic(Object mte, DumpMachineIndex d) {
-        populateBonusesFromProcessingLogic(mte, d, null);
-    }
-
-    private static void populateBonusesFromProcessingLogic(Object mte, DumpMachineIndex d, Object logic) {
-        if (mte == null || d == null) return;
-        if (logic == null) logic = tryCreateProcessingLogic(mte);
+    private static void populateBonusesFromProcessingLogic(RawMetaTile t, DumpMachineIndex d) {
+        RawObject logic = t.logic;
         if (logic == null) return;
 
         Double rawSpeed = readSpeedBonusFromLogic(logic);
@@ -1780,30 +2678,24 @@ public final class GTReflectionDump {
             }
         }
 
-        Double euMod = readNumberFromAny(logic, new String[] {
-                "getEuModifier", "getEUtModifier", "euModifier", "mEuModifier", "mEUtModifier", "eutModifier"
-        });
+        Double euMod = readNumberFromAny(logic, LOGIC_EU_MODIFIER_NAMES);
         if (euMod != null) {
             d.efficiencyBonus = euMod;
         }
 
-        populateBonusesFromOverclockCalculator(logic, d);
+        populateBonusesFromOverclockCalculator(t.overclockCalculator, d);
 
-        Integer maxPar = readIntSupplierFromAny(logic, new String[] {
-                "getMaxParallelSupplier", "maxParallelSupplier", "mMaxParallelSupplier", "getMaxParallel"
-        });
+        Integer maxPar = t.logicMaxParallel;
         if (maxPar != null && maxPar.intValue() > 0) {
             d.maxParallel = new Double(maxPar.doubleValue());
         }
     }
 
-    private static void populateBonusesFromTooltip(Object mte, DumpMachineIndex d) {
-        if (mte == null || d == null) return;
-        Object tooltip = tryCreateTooltip(mte);
-        if (tooltip == null) return;
+    private static void populateBonusesFromTooltip(RawObject tooltip, DumpMachineIndex d) {
+        if (tooltip == null || d == null) return;
         boolean derived = false;
 
-        List lines = collectTooltipLines(tooltip);
+        List lines = tooltipLines(tooltip.lines);
         Set ruleMetrics = new HashSet();
         if (lines != null && lines.size() > 0) {
             List rules = parseBonusRulesFromTooltipLines(lines, ruleMetrics);
@@ -1815,9 +2707,7 @@ public final class GTReflectionDump {
         }
 
         if (!ruleMetrics.contains("parallel") && d.parallelBonus == null) {
-            Double v = readNumberFromAny(tooltip, new String[] {
-                    "getParallel", "getParallelBonus", "getParallels", "getParallelism"
-            });
+            Double v = readNumberFromAny(tooltip, TOOLTIP_PARALLEL_NAMES);
             if (v == null) v = readNumberByKeyword(tooltip, "parallel");
             if (v != null) {
                 d.parallelBonus = v;
@@ -1826,9 +2716,7 @@ public final class GTReflectionDump {
         }
 
         if (!ruleMetrics.contains("speed") && d.speedBonus == null) {
-            Double v = readNumberFromAny(tooltip, new String[] {
-                    "getSpeedBonus", "getSpeedMultiplier", "getSpeedModifier", "getSpeed"
-            });
+            Double v = readNumberFromAny(tooltip, TOOLTIP_SPEED_NAMES);
             if (v == null) v = readNumberByKeyword(tooltip, "speed");
             if (v != null) {
                 d.speedBonus = v;
@@ -1837,9 +2725,7 @@ public final class GTReflectionDump {
         }
 
         if (!ruleMetrics.contains("efficiency") && d.efficiencyBonus == null) {
-            Double v = readNumberFromAny(tooltip, new String[] {
-                    "getEuModifier", "getEUtModifier", "getEnergyModifier", "getEfficiencyBonus", "getEfficiency"
-            });
+            Double v = readNumberFromAny(tooltip, TOOLTIP_EFFICIENCY_NAMES);
             if (v == null) v = readNumberByKeyword(tooltip, "efficien");
             if (v == null) v = readNumberByKeyword(tooltip, "eumod");
             if (v != null) {
@@ -1879,19 +2765,13 @@ public final class GTReflectionDump {
         if (derived) d.tooltipDerived = Boolean.TRUE;
     }
 
-    private static List collectTooltipLines(Object tooltip) {
+    /** Every string, String[] element and List element string the tooltip exposes, unfiltered, in lookup order. */
+    private static List captureTooltipLines(Object tooltip) {
         List out = new ArrayList();
-        if (tooltip == null) return out;
-        Set seen = new LinkedHashSet();
-
-        Object v = tryInvokeNoArg(tooltip, "getTooltip");
-        addTooltipLinesFromObj(out, seen, v);
-        v = tryInvokeNoArg(tooltip, "getLines");
-        addTooltipLinesFromObj(out, seen, v);
-        v = tryInvokeNoArg(tooltip, "getInfo");
-        addTooltipLinesFromObj(out, seen, v);
-        v = tryInvokeNoArg(tooltip, "getInfoLines");
-        addTooltipLinesFromObj(out, seen, v);
+        addTooltipStrings(out, tryInvokeNoArg(tooltip, "getTooltip"));
+        addTooltipStrings(out, tryInvokeNoArg(tooltip, "getLines"));
+        addTooltipStrings(out, tryInvokeNoArg(tooltip, "getInfo"));
+        addTooltipStrings(out, tryInvokeNoArg(tooltip, "getInfoLines"));
 
         Class c = tooltip.getClass();
         while (c != null) {
@@ -1906,8 +2786,7 @@ public final class GTReflectionDump {
                 Field f = fs[i];
                 try {
                     f.setAccessible(true);
-                    Object val = f.get(tooltip);
-                    addTooltipLinesFromObj(out, seen, val);
+                    addTooltipStrings(out, f.get(tooltip));
                 } catch (Throwable ignored) {}
             }
             c = c.getSuperclass();
@@ -1915,28 +2794,37 @@ public final class GTReflectionDump {
         return out;
     }
 
-    private static void addTooltipLinesFromObj(List out, Set seen, Object v) {
+    private static void addTooltipStrings(List out, Object v) {
         if (v == null) return;
         if (v instanceof String) {
-            addTooltipLine(out, seen, (String) v);
+            out.add(v);
             return;
         }
         if (v instanceof String[]) {
             String[] arr = (String[]) v;
-            for (int i = 0; i < arr.length; i++) addTooltipLine(out, seen, arr[i]);
+            for (int i = 0; i < arr.length; i++) {
+                if (arr[i] != null) out.add(arr[i]);
+            }
             return;
         }
         if (v instanceof List) {
             List list = (List) v;
             for (int i = 0; i < list.size(); i++) {
                 Object o = list.get(i);
-                if (o instanceof String) {
-                    addTooltipLine(out, seen, (String) o);
-                }
+                if (o instanceof String) out.add(o);
             }
         }
     }
 
+    /** Captured tooltip strings as the parsers read them: formatting stripped, blanks and repeats dropped. */
+    private static List tooltipLines(List raw) {
+        List out = new ArrayList();
+        if (raw == null) return out;
+        Set seen = new LinkedHashSet();
+        for (int i = 0; i < raw.size(); i++) addTooltipLine(out, seen, (String) raw.get(i));
+        return out;
+    }
+
     private static void addTooltipLine(List out, Set seen, String line) {
         if (!isUsableName(line)) return;
         String cleaned = stripFormatting(line);
@@ -2352,13 +3240,17 @@ public final class GTReflectionDump {
         return null;
     }
 
-    private static Integer computeParallelPerTier(Object mte) {
-        if (mte == null) return null;
+    /**
+     * getMaxParallelRecipes with the input voltage briefly set to LV (32 EU/t), for machines whose
+     * parallels scale with the energy tier; parallelPerTier divides it by LV's tier.
+     */
+    private static void captureParallelPerTier(Object mte, RawMetaTile t) {
         Method m = findNoArgMethod(mte.getClass(), "getMaxParallelRecipes");
-        if (m == null) return null;
+        if (m == null) return;
 
         Integer tier = getTierForVoltage(32L);
-        if (tier == null || tier.intValue() <= 0) return null;
+        t.lvTier = tier;
+        if (tier == null || tier.intValue() <= 0) return;
 
         Field f = findFieldInHierarchy(mte.getClass(), new String[] {
                 "mMaxInputVoltage", "maxInputVoltage", "mMaxVoltage", "mInputVoltage", "mVoltage"
@@ -2396,18 +3288,16 @@ public final class GTReflectionDump {
             try { f.set(mte, prior); } catch (Throwable ignored) {}
         }
 
-        if (max != null && tier.intValue() > 0) {
-            return new Integer(max.intValue() / tier.intValue());
-        }
-        return null;
+        t.maxParallelAtLV = max;
     }
 
-    private static Double readSpeedBonusFromLogic(Object logic) {
-        Double rawSpeed = readNumberFromAny(logic, new String[] {
-                "getSpeedBonus", "getSpeedModifier", "getSpeedMultiplier",
-                "speedBonus", "mSpeedBonus", "speedModifier", "mSpeedModifier",
-                "speedMultiplier", "mSpeedMultiplier", "mSpeed"
-        });
+    private static Integer parallelPerTier(RawMetaTile t) {
+        if (t.maxParallelAtLV == null || t.lvTier == null || t.lvTier.intValue() <= 0) return null;
+        return new Integer(t.maxParallelAtLV.intValue() / t.lvTier.intValue());
+    }
+
+    private static Double readSpeedBonusFromLogic(RawObject logic) {
+        Double rawSpeed = readNumberFromAny(logic, LOGIC_SPEED_NAMES);
         if (rawSpeed != null) return rawSpeed;
 
         Double byField = readNumberByKeyword(logic, "speed");
@@ -2420,10 +3310,8 @@ public final class GTReflectionDump {
         return null;
     }
 
-    private static void populateBonusesFromOverclockCalculator(Object logic, DumpMachineIndex d) {
-        if (logic == null || d == null) return;
-        Object calc = findOverclockCalculator(logic);
-        if (calc == null) return;
+    private static void populateBonusesFromOverclockCalculator(RawObject calc, DumpMachineIndex d) {
+        if (calc == null || d == null) return;
 
         if (d.speedBonus == null) {
             Double duration = readDurationModifier(calc);
@@ -2433,11 +3321,7 @@ public final class GTReflectionDump {
         }
 
         if (d.efficiencyBonus == null) {
-            Double euMod = readNumberFromAny(calc, new String[] {
-                    "getEUtDiscount", "getEuDiscount", "getEUtModifier", "getEuModifier",
-                    "eutDiscount", "euDiscount", "mEUtDiscount", "mEuDiscount",
-                    "euModifier", "mEuModifier", "eutModifier", "mEUtModifier"
-            });
+            Double euMod = readNumberFromAny(calc, CALCULATOR_EU_NAMES);
             if (euMod == null) euMod = readNumberByKeyword(calc, "discount");
             if (euMod == null) euMod = readNumberByKeyword(calc, "eut");
             if (euMod == null) euMod = readNumberByKeyword(calc, "energy");
@@ -2470,13 +3354,9 @@ public final class GTReflectionDump {
         return null;
     }
 
-    private static Double readDurationModifier(Object o) {
+    private static Double readDurationModifier(RawObject o) {
         if (o == null) return null;
-        Double v = readNumberFromAny(o, new String[] {
-                "getDurationModifier", "durationModifier", "mDurationModifier",
-                "getDurationMultiplier", "durationMultiplier", "mDurationMultiplier",
-                "getTimeModifier", "timeModifier", "mTimeModifier"
-        });
+        Double v = readNumberFromAny(o, DURATION_MODIFIER_NAMES);
         if (v != null) return v;
         v = readNumberByKeyword(o, "duration");
         if (v != null) return v;
@@ -2485,30 +3365,21 @@ public final class GTReflectionDump {
         return null;
     }
 
-    private static Double readNumberByKeyword(Object o, String keyword) {
+    /** The one numeric field whose name contains {@code keyword}; null when none or several do. */
+    private static Double readNumberByKeyword(RawObject o, String keyword) {
         if (o == null) return null;
         String kw = nullSafe(keyword).toLowerCase();
         Double found = null;
         int hits = 0;
-        Class c = o.getClass();
-        while (c != null) {
-            Field[] fs = c.getDeclaredFields();
-            for (int i = 0; i < fs.length; i++) {
-                Field f = fs[i];
-                String name = f.getName();
-                if (name == null || name.toLowerCase().indexOf(kw) < 0) continue;
-                Class t = f.getType();
-                if (!isNumericOrBooleanType(t)) continue;
-                try {
-                    f.setAccessible(true);
-                    Object v = f.get(o);
-                    if (v instanceof Number) {
-                        found = new Double(((Number) v).doubleValue());
-                        hits++;
-                    }
-                } catch (Throwable ignored) {}
+        for (int i = 0; i < o.fieldCount(); i++) {
+            String name = (String) o.fieldNames.get(i);
+            if (name == null || name.toLowerCase().indexOf(kw) < 0) continue;
+            if (!o.numericFields.get(i)) continue;
+            Object v = o.fieldValues.get(i);
+            if (v instanceof Number) {
+                found = new Double(((Number) v).doubleValue());
+                hits++;
             }
-            c = c.getSuperclass();
         }
         return (hits == 1) ? found : null;
     }
@@ -2567,41 +3438,800 @@ public final class GTReflectionDump {
     }
 
     private static void addPowerDerivedFields(DumpRecipe r) {
-        int eut = r.eut;
+        long eut = r.eut;
         if (eut <= 0) return;
 
-        Tier t = minTierForEUt(eut);
-        if (t == null) return;
-
-        r.minTier = t.name;
-        r.minVoltage = new Integer(t.voltage);
-        r.ampsAtMinTier = new Integer((eut + t.voltage - 1) / t.voltage); // ceil
-    }
-
-    private static final class Tier {
-        final String name;
-        final int voltage;
-        Tier(String name, int voltage) { this.name = name; this.voltage = voltage; }
-    }
-
-    private static Tier minTierForEUt(int eut) {
-        // Classic GT tiers (amps separate); adjust if your GTNH uses different caps.
-        Tier[] tiers = new Tier[] {
-                new Tier("ULV", 8),
-                new Tier("LV", 32),
-                new Tier("MV", 128),
-                new Tier("HV", 512),
-                new Tier("EV", 2048),
-                new Tier("IV", 8192),
-                new Tier("LuV", 32768),
-                new Tier("ZPM", 131072),
-                new Tier("UV", 524288),
-                new Tier("UHV", 2097152),
-        };
-        for (int i = 0; i < tiers.length; i++) {
-            if (eut <= tiers[i].voltage) return tiers[i];
+        int t = VoltageTiers.minTier(eut);
+        r.minTier = VoltageTiers.name(t);
+        r.minVoltage = new Integer((int) VoltageTiers.voltage(t));
+        r.ampsAtMinTier = new Integer((int) Math.min(Integer.MAX_VALUE, VoltageTiers.amps(eut, t)));
+    }
+
+    /* ---------- Columnar recipe store ---------- */
+
+    private static String debugMachineId(Object mte, int metaTileId) {
+        Object mapObj = tryInvokeAny(mte, new String[] {"getRecipeMap", "getRecipeMapForNEI", "getRecipeMapNEI"});
+        if (mapObj == null) {
+            mapObj = getAny(mte, new String[] {"mRecipeMap", "recipeMap", "mMap"});
+        }
+        return (mapObj != null) ? bestMachineId(mapObj, "meta." + metaTileId) : null;
+    }
+
+    private static void storeMap(DumpRecipeMap map) {
+        // Sampling needs rids, so it runs here, once a map is extracted and before it is stored.
+        if (map != null && scope().isSampling()) map.recipes = scope().sample(map.recipes);
+        RecipeStore store = activeStore;
+        if (store == null || map == null) return;
+        if (jsonStage != null) stageRecipeMapJson(map);
+        map.storeFirst = store.recipeCount();
+        if (map.recipes != null) {
+            for (int i = 0; i < map.recipes.size(); i++) {
+                DumpRecipe r = (DumpRecipe) map.recipes.get(i);
+                if (r != null) appendToStore(store, r);
+            }
+        }
+        map.storeEnd = store.recipeCount();
+        if (!retainRecipeObjects) map.recipes = null;
+    }
+
+    /**
+     * Hands {@code map}'s recipes.json element to the stage. The encoder reads the map's fields
+     * (not changed once it is stored) and its recipe list (copied here, as columnar mode drops it),
+     * through a store of its own: the shared one keeps growing on this thread.
+     */
+    private static void stageRecipeMapJson(final DumpRecipeMap map) {
+        final List recipes = (map.recipes == null) ? Collections.EMPTY_LIST : new ArrayList(map.recipes);
+        jsonStage.stage(map, new RecipeJsonStage.Element() {
+            public void write(JsonWriter w) throws IOException {
+                RecipeStore own = new RecipeStore();
+                for (int i = 0; i < recipes.size(); i++) {
+                    DumpRecipe r = (DumpRecipe) recipes.get(i);
+                    if (r != null) appendToStore(own, r);
+                }
+                writeRecipeMapJson(w, map, own, 0, own.recipeCount());
+            }
+        });
+    }
+
+    private static void appendToStore(RecipeStore store, DumpRecipe r) {
+        store.beginRecipe(r.rid, r.machineId, r.recipeClass, r.minTier, r.eut, r.durationTicks);
+        if (r.specialValue != null) store.setSpecialValue(r.specialValue.intValue());
+        if (r.ebfTemp != null) store.setEbfTemp(r.ebfTemp.intValue());
+        if (r.circuitConfig != null) store.setCircuitConfig(r.circuitConfig.intValue());
+        if (r.circuitGhost != null) store.setCircuitGhost(r.circuitGhost.booleanValue());
+        if (r.minVoltage != null) store.setMinVoltage(r.minVoltage.intValue());
+        if (r.ampsAtMinTier != null) store.setAmpsAtMinTier(r.ampsAtMinTier.intValue());
+        if (r.chanceScale != null) store.setChanceScale(r.chanceScale.intValue());
+        if (r.itemInputs != null) {
+            for (int i = 0; i < r.itemInputs.size(); i++) {
+                DumpItemStack s = (DumpItemStack) r.itemInputs.get(i);
+                if (s == null) continue;
+                store.addItemInput(s.id, s.meta, s.count, binaryChance(s.chance), s.displayName, s.unlocalizedName, s.oreDict);
+            }
+        }
+        if (r.itemOutputs != null) {
+            for (int i = 0; i < r.itemOutputs.size(); i++) {
+                DumpItemStack s = (DumpItemStack) r.itemOutputs.get(i);
+                if (s == null) continue;
+                store.addItemOutput(s.id, s.meta, s.count, binaryChance(s.chance), s.displayName, s.unlocalizedName, s.oreDict);
+            }
+        }
+        if (r.fluidInputs != null) {
+            for (int i = 0; i < r.fluidInputs.size(); i++) {
+                DumpFluidStack f = (DumpFluidStack) r.fluidInputs.get(i);
+                if (f == null) continue;
+                store.addFluidInput(f.id, f.mb, f.isGas, f.displayName, f.unlocalizedName);
+            }
+        }
+        if (r.fluidOutputs != null) {
+            for (int i = 0; i < r.fluidOutputs.size(); i++) {
+                DumpFluidStack f = (DumpFluidStack) r.fluidOutputs.get(i);
+                if (f == null) continue;
+                store.addFluidOutput(f.id, f.mb, f.isGas, f.displayName, f.unlocalizedName);
+            }
+        }
+        if (r.outputChances != null) {
+            store.setHasChances();
+            for (int i = 0; i < r.outputChances.size(); i++) {
+                Object c = r.outputChances.get(i);
+                if (c instanceof Integer) store.addChance(((Integer) c).intValue());
+            }
+        }
+        store.closeRecipe();
+    }
+
+    private static double binaryChance(Double chance) {
+        return (chance != null) ? chance.doubleValue() : Double.NaN;
+    }
+
+    /**
+     * Streams recipes.json from the store. Field order, null omission and number formatting
+     * follow what Gson produces for {@link DumpRoot}, so the file is the same either way.
+     */
+    public static void writeRecipesJson(DumpRoot root, Writer out) throws IOException {
+        RecipeStore store = root.store;
+        JsonWriter w = RecipeJsonStage.newJsonWriter(out);
+        writeRecipesJsonHeader(w, root);
+        if (root.recipeMaps != null) {
+            w.name("recipeMaps").beginArray();
+            for (int i = 0; i < root.recipeMaps.size(); i++) {
+                Object o = root.recipeMaps.get(i);
+                if (!(o instanceof DumpRecipeMap)) continue;
+                DumpRecipeMap map = (DumpRecipeMap) o;
+                writeRecipeMapJson(w, map, store, map.storeFirst, map.storeEnd);
+            }
+            w.endArray();
+        }
+        w.endObject();
+        w.flush();
+    }
+
+    /**
+     * Writes recipes.json to {@code file}: assembled from the stage when this dump staged its
+     * maps (the same bytes), otherwise streamed from the store.
+     */
+    public static void writeRecipesJson(final DumpRoot root, File file) throws IOException {
+        RecipeJsonStage stage = jsonStage;
+        if (stage != null && root.recipeMaps != null) {
+            List maps = new ArrayList();
+            Map fromStore = new IdentityHashMap(); // maps never staged: written from the store
+            for (int i = 0; i < root.recipeMaps.size(); i++) {
+                Object o = root.recipeMaps.get(i);
+                if (!(o instanceof DumpRecipeMap)) continue;
+                final DumpRecipeMap map = (DumpRecipeMap) o;
+                maps.add(map);
+                fromStore.put(map, new RecipeJsonStage.Element() {
+                    public void write(JsonWriter w) throws IOException {
+                        writeRecipeMapJson(w, map, root.store, map.storeFirst, map.storeEnd);
+                    }
+                });
+            }
+            RecipeJsonStage.Element header = new RecipeJsonStage.Element() {
+                public void write(JsonWriter w) throws IOException {
+                    writeRecipesJsonHeader(w, root);
+                }
+            };
+            if (stage.write(file, header, maps, fromStore)) return;
+        }
+        Writer out = new java.io.FileWriter(file);
+        try {
+            writeRecipesJson(root, out);
+        } finally {
+            out.close();
+        }
+    }
+
+    /** Opens the root object and writes the members before recipeMaps. */
+    private static void writeRecipesJsonHeader(JsonWriter w, DumpRoot root) throws IOException {
+        w.beginObject();
+        jsonString(w, "generatedAt", root.generatedAt);
+        jsonString(w, "minecraft", root.minecraft);
+        jsonString(w, "mod", root.mod);
+        if (root.scope != null) {
+            w.name("scope");
+            writeJsonValue(w, root.scope);
+        }
+        if (root.abandoned != null) {
+            w.name("abandoned");
+            writeJsonValue(w, root.abandoned);
+        }
+    }
+
+    private static void writeRecipeMapJson(JsonWriter w, DumpRecipeMap map, RecipeStore store, int first, int end)
+            throws IOException {
+        w.beginObject();
+        jsonString(w, "machineId", map.machineId);
+        jsonString(w, "displayName", map.displayName);
+        jsonString(w, "declaringField", map.declaringField);
+        w.name("recipeCount").value(map.recipeCount);
+        jsonDouble(w, "parallelBonus", map.parallelBonus);
+        jsonDouble(w, "maxParallel", map.maxParallel);
+        jsonDouble(w, "coilBonus", map.coilBonus);
+        jsonDouble(w, "speedBonus", map.speedBonus);
+        jsonDouble(w, "efficiencyBonus", map.efficiencyBonus);
+        if (map.tooltipDerived != null) w.name("tooltipDerived").value(map.tooltipDerived.booleanValue());
+        w.name("recipes").beginArray();
+        for (int r = first; r < end; r++) writeRecipeJson(w, store, r);
+        w.endArray();
+        w.endObject();
+    }
+
+    private static void writeRecipeJson(JsonWriter w, RecipeStore store, int r) throws IOException {
+        w.beginObject();
+        jsonString(w, "rid", store.rid(r));
+        jsonString(w, "machineId", store.machineId(r));
+        jsonString(w, "recipeClass", store.recipeClass(r));
+        jsonString(w, "minTier", store.minTier(r));
+        w.name("durationTicks").value(store.durationTicks(r));
+        w.name("eut").value(store.eut(r));
+        if (store.has(r, RecipeStore.F_SPECIAL)) w.name("specialValue").value(store.specialValue(r));
+        if (store.has(r, RecipeStore.F_EBF_TEMP)) w.name("ebfTemp").value(store.ebfTemp(r));
+        if (store.has(r, RecipeStore.F_CIRCUIT)) w.name("circuitConfig").value(store.circuitConfig(r));
+        if (store.has(r, RecipeStore.F_MIN_VOLTAGE)) w.name("minVoltage").value(store.minVoltage(r));
+        if (store.has(r, RecipeStore.F_AMPS)) w.name("ampsAtMinTier").value(store.ampsAtMinTier(r));
+        if (store.has(r, RecipeStore.F_GHOST_PRESENT)) w.name("circuitGhost").value(store.circuitGhost(r));
+        w.name("itemInputs");
+        writeItemsJson(w, store, store.itemInputStart(r), store.itemInputCount(r));
+        w.name("itemOutputs");
+        writeItemsJson(w, store, store.itemOutputStart(r), store.itemOutputCount(r));
+        w.name("fluidInputs");
+        writeFluidsJson(w, store, store.fluidInputStart(r), store.fluidInputCount(r));
+        w.name("fluidOutputs");
+        writeFluidsJson(w, store, store.fluidOutputStart(r), store.fluidOutputCount(r));
+        if (store.has(r, RecipeStore.F_CHANCES)) {
+            w.name("outputChances").beginArray();
+            int start = store.chanceStart(r);
+            for (int i = start; i < start + store.chanceCount(r); i++) w.value(store.chance(i));
+            w.endArray();
+        }
+        if (store.has(r, RecipeStore.F_CHANCE_SCALE)) w.name("chanceScale").value(store.chanceScale(r));
+        w.endObject();
+    }
+
+    private static void writeItemsJson(JsonWriter w, RecipeStore store, int start, int count) throws IOException {
+        w.beginArray();
+        for (int s = start; s < start + count; s++) {
+            w.beginObject();
+            jsonString(w, "id", store.itemId(s));
+            w.name("count").value(store.itemCount(s));
+            w.name("meta").value(store.itemMeta(s));
+            double chance = store.itemChance(s);
+            if (!Double.isNaN(chance)) w.name("chance").value(chance);
+            jsonString(w, "displayName", store.itemDisplayName(s));
+            jsonString(w, "unlocalizedName", store.itemUnlocalizedName(s));
+            List ore = store.itemOreDict(s);
+            if (ore != null) {
+                w.name("oreDict").beginArray();
+                for (int i = 0; i < ore.size(); i++) w.value((String) ore.get(i));
+                w.endArray();
+            }
+            w.endObject();
+        }
+        w.endArray();
+    }
+
+    private static void writeFluidsJson(JsonWriter w, RecipeStore store, int start, int count) throws IOException {
+        w.beginArray();
+        for (int s = start; s < start + count; s++) {
+            w.beginObject();
+            jsonString(w, "id", store.fluidId(s));
+            w.name("mb").value(store.fluidMb(s));
+            Boolean gas = store.fluidIsGas(s);
+            if (gas != null) w.name("isGas").value(gas.booleanValue());
+            jsonString(w, "displayName", store.fluidDisplayName(s));
+            jsonString(w, "unlocalizedName", store.fluidUnlocalizedName(s));
+            w.endObject();
+        }
+        w.endArray();
+    }
+
+    private static void jsonString(JsonWriter w, String name, String value) throws IOException {
+        if (value != null) w.name(name).value(value);
+    }
+
+    /** Maps, lists, strings, numbers and booleans, as Gson writes them; null entries are skipped like Gson's. */
+    private static void writeJsonValue(JsonWriter w, Object v) throws IOException {
+        if (v == null) {
+            w.nullValue();
+        } else if (v instanceof Map) {
+            w.beginObject();
+            for (Iterator it = ((Map) v).entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry e = (Map.Entry) it.next();
+                if (e.getValue() == null) continue;
+                w.name(String.valueOf(e.getKey()));
+                writeJsonValue(w, e.getValue());
+            }
+            w.endObject();
+        } else if (v instanceof List) {
+            w.beginArray();
+            for (int i = 0; i < ((List) v).size(); i++) writeJsonValue(w, ((List) v).get(i));
+            w.endArray();
+        } else if (v instanceof Boolean) {
+            w.value(((Boolean) v).booleanValue());
+        } else if (v instanceof Number) {
+            w.value((Number) v);
+        } else {
+            w.value(String.valueOf(v));
+        }
+    }
+
+    private static void jsonDouble(JsonWriter w, String name, Double value) throws IOException {
+        if (value != null) w.name(name).value(value.doubleValue());
+    }
+
+    /**
+     * Streams recipe_membership.json: one row per recipe with the rid of the first recipe (in
+     * output order) that has the same body, so consumers can store each body once and keep the
+     * recipe -> machine relation separately.
+     */
+    public static void writeRecipeMembershipJson(DumpRoot root, Writer out) throws IOException {
+        RecipeStore store = root.store;
+        int[] bodyRow = new int[store.bodyCount()];
+        Arrays.fill(bodyRow, -1);
+        JsonWriter w = new JsonWriter(out);
+        w.setIndent("  ");
+        w.setHtmlSafe(false);
+        w.beginObject();
+        jsonString(w, "generatedAt", root.generatedAt);
+        jsonString(w, "minecraft", root.minecraft);
+        jsonString(w, "mod", root.mod);
+        w.name("recipeCount").value(store.recipeCount());
+        w.name("bodyCount").value(store.bodyCount());
+        w.name("memberships").beginArray();
+        if (root.recipeMaps != null) {
+            for (int i = 0; i < root.recipeMaps.size(); i++) {
+                Object o = root.recipeMaps.get(i);
+                if (!(o instanceof DumpRecipeMap)) continue;
+                DumpRecipeMap map = (DumpRecipeMap) o;
+                for (int r = map.storeFirst; r < map.storeEnd; r++) {
+                    int b = store.body(r);
+                    if (bodyRow[b] < 0) bodyRow[b] = r;
+                    w.beginObject();
+                    jsonString(w, "rid", store.rid(r));
+                    jsonString(w, "machineId", store.machineId(r));
+                    jsonString(w, "bodyRid", store.rid(bodyRow[b]));
+                    w.endObject();
+                }
+            }
+        }
+        w.endArray();
+        w.endObject();
+        w.flush();
+    }
+
+    /**
+     * Streams ore_dictionary.json: one row per (ore, item, meta) registration from the index the
+     * dump resolved ingredients against. Wildcard registrations keep meta 32767 and set wildcard.
+     */
+    public static void writeOreDictionaryJson(DumpRoot root, Writer out) throws IOException {
+        OreTable table = oreTable();
+        JsonWriter w = new JsonWriter(out);
+        w.setIndent("  ");
+        w.setHtmlSafe(false);
+        w.beginObject();
+        jsonString(w, "generatedAt", root.generatedAt);
+        jsonString(w, "minecraft", root.minecraft);
+        jsonString(w, "mod", root.mod);
+        w.name("oreCount").value(table.names.length);
+        w.name("entryCount").value(table.entryCount);
+        w.name("entries").beginArray();
+        for (int id = 0; id < table.names.length; id++) {
+            if (table.names[id] == null) continue;
+            for (int i = 0; i < table.items[id].length; i++) {
+                int meta = table.metas[id][i];
+                w.beginObject();
+                w.name("ore").value(table.names[id]);
+                w.name("oreId").value(id);
+                w.name("id").value(table.items[id][i]);
+                w.name("meta").value(meta);
+                w.name("wildcard").value(meta == OreDictionary.WILDCARD_VALUE);
+                w.endObject();
+            }
+        }
+        w.endArray();
+        w.endObject();
+        w.flush();
+    }
+
+    /** Per ore id its name and distinct (item key, meta) registrations, in registration order. */
+    private static OreTable captureOreTable(OreDictIndex index) {
+        OreTable table = new OreTable(index.oreCount());
+        table.entryCount = index.entryCount();
+        Map keys = new IdentityHashMap(); // Item -> item key
+        for (int id = 0; id < index.oreCount(); id++) {
+            String name = index.oreName(id);
+            List ores = index.ores(id);
+            if (name == null || ores == null) continue;
+            Set seen = new HashSet(); // Item + meta, so a stack listed twice is written once
+            List items = new ArrayList();
+            List metas = new ArrayList();
+            for (int i = 0; i < ores.size(); i++) {
+                Object o = ores.get(i);
+                if (!(o instanceof ItemStack)) continue;
+                ItemStack st = (ItemStack) o;
+                if (st.getItem() == null) continue;
+                String key = (String) keys.get(st.getItem());
+                if (key == null) {
+                    key = itemKey(st);
+                    keys.put(st.getItem(), key);
+                }
+                int meta = st.getItemDamage();
+                if (!seen.add(key + "@" + meta)) continue;
+                items.add(key);
+                metas.add(new Integer(meta));
+            }
+            table.names[id] = name;
+            table.items[id] = (String[]) items.toArray(new String[items.size()]);
+            table.metas[id] = new int[metas.size()];
+            for (int i = 0; i < metas.size(); i++) table.metas[id][i] = ((Integer) metas.get(i)).intValue();
+        }
+        return table;
+    }
+
+    /**
+     * Streams recipe_throughput.json: for each voltage tier, every recipe that runs at it with its
+     * parallels, overclocked duration and EU/t, items per second and EU per item, under standard
+     * and perfect overclocks (see ThroughputTable). Rows name recipes by their index in the
+     * "recipes" columns; machine bonuses come from {@code machineIndex}.
+     */
+    public static void writeThroughputJson(DumpRoot root, List machineIndex, Writer out) throws IOException {
+        RecipeStore store = root.store;
+        int n = store.recipeCount();
+        long[] eut = new long[n];
+        int[] duration = new int[n];
+        byte[] minTier = new byte[n];
+        int[] amps = new int[n];
+        double[] itemsPerCraft = new double[n];
+        int[] machine = new int[n];
+        Map machineOf = new LinkedHashMap(); // machineId -> Integer index
+        for (int r = 0; r < n; r++) {
+            eut[r] = store.eut(r);
+            duration[r] = store.durationTicks(r);
+            minTier[r] = (byte) VoltageTiers.ordinal(store.minTier(r));
+            amps[r] = store.has(r, RecipeStore.F_AMPS) ? Math.max(1, store.ampsAtMinTier(r)) : 1;
+            double items = 0.0;
+            for (int s = store.itemOutputStart(r); s < store.itemOutputStart(r) + store.itemOutputCount(r); s++) {
+                double chance = store.itemChance(s);
+                items += store.itemCount(s) * (Double.isNaN(chance) ? 1.0 : chance);
+            }
+            itemsPerCraft[r] = items;
+            Integer m = (Integer) machineOf.get(store.machineId(r));
+            if (m == null) {
+                m = new Integer(machineOf.size());
+                machineOf.put(store.machineId(r), m);
+            }
+            machine[r] = m.intValue();
+        }
+
+        ThroughputTable table = new ThroughputTable(eut, duration, minTier, amps, itemsPerCraft, machine, machineOf.size());
+        Set withBonuses = new HashSet();
+        for (int i = 0; machineIndex != null && i < machineIndex.size(); i++) {
+            Object o = machineIndex.get(i);
+            if (!(o instanceof DumpMachineIndex)) continue;
+            DumpMachineIndex d = (DumpMachineIndex) o;
+            Integer m = (Integer) machineOf.get(d.machineId);
+            if (m == null || withBonuses.contains(m) || !hasBonuses(d)) continue;
+            withBonuses.add(m);
+            table.setBonuses(m.intValue(), orNaN(d.parallelBonus), orNaN(d.maxParallel), orNaN(d.speedBonus), orNaN(d.efficiencyBonus));
+            for (int k = 0; d.bonusRules != null && k < d.bonusRules.size(); k++) {
+                BonusRule rule = (BonusRule) d.bonusRules.get(k);
+                table.addRule(m.intValue(), rule.metric, rule.source, orNaN(rule.base), orNaN(rule.perTier),
+                        orNaN(rule.capMin), orNaN(rule.capMax));
+            }
+        }
+
+        JsonWriter w = new JsonWriter(out);
+        w.setIndent("  ");
+        w.setHtmlSafe(false);
+        w.beginObject();
+        jsonString(w, "generatedAt", root.generatedAt);
+        jsonString(w, "minecraft", root.minecraft);
+        jsonString(w, "mod", root.mod);
+        w.name("recipeCount").value(n);
+        w.name("recipes").beginObject();
+        w.name("rid").beginArray();
+        for (int r = 0; r < n; r++) w.value(store.rid(r));
+        w.endArray();
+        w.name("machineId").beginArray();
+        for (int r = 0; r < n; r++) w.value(store.machineId(r));
+        w.endArray();
+        w.name("itemsPerCraft").beginArray();
+        for (int r = 0; r < n; r++) jsonFloat(w, itemsPerCraft[r]);
+        w.endArray();
+        w.endObject();
+
+        w.name("tiers").beginArray();
+        ThroughputTable.Columns c = null;
+        for (int t = 0; t < VoltageTiers.COUNT; t++) {
+            c = table.tier(t, c);
+            w.beginObject();
+            w.name("tier").value(VoltageTiers.name(t));
+            w.name("voltage").value(VoltageTiers.voltage(t));
+            w.name("rowCount").value(c.size);
+            w.name("recipe").beginArray();
+            for (int i = 0; i < c.size; i++) w.value(c.recipe[i]);
+            w.endArray();
+            w.name("parallel").beginArray();
+            for (int i = 0; i < c.size; i++) w.value(c.parallel[i]);
+            w.endArray();
+            writeThroughputMode(w, c, ThroughputTable.STANDARD, "");
+            writeThroughputMode(w, c, ThroughputTable.PERFECT, "perfect");
+            w.endObject();
+        }
+        w.endArray();
+        w.endObject();
+        w.flush();
+    }
+
+    /** One overclock mode's columns of a tier; {@code prefix} "perfect" names them perfectEut, ... */
+    private static void writeThroughputMode(JsonWriter w, ThroughputTable.Columns c, int mode, String prefix) throws IOException {
+        w.name(columnName(prefix, "eut")).beginArray();
+        for (int i = 0; i < c.size; i++) w.value(c.eut[mode][i]);
+        w.endArray();
+        w.name(columnName(prefix, "durationTicks")).beginArray();
+        for (int i = 0; i < c.size; i++) w.value(c.duration[mode][i]);
+        w.endArray();
+        w.name(columnName(prefix, "itemsPerSecond")).beginArray();
+        for (int i = 0; i < c.size; i++) jsonFloat(w, c.itemsPerSecond[mode][i]);
+        w.endArray();
+        w.name(columnName(prefix, "euPerItem")).beginArray();
+        for (int i = 0; i < c.size; i++) jsonFloat(w, c.euPerItem[mode][i]);
+        w.endArray();
+    }
+
+    private static String columnName(String prefix, String name) {
+        if (prefix.length() == 0) return name;
+        return prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /** A derived rate at float precision (shorter text, plenty for rates); null for NaN. */
+    private static void jsonFloat(JsonWriter w, double v) throws IOException {
+        if (Double.isNaN(v) || Double.isInfinite(v)) {
+            w.nullValue();
+        } else {
+            w.value(new Float((float) v));
+        }
+    }
+
+    private static boolean hasBonuses(DumpMachineIndex d) {
+        return d.parallelBonus != null || d.maxParallel != null || d.speedBonus != null
+                || d.efficiencyBonus != null || (d.bonusRules != null && d.bonusRules.size() > 0);
+    }
+
+    private static double orNaN(Double v) {
+        return (v == null) ? Double.NaN : v.doubleValue();
+    }
+
+    /**
+     * Streams localized_names.json: one row per (thing, language) with a translation, for every
+     * item and fluid in the store and every machine, in each language of RECIPE_DUMP_LANGUAGES.
+     * {@code key} is the name the translation was looked up from (unlocalized name or machineId).
+     */
+    public static void writeLocalizedNamesJson(DumpRoot root, List machineIndex, Writer out) throws IOException {
+        Localization loc = localization();
+        List languages = loc.languages();
+        RecipeStore store = root.store;
+        int rows = 0;
+        JsonWriter w = new JsonWriter(out);
+        w.setIndent("  ");
+        w.setHtmlSafe(false);
+        w.beginObject();
+        jsonString(w, "generatedAt", root.generatedAt);
+        jsonString(w, "minecraft", root.minecraft);
+        jsonString(w, "mod", root.mod);
+        w.name("languages").beginArray();
+        for (int l = 0; l < languages.size(); l++) w.value((String) languages.get(l));
+        w.endArray();
+        w.name("names").beginArray();
+
+        Set seen = new HashSet(); // Long (id ref, meta) per item, Integer id ref per fluid
+        for (int s = 0; s < store.itemStackCount(); s++) {
+            String id = store.itemId(s);
+            if (id == null || id.startsWith("ore:")) continue;
+            if (!seen.add(new Long(((long) store.itemIdRef(s) << 32) | (store.itemMeta(s) & 0xffffffffL)))) continue;
+            rows += writeLocalizedRows(w, loc, languages, "item", id, new Integer(store.itemMeta(s)),
+                    new String[] { store.itemUnlocalizedName(s) });
+        }
+        seen.clear();
+        for (int s = 0; s < store.fluidStackCount(); s++) {
+            String id = store.fluidId(s);
+            if (id == null || !seen.add(new Integer(store.fluidIdRef(s)))) continue;
+            rows += writeLocalizedRows(w, loc, languages, "fluid", id, null, new String[] { store.fluidUnlocalizedName(s) });
+        }
+        Set machines = new HashSet();
+        if (root.recipeMaps != null) {
+            for (int i = 0; i < root.recipeMaps.size(); i++) {
+                Object o = root.recipeMaps.get(i);
+                if (!(o instanceof DumpRecipeMap)) continue;
+                DumpRecipeMap map = (DumpRecipeMap) o;
+                if (map.machineId == null || !machines.add(map.machineId)) continue;
+                rows += writeLocalizedRows(w, loc, languages, "machine", map.machineId, null, new String[] { map.machineId });
+            }
+        }
+        if (machineIndex != null) {
+            for (int i = 0; i < machineIndex.size(); i++) {
+                Object o = machineIndex.get(i);
+                if (!(o instanceof DumpMachineIndex)) continue;
+                DumpMachineIndex mi = (DumpMachineIndex) o;
+                if (mi.machineId == null || !machines.add(mi.machineId)) continue;
+                String[] keys = (mi.metaTileName == null)
+                        ? new String[] { mi.machineId }
+                        : new String[] { mi.machineId, "gt.blockmachines." + mi.metaTileName, mi.metaTileName };
+                rows += writeLocalizedRows(w, loc, languages, "machine", mi.machineId, null, keys);
+            }
+        }
+        w.endArray();
+        w.endObject();
+        w.flush();
+        System.out.println("[recipedumper] Localized names: " + rows + " rows in " + languages.size() + " languages");
+    }
+
+    /** One row per language where one of {@code keys} translates (first key that does wins). */
+    private static int writeLocalizedRows(JsonWriter w, Localization loc, List languages, String kind, String id,
+                                          Integer meta, String[] keys) throws IOException {
+        int rows = 0;
+        for (int l = 0; l < languages.size(); l++) {
+            String lang = (String) languages.get(l);
+            for (int k = 0; k < keys.length; k++) {
+                String name = loc.bestName(lang, keys[k]);
+                if (name == null) continue;
+                w.beginObject();
+                w.name("kind").value(kind);
+                w.name("id").value(id);
+                if (meta != null) w.name("meta").value(meta.intValue());
+                w.name("key").value(keys[k]);
+                w.name("lang").value(lang);
+                w.name("name").value(name);
+                w.endObject();
+                rows++;
+                break;
+            }
+        }
+        return rows;
+    }
+
+    /* ---------- Recipe graph index ---------- */
+
+    public static void writeRecipeGraphIndex(DumpRoot root, File file) throws IOException {
+        RecipeGraphIndexWriter w = new RecipeGraphIndexWriter();
+        RecipeStore store = root.store;
+        if (root.recipeMaps != null) {
+            for (int i = 0; i < root.recipeMaps.size(); i++) {
+                Object o = root.recipeMaps.get(i);
+                if (!(o instanceof DumpRecipeMap)) continue;
+                DumpRecipeMap map = (DumpRecipeMap) o;
+                for (int r = map.storeFirst; r < map.storeEnd; r++) addRecipeToGraphIndex(w, store, r);
+            }
+        }
+        w.write(file);
+        System.out.println("[recipedumper] Recipe graph index: " + w.recipeCount() + " recipes");
+    }
+
+    private static void addRecipeToGraphIndex(RecipeGraphIndexWriter w, RecipeStore store, int r) {
+        w.beginRecipe(store.rid(r), store.machineId(r));
+        int start = store.itemInputStart(r);
+        for (int s = start; s < start + store.itemInputCount(r); s++) {
+            String id = store.itemId(s);
+            if (id == null) continue;
+            w.addInput(RecipeGraphIndex.itemNodeKey(id, store.itemMeta(s)), RecipeGraphIndex.kindForItemId(id), store.itemCount(s));
+        }
+        start = store.fluidInputStart(r);
+        for (int s = start; s < start + store.fluidInputCount(r); s++) {
+            String id = store.fluidId(s);
+            if (id != null) w.addInput(id, RecipeGraphIndex.KIND_FLUID, store.fluidMb(s));
+        }
+        start = store.itemOutputStart(r);
+        for (int s = start; s < start + store.itemOutputCount(r); s++) {
+            String id = store.itemId(s);
+            if (id == null) continue;
+            double chance = store.itemChance(s);
+            w.addOutput(RecipeGraphIndex.itemNodeKey(id, store.itemMeta(s)), RecipeGraphIndex.kindForItemId(id), store.itemCount(s),
+                    Double.isNaN(chance) ? 1.0f : (float) chance);
+        }
+        start = store.fluidOutputStart(r);
+        for (int s = start; s < start + store.fluidOutputCount(r); s++) {
+            String id = store.fluidId(s);
+            if (id != null) w.addOutput(id, RecipeGraphIndex.KIND_FLUID, store.fluidMb(s), 1.0f);
+        }
+    }
+
+    /* ---------- Binary dump ---------- */
+
+    public static void writeBinaryDump(DumpRoot root, File file) throws IOException {
+        BinaryDumpWriter w = new BinaryDumpWriter();
+        RecipeStore store = root.store;
+        // Recipes sharing a body point at the stack runs of the first one written.
+        int[] written = new int[store.bodyCount()];
+        Arrays.fill(written, -1);
+        w.setMetadata(root.generatedAt, root.minecraft, root.mod);
+        if (root.recipeMaps != null) {
+            for (int i = 0; i < root.recipeMaps.size(); i++) {
+                Object o = root.recipeMaps.get(i);
+                if (!(o instanceof DumpRecipeMap)) continue;
+                DumpRecipeMap map = (DumpRecipeMap) o;
+                w.beginMap(map.machineId, map.displayName, map.declaringField, map.recipeCount);
+                if (map.parallelBonus != null) w.setMapBonus(BinaryDump.BONUS_PARALLEL, map.parallelBonus.doubleValue());
+                if (map.maxParallel != null) w.setMapBonus(BinaryDump.BONUS_MAX_PARALLEL, map.maxParallel.doubleValue());
+                if (map.coilBonus != null) w.setMapBonus(BinaryDump.BONUS_COIL, map.coilBonus.doubleValue());
+                if (map.speedBonus != null) w.setMapBonus(BinaryDump.BONUS_SPEED, map.speedBonus.doubleValue());
+                if (map.efficiencyBonus != null) w.setMapBonus(BinaryDump.BONUS_EFFICIENCY, map.efficiencyBonus.doubleValue());
+                if (map.tooltipDerived != null) w.setMapTooltipDerived(map.tooltipDerived.booleanValue());
+                for (int r = map.storeFirst; r < map.storeEnd; r++) {
+                    int b = store.body(r);
+                    if (written[b] >= 0) {
+                        w.beginRecipeSharing(store.rid(r), store.machineId(r), written[b]);
+                    } else {
+                        written[b] = w.recipeCount();
+                        addRecipeToBinaryDump(w, store, r);
+                    }
+                }
+            }
+        }
+        w.write(file);
+        System.out.println("[recipedumper] Binary dump: " + w.recipeCount() + " recipes");
+    }
+
+    private static void addRecipeToBinaryDump(BinaryDumpWriter w, RecipeStore store, int r) {
+        w.beginRecipe(store.rid(r), store.machineId(r), store.recipeClass(r), store.minTier(r), store.eut(r), store.durationTicks(r));
+        if (store.has(r, RecipeStore.F_SPECIAL)) w.setSpecialValue(store.specialValue(r));
+        if (store.has(r, RecipeStore.F_EBF_TEMP)) w.setEbfTemp(store.ebfTemp(r));
+        if (store.has(r, RecipeStore.F_CIRCUIT)) w.setCircuitConfig(store.circuitConfig(r));
+        if (store.has(r, RecipeStore.F_GHOST_PRESENT)) w.setCircuitGhost(store.circuitGhost(r));
+        if (store.has(r, RecipeStore.F_MIN_VOLTAGE)) w.setMinVoltage(store.minVoltage(r));
+        if (store.has(r, RecipeStore.F_AMPS)) w.setAmpsAtMinTier(store.ampsAtMinTier(r));
+        if (store.has(r, RecipeStore.F_CHANCE_SCALE)) w.setChanceScale(store.chanceScale(r));
+        int start = store.chanceStart(r);
+        for (int i = start; i < start + store.chanceCount(r); i++) w.addChance(store.chance(i));
+        start = store.itemInputStart(r);
+        for (int s = start; s < start + store.itemInputCount(r); s++) {
+            w.addItemInput(store.itemId(s), store.itemMeta(s), store.itemCount(s), store.itemChance(s),
+                    store.itemDisplayName(s), store.itemUnlocalizedName(s), store.itemOreDict(s));
+        }
+        start = store.itemOutputStart(r);
+        for (int s = start; s < start + store.itemOutputCount(r); s++) {
+            w.addItemOutput(store.itemId(s), store.itemMeta(s), store.itemCount(s), store.itemChance(s),
+                    store.itemDisplayName(s), store.itemUnlocalizedName(s), store.itemOreDict(s));
+        }
+        start = store.fluidInputStart(r);
+        for (int s = start; s < start + store.fluidInputCount(r); s++) {
+            w.addFluidInput(store.fluidId(s), store.fluidMb(s), store.fluidIsGas(s), store.fluidDisplayName(s), store.fluidUnlocalizedName(s));
+        }
+        start = store.fluidOutputStart(r);
+        for (int s = start; s < start + store.fluidOutputCount(r); s++) {
+            w.addFluidOutput(store.fluidId(s), store.fluidMb(s), store.fluidIsGas(s), store.fluidDisplayName(s), store.fluidUnlocalizedName(s));
+        }
+    }
+
+    /* ---------- Name search index ---------- */
+
+    /**
+     * Writes the trigram name index over every item, fluid and machine seen in the dump.
+     * Ore dictionary inputs ("ore:..." ids) are not indexed; they are tags, not items.
+     */
+    public static void writeNameIndex(DumpRoot root, List machineIndex, File file) throws IOException {
+        NameIndexWriter w = new NameIndexWriter();
+        RecipeStore store = root.store;
+        boolean[] seenBody = new boolean[store.bodyCount()];
+        if (root.recipeMaps != null) {
+            for (int i = 0; i < root.recipeMaps.size(); i++) {
+                Object o = root.recipeMaps.get(i);
+                if (!(o instanceof DumpRecipeMap)) continue;
+                DumpRecipeMap map = (DumpRecipeMap) o;
+                w.add(NameIndex.KIND_MACHINE, map.machineId, map.displayName, map.declaringField);
+                for (int r = map.storeFirst; r < map.storeEnd; r++) {
+                    int b = store.body(r);
+                    if (seenBody[b]) continue;
+                    seenBody[b] = true;
+                    // Inputs and outputs are contiguous in the store's stack pools.
+                    addItemNames(w, store, store.itemInputStart(r), store.itemInputCount(r) + store.itemOutputCount(r));
+                    addFluidNames(w, store, store.fluidInputStart(r), store.fluidInputCount(r) + store.fluidOutputCount(r));
+                }
+            }
+        }
+        if (machineIndex != null) {
+            for (int i = 0; i < machineIndex.size(); i++) {
+                Object o = machineIndex.get(i);
+                if (!(o instanceof DumpMachineIndex)) continue;
+                DumpMachineIndex mi = (DumpMachineIndex) o;
+                w.add(NameIndex.KIND_MACHINE, mi.machineId, mi.displayName, mi.metaTileName);
+            }
+        }
+        w.write(file);
+        System.out.println("[recipedumper] Name index: " + w.entryCount() + " entries");
+    }
+
+    private static void addItemNames(NameIndexWriter w, RecipeStore store, int start, int count) {
+        for (int s = start; s < start + count; s++) {
+            String id = store.itemId(s);
+            if (id == null || id.startsWith("ore:")) continue;
+            w.add(NameIndex.KIND_ITEM, RecipeGraphIndex.itemNodeKey(id, store.itemMeta(s)), store.itemDisplayName(s), store.itemUnlocalizedName(s));
+        }
+    }
+
+    private static void addFluidNames(NameIndexWriter w, RecipeStore store, int start, int count) {
+        for (int s = start; s < start + count; s++) {
+            w.add(NameIndex.KIND_FLUID, store.fluidId(s), store.fluidDisplayName(s), store.fluidUnlocalizedName(s));
         }
-        return tiers[tiers.length - 1];
     }
 
     /* ---------- JSON root + data classes ---------- */
@@ -2610,7 +4240,10 @@ public final class GTReflectionDump {
         public String generatedAt;
         public String minecraft;
         public String mod;
+        public Map scope; // RECIPE_DUMP_* scope settings; null for a full dump
+        public List abandoned; // units that overran their time budget (see Watchdog); null when none
         public List recipeMaps; // List<DumpRecipeMap>
+        public transient RecipeStore store; // recipes of every map; not serialized by Gson
     }
 
     public static final class DumpRecipeMap {
@@ -2624,7 +4257,9 @@ public final class GTReflectionDump {
         public Double speedBonus;
         public Double efficiencyBonus;
         public Boolean tooltipDerived;
-        public List recipes; // List<DumpRecipe>
+        public List recipes; // List<DumpRecipe>; null once moved to the store in columnar mode
+        public transient int storeFirst; // [storeFirst, storeEnd) in DumpRoot.store
+        public transient int storeEnd;
     }
 
     public static final class BonusRule {
@@ -2673,6 +4308,8 @@ public final class GTReflectionDump {
         public String generatedAt;
         public String minecraft;
         public String mod;
+        public Map scope; // see DumpRoot.scope
+        public List abandoned; // see DumpRoot.abandoned
         public List machineIndex; // List<DumpMachineIndex>
     }
 
@@ -2680,6 +4317,7 @@ public final class GTReflectionDump {
         public String generatedAt;
         public String minecraft;
         public String mod;
+        public List abandoned; // see DumpRoot.abandoned
         public List machineIndexDebug; // List<DumpMachineIndexDebug>
     }
 
@@ -2689,7 +4327,7 @@ public final class GTReflectionDump {
         public String recipeClass;
         public String minTier;    // "ULV", "LV", etc.
         public int durationTicks;
-        public int eut;
+        public long eut;
         public Integer specialValue;  // raw GT "special" (EBF temp, etc)
         public Integer ebfTemp;       // if applicable (blast furnace)
         public Integer circuitConfig; // ghost circuit meta
@@ -0,0 +1,361 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import net.minecraft.util.StatCollector;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Memoized translation lookups for the server's language and any configured extra languages.
+ *
+ * The server only loads en_US into StringTranslate, so other languages are read straight from
+ * the language files: lang files inside every mod jar, FML's LanguageRegistry tables, and any
+ * directories in RECIPE_DUMP_LANG_DIRS (files named {@code <lang>.lang} or {@code *_<lang>.lang},
+ * e.g. GregTech_zh_CN.lang). Every lookup is cached per language, misses included. Lookups are
+ * synchronized, since a capture the dump watchdog abandoned may still be translating.
+ */
+final class Localization {
+
+    /** Dedicated servers always run en_US; it is the language StatCollector answers in. */
+    static final String ACTIVE_LANGUAGE = "en_US";
+
+    private static final Object MISS = new Object();
+
+    private final List languages = new ArrayList(); // configured codes, ACTIVE_LANGUAGE first
+    private final Map tables = new HashMap();        // code -> Map key -> value (null for ACTIVE_LANGUAGE)
+    private final Map translated = new HashMap();    // code -> Map key -> String or MISS
+    private final Map best = new HashMap();          // code -> Map key -> String or MISS
+    private Map activeTable;                         // StringTranslate's own map, if readable
+    private boolean activeTableRead;
+    private boolean recordedOnly;                    // names from a registry snapshot; no lookups
+
+    Localization(List extraLanguages) {
+        languages.add(ACTIVE_LANGUAGE);
+        for (int i = 0; extraLanguages != null && i < extraLanguages.size(); i++) {
+            String lang = (String) extraLanguages.get(i);
+            if (lang == null || lang.trim().length() == 0) continue;
+            lang = lang.trim();
+            boolean dup = false;
+            for (int j = 0; j < languages.size(); j++) {
+                if (((String) languages.get(j)).equalsIgnoreCase(lang)) dup = true;
+            }
+            if (!dup) languages.add(lang);
+        }
+    }
+
+    /** Languages from RECIPE_DUMP_LANGUAGES (comma separated), always including the server's. */
+    static Localization fromEnvironment() {
+        List extra = new ArrayList();
+        String env = System.getenv("RECIPE_DUMP_LANGUAGES");
+        if (env != null) {
+            String[] parts = env.split(",");
+            for (int i = 0; i < parts.length; i++) extra.add(parts[i]);
+        }
+        return new Localization(extra);
+    }
+
+    /**
+     * Names a live run recorded ({@link #recordedNames}), for re-extraction from a registry
+     * snapshot: bestName answers from them, anything else is a miss.
+     */
+    static Localization recorded(List languages, Map namesByLanguage) {
+        Localization loc = new Localization(languages);
+        loc.recordedOnly = true;
+        for (int i = 0; i < loc.languages.size(); i++) {
+            String lang = (String) loc.languages.get(i);
+            Map names = (Map) namesByLanguage.get(lang);
+            if (names != null) memo(loc.best, lang).putAll(names);
+        }
+        return loc;
+    }
+
+    List languages() {
+        return languages;
+    }
+
+    /** Every bestName answer so far per language, misses left out: what a snapshot needs to re-derive names. */
+    synchronized Map recordedNames() {
+        Map out = new LinkedHashMap();
+        for (int i = 0; i < languages.size(); i++) {
+            String lang = (String) languages.get(i);
+            Map names = new LinkedHashMap();
+            Map memo = (Map) best.get(lang);
+            if (memo != null) {
+                for (Iterator it = memo.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry e = (Map.Entry) it.next();
+                    if (e.getValue() != MISS) names.put(e.getKey(), e.getValue());
+                }
+            }
+            out.put(lang, names);
+        }
+        return out;
+    }
+
+    /** Translation of {@code key} in {@code lang}, or null when the language has no entry for it. */
+    synchronized String translate(String lang, String key) {
+        if (key == null || key.length() == 0) return null;
+        Map memo = memo(translated, lang);
+        Object v = memo.get(key);
+        if (v == null) {
+            String s = lookup(lang, key);
+            v = (s == null) ? MISS : s;
+            memo.put(key, v);
+        }
+        return (v == MISS) ? null : (String) v;
+    }
+
+    /**
+     * First translation of {@code key}, {@code key.name}, and (for keys without a tile./item.
+     * prefix) the tile. and item. variants of both; null if none translates.
+     */
+    synchronized String bestName(String lang, String key) {
+        if (key == null || key.length() == 0) return null;
+        Map memo = memo(best, lang);
+        Object v = memo.get(key);
+        if (v == null) {
+            String s = resolveBest(lang, key);
+            v = (s == null) ? MISS : s;
+            memo.put(key, v);
+        }
+        return (v == MISS) ? null : (String) v;
+    }
+
+    private String resolveBest(String lang, String key) {
+        String v = translate(lang, key);
+        if (v != null) return v;
+        v = translate(lang, key + ".name");
+        if (v != null) return v;
+        if (!key.startsWith("tile.") && !key.startsWith("item.")) {
+            v = translate(lang, "tile." + key);
+            if (v != null) return v;
+            v = translate(lang, "tile." + key + ".name");
+            if (v != null) return v;
+            v = translate(lang, "item." + key);
+            if (v != null) return v;
+            v = translate(lang, "item." + key + ".name");
+            if (v != null) return v;
+        }
+        return null;
+    }
+
+    private static Map memo(Map byLang, String lang) {
+        Map m = (Map) byLang.get(lang);
+        if (m == null) {
+            m = new HashMap();
+            byLang.put(lang, m);
+        }
+        return m;
+    }
+
+    private String lookup(String lang, String key) {
+        if (recordedOnly) return null;
+        if (ACTIVE_LANGUAGE.equalsIgnoreCase(lang)) {
+            Map table = activeTable();
+            String v = (table == null) ? null : usable(key, table.get(key));
+            if (v != null) return v;
+            // Not in the table (or no table): ask StatCollector as before, once per key.
+            try {
+                return usable(key, StatCollector.translateToLocal(key));
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+        Map table = (Map) tables.get(lang);
+        if (table == null) {
+            long start = System.currentTimeMillis();
+            table = loadTable(lang);
+            tables.put(lang, table);
+            System.out.println("[recipedumper] Language " + lang + ": " + table.size() + " entries in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        return usable(key, table.get(key));
+    }
+
+    private static String usable(String key, Object v) {
+        if (!(v instanceof String)) return null;
+        String s = (String) v;
+        return (s.length() == 0 || s.equals(key)) ? null : s;
+    }
+
+    /* ---------- Language tables ---------- */
+
+    /** StringTranslate's key -> value map (what StatCollector reads), or null if it cannot be reached. */
+    private Map activeTable() {
+        if (activeTableRead) return activeTable;
+        activeTableRead = true;
+        try {
+            Class c = Class.forName("net.minecraft.util.StringTranslate");
+            Object instance = null;
+            Field[] fields = c.getDeclaredFields();
+            for (int i = 0; i < fields.length && instance == null; i++) {
+                if (!Modifier.isStatic(fields[i].getModifiers()) || fields[i].getType() != c) continue;
+                fields[i].setAccessible(true);
+                instance = fields[i].get(null);
+            }
+            for (int i = 0; instance != null && i < fields.length; i++) {
+                if (Modifier.isStatic(fields[i].getModifiers()) || !Map.class.isAssignableFrom(fields[i].getType())) continue;
+                fields[i].setAccessible(true);
+                Object v = fields[i].get(instance);
+                if (v instanceof Map) {
+                    activeTable = (Map) v;
+                    break;
+                }
+            }
+        } catch (Throwable ignored) {
+        }
+        return activeTable;
+    }
+
+    /** Mod jar lang files, then LanguageRegistry, then RECIPE_DUMP_LANG_DIRS; later sources win. */
+    private static Map loadTable(String lang) {
+        Map out = new HashMap();
+        List sources = modSources();
+        for (int i = 0; i < sources.size(); i++) {
+            try {
+                loadFromSource((File) sources.get(i), lang, out);
+            } catch (Throwable t) {
+                System.out.println("[recipedumper] Could not read " + lang + " from " + sources.get(i) + ": " + t);
+            }
+        }
+        try {
+            loadFromLanguageRegistry(lang, out);
+        } catch (Throwable ignored) {
+        }
+        String dirs = System.getenv("RECIPE_DUMP_LANG_DIRS");
+        if (dirs != null) {
+            String[] parts = dirs.split(File.pathSeparator);
+            for (int i = 0; i < parts.length; i++) {
+                if (parts[i].trim().length() == 0) continue;
+                loadFromDir(new File(parts[i].trim()), lang, out);
+            }
+        }
+        return out;
+    }
+
+    private static List modSources() {
+        List out = new ArrayList();
+        try {
+            Class loaderClass = Class.forName("cpw.mods.fml.common.Loader");
+            Object loader = loaderClass.getMethod("instance").invoke(null);
+            List mods = (List) loaderClass.getMethod("getActiveModList").invoke(loader);
+            for (int i = 0; mods != null && i < mods.size(); i++) {
+                Object mod = mods.get(i);
+                Method getSource = mod.getClass().getMethod("getSource");
+                Object src = getSource.invoke(mod);
+                if (src instanceof File && !out.contains(src)) out.add(src);
+            }
+        } catch (Throwable ignored) {
+        }
+        return out;
+    }
+
+    private static void loadFromSource(File src, String lang, Map out) throws IOException {
+        String suffix = "/lang/" + lang.toLowerCase() + ".lang";
+        if (src.isDirectory()) {
+            File[] domains = new File(src, "assets").listFiles();
+            for (int i = 0; domains != null && i < domains.length; i++) {
+                File[] files = new File(domains[i], "lang").listFiles();
+                for (int j = 0; files != null && j < files.length; j++) {
+                    if (files[j].getName().equalsIgnoreCase(lang + ".lang")) readLangFile(files[j], out);
+                }
+            }
+            return;
+        }
+        if (!src.isFile()) return;
+        ZipFile zip = new ZipFile(src);
+        try {
+            Enumeration entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry e = (ZipEntry) entries.nextElement();
+                String name = e.getName();
+                if (!name.startsWith("assets/") || !name.toLowerCase().endsWith(suffix)) continue;
+                InputStream in = zip.getInputStream(e);
+                try {
+                    readLang(in, out);
+                } finally {
+                    in.close();
+                }
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static void loadFromLanguageRegistry(String lang, Map out) throws Exception {
+        Class c = Class.forName("cpw.mods.fml.common.registry.LanguageRegistry");
+        Object registry = c.getMethod("instance").invoke(null);
+        Field f = c.getDeclaredField("modLanguageData");
+        f.setAccessible(true);
+        Map data = (Map) f.get(registry);
+        if (data == null) return;
+        for (Iterator it = data.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            if (!String.valueOf(e.getKey()).equalsIgnoreCase(lang) || !(e.getValue() instanceof Properties)) continue;
+            Properties p = (Properties) e.getValue();
+            for (Iterator keys = p.keySet().iterator(); keys.hasNext(); ) {
+                Object k = keys.next();
+                out.put(String.valueOf(k), p.getProperty(String.valueOf(k)));
+            }
+        }
+    }
+
+    private static void loadFromDir(File dir, String lang, Map out) {
+        File[] files = dir.listFiles();
+        for (int i = 0; files != null && i < files.length; i++) {
+            File f = files[i];
+            if (f.isDirectory()) {
+                loadFromDir(f, lang, out);
+                continue;
+            }
+            String name = f.getName().toLowerCase();
+            String l = lang.toLowerCase();
+            if (!name.equals(l + ".lang") && !name.endsWith("_" + l + ".lang")) continue;
+            try {
+                readLangFile(f, out);
+            } catch (IOException e) {
+                System.out.println("[recipedumper] Could not read " + f + ": " + e);
+            }
+        }
+    }
+
+    private static void readLangFile(File f, Map out) throws IOException {
+        InputStream in = new FileInputStream(f);
+        try {
+            readLang(in, out);
+        } finally {
+            in.close();
+        }
+    }
+
+    /** key=value lines; also accepts GregTech.lang's Forge config form ({@code S:key=value}). */
+    private static void readLang(InputStream in, Map out) throws IOException {
+        BufferedReader r = new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        String line;
+        while ((line = r.readLine()) != null) {
+            line = line.trim();
+            if (line.length() > 0 && line.charAt(0) == '\ufeff') line = line.substring(1);
+            if (line.length() == 0 || line.charAt(0) == '#') continue;
+            if (line.startsWith("S:")) line = line.substring(2);
+            int eq = line.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(line.substring(0, eq), line.substring(eq + 1));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.oredict.OreDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of the Forge ore dictionary, built once per dump.
+ *
+ * Crafting and Railcraft ore ingredients are the lists returned by {@code OreDictionary.getOres},
+ * so they resolve by identity; copies resolve by their content (the set of item id / meta pairs).
+ * Stack memberships are kept as one BitSet of ore ids per (item id, meta), with wildcard-meta
+ * registrations under {@link OreDictionary#WILDCARD_VALUE} and merged in at lookup.
+ */
+final class OreDictIndex {
+
+    private final String[] names;                        // ore id -> name
+    private final Map byIdentity = new IdentityHashMap(); // ore list -> name
+    private final Map byContent = new HashMap();          // content key -> name
+    private final Map members = new HashMap();            // Long (item id, meta) -> BitSet of ore ids
+    private final Map cache = new HashMap();              // Long (item id, meta) -> List of names (or NO_NAMES)
+    private int entryCount;
+
+    private static final List NO_NAMES = new ArrayList();
+
+    private OreDictIndex(String[] names) {
+        this.names = names;
+    }
+
+    static OreDictIndex build() {
+        String[] all = OreDictionary.getOreNames();
+        if (all == null) all = new String[0];
+        int maxId = -1;
+        int[] ids = new int[all.length];
+        for (int i = 0; i < all.length; i++) {
+            ids[i] = (all[i] == null) ? -1 : OreDictionary.getOreID(all[i]);
+            if (ids[i] > maxId) maxId = ids[i];
+        }
+        String[] byId = new String[maxId + 1];
+        for (int i = 0; i < all.length; i++) if (ids[i] >= 0) byId[ids[i]] = all[i];
+
+        OreDictIndex index = new OreDictIndex(byId);
+        // Ascending ore id, so the first registered name wins when two ores hold the same items.
+        for (int id = 0; id < byId.length; id++) {
+            String name = byId[id];
+            if (name == null) continue;
+            List ores = OreDictionary.getOres(name);
+            if (ores == null) continue;
+            if (!index.byIdentity.containsKey(ores)) index.byIdentity.put(ores, name);
+            String key = contentKey(ores);
+            if (key != null && !index.byContent.containsKey(key)) index.byContent.put(key, name);
+            for (int i = 0; i < ores.size(); i++) {
+                Object o = ores.get(i);
+                if (!(o instanceof ItemStack)) continue;
+                ItemStack st = (ItemStack) o;
+                if (st.getItem() == null) continue;
+                Long k = new Long(stackKey(Item.getIdFromItem(st.getItem()), st.getItemDamage()));
+                BitSet bits = (BitSet) index.members.get(k);
+                if (bits == null) {
+                    bits = new BitSet();
+                    index.members.put(k, bits);
+                }
+                if (!bits.get(id)) {
+                    bits.set(id);
+                    index.entryCount++;
+                }
+            }
+        }
+        return index;
+    }
+
+    /** Ore name whose list is {@code list} (same object or same items), else null. */
+    String nameForList(List list) {
+        if (list == null) return null;
+        String name = (String) byIdentity.get(list);
+        if (name != null) return name;
+        String key = contentKey(list);
+        return (key == null) ? null : (String) byContent.get(key);
+    }
+
+    /**
+     * Ore names of the stack in ore id order (exact meta plus wildcard registrations), or null.
+     * Synchronized for the cache: a unit the watchdog abandoned may still be running.
+     */
+    synchronized List namesFor(ItemStack st) {
+        if (st == null || st.getItem() == null) return null;
+        int item = Item.getIdFromItem(st.getItem());
+        Long key = new Long(stackKey(item, st.getItemDamage()));
+        List cached = (List) cache.get(key);
+        if (cached == null) {
+            BitSet bits = new BitSet();
+            BitSet exact = (BitSet) members.get(key);
+            if (exact != null) bits.or(exact);
+            BitSet wildcard = (BitSet) members.get(new Long(stackKey(item, OreDictionary.WILDCARD_VALUE)));
+            if (wildcard != null) bits.or(wildcard);
+            cached = NO_NAMES;
+            if (!bits.isEmpty()) {
+                cached = new ArrayList(bits.cardinality());
+                for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) cached.add(names[id]);
+            }
+            cache.put(key, cached);
+        }
+        // Callers keep the list on a dump object; hand out a copy so the cache stays intact.
+        return (cached == NO_NAMES) ? null : new ArrayList(cached);
+    }
+
+    int oreCount() {
+        return names.length;
+    }
+
+    String oreName(int id) {
+        return (id >= 0 && id < names.length) ? names[id] : null;
+    }
+
+    List ores(int id) {
+        String name = oreName(id);
+        return (name == null) ? null : OreDictionary.getOres(name);
+    }
+
+    /** Distinct (ore, item, meta) registrations. */
+    int entryCount() {
+        return entryCount;
+    }
+
+    private static long stackKey(int itemId, int meta) {
+        return ((long) itemId << 32) | (meta & 0xffffffffL);
+    }
+
+    /** Sorted (item id, meta) pairs of the list; null if it holds anything but item stacks. */
+    private static String contentKey(List list) {
+        long[] keys = new long[list.size()];
+        int n = 0;
+        for (int i = 0; i < list.size(); i++) {
+            Object o = list.get(i);
+            if (!(o instanceof ItemStack)) return null;
+            ItemStack st = (ItemStack) o;
+            if (st.getItem() == null) return null;
+            keys[n++] = stackKey(Item.getIdFromItem(st.getItem()), st.getItemDamage());
+        }
+        Arrays.sort(keys, 0, n);
+        int distinct = 0;
+        for (int i = 0; i < n; i++) if (distinct == 0 || keys[distinct - 1] != keys[i]) keys[distinct++] = keys[i];
+        StringBuilder sb = new StringBuilder(distinct * 12);
+        for (int i = 0; i < distinct; i++) sb.append(Long.toHexString(keys[i])).append(',');
+        return sb.toString();
+    }
+}
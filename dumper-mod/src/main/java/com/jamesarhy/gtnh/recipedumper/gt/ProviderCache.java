@@ -0,0 +1,107 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import com.jamesarhy.gtnh.recipedumper.gt.RegistrySnapshot.RawMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Per-provider cache of captured maps, so a provider whose mods have not changed is not read from
+ * the game again. One directory (RECIPE_DUMP_PROVIDER_CACHE_DIR, else provider_cache/ next to the
+ * startup dump) serves the startup dump and every /recipedump run; the docker runner keeps it on
+ * the cache volume, as it unpacks a fresh server before every boot.
+ *
+ * Each entry is one provider's maps in the registry snapshot format, named
+ * {@code <provider>-<key>.seg}; the key is a hash of the versions of the provider's mods (see
+ * RecipeProvider.Mods) and of the extraction jar, so any change to either misses. Entries are
+ * written from full-scope dumps only and hold every map of the provider; a scoped dump served
+ * from one filters it as a live capture would.
+ */
+final class ProviderCache {
+
+    static final String DIR_NAME = "provider_cache";
+    private static final String SUFFIX = ".seg";
+
+    private final File dir;
+
+    ProviderCache(File dir) {
+        this.dir = dir;
+    }
+
+    /** {@code provider}'s cached maps (RawMap, in capture order), or null when there is no entry for {@code key}. */
+    List read(String provider, String key) {
+        File f = file(provider, key);
+        if (!f.isFile()) return null;
+        try {
+            return RegistrySnapshot.read(f).maps;
+        } catch (IOException e) {
+            System.out.println("[recipedumper] Provider cache " + f.getName() + " unreadable, capturing again: " + e);
+            return null;
+        }
+    }
+
+    /** Starts recording {@code provider}'s maps as its live dump captures them. */
+    Entry begin(String provider, String key) {
+        File f = file(provider, key);
+        try {
+            return new Entry(provider, f, new RegistrySnapshot.Writer(new File(f.getPath() + ".tmp"), null, null, null));
+        } catch (IOException e) {
+            System.out.println("[recipedumper] Provider cache not written for " + provider + ": " + e);
+            return null;
+        }
+    }
+
+    private File file(String provider, String key) {
+        return new File(dir, provider + "-" + key + SUFFIX);
+    }
+
+    /** One provider's maps being recorded. */
+    final class Entry {
+        private final String provider;
+        private final File file;
+        private final RegistrySnapshot.Writer writer;
+        private int maps;
+
+        private Entry(String provider, File file, RegistrySnapshot.Writer writer) {
+            this.provider = provider;
+            this.file = file;
+            this.writer = writer;
+        }
+
+        /** As RegistrySnapshot.Writer.map. */
+        void map(RawMap raw, List keys, List recipes) {
+            writer.map(raw, keys, recipes);
+            maps++;
+        }
+
+        /** Maps recorded so far. */
+        int mapCount() {
+            return maps;
+        }
+
+        /** Completes the entry and replaces the provider's older ones. */
+        void commit() {
+            File tmp = new File(file.getPath() + ".tmp");
+            try {
+                writer.finish();
+                if (file.exists()) file.delete();
+                if (!tmp.renameTo(file)) throw new IOException("cannot rename " + tmp);
+            } catch (IOException e) {
+                writer.abort();
+                System.out.println("[recipedumper] Provider cache not written for " + provider + ": " + e);
+                return;
+            }
+            File[] old = dir.listFiles();
+            for (int i = 0; old != null && i < old.length; i++) {
+                String n = old[i].getName();
+                if (n.startsWith(provider + "-") && n.endsWith(SUFFIX) && !old[i].equals(file)) old[i].delete();
+            }
+        }
+
+        /** Drops the entry (the provider did not complete). */
+        void abort() {
+            writer.abort();
+        }
+    }
+}
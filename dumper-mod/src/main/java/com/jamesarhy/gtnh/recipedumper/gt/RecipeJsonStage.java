@@ -0,0 +1,427 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes recipes.json's maps while extraction is still running (columnar mode).
+ *
+ * As each map is stored, an encoder thread writes its JSON element into direct ByteBuffer chunks
+ * from a fixed pool (RECIPE_DUMP_STAGING_MB), and a single committer thread appends every full
+ * chunk to a staging file and returns it to the pool. Neither the encoded text nor, once it is
+ * encoded, the map's recipe objects stay on the heap. When the pool is empty the encoders wait
+ * for the committer, and once a few maps are waiting to be encoded, storing the next one waits
+ * for the encoders: extraction slows down instead of the staging growing.
+ *
+ * The order of recipes.json (sortRecipeMaps over every provider) is only known once extraction
+ * ends, so the staging file is in completion order; {@link #write} then assembles the file by
+ * transferring each map's extents from the staging file in the final order. A failure in either
+ * thread disables the stage, and the caller writes recipes.json from the store as before.
+ */
+final class RecipeJsonStage {
+
+    /** Writes one map's JSON object into a JsonWriter positioned inside the recipeMaps array. */
+    interface Element {
+        void write(JsonWriter w) throws IOException;
+    }
+
+    private static final int MAX_CHUNK = 1 << 20;
+    private static final Object END = new Object();
+
+    private final File file;
+    private final FileChannel channel;
+    private final Charset charset = Charset.defaultCharset(); // what FileWriter used for recipes.json
+    private final BlockingQueue free;                            // empty chunks: the staging budget
+    private final BlockingQueue filled = new LinkedBlockingQueue(); // Chunk, or END
+    private final ExecutorService encoders;
+    private final Semaphore pending;                             // maps submitted and not yet encoded
+    private final Thread committer;
+    private final Map extents = new IdentityHashMap(); // key -> List of long[] {position, length}; committer only
+    private long position;
+    private boolean finished;
+    private volatile Throwable failure;
+
+    private static final class Chunk {
+        final Object key;
+        final ByteBuffer buf;
+
+        Chunk(Object key, ByteBuffer buf) {
+            this.key = key;
+            this.buf = buf;
+        }
+    }
+
+    private RecipeJsonStage(File file, long budgetBytes, int threads) throws IOException {
+        this.file = file;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(0);
+        channel = raf.getChannel();
+        int chunk = (int) Math.max(64 * 1024, Math.min(MAX_CHUNK, budgetBytes / (threads * 2)));
+        int chunks = (int) Math.max(threads + 1, budgetBytes / chunk);
+        free = new ArrayBlockingQueue(chunks);
+        for (int i = 0; i < chunks; i++) free.add(ByteBuffer.allocateDirect(chunk));
+        pending = new Semaphore(threads * 2);
+        encoders = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int n;
+
+            public synchronized Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "recipedumper-encode-" + (++n));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        committer = new Thread(new Runnable() {
+            public void run() {
+                commitLoop();
+            }
+        }, "recipedumper-commit");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * A stage staging into {@code file}, sized by RECIPE_DUMP_STAGING_MB (default 64); null when
+     * that is 0 or the file cannot be created.
+     */
+    static RecipeJsonStage open(File file) {
+        String v = System.getenv("RECIPE_DUMP_STAGING_MB");
+        double mb = (v == null || v.trim().length() == 0) ? 64 : Double.parseDouble(v.trim());
+        if (mb <= 0) return null;
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        try {
+            return new RecipeJsonStage(file, (long) (mb * 1024 * 1024), threads);
+        } catch (IOException e) {
+            System.out.println("[recipedumper] recipes.json staging off: " + e);
+            return null;
+        }
+    }
+
+    /** Encodes {@code key}'s element on an encoder thread; waits while too many are queued. */
+    void stage(final Object key, final Element element) {
+        if (failure != null) return;
+        try {
+            pending.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(e);
+            return;
+        }
+        encoders.execute(new Runnable() {
+            public void run() {
+                try {
+                    if (failure == null) encode(key, element);
+                } catch (Throwable t) {
+                    fail(t);
+                } finally {
+                    pending.release();
+                }
+            }
+        });
+    }
+
+    private void encode(Object key, Element element) throws IOException {
+        ChunkWriter out = new ChunkWriter(key);
+        try {
+            JsonWriter w = primedWriter(out);
+            out.capture = true;
+            element.write(w);
+            w.flush();
+            out.finish();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * A JsonWriter already inside {"recipeMaps": [ (written to nothing), so the element is
+     * indented as in the whole file; its text starts with the newline before the element.
+     */
+    private static JsonWriter primedWriter(ChunkWriter out) throws IOException {
+        JsonWriter w = newJsonWriter(out);
+        w.beginObject();
+        w.name("recipeMaps").beginArray();
+        w.flush();
+        return w;
+    }
+
+    static JsonWriter newJsonWriter(Writer out) {
+        JsonWriter w = new JsonWriter(out);
+        w.setIndent("  ");
+        w.setHtmlSafe(false);
+        return w;
+    }
+
+    private void fail(Throwable t) {
+        if (failure == null) {
+            failure = t;
+            System.out.println("[recipedumper] recipes.json staging failed, writing it from the store: " + t);
+        }
+    }
+
+    /* ---------- Committer ---------- */
+
+    private void commitLoop() {
+        while (true) {
+            Object o;
+            try {
+                o = filled.take();
+            } catch (InterruptedException e) {
+                fail(e);
+                return;
+            }
+            if (o == END) return;
+            Chunk c = (Chunk) o;
+            try {
+                if (failure == null) append(c);
+            } catch (Throwable t) {
+                fail(t);
+            } finally {
+                c.buf.clear();
+                free.add(c.buf); // keeps encoders moving even after a failure
+            }
+        }
+    }
+
+    private void append(Chunk c) throws IOException {
+        long start = position;
+        int len = c.buf.remaining();
+        while (c.buf.hasRemaining()) position += channel.write(c.buf, position);
+        List l = (List) extents.get(c.key);
+        if (l == null) {
+            l = new ArrayList();
+            extents.put(c.key, l);
+        }
+        l.add(new long[] {start, len});
+    }
+
+    /* ---------- Assembly ---------- */
+
+    /**
+     * Waits for every staged element and writes {@code file}: {@code header} (the members before
+     * recipeMaps), then the element of every key in {@code keys} in that order, taken from the
+     * staging file or, for a key that was never staged, written by {@code fallback}. False (and
+     * nothing written) when staging failed.
+     */
+    boolean write(File out, Element header, List keys, Map fallback) throws IOException {
+        finish();
+        if (failure != null) return false;
+        FileOutputStream fos = new FileOutputStream(out);
+        try {
+            FileChannel dst = fos.getChannel();
+            Writer text = new OutputStreamWriter(Channels.newOutputStream(dst), charset);
+            Switch sink = new Switch(text);
+            JsonWriter w = newJsonWriter(sink);
+            header.write(w);
+            w.name("recipeMaps").beginArray();
+            w.flush();
+            for (int i = 0; i < keys.size(); i++) {
+                Object key = keys.get(i);
+                if (i > 0) {
+                    text.write(',');
+                }
+                List l = (List) extents.get(key);
+                if (l != null) {
+                    text.flush();
+                    for (int e = 0; e < l.size(); e++) {
+                        long[] x = (long[]) l.get(e);
+                        long done = 0;
+                        while (done < x[1]) done += channel.transferTo(x[0] + done, x[1] - done, dst);
+                    }
+                } else {
+                    // Same indentation as a staged element: an element-level writer over the text.
+                    Switch elementSink = new Switch(text);
+                    elementSink.on = false;
+                    JsonWriter ew = newJsonWriter(elementSink);
+                    ew.beginObject();
+                    ew.name("recipeMaps").beginArray();
+                    ew.flush();
+                    elementSink.on = true;
+                    ((Element) fallback.get(key)).write(ew);
+                    ew.flush();
+                }
+            }
+            // The array is no longer empty to the writer, so it closes it as it would a filled one.
+            if (keys.size() > 0) {
+                sink.on = false;
+                w.beginObject().endObject();
+                w.flush();
+                sink.on = true;
+            }
+            w.endArray();
+            w.endObject();
+            w.flush();
+            text.flush();
+        } finally {
+            fos.close();
+        }
+        return true;
+    }
+
+    /** Stops the threads and deletes the staging file; the direct chunks go with the stage. */
+    void close() {
+        try {
+            finish();
+        } catch (IOException ignored) {
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+        file.delete();
+    }
+
+    private void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        encoders.shutdown();
+        try {
+            encoders.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            filled.put(END);
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while staging recipes.json");
+        }
+    }
+
+    /* ---------- Sinks ---------- */
+
+    /** Passes text through while {@link #on}, drops it otherwise. */
+    private static final class Switch extends Writer {
+        private final Writer out;
+        boolean on = true;
+
+        Switch(Writer out) {
+            this.out = out;
+        }
+
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (on) out.write(cbuf, off, len);
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /** Encodes text into chunks from the pool and hands each full one to the committer. */
+    private final class ChunkWriter extends Writer {
+        private final Object key;
+        private final CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final CharBuffer pendingChars = CharBuffer.allocate(8192);
+        private ByteBuffer current;
+        boolean capture;
+
+        ChunkWriter(Object key) {
+            this.key = key;
+        }
+
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            if (!capture) return;
+            while (len > 0) {
+                int n = Math.min(len, pendingChars.remaining());
+                pendingChars.put(cbuf, off, n);
+                off += n;
+                len -= n;
+                if (!pendingChars.hasRemaining()) encodePending(false);
+            }
+        }
+
+        public void flush() {
+        }
+
+        public void close() {
+        }
+
+        private void encodePending(boolean endOfInput) throws IOException {
+            pendingChars.flip();
+            while (true) {
+                if (current == null) current = takeChunk();
+                CoderResult r = encoder.encode(pendingChars, current, endOfInput);
+                if (r.isOverflow()) {
+                    handOff();
+                    continue;
+                }
+                if (r.isError()) r.throwException();
+                break;
+            }
+            pendingChars.compact();
+        }
+
+        /** Encodes what is left and hands over the last chunk. */
+        void finish() throws IOException {
+            encodePending(true);
+            while (true) {
+                if (current == null) current = takeChunk();
+                if (!encoder.flush(current).isOverflow()) break;
+                handOff();
+            }
+            if (current.position() > 0) {
+                handOff();
+            }
+        }
+
+        /** Returns an unused chunk to the pool. */
+        void release() {
+            if (current != null) {
+                current.clear();
+                free.add(current);
+                current = null;
+            }
+        }
+
+        private void handOff() throws IOException {
+            current.flip();
+            try {
+                filled.put(new Chunk(key, current));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while staging recipes.json");
+            }
+            current = null;
+        }
+
+        private ByteBuffer takeChunk() throws IOException {
+            try {
+                return (ByteBuffer) free.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while staging recipes.json");
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+
+/**
+ * A source of recipe maps for the dump. Implementations are listed, one class name per line, in
+ * META-INF/services/com.jamesarhy.gtnh.recipedumper.gt.RecipeProvider of any mod jar (the
+ * ServiceLoader layout); this mod lists its own GT, crafting, smelting and Railcraft providers
+ * there. An implementation needs a public no-arg constructor that does not touch other mods.
+ *
+ * {@link Mods} on the class names the mods it reads: it is only instantiated when they are all
+ * loaded, and its output is cached between runs while their versions are unchanged.
+ */
+public interface RecipeProvider {
+
+    /** Short name for RECIPE_DUMP_PROVIDERS / RECIPE_DUMP_EXCLUDE_PROVIDERS, the metadata and the cache. */
+    String name();
+
+    /**
+     * The provider's maps (List of GTReflectionDump.DumpRecipeMap). Maps this mod's providers
+     * capture are stored, journaled and cached as they finish; a map another provider returns
+     * is stored once it is returned, and such a provider is not cached.
+     */
+    List dumpRecipeMaps() throws Exception;
+
+    /** The FML mod ids a provider depends on; a provider without it depends on none. */
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    @interface Mods {
+        /** Mod ids that must all be loaded for the provider to be instantiated. */
+        String[] value() default {};
+
+        /**
+         * Further mod ids that add to the registries the provider reads; their versions key its
+         * cache along with {@link #value()}. "*" keys it by every loaded mod, for registries any
+         * mod can add to (crafting, smelting).
+         */
+        String[] cacheKey() default {};
+    }
+}
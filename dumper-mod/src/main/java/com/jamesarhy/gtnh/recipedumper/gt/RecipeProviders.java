@@ -0,0 +1,138 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the RecipeProviders of every mod jar and tells which mods are loaded.
+ *
+ * The META-INF/services files are read here rather than through ServiceLoader, which (on Java 8)
+ * instantiates each listed class while iterating: a provider class is loaded without being
+ * initialized, its {@link RecipeProvider.Mods} checked against the FML mod list, and only then
+ * instantiated. Outside the game (offline re-extraction) there is no mod list and every
+ * provider is instantiated.
+ */
+final class RecipeProviders {
+
+    static final String SERVICE_FILE = "META-INF/services/" + RecipeProvider.class.getName();
+
+    private RecipeProviders() {
+    }
+
+    /** Providers whose mods are loaded, in the order their services files list them. */
+    static List discover() {
+        ClassLoader loader = RecipeProvider.class.getClassLoader();
+        Map mods = modVersions();
+        List out = new ArrayList();
+        Set names = serviceNames(loader);
+        for (Iterator it = names.iterator(); it.hasNext(); ) {
+            String name = (String) it.next();
+            try {
+                Class c = Class.forName(name, false, loader);
+                if (!RecipeProvider.class.isAssignableFrom(c)) {
+                    System.out.println("[recipedumper] Not a RecipeProvider, skipped: " + name);
+                    continue;
+                }
+                String missing = missingMod(c, mods);
+                if (missing != null) {
+                    System.out.println("[recipedumper] Provider " + name + " skipped: mod " + missing + " not loaded");
+                    continue;
+                }
+                out.add(c.newInstance());
+            } catch (Throwable t) {
+                System.out.println("[recipedumper] Provider " + name + " could not be loaded: " + t);
+            }
+        }
+        return out;
+    }
+
+    /** Class names listed by every services file visible to {@code loader}, first listing wins. */
+    private static Set serviceNames(ClassLoader loader) {
+        Set names = new LinkedHashSet();
+        try {
+            Enumeration files = loader.getResources(SERVICE_FILE);
+            while (files.hasMoreElements()) {
+                URL url = (URL) files.nextElement();
+                BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream(), "UTF-8"));
+                try {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        int hash = line.indexOf('#');
+                        if (hash >= 0) line = line.substring(0, hash);
+                        line = line.trim();
+                        if (line.length() > 0) names.add(line);
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("[recipedumper] Cannot list recipe providers: " + e);
+        }
+        return names;
+    }
+
+    private static String missingMod(Class c, Map mods) {
+        RecipeProvider.Mods m = (RecipeProvider.Mods) c.getAnnotation(RecipeProvider.Mods.class);
+        if (m == null || mods == null) return null;
+        String[] ids = m.value();
+        for (int i = 0; i < ids.length; i++) {
+            if (!mods.containsKey(ids[i])) return ids[i];
+        }
+        return null;
+    }
+
+    /**
+     * The mod versions {@code provider}'s cache is keyed by, as "modid@version,..."; null when
+     * there is no FML mod list to key by.
+     */
+    static String cacheKeyMods(RecipeProvider provider) {
+        Map mods = modVersions();
+        if (mods == null) return null;
+        RecipeProvider.Mods m = (RecipeProvider.Mods) provider.getClass().getAnnotation(RecipeProvider.Mods.class);
+        Set ids = new LinkedHashSet();
+        if (m != null) {
+            for (int i = 0; i < m.value().length; i++) ids.add(m.value()[i]);
+            for (int i = 0; i < m.cacheKey().length; i++) ids.add(m.cacheKey()[i]);
+        }
+        if (ids.contains("*")) ids = mods.keySet();
+        StringBuilder sb = new StringBuilder();
+        for (Iterator it = ids.iterator(); it.hasNext(); ) {
+            String id = (String) it.next();
+            sb.append(id).append('@').append(mods.get(id)).append(',');
+        }
+        return sb.toString();
+    }
+
+    /** modid -> version of every active FML mod in load order; null outside the game. */
+    static Map modVersions() {
+        try {
+            Class loader = Class.forName("cpw.mods.fml.common.Loader");
+            Object instance = loader.getMethod("instance").invoke(null);
+            Object list = loader.getMethod("getActiveModList").invoke(instance);
+            if (!(list instanceof List)) return null;
+            Class container = Class.forName("cpw.mods.fml.common.ModContainer");
+            Method modId = container.getMethod("getModId");
+            Method version = container.getMethod("getVersion");
+            Map out = new LinkedHashMap();
+            for (int i = 0; i < ((List) list).size(); i++) {
+                Object mc = ((List) list).get(i);
+                out.put(String.valueOf(modId.invoke(mc)), String.valueOf(version.invoke(mc)));
+            }
+            return out;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+}
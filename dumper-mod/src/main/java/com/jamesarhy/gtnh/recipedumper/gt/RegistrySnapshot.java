@@ -0,0 +1,785 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw registry snapshot (registry_snapshot.bin): what extraction read from the live game, before
+ * any of it was interpreted.
+ *
+ * Capture records recipe field values, stack and fluid identities, map and meta-tile name
+ * candidates, tooltip lines and the members of meta tiles, their controllers, processing logic,
+ * overclock calculators and tooltips. GTReflectionDump's interpretation (power fields, ghost
+ * circuits, chance scaling, rids, display-name scoring, bonus reads, tooltip rule parsing) runs
+ * over these records both live and offline, so nothing in this class touches Minecraft and
+ * RecipeDumpRunner's main can re-derive every output from a snapshot in a plain JVM.
+ *
+ * Layout: gzip of a tagged record stream (maps, meta tiles, other machines, then the ore
+ * dictionary and translations). Strings are interned as they go: the first use is written
+ * inline, later uses as its number. A recipe object registered in several maps is written once
+ * and referenced by index afterwards.
+ */
+public final class RegistrySnapshot {
+
+    public static final String FILE_NAME = "registry_snapshot.bin";
+    static final int MAGIC = 0x47545253; // "GTRS"
+    static final int VERSION = 2; // 2: recipe EU/t as a long
+
+    /** Field or method value that is neither a number, a boolean nor a string. */
+    static final Object OTHER = new Object() {
+        public String toString() {
+            return "<other>";
+        }
+    };
+
+    private static final int R_END = 0;
+    private static final int R_MAP = 1;
+    private static final int R_META_TILE = 2;
+    private static final int R_OTHER_MACHINE = 3;
+    private static final int R_ORE_TABLE = 4;
+    private static final int R_TRANSLATIONS = 5;
+
+    private static final int E_RECIPE = 0;
+    private static final int E_REF = 1;
+
+    private static final int V_NULL = 0;
+    private static final int V_OTHER = 1;
+    private static final int V_STRING = 2;
+    private static final int V_INT = 3;
+    private static final int V_LONG = 4;
+    private static final int V_DOUBLE = 5;
+    private static final int V_FLOAT = 6;
+    private static final int V_SHORT = 7;
+    private static final int V_BYTE = 8;
+    private static final int V_FALSE = 9;
+    private static final int V_TRUE = 10;
+
+    String generatedAt;
+    String minecraft;
+    String mod;
+    final List maps = new ArrayList();          // RawMap in capture order, recipes resolved
+    final List metaTiles = new ArrayList();     // RawMetaTile
+    final List otherMachines = new ArrayList(); // RawOtherMachine
+    OreTable oreTable;
+    final List languages = new ArrayList();
+    final Map translations = new LinkedHashMap(); // language -> Map key -> best name
+
+    public String generatedAt() {
+        return generatedAt;
+    }
+
+    public String minecraft() {
+        return minecraft;
+    }
+
+    public String mod() {
+        return mod;
+    }
+
+    /* ---------- Records ---------- */
+
+    /** An item stack or crafting ingredient as read from the registries. */
+    static final class RawStack {
+        String id;              // item:<registry name>, or ore:<name> for ore dictionary ingredients
+        int count;
+        int meta;
+        String displayName;
+        String unlocalizedName;
+        List oreDict;           // ore names in ore id order, or null
+    }
+
+    static final class RawFluid {
+        String name;
+        int amount;
+        Boolean gas;
+        String displayName;
+        String unlocalizedName;
+    }
+
+    static final class RawRecipe {
+        boolean gregtech;       // a GT recipe object; otherwise crafting, smelting or Railcraft
+        String recipeClass;
+        int duration;
+        long eut;
+        Integer specialValue;
+        List itemInputs = new ArrayList();   // RawStack
+        List itemOutputs = new ArrayList();
+        List fluidInputs = new ArrayList();  // RawFluid
+        List fluidOutputs = new ArrayList();
+        int[] chances;
+    }
+
+    static final class RawMap {
+        String provider;        // gt, crafting, smelting, railcraft
+        String declaringField;
+        String machineId;
+        List nameCandidates = new ArrayList(); // display-name sources in priority order; may hold nulls
+        RawObject map;          // the GT map object, for the bonus reads; null for other providers
+        int recipeCount;
+        List recipes = new ArrayList();        // RawRecipe; shared between maps like the recipe objects were
+    }
+
+    /**
+     * An object's members as extraction sees them: every declared field up the class hierarchy
+     * (numbers, booleans and strings by value, anything else as {@link #OTHER}), the results of the
+     * public no-arg methods the interpretation asks for, and for debug output the numeric keyword
+     * methods. Fields other than the ones read today are kept so new heuristics can be tried
+     * offline.
+     */
+    static final class RawObject {
+        String className;
+        final List fieldClasses = new ArrayList(); // declaring class per field, most derived class first
+        final List fieldNames = new ArrayList();
+        final List fieldValues = new ArrayList();
+        final BitSet numericFields = new BitSet();  // declared type is a number or boolean
+        final Map methods = new LinkedHashMap();    // name -> result, for methods that exist and returned
+        Map keywordMethods;                         // "Class.name()" -> value; null when not captured
+        List lines;                                 // tooltips: every string found, in lookup order
+
+        void addField(String declaringClass, String name, boolean numeric, Object value) {
+            if (numeric) numericFields.set(fieldNames.size());
+            fieldClasses.add(declaringClass);
+            fieldNames.add(name);
+            fieldValues.add(scalar(value));
+        }
+
+        int fieldCount() {
+            return fieldNames.size();
+        }
+
+        /** The first of {@code names} that was invoked, as tryInvokeAny would: its result, else null. */
+        Object invoked(String[] names) {
+            for (int i = 0; i < names.length; i++) {
+                if (methods.containsKey(names[i])) return methods.get(names[i]);
+            }
+            return null;
+        }
+
+        /** As getAny: class by class from the most derived, the first of {@code names} declared there. */
+        Object field(String[] names) {
+            int start = 0;
+            while (start < fieldNames.size()) {
+                Object cls = fieldClasses.get(start);
+                int end = start;
+                while (end < fieldNames.size() && fieldClasses.get(end).equals(cls)) end++;
+                for (int n = 0; n < names.length; n++) {
+                    for (int i = start; i < end; i++) {
+                        if (names[n].equals(fieldNames.get(i))) return fieldValues.get(i);
+                    }
+                }
+                start = end;
+            }
+            return null;
+        }
+    }
+
+    static final class RawMetaTile {
+        int id;
+        String className;
+        String metaName;
+        Map nameCandidates;         // display-name candidates by source, localized ones included
+        List machineTypes;
+        String machineId;           // the machine index's recipe map resolution; null without a map
+        String debugMachineId;      // the debug scan's resolution (public methods and fields only)
+        boolean hasRecipeMap;
+        boolean hasAvailableRecipeMaps;
+        RawObject tile;
+        RawObject controller;       // the bonus source, when it is not the tile itself
+        RawObject logic;            // createProcessingLogic / getProcessingLogic
+        RawObject overclockCalculator;
+        Integer logicMaxParallel;   // the logic's max-parallel supplier, evaluated
+        Integer lvTier;             // GT_Utility.getTier(32)
+        Integer maxParallelAtLV;    // getMaxParallelRecipes with the input voltage set to 32
+        RawObject tooltip;
+    }
+
+    /** Machine index entries that are not GT meta tiles (Railcraft alpha machines). */
+    static final class RawOtherMachine {
+        String machineId;
+        String localizedName;
+        String tileClass;
+    }
+
+    /** ore_dictionary.json's content: per ore id its name and distinct (item key, meta) registrations. */
+    static final class OreTable {
+        final String[] names;   // null where the id has no name or no list
+        final String[][] items;
+        final int[][] metas;
+        int entryCount;
+
+        OreTable(int oreCount) {
+            names = new String[oreCount];
+            items = new String[oreCount][];
+            metas = new int[oreCount][];
+        }
+    }
+
+    static Object scalar(Object v) {
+        if (v == null || v instanceof Number || v instanceof Boolean || v instanceof String) return v;
+        return OTHER;
+    }
+
+    /* ---------- Writing ---------- */
+
+    /**
+     * Streams records as extraction captures them; {@link #finish()} completes the file. A write
+     * error stops recording and is reported by finish, so the dump itself carries on.
+     */
+    static final class Writer {
+        private final File file;
+        private final DataOutputStream out;
+        private IOException failure;
+        private final Map strings = new HashMap();
+        private final Map recipeIndex = new IdentityHashMap(); // recipe object -> Integer
+        private final byte[] buf = new byte[5];
+
+        Writer(File file, String generatedAt, String minecraft, String mod) throws IOException {
+            this.file = file;
+            File parent = file.getAbsoluteFile().getParentFile();
+            if (parent != null && !parent.exists()) parent.mkdirs();
+            out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file), 1 << 16), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(generatedAt);
+            writeString(minecraft);
+            writeString(mod);
+        }
+
+        /**
+         * One map with its recipes. {@code keys} are the recipe objects, so one registered in
+         * several maps is written once (null: none are shared); a null raw recipe is only valid for
+         * a key already written.
+         */
+        void map(RawMap map, List keys, List recipes) {
+            if (failure != null) return;
+            try {
+                writeMap(map, keys, recipes);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        void metaTile(RawMetaTile t) {
+            if (failure != null) return;
+            try {
+                writeMetaTile(t);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        void otherMachine(RawOtherMachine m) {
+            if (failure != null) return;
+            try {
+                out.writeByte(R_OTHER_MACHINE);
+                writeString(m.machineId);
+                writeString(m.localizedName);
+                writeString(m.tileClass);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        private void writeMap(RawMap map, List keys, List recipes) throws IOException {
+            out.writeByte(R_MAP);
+            writeString(map.provider);
+            writeString(map.declaringField);
+            writeString(map.machineId);
+            writeStrings(map.nameCandidates);
+            writeObject(map.map);
+            writeVarInt(map.recipeCount);
+            int n = 0;
+            for (int i = 0; i < recipes.size(); i++) {
+                Object key = (keys == null) ? null : keys.get(i);
+                if (recipes.get(i) != null || (key != null && recipeIndex.containsKey(key))) n++;
+            }
+            writeVarInt(n);
+            for (int i = 0; i < recipes.size(); i++) {
+                Object key = (keys == null) ? null : keys.get(i);
+                Integer seen = (key == null) ? null : (Integer) recipeIndex.get(key);
+                if (seen != null) {
+                    out.writeByte(E_REF);
+                    writeVarInt(seen.intValue());
+                    continue;
+                }
+                RawRecipe r = (RawRecipe) recipes.get(i);
+                if (r == null) continue;
+                Integer index = new Integer(recipeIndex.size());
+                recipeIndex.put((key == null) ? r : key, index);
+                out.writeByte(E_RECIPE);
+                writeRecipe(r);
+            }
+        }
+
+        private void writeMetaTile(RawMetaTile t) throws IOException {
+            out.writeByte(R_META_TILE);
+            writeVarInt(t.id);
+            writeString(t.className);
+            writeString(t.metaName);
+            writeValueMap(t.nameCandidates);
+            writeStrings(t.machineTypes);
+            writeString(t.machineId);
+            writeString(t.debugMachineId);
+            out.writeBoolean(t.hasRecipeMap);
+            out.writeBoolean(t.hasAvailableRecipeMaps);
+            writeObject(t.tile);
+            writeObject(t.controller);
+            writeObject(t.logic);
+            writeObject(t.overclockCalculator);
+            writeInteger(t.logicMaxParallel);
+            writeInteger(t.lvTier);
+            writeInteger(t.maxParallelAtLV);
+            writeObject(t.tooltip);
+        }
+
+        void oreTable(OreTable t) throws IOException {
+            if (failure != null) throw failure;
+            out.writeByte(R_ORE_TABLE);
+            writeVarInt(t.names.length);
+            writeVarInt(t.entryCount);
+            for (int id = 0; id < t.names.length; id++) {
+                writeString(t.names[id]);
+                if (t.names[id] == null) continue;
+                writeVarInt(t.items[id].length);
+                for (int i = 0; i < t.items[id].length; i++) {
+                    writeString(t.items[id][i]);
+                    out.writeInt(t.metas[id][i]);
+                }
+            }
+        }
+
+        void translations(String lang, Map names) throws IOException {
+            out.writeByte(R_TRANSLATIONS);
+            writeString(lang);
+            writeValueMap(names);
+        }
+
+        void finish() throws IOException {
+            if (failure != null) throw failure;
+            out.writeByte(R_END);
+            out.close();
+        }
+
+        /** Closes without completing and deletes the partial file. */
+        void abort() {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            file.delete();
+        }
+
+        private void writeRecipe(RawRecipe r) throws IOException {
+            out.writeBoolean(r.gregtech);
+            writeString(r.recipeClass);
+            out.writeInt(r.duration);
+            out.writeLong(r.eut);
+            writeInteger(r.specialValue);
+            writeStacks(r.itemInputs);
+            writeStacks(r.itemOutputs);
+            writeFluids(r.fluidInputs);
+            writeFluids(r.fluidOutputs);
+            if (r.chances == null) {
+                writeVarInt(0);
+            } else {
+                writeVarInt(r.chances.length + 1);
+                for (int i = 0; i < r.chances.length; i++) out.writeInt(r.chances[i]);
+            }
+        }
+
+        private void writeStacks(List stacks) throws IOException {
+            writeVarInt(stacks.size());
+            for (int i = 0; i < stacks.size(); i++) {
+                RawStack s = (RawStack) stacks.get(i);
+                writeString(s.id);
+                out.writeInt(s.count);
+                out.writeInt(s.meta);
+                writeString(s.displayName);
+                writeString(s.unlocalizedName);
+                writeStrings(s.oreDict);
+            }
+        }
+
+        private void writeFluids(List fluids) throws IOException {
+            writeVarInt(fluids.size());
+            for (int i = 0; i < fluids.size(); i++) {
+                RawFluid f = (RawFluid) fluids.get(i);
+                writeString(f.name);
+                out.writeInt(f.amount);
+                writeValue(f.gas);
+                writeString(f.displayName);
+                writeString(f.unlocalizedName);
+            }
+        }
+
+        private void writeObject(RawObject o) throws IOException {
+            if (o == null) {
+                out.writeBoolean(false);
+                return;
+            }
+            out.writeBoolean(true);
+            writeString(o.className);
+            writeVarInt(o.fieldCount());
+            for (int i = 0; i < o.fieldCount(); i++) {
+                writeString((String) o.fieldClasses.get(i));
+                writeString((String) o.fieldNames.get(i));
+                out.writeBoolean(o.numericFields.get(i));
+                writeValue(o.fieldValues.get(i));
+            }
+            writeValueMap(o.methods);
+            writeValueMap(o.keywordMethods);
+            writeStrings(o.lines);
+        }
+
+        private void writeValueMap(Map m) throws IOException {
+            if (m == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(m.size() + 1);
+            for (Iterator it = m.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry e = (Map.Entry) it.next();
+                writeString(String.valueOf(e.getKey()));
+                writeValue(e.getValue());
+            }
+        }
+
+        private void writeStrings(List list) throws IOException {
+            if (list == null) {
+                writeVarInt(0);
+                return;
+            }
+            writeVarInt(list.size() + 1);
+            for (int i = 0; i < list.size(); i++) writeString((String) list.get(i));
+        }
+
+        private void writeInteger(Integer v) throws IOException {
+            out.writeBoolean(v != null);
+            if (v != null) out.writeInt(v.intValue());
+        }
+
+        private void writeValue(Object v) throws IOException {
+            if (v == null) {
+                out.writeByte(V_NULL);
+            } else if (v instanceof String) {
+                out.writeByte(V_STRING);
+                writeString((String) v);
+            } else if (v instanceof Integer) {
+                out.writeByte(V_INT);
+                out.writeInt(((Integer) v).intValue());
+            } else if (v instanceof Long) {
+                out.writeByte(V_LONG);
+                out.writeLong(((Long) v).longValue());
+            } else if (v instanceof Float) {
+                out.writeByte(V_FLOAT);
+                out.writeFloat(((Float) v).floatValue());
+            } else if (v instanceof Short) {
+                out.writeByte(V_SHORT);
+                out.writeShort(((Short) v).shortValue());
+            } else if (v instanceof Byte) {
+                out.writeByte(V_BYTE);
+                out.writeByte(((Byte) v).byteValue());
+            } else if (v instanceof Boolean) {
+                out.writeByte(((Boolean) v).booleanValue() ? V_TRUE : V_FALSE);
+            } else if (v instanceof Number) {
+                // Double, and the rarer Number types (atomics, BigDecimal) as their double value.
+                out.writeByte(V_DOUBLE);
+                out.writeDouble(((Number) v).doubleValue());
+            } else {
+                out.writeByte(V_OTHER);
+            }
+        }
+
+        private void writeString(String s) throws IOException {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            Integer id = (Integer) strings.get(s);
+            if (id != null) {
+                writeVarInt(id.intValue() + 2);
+                return;
+            }
+            strings.put(s, new Integer(strings.size()));
+            writeVarInt(1);
+            byte[] b = s.getBytes("UTF-8");
+            writeVarInt(b.length);
+            out.write(b);
+        }
+
+        private void writeVarInt(int v) throws IOException {
+            int n = 0;
+            while ((v & ~0x7f) != 0) {
+                buf[n++] = (byte) ((v & 0x7f) | 0x80);
+                v >>>= 7;
+            }
+            buf[n++] = (byte) v;
+            out.write(buf, 0, n);
+        }
+    }
+
+    /* ---------- Reading ---------- */
+
+    /** The whole snapshot; a few hundred MB of heap at most for a full GTNH pack. */
+    public static RegistrySnapshot read(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file), 1 << 16), 1 << 16));
+        try {
+            return new Reader(in).read();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private final List strings = new ArrayList();
+        private final List recipes = new ArrayList(); // RawRecipe by index
+        private int version;
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        RegistrySnapshot read() throws IOException {
+            if (in.readInt() != MAGIC) throw new IOException("not a registry snapshot");
+            version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("registry snapshot version " + version + ", expected " + VERSION);
+            }
+            RegistrySnapshot s = new RegistrySnapshot();
+            s.generatedAt = readString();
+            s.minecraft = readString();
+            s.mod = readString();
+            while (true) {
+                int tag = in.readUnsignedByte();
+                if (tag == R_END) return s;
+                if (tag == R_MAP) {
+                    s.maps.add(readMap());
+                } else if (tag == R_META_TILE) {
+                    s.metaTiles.add(readMetaTile());
+                } else if (tag == R_OTHER_MACHINE) {
+                    RawOtherMachine m = new RawOtherMachine();
+                    m.machineId = readString();
+                    m.localizedName = readString();
+                    m.tileClass = readString();
+                    s.otherMachines.add(m);
+                } else if (tag == R_ORE_TABLE) {
+                    s.oreTable = readOreTable();
+                } else if (tag == R_TRANSLATIONS) {
+                    String lang = readString();
+                    s.languages.add(lang);
+                    s.translations.put(lang, readValueMap());
+                } else {
+                    throw new IOException("unknown registry snapshot record " + tag);
+                }
+            }
+        }
+
+        private RawMap readMap() throws IOException {
+            RawMap m = new RawMap();
+            m.provider = readString();
+            m.declaringField = readString();
+            m.machineId = readString();
+            m.nameCandidates = readStrings();
+            m.map = readObject();
+            m.recipeCount = readVarInt();
+            int n = readVarInt();
+            for (int i = 0; i < n; i++) {
+                int kind = in.readUnsignedByte();
+                if (kind == E_REF) {
+                    m.recipes.add(recipes.get(readVarInt()));
+                } else {
+                    RawRecipe r = readRecipe();
+                    recipes.add(r);
+                    m.recipes.add(r);
+                }
+            }
+            return m;
+        }
+
+        private RawRecipe readRecipe() throws IOException {
+            RawRecipe r = new RawRecipe();
+            r.gregtech = in.readBoolean();
+            r.recipeClass = readString();
+            r.duration = in.readInt();
+            r.eut = (version < 2) ? in.readInt() : in.readLong();
+            r.specialValue = readInteger();
+            r.itemInputs = readStacks();
+            r.itemOutputs = readStacks();
+            r.fluidInputs = readFluids();
+            r.fluidOutputs = readFluids();
+            int n = readVarInt();
+            if (n > 0) {
+                r.chances = new int[n - 1];
+                for (int i = 0; i < r.chances.length; i++) r.chances[i] = in.readInt();
+            }
+            return r;
+        }
+
+        private List readStacks() throws IOException {
+            int n = readVarInt();
+            List out = new ArrayList(n);
+            for (int i = 0; i < n; i++) {
+                RawStack s = new RawStack();
+                s.id = readString();
+                s.count = in.readInt();
+                s.meta = in.readInt();
+                s.displayName = readString();
+                s.unlocalizedName = readString();
+                s.oreDict = readStrings();
+                out.add(s);
+            }
+            return out;
+        }
+
+        private List readFluids() throws IOException {
+            int n = readVarInt();
+            List out = new ArrayList(n);
+            for (int i = 0; i < n; i++) {
+                RawFluid f = new RawFluid();
+                f.name = readString();
+                f.amount = in.readInt();
+                f.gas = (Boolean) readValue();
+                f.displayName = readString();
+                f.unlocalizedName = readString();
+                out.add(f);
+            }
+            return out;
+        }
+
+        private RawMetaTile readMetaTile() throws IOException {
+            RawMetaTile t = new RawMetaTile();
+            t.id = readVarInt();
+            t.className = readString();
+            t.metaName = readString();
+            t.nameCandidates = readValueMap();
+            t.machineTypes = readStrings();
+            t.machineId = readString();
+            t.debugMachineId = readString();
+            t.hasRecipeMap = in.readBoolean();
+            t.hasAvailableRecipeMaps = in.readBoolean();
+            t.tile = readObject();
+            t.controller = readObject();
+            t.logic = readObject();
+            t.overclockCalculator = readObject();
+            t.logicMaxParallel = readInteger();
+            t.lvTier = readInteger();
+            t.maxParallelAtLV = readInteger();
+            t.tooltip = readObject();
+            return t;
+        }
+
+        private RawObject readObject() throws IOException {
+            if (!in.readBoolean()) return null;
+            RawObject o = new RawObject();
+            o.className = readString();
+            int n = readVarInt();
+            for (int i = 0; i < n; i++) {
+                String cls = readString();
+                String name = readString();
+                boolean numeric = in.readBoolean();
+                o.addField(cls, name, numeric, readValue());
+            }
+            o.methods.putAll(readValueMap());
+            o.keywordMethods = readValueMap();
+            o.lines = readStrings();
+            return o;
+        }
+
+        private OreTable readOreTable() throws IOException {
+            OreTable t = new OreTable(readVarInt());
+            t.entryCount = readVarInt();
+            for (int id = 0; id < t.names.length; id++) {
+                t.names[id] = readString();
+                if (t.names[id] == null) continue;
+                int n = readVarInt();
+                t.items[id] = new String[n];
+                t.metas[id] = new int[n];
+                for (int i = 0; i < n; i++) {
+                    t.items[id][i] = readString();
+                    t.metas[id][i] = in.readInt();
+                }
+            }
+            return t;
+        }
+
+        /** Null for an absent map, as written. */
+        private Map readValueMap() throws IOException {
+            int n = readVarInt();
+            if (n == 0) return null;
+            Map m = new LinkedHashMap();
+            for (int i = 0; i < n - 1; i++) {
+                String key = readString();
+                m.put(key, readValue());
+            }
+            return m;
+        }
+
+        private List readStrings() throws IOException {
+            int n = readVarInt();
+            if (n == 0) return null;
+            List out = new ArrayList(n - 1);
+            for (int i = 0; i < n - 1; i++) out.add(readString());
+            return out;
+        }
+
+        private Integer readInteger() throws IOException {
+            return in.readBoolean() ? new Integer(in.readInt()) : null;
+        }
+
+        private Object readValue() throws IOException {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case V_NULL: return null;
+                case V_OTHER: return OTHER;
+                case V_STRING: return readString();
+                case V_INT: return new Integer(in.readInt());
+                case V_LONG: return new Long(in.readLong());
+                case V_DOUBLE: return new Double(in.readDouble());
+                case V_FLOAT: return new Float(in.readFloat());
+                case V_SHORT: return new Short(in.readShort());
+                case V_BYTE: return new Byte(in.readByte());
+                case V_FALSE: return Boolean.FALSE;
+                case V_TRUE: return Boolean.TRUE;
+                default: throw new IOException("unknown registry snapshot value " + tag);
+            }
+        }
+
+        private String readString() throws IOException {
+            int ref = readVarInt();
+            if (ref == 0) return null;
+            if (ref > 1) return (String) strings.get(ref - 2);
+            byte[] b = new byte[readVarInt()];
+            in.readFully(b);
+            String s = new String(b, "UTF-8");
+            strings.add(s);
+            return s;
+        }
+
+        private int readVarInt() throws IOException {
+            int v = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = in.readUnsignedByte();
+                v |= (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IOException("malformed varint");
+        }
+    }
+}
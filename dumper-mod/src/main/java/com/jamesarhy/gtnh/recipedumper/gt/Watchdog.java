@@ -0,0 +1,226 @@
+package com.jamesarhy.gtnh.recipedumper.gt;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Time budgets for the parts of a dump that call into other mods: each RecipeMap (and the
+ * crafting, smelting and Railcraft captures), each provider as a whole, and each meta tile.
+ *
+ * A unit runs on a worker thread while the dump thread waits for it up to its budget. A unit
+ * that overruns is abandoned: the dump goes on without it, records it (see {@link #describe}),
+ * and starts a fresh worker, because a thread stuck in a blocking getAllRecipes or createTooltip
+ * cannot be stopped safely. The abandoned worker is interrupted and stops at its next
+ * {@link #checkpoint()}; whatever it captured after that point is never used.
+ *
+ * Only capture (reading the game) runs on the worker. Interpretation, storage and the snapshot
+ * stay on the dump thread, so an abandoned unit leaves nothing half-written.
+ *
+ * Budgets come from RECIPE_DUMP_PROVIDER_BUDGET_SEC, RECIPE_DUMP_MAP_BUDGET_SEC and
+ * RECIPE_DUMP_META_TILE_BUDGET_SEC; 0 runs units inline on the dump thread without a budget.
+ */
+final class Watchdog {
+
+    static final String PROVIDER = "provider";
+    static final String MAP = "map";
+    static final String META_TILE = "metaTile";
+
+    private static final long DEFAULT_PROVIDER_BUDGET_MS = 900 * 1000L;
+    private static final long DEFAULT_MAP_BUDGET_MS = 300 * 1000L;
+    private static final long DEFAULT_META_TILE_BUDGET_MS = 30 * 1000L;
+
+    /** Thrown at a checkpoint of an abandoned unit, so its worker stops as soon as it gets there. */
+    static final class Abandoned extends RuntimeException {
+        Abandoned() {
+            super("abandoned by the dump watchdog");
+        }
+    }
+
+    private static final class Worker extends Thread {
+        volatile boolean abandoned;
+
+        Worker(Runnable r, String name) {
+            super(r, name);
+            setDaemon(true);
+        }
+    }
+
+    private final long providerBudgetMs;
+    private final long mapBudgetMs;
+    private final long metaTileBudgetMs;
+
+    private ExecutorService executor;
+    private int workers;
+    private Worker current; // the worker running the unit being waited for
+
+    private String provider;
+    private long providerDeadline; // 0 = no provider active or no provider budget
+    private boolean providerExpired;
+
+    private final List abandoned = new ArrayList(); // Map per unit, for the metadata
+
+    private Watchdog(long providerBudgetMs, long mapBudgetMs, long metaTileBudgetMs) {
+        this.providerBudgetMs = providerBudgetMs;
+        this.mapBudgetMs = mapBudgetMs;
+        this.metaTileBudgetMs = metaTileBudgetMs;
+    }
+
+    static Watchdog fromEnvironment() {
+        return new Watchdog(
+                budgetMs("RECIPE_DUMP_PROVIDER_BUDGET_SEC", DEFAULT_PROVIDER_BUDGET_MS),
+                budgetMs("RECIPE_DUMP_MAP_BUDGET_SEC", DEFAULT_MAP_BUDGET_MS),
+                budgetMs("RECIPE_DUMP_META_TILE_BUDGET_SEC", DEFAULT_META_TILE_BUDGET_MS));
+    }
+
+    /** No budgets: every unit runs inline (offline re-extraction only interprets). */
+    static Watchdog unlimited() {
+        return new Watchdog(0, 0, 0);
+    }
+
+    private static long budgetMs(String name, long dflt) {
+        String v = System.getenv(name);
+        if (v == null || v.trim().length() == 0) return dflt;
+        double sec = Double.parseDouble(v.trim());
+        if (sec < 0) throw new IllegalArgumentException(name + " must not be negative: " + v);
+        return (long) (sec * 1000.0);
+    }
+
+    /**
+     * Stops the calling worker if its unit has been abandoned. Capture loops call this once per
+     * recipe; on the dump thread (inline units) it does nothing.
+     */
+    static void checkpoint() {
+        Thread t = Thread.currentThread();
+        if (t instanceof Worker && ((Worker) t).abandoned) throw new Abandoned();
+    }
+
+    /* ---------- Providers ---------- */
+
+    /** Starts {@code name}'s budget; its map units get at most what is left of it. */
+    void beginProvider(String name) {
+        provider = name;
+        providerExpired = false;
+        providerDeadline = (providerBudgetMs > 0) ? System.currentTimeMillis() + providerBudgetMs : 0;
+    }
+
+    void endProvider() {
+        provider = null;
+        providerDeadline = 0;
+        providerExpired = false;
+    }
+
+    /**
+     * True once the active provider's budget is used up. The first call that finds it so records
+     * the provider as abandoned; its remaining maps are then skipped by the caller.
+     */
+    boolean providerExpired() {
+        if (providerExpired) return true;
+        if (providerDeadline == 0 || System.currentTimeMillis() < providerDeadline) return false;
+        providerExpired = true;
+        record(PROVIDER, provider, providerBudgetMs, providerBudgetMs, "budget");
+        return true;
+    }
+
+    /* ---------- Units ---------- */
+
+    /** Captures one map of the active provider; null when abandoned. */
+    Object map(String unit, Callable task) throws Exception {
+        if (providerExpired()) return null;
+        long budget = mapBudgetMs;
+        String reason = "budget";
+        if (providerDeadline != 0) {
+            long left = Math.max(1L, providerDeadline - System.currentTimeMillis());
+            if (budget == 0 || left < budget) {
+                budget = left;
+                reason = "providerBudget";
+            }
+        }
+        return run(MAP, unit, budget, reason, task);
+    }
+
+    /** Captures one meta tile; null when abandoned. */
+    Object metaTile(int id, Callable task) throws Exception {
+        return run(META_TILE, String.valueOf(id), metaTileBudgetMs, "budget", task);
+    }
+
+    private Object run(String kind, String unit, long budgetMs, String reason, Callable task) throws Exception {
+        if (budgetMs <= 0) return task.call();
+        if (executor == null) executor = newExecutor();
+        long start = System.currentTimeMillis();
+        Future f = executor.submit(task);
+        try {
+            return f.get(budgetMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(f);
+            long elapsed = System.currentTimeMillis() - start;
+            record(kind, unit, budgetMs, elapsed, reason);
+            if ("providerBudget".equals(reason)) providerExpired();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    /** Leaves the stuck worker behind (interrupted, flagged) and lets the next unit start a new one. */
+    private void abandon(Future f) {
+        Worker w = current;
+        if (w != null) w.abandoned = true;
+        f.cancel(true);
+        executor.shutdownNow();
+        executor = null;
+        current = null;
+    }
+
+    private ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Worker w = new Worker(r, "recipedumper-unit-" + (++workers));
+                current = w;
+                return w;
+            }
+        });
+    }
+
+    private void record(String kind, String unit, long budgetMs, long elapsedMs, String reason) {
+        Map m = new LinkedHashMap();
+        m.put("kind", kind);
+        if (provider != null && !PROVIDER.equals(kind)) m.put("provider", provider);
+        m.put("unit", unit);
+        m.put("reason", reason);
+        m.put("budgetMs", new Long(budgetMs));
+        m.put("elapsedMs", new Long(elapsedMs));
+        abandoned.add(m);
+        System.out.println("[recipedumper] Abandoned " + kind + " " + unit + " after " + elapsedMs + " ms ("
+                + reason + " " + budgetMs + " ms); continuing without it");
+    }
+
+    /** Units abandoned so far; a journal only records a provider or meta-tile range that lost none. */
+    int abandonedCount() {
+        return abandoned.size();
+    }
+
+    /** Every abandoned unit in the order it happened, for the output metadata; null when none. */
+    List describe() {
+        return abandoned.isEmpty() ? null : new ArrayList(abandoned);
+    }
+
+    /** Releases the worker thread (an abandoned one is a daemon and is left to finish or hang). */
+    void close() {
+        if (executor != null) executor.shutdown();
+        executor = null;
+        current = null;
+    }
+}
@@ -0,0 +1,378 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reader for {@code recipes.bin}, the random-access binary form of {@code recipes.json}.
+ *
+ * Layout (little-endian, every section 8-byte aligned):
+ * <pre>
+ *   header       magic "GTNHBIN1", version, counts, dictionary refs for generatedAt/minecraft/mod,
+ *                then one long offset per section
+ *   dict         string table sorted by UTF-8 bytes; every other string is an int ref into it
+ *   rids         string table sorted by UTF-8 bytes
+ *   ridRecipe    int[recipeCount]       rid table position -> recipe index
+ *   maps         MAP_RECORD_SIZE bytes per map, dump order
+ *   mapByMachine int[mapCount]          map indices ordered by machineId
+ *   recipes      RECIPE_RECORD_SIZE bytes per recipe; each map's recipes are contiguous
+ *   items        ITEM_RECORD_SIZE bytes per item stack (inputs then outputs per recipe)
+ *   fluids       FLUID_RECORD_SIZE bytes per fluid stack
+ *   oreRefs      int[] dictionary refs for item ore dictionary names
+ *   chances      int[] raw GT output chances
+ * </pre>
+ * Nothing is parsed on open: accessors read fixed offsets from the single mapping, and only
+ * string getters allocate.
+ */
+public final class BinaryDump {
+
+    public static final String FILE_NAME = "recipes.bin";
+    public static final byte[] MAGIC = new byte[] {'G', 'T', 'N', 'H', 'B', 'I', 'N', '1'};
+    public static final int VERSION = 1;
+    public static final int NO_REF = -1;
+
+    static final int S_DICT = 0;
+    static final int S_RIDS = 1;
+    static final int S_RID_RECIPE = 2;
+    static final int S_MAPS = 3;
+    static final int S_MAP_BY_MACHINE = 4;
+    static final int S_RECIPES = 5;
+    static final int S_ITEMS = 6;
+    static final int S_FLUIDS = 7;
+    static final int S_ORE_REFS = 8;
+    static final int S_CHANCES = 9;
+    static final int SECTION_COUNT = 10;
+    static final int HEADER_SIZE = 56 + SECTION_COUNT * 8;
+
+    // Map record: refs, counts, presence flags, then five bonus doubles.
+    static final int MAP_RECORD_SIZE = 72;
+    static final int M_MACHINE = 0;
+    static final int M_DISPLAY = 4;
+    static final int M_DECLARING = 8;
+    static final int M_DECLARED_COUNT = 12;
+    static final int M_FIRST_RECIPE = 16;
+    static final int M_RECIPE_COUNT = 20;
+    static final int M_FLAGS = 24;
+    static final int M_BONUSES = 32;
+
+    public static final int BONUS_PARALLEL = 0;
+    public static final int BONUS_MAX_PARALLEL = 1;
+    public static final int BONUS_COIL = 2;
+    public static final int BONUS_SPEED = 3;
+    public static final int BONUS_EFFICIENCY = 4;
+    static final int MF_TOOLTIP_PRESENT = 1 << 5;
+    static final int MF_TOOLTIP_VALUE = 1 << 6;
+
+    // Recipe record.
+    static final int RECIPE_RECORD_SIZE = 96;
+    static final int R_RID = 0;
+    static final int R_MACHINE = 4;
+    static final int R_CLASS = 8;
+    static final int R_MIN_TIER = 12;
+    static final int R_EUT = 16;
+    static final int R_DURATION = 24;
+    static final int R_FLAGS = 28;
+    static final int R_SPECIAL = 32;
+    static final int R_EBF_TEMP = 36;
+    static final int R_CIRCUIT = 40;
+    static final int R_MIN_VOLTAGE = 44;
+    static final int R_AMPS = 48;
+    static final int R_CHANCE_SCALE = 52;
+    static final int R_ITEM_IN = 56;
+    static final int R_ITEM_OUT = 64;
+    static final int R_FLUID_IN = 72;
+    static final int R_FLUID_OUT = 80;
+    static final int R_CHANCES = 88;
+
+    public static final int RF_SPECIAL = 1;
+    public static final int RF_EBF_TEMP = 1 << 1;
+    public static final int RF_CIRCUIT = 1 << 2;
+    public static final int RF_GHOST_PRESENT = 1 << 3;
+    public static final int RF_GHOST = 1 << 4;
+    public static final int RF_MIN_VOLTAGE = 1 << 5;
+    public static final int RF_AMPS = 1 << 6;
+    public static final int RF_CHANCE_SCALE = 1 << 7;
+
+    // Item stack record.
+    static final int ITEM_RECORD_SIZE = 40;
+    static final int I_ID = 0;
+    static final int I_META = 4;
+    static final int I_COUNT = 8;
+    static final int I_DISPLAY = 12;
+    static final int I_UNLOC = 16;
+    static final int I_CHANCE = 24; // double, NaN when absent
+    static final int I_ORE_START = 32;
+    static final int I_ORE_COUNT = 36;
+
+    // Fluid stack record.
+    static final int FLUID_RECORD_SIZE = 24;
+    static final int F_ID = 0;
+    static final int F_MB = 4;
+    static final int F_FLAGS = 8; // bit0 isGas present, bit1 isGas
+    static final int F_DISPLAY = 12;
+    static final int F_UNLOC = 16;
+
+    private final MappedByteBuffer mapped;
+    private final ByteBuffer buf;
+    private final int mapCount;
+    private final int recipeCount;
+    private final int itemCount;
+    private final int fluidCount;
+    private final int generatedAtRef;
+    private final int minecraftRef;
+    private final int modRef;
+    private final StringTable dict;
+    private final StringTable rids;
+    private final IntBuffer ridRecipe;
+    private final IntBuffer mapByMachine;
+    private final IntBuffer oreRefs;
+    private final IntBuffer chances;
+    private final int mapsOffset;
+    private final int recipesOffset;
+    private final int itemsOffset;
+    private final int fluidsOffset;
+
+    private BinaryDump(MappedByteBuffer mapped) throws IOException {
+        this.mapped = mapped;
+        this.buf = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (buf.get(i) != MAGIC[i]) throw new IOException("Not a binary recipe dump (bad magic)");
+        }
+        int version = buf.getInt(8);
+        if (version != VERSION) throw new IOException("Unsupported binary recipe dump version " + version);
+        mapCount = buf.getInt(12);
+        recipeCount = buf.getInt(16);
+        itemCount = buf.getInt(20);
+        fluidCount = buf.getInt(24);
+        int oreRefCount = buf.getInt(28);
+        int chanceCount = buf.getInt(32);
+        generatedAtRef = buf.getInt(36);
+        minecraftRef = buf.getInt(40);
+        modRef = buf.getInt(44);
+        long[] off = new long[SECTION_COUNT];
+        for (int i = 0; i < SECTION_COUNT; i++) off[i] = buf.getLong(56 + i * 8);
+
+        dict = new StringTable(mapped, off[S_DICT]);
+        rids = new StringTable(mapped, off[S_RIDS]);
+        ridRecipe = ints(off[S_RID_RECIPE], recipeCount);
+        mapByMachine = ints(off[S_MAP_BY_MACHINE], mapCount);
+        oreRefs = ints(off[S_ORE_REFS], oreRefCount);
+        chances = ints(off[S_CHANCES], chanceCount);
+        mapsOffset = (int) off[S_MAPS];
+        recipesOffset = (int) off[S_RECIPES];
+        itemsOffset = (int) off[S_ITEMS];
+        fluidsOffset = (int) off[S_FLUIDS];
+    }
+
+    public static BinaryDump open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel ch = raf.getChannel();
+            return new BinaryDump(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /** True when the file starts with the binary dump magic. */
+    public static boolean isBinaryDump(File file) {
+        if (file == null || !file.isFile() || file.length() < HEADER_SIZE) return false;
+        RandomAccessFile raf = null;
+        try {
+            raf = new RandomAccessFile(file, "r");
+            byte[] head = new byte[MAGIC.length];
+            raf.readFully(head);
+            for (int i = 0; i < MAGIC.length; i++) if (head[i] != MAGIC[i]) return false;
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (raf != null) {
+                try { raf.close(); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /* ---------- Dictionary ---------- */
+
+    public String string(int ref) {
+        return (ref < 0) ? null : dict.get(ref);
+    }
+
+    /** Dictionary ref for a string, or {@link #NO_REF}. Refs compare in the same order as the strings. */
+    public int findString(String s) {
+        return (s == null) ? NO_REF : dict.find(s);
+    }
+
+    public int dictionarySize() { return dict.size(); }
+
+    public String generatedAt() { return string(generatedAtRef); }
+    public String minecraft() { return string(minecraftRef); }
+    public String mod() { return string(modRef); }
+
+    /* ---------- Maps ---------- */
+
+    public int mapCount() { return mapCount; }
+
+    public int mapMachineRef(int map) { return buf.getInt(mapBase(map) + M_MACHINE); }
+    public String mapMachineId(int map) { return string(mapMachineRef(map)); }
+    public String mapDisplayName(int map) { return string(buf.getInt(mapBase(map) + M_DISPLAY)); }
+    public String mapDeclaringField(int map) { return string(buf.getInt(mapBase(map) + M_DECLARING)); }
+    public int mapDeclaredRecipeCount(int map) { return buf.getInt(mapBase(map) + M_DECLARED_COUNT); }
+    public int mapFirstRecipe(int map) { return buf.getInt(mapBase(map) + M_FIRST_RECIPE); }
+    public int mapRecipeCount(int map) { return buf.getInt(mapBase(map) + M_RECIPE_COUNT); }
+
+    public boolean hasMapBonus(int map, int bonus) {
+        return (buf.getInt(mapBase(map) + M_FLAGS) & (1 << bonus)) != 0;
+    }
+
+    public double mapBonus(int map, int bonus) {
+        return buf.getDouble(mapBase(map) + M_BONUSES + bonus * 8);
+    }
+
+    /** Boolean.TRUE / FALSE, or null when the mod did not record it. */
+    public Boolean mapTooltipDerived(int map) {
+        int flags = buf.getInt(mapBase(map) + M_FLAGS);
+        if ((flags & MF_TOOLTIP_PRESENT) == 0) return null;
+        return ((flags & MF_TOOLTIP_VALUE) != 0) ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+    /** First map (in dump order) for a machineId, or -1. Binary search over dictionary refs, no decoding. */
+    public int findMap(String machineId) {
+        int pos = lowerBound(findString(machineId));
+        return (pos < 0) ? -1 : mapByMachine.get(pos);
+    }
+
+    /** All maps for a machineId, in dump order. */
+    public int[] findMaps(String machineId) {
+        int ref = findString(machineId);
+        int pos = lowerBound(ref);
+        if (pos < 0) return new int[0];
+        int end = pos;
+        while (end < mapCount && mapMachineRef(mapByMachine.get(end)) == ref) end++;
+        int[] out = new int[end - pos];
+        for (int i = 0; i < out.length; i++) out[i] = mapByMachine.get(pos + i);
+        return out;
+    }
+
+    /** First mapByMachine position whose machine ref equals {@code ref}, or -1. */
+    private int lowerBound(int ref) {
+        if (ref < 0) return -1;
+        int lo = 0;
+        int hi = mapCount - 1;
+        int found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = mapMachineRef(mapByMachine.get(mid));
+            if (v < ref) {
+                lo = mid + 1;
+            } else if (v > ref) {
+                hi = mid - 1;
+            } else {
+                found = mid;
+                hi = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /* ---------- Recipes ---------- */
+
+    public int recipeCount() { return recipeCount; }
+
+    /** Recipe index for a rid, or -1. */
+    public int findRecipe(String rid) {
+        int pos = rids.find(rid);
+        return (pos < 0) ? -1 : ridRecipe.get(pos);
+    }
+
+    public String rid(int r) { return rids.get(buf.getInt(recipeBase(r) + R_RID)); }
+    public int machineRef(int r) { return buf.getInt(recipeBase(r) + R_MACHINE); }
+    public String machineId(int r) { return string(machineRef(r)); }
+    public String recipeClass(int r) { return string(buf.getInt(recipeBase(r) + R_CLASS)); }
+    public int minTierRef(int r) { return buf.getInt(recipeBase(r) + R_MIN_TIER); }
+    public String minTier(int r) { return string(minTierRef(r)); }
+    public long eut(int r) { return buf.getLong(recipeBase(r) + R_EUT); }
+    public int durationTicks(int r) { return buf.getInt(recipeBase(r) + R_DURATION); }
+    public int flags(int r) { return buf.getInt(recipeBase(r) + R_FLAGS); }
+    public int specialValue(int r) { return buf.getInt(recipeBase(r) + R_SPECIAL); }
+    public int ebfTemp(int r) { return buf.getInt(recipeBase(r) + R_EBF_TEMP); }
+    public int circuitConfig(int r) { return buf.getInt(recipeBase(r) + R_CIRCUIT); }
+    public int minVoltage(int r) { return buf.getInt(recipeBase(r) + R_MIN_VOLTAGE); }
+    public int ampsAtMinTier(int r) { return buf.getInt(recipeBase(r) + R_AMPS); }
+    public int chanceScale(int r) { return buf.getInt(recipeBase(r) + R_CHANCE_SCALE); }
+
+    public boolean has(int r, int flag) {
+        return (flags(r) & flag) != 0;
+    }
+
+    public int itemInputStart(int r) { return buf.getInt(recipeBase(r) + R_ITEM_IN); }
+    public int itemInputCount(int r) { return buf.getInt(recipeBase(r) + R_ITEM_IN + 4); }
+    public int itemOutputStart(int r) { return buf.getInt(recipeBase(r) + R_ITEM_OUT); }
+    public int itemOutputCount(int r) { return buf.getInt(recipeBase(r) + R_ITEM_OUT + 4); }
+    public int fluidInputStart(int r) { return buf.getInt(recipeBase(r) + R_FLUID_IN); }
+    public int fluidInputCount(int r) { return buf.getInt(recipeBase(r) + R_FLUID_IN + 4); }
+    public int fluidOutputStart(int r) { return buf.getInt(recipeBase(r) + R_FLUID_OUT); }
+    public int fluidOutputCount(int r) { return buf.getInt(recipeBase(r) + R_FLUID_OUT + 4); }
+    public int chancesStart(int r) { return buf.getInt(recipeBase(r) + R_CHANCES); }
+    public int chancesCount(int r) { return buf.getInt(recipeBase(r) + R_CHANCES + 4); }
+    public int chance(int i) { return chances.get(i); }
+
+    /* ---------- Stacks (global stack index) ---------- */
+
+    public int itemStackCount() { return itemCount; }
+    public int itemIdRef(int s) { return buf.getInt(itemBase(s) + I_ID); }
+    public String itemId(int s) { return string(itemIdRef(s)); }
+    public int itemMeta(int s) { return buf.getInt(itemBase(s) + I_META); }
+    public int itemCount(int s) { return buf.getInt(itemBase(s) + I_COUNT); }
+    /** Output chance scaled to 0..1, NaN when the stack has none. */
+    public double itemChance(int s) { return buf.getDouble(itemBase(s) + I_CHANCE); }
+    public String itemDisplayName(int s) { return string(buf.getInt(itemBase(s) + I_DISPLAY)); }
+    public String itemUnlocalizedName(int s) { return string(buf.getInt(itemBase(s) + I_UNLOC)); }
+    public int itemOreCount(int s) { return buf.getInt(itemBase(s) + I_ORE_COUNT); }
+    public int itemOreRef(int s, int k) { return oreRefs.get(buf.getInt(itemBase(s) + I_ORE_START) + k); }
+
+    public int fluidStackCount() { return fluidCount; }
+    public int fluidIdRef(int s) { return buf.getInt(fluidBase(s) + F_ID); }
+    public String fluidId(int s) { return string(fluidIdRef(s)); }
+    public int fluidMb(int s) { return buf.getInt(fluidBase(s) + F_MB); }
+    public String fluidDisplayName(int s) { return string(buf.getInt(fluidBase(s) + F_DISPLAY)); }
+    public String fluidUnlocalizedName(int s) { return string(buf.getInt(fluidBase(s) + F_UNLOC)); }
+
+    public Boolean fluidIsGas(int s) {
+        int flags = buf.getInt(fluidBase(s) + F_FLAGS);
+        if ((flags & 1) == 0) return null;
+        return ((flags & 2) != 0) ? Boolean.TRUE : Boolean.FALSE;
+    }
+
+    /* ---------- Helpers ---------- */
+
+    private int mapBase(int map) {
+        return mapsOffset + map * MAP_RECORD_SIZE;
+    }
+
+    private int recipeBase(int r) {
+        return recipesOffset + r * RECIPE_RECORD_SIZE;
+    }
+
+    private int itemBase(int s) {
+        return itemsOffset + s * ITEM_RECORD_SIZE;
+    }
+
+    private int fluidBase(int s) {
+        return fluidsOffset + s * FLUID_RECORD_SIZE;
+    }
+
+    private IntBuffer ints(long offset, int count) {
+        ByteBuffer d = mapped.duplicate();
+        d.position((int) offset);
+        d.limit((int) offset + count * 4);
+        return d.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+}
@@ -0,0 +1,360 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@code recipes.bin} while recipes are dumped.
+ *
+ * Records are accumulated as int words in the exact on-disk layout; strings are interned to
+ * provisional refs. {@link #write(File)} sorts the dictionary and rid table, rewrites the ref
+ * columns and streams the sections out. See {@link BinaryDump} for the layout.
+ */
+public final class BinaryDumpWriter {
+    private static final int MAP_WORDS = BinaryDump.MAP_RECORD_SIZE / 4;
+    private static final int RECIPE_WORDS = BinaryDump.RECIPE_RECORD_SIZE / 4;
+    private static final int ITEM_WORDS = BinaryDump.ITEM_RECORD_SIZE / 4;
+    private static final int FLUID_WORDS = BinaryDump.FLUID_RECORD_SIZE / 4;
+
+    private final Map dictIds = new HashMap(); // String -> Integer
+    private final List dictKeys = new ArrayList();
+    private final List rids = new ArrayList();
+    private final IntArrayList maps = new IntArrayList();
+    private final IntArrayList recipes = new IntArrayList();
+    private final IntArrayList items = new IntArrayList();
+    private final IntArrayList fluids = new IntArrayList();
+    private final IntArrayList oreRefs = new IntArrayList();
+    private final IntArrayList chances = new IntArrayList();
+
+    // Stacks of the open recipe; inputs and outputs are appended as two contiguous runs on close.
+    private final IntArrayList pendingItemIn = new IntArrayList();
+    private final IntArrayList pendingItemOut = new IntArrayList();
+    private final IntArrayList pendingFluidIn = new IntArrayList();
+    private final IntArrayList pendingFluidOut = new IntArrayList();
+    private final IntArrayList pendingChances = new IntArrayList();
+
+    private int generatedAtRef = BinaryDump.NO_REF;
+    private int minecraftRef = BinaryDump.NO_REF;
+    private int modRef = BinaryDump.NO_REF;
+    private int openRecipe = -1;
+    private int openMap = -1;
+
+    public void setMetadata(String generatedAt, String minecraft, String mod) {
+        generatedAtRef = ref(generatedAt);
+        minecraftRef = ref(minecraft);
+        modRef = ref(mod);
+    }
+
+    /* ---------- Maps ---------- */
+
+    public int beginMap(String machineId, String displayName, String declaringField, int declaredRecipeCount) {
+        closeRecipe();
+        closeMap();
+        openMap = maps.size() / MAP_WORDS;
+        maps.add(ref(machineId));
+        maps.add(ref(displayName));
+        maps.add(ref(declaringField));
+        maps.add(declaredRecipeCount);
+        maps.add(recipeCount());
+        maps.add(0);
+        maps.add(0);
+        maps.add(0);
+        for (int i = 0; i < 10; i++) maps.add(0);
+        return openMap;
+    }
+
+    public void setMapBonus(int bonus, double value) {
+        int base = openMap * MAP_WORDS;
+        maps.set(base + 6, maps.get(base + 6) | (1 << bonus));
+        setLong(maps, base + 8 + bonus * 2, Double.doubleToLongBits(value));
+    }
+
+    public void setMapTooltipDerived(boolean value) {
+        int base = openMap * MAP_WORDS;
+        int flags = maps.get(base + 6) | BinaryDump.MF_TOOLTIP_PRESENT;
+        if (value) flags |= BinaryDump.MF_TOOLTIP_VALUE;
+        maps.set(base + 6, flags);
+    }
+
+    /* ---------- Recipes ---------- */
+
+    public int beginRecipe(String rid, String machineId, String recipeClass, String minTier, long eut, int durationTicks) {
+        closeRecipe();
+        openRecipe = rids.size();
+        rids.add(rid == null ? "" : rid);
+        recipes.add(openRecipe);
+        recipes.add(ref(machineId));
+        recipes.add(ref(recipeClass));
+        recipes.add(ref(minTier));
+        recipes.add((int) eut);
+        recipes.add((int) (eut >>> 32));
+        recipes.add(durationTicks);
+        for (int i = 7; i < RECIPE_WORDS; i++) recipes.add(0);
+        return openRecipe;
+    }
+
+    /**
+     * Adds a recipe whose body is identical to the already added recipe {@code sameBodyAs}: the
+     * record is copied with its own rid and machineId and points at the same stack runs, so the
+     * stacks are written once.
+     */
+    public int beginRecipeSharing(String rid, String machineId, int sameBodyAs) {
+        closeRecipe();
+        int r = rids.size();
+        rids.add(rid == null ? "" : rid);
+        int from = sameBodyAs * RECIPE_WORDS;
+        recipes.add(r);
+        recipes.add(ref(machineId));
+        for (int i = 2; i < RECIPE_WORDS; i++) recipes.add(recipes.get(from + i));
+        return r;
+    }
+
+    public void setSpecialValue(int v) { setOptional(BinaryDump.R_SPECIAL, BinaryDump.RF_SPECIAL, v); }
+    public void setEbfTemp(int v) { setOptional(BinaryDump.R_EBF_TEMP, BinaryDump.RF_EBF_TEMP, v); }
+    public void setCircuitConfig(int v) { setOptional(BinaryDump.R_CIRCUIT, BinaryDump.RF_CIRCUIT, v); }
+    public void setMinVoltage(int v) { setOptional(BinaryDump.R_MIN_VOLTAGE, BinaryDump.RF_MIN_VOLTAGE, v); }
+    public void setAmpsAtMinTier(int v) { setOptional(BinaryDump.R_AMPS, BinaryDump.RF_AMPS, v); }
+    public void setChanceScale(int v) { setOptional(BinaryDump.R_CHANCE_SCALE, BinaryDump.RF_CHANCE_SCALE, v); }
+
+    public void setCircuitGhost(boolean ghost) {
+        int flags = BinaryDump.RF_GHOST_PRESENT | (ghost ? BinaryDump.RF_GHOST : 0);
+        int at = openRecipe * RECIPE_WORDS + BinaryDump.R_FLAGS / 4;
+        recipes.set(at, recipes.get(at) | flags);
+    }
+
+    public void addChance(int rawChance) {
+        pendingChances.add(rawChance);
+    }
+
+    /** {@code chance} is the 0..1 output chance, or NaN when the stack has none. */
+    public void addItemInput(String id, int meta, int count, double chance, String displayName, String unlocalizedName, List oreDict) {
+        addItem(pendingItemIn, id, meta, count, chance, displayName, unlocalizedName, oreDict);
+    }
+
+    public void addItemOutput(String id, int meta, int count, double chance, String displayName, String unlocalizedName, List oreDict) {
+        addItem(pendingItemOut, id, meta, count, chance, displayName, unlocalizedName, oreDict);
+    }
+
+    public void addFluidInput(String id, int mb, Boolean isGas, String displayName, String unlocalizedName) {
+        addFluid(pendingFluidIn, id, mb, isGas, displayName, unlocalizedName);
+    }
+
+    public void addFluidOutput(String id, int mb, Boolean isGas, String displayName, String unlocalizedName) {
+        addFluid(pendingFluidOut, id, mb, isGas, displayName, unlocalizedName);
+    }
+
+    public int recipeCount() {
+        return rids.size();
+    }
+
+    /* ---------- Output ---------- */
+
+    public void write(File file) throws IOException {
+        closeRecipe();
+        closeMap();
+        int mapCount = maps.size() / MAP_WORDS;
+        int recipeCount = rids.size();
+
+        byte[][] dictBytes = utf8All(dictKeys);
+        int[] dictRemap = inverse(StringTable.sortUtf8(dictBytes, dictBytes.length));
+        byte[][] ridBytes = utf8All(rids);
+        int[] ridOrder = StringTable.sortUtf8(ridBytes, recipeCount);
+        int[] ridRemap = inverse(ridOrder);
+
+        int[] mapWords = maps.toArray();
+        remapColumns(mapWords, MAP_WORDS, new int[] {0, 1, 2}, dictRemap);
+        int[] recipeWords = recipes.toArray();
+        remapColumns(recipeWords, RECIPE_WORDS, new int[] {1, 2, 3}, dictRemap);
+        remapColumns(recipeWords, RECIPE_WORDS, new int[] {0}, ridRemap);
+        int[] itemWords = items.toArray();
+        remapColumns(itemWords, ITEM_WORDS, new int[] {0, 3, 4}, dictRemap);
+        int[] fluidWords = fluids.toArray();
+        remapColumns(fluidWords, FLUID_WORDS, new int[] {0, 3, 4}, dictRemap);
+        int[] ores = oreRefs.toArray();
+        remapColumns(ores, 1, new int[] {0}, dictRemap);
+        int[] mapByMachine = sortMapsByMachine(mapWords, mapCount);
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0);
+            FileChannel ch = raf.getChannel();
+            BinarySectionWriter w = new BinarySectionWriter(ch, BinaryDump.HEADER_SIZE);
+            long[] off = new long[BinaryDump.SECTION_COUNT];
+
+            off[BinaryDump.S_DICT] = w.writeStringTable(dictBytes, dictBytes.length);
+            off[BinaryDump.S_RIDS] = w.writeStringTable(ridBytes, recipeCount);
+            off[BinaryDump.S_RID_RECIPE] = section(w, ridOrder, ridOrder.length);
+            off[BinaryDump.S_MAPS] = section(w, mapWords, mapWords.length);
+            off[BinaryDump.S_MAP_BY_MACHINE] = section(w, mapByMachine, mapByMachine.length);
+            off[BinaryDump.S_RECIPES] = section(w, recipeWords, recipeWords.length);
+            off[BinaryDump.S_ITEMS] = section(w, itemWords, itemWords.length);
+            off[BinaryDump.S_FLUIDS] = section(w, fluidWords, fluidWords.length);
+            off[BinaryDump.S_ORE_REFS] = section(w, ores, ores.length);
+            off[BinaryDump.S_CHANCES] = section(w, chances.rawArray(), chances.size());
+            w.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(BinaryDump.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(BinaryDump.MAGIC);
+            header.putInt(BinaryDump.VERSION);
+            header.putInt(mapCount);
+            header.putInt(recipeCount);
+            header.putInt(itemWords.length / ITEM_WORDS);
+            header.putInt(fluidWords.length / FLUID_WORDS);
+            header.putInt(ores.length);
+            header.putInt(chances.size());
+            header.putInt(remapRef(generatedAtRef, dictRemap));
+            header.putInt(remapRef(minecraftRef, dictRemap));
+            header.putInt(remapRef(modRef, dictRemap));
+            header.position(56);
+            for (int i = 0; i < off.length; i++) header.putLong(off[i]);
+            header.flip();
+            long pos = 0;
+            while (header.hasRemaining()) pos += ch.write(header, pos);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private void closeMap() {
+        if (openMap < 0) return;
+        int base = openMap * MAP_WORDS;
+        maps.set(base + 5, recipeCount() - maps.get(base + 4));
+        openMap = -1;
+    }
+
+    private void closeRecipe() {
+        if (openRecipe < 0) return;
+        int base = openRecipe * RECIPE_WORDS;
+        flushStacks(pendingItemIn, items, ITEM_WORDS, base + BinaryDump.R_ITEM_IN / 4);
+        flushStacks(pendingItemOut, items, ITEM_WORDS, base + BinaryDump.R_ITEM_OUT / 4);
+        flushStacks(pendingFluidIn, fluids, FLUID_WORDS, base + BinaryDump.R_FLUID_IN / 4);
+        flushStacks(pendingFluidOut, fluids, FLUID_WORDS, base + BinaryDump.R_FLUID_OUT / 4);
+        flushStacks(pendingChances, chances, 1, base + BinaryDump.R_CHANCES / 4);
+        openRecipe = -1;
+    }
+
+    private void flushStacks(IntArrayList pending, IntArrayList target, int words, int startWord) {
+        recipes.set(startWord, target.size() / words);
+        recipes.set(startWord + 1, pending.size() / words);
+        for (int i = 0; i < pending.size(); i++) target.add(pending.get(i));
+        pending.clear();
+    }
+
+    private void setOptional(int fieldOffset, int flag, int v) {
+        int base = openRecipe * RECIPE_WORDS;
+        recipes.set(base + fieldOffset / 4, v);
+        int at = base + BinaryDump.R_FLAGS / 4;
+        recipes.set(at, recipes.get(at) | flag);
+    }
+
+    private void addItem(IntArrayList pending, String id, int meta, int count, double chance,
+                         String displayName, String unlocalizedName, List oreDict) {
+        int oreStart = oreRefs.size();
+        int oreCount = 0;
+        if (oreDict != null) {
+            for (int i = 0; i < oreDict.size(); i++) {
+                Object o = oreDict.get(i);
+                if (!(o instanceof String)) continue;
+                oreRefs.add(ref((String) o));
+                oreCount++;
+            }
+        }
+        long chanceBits = Double.doubleToLongBits(chance);
+        pending.add(ref(id));
+        pending.add(meta);
+        pending.add(count);
+        pending.add(ref(displayName));
+        pending.add(ref(unlocalizedName));
+        pending.add(0);
+        pending.add((int) chanceBits);
+        pending.add((int) (chanceBits >>> 32));
+        pending.add(oreStart);
+        pending.add(oreCount);
+    }
+
+    private void addFluid(IntArrayList pending, String id, int mb, Boolean isGas, String displayName, String unlocalizedName) {
+        int flags = 0;
+        if (isGas != null) flags = 1 | (isGas.booleanValue() ? 2 : 0);
+        pending.add(ref(id));
+        pending.add(mb);
+        pending.add(flags);
+        pending.add(ref(displayName));
+        pending.add(ref(unlocalizedName));
+        pending.add(0);
+    }
+
+    private int ref(String s) {
+        if (s == null) return BinaryDump.NO_REF;
+        Object id = dictIds.get(s);
+        if (id != null) return ((Integer) id).intValue();
+        int n = dictKeys.size();
+        dictIds.put(s, new Integer(n));
+        dictKeys.add(s);
+        return n;
+    }
+
+    private static void setLong(IntArrayList words, int at, long v) {
+        words.set(at, (int) v);
+        words.set(at + 1, (int) (v >>> 32));
+    }
+
+    private static void remapColumns(int[] words, int stride, int[] columns, int[] remap) {
+        for (int base = 0; base < words.length; base += stride) {
+            for (int c = 0; c < columns.length; c++) {
+                words[base + columns[c]] = remapRef(words[base + columns[c]], remap);
+            }
+        }
+    }
+
+    private static int remapRef(int ref, int[] remap) {
+        return (ref < 0) ? ref : remap[ref];
+    }
+
+    /** Map indices ordered by (machine ref, dump order); refs already follow string order. */
+    private static int[] sortMapsByMachine(final int[] mapWords, int mapCount) {
+        Integer[] idx = new Integer[mapCount];
+        for (int i = 0; i < mapCount; i++) idx[i] = new Integer(i);
+        Arrays.sort(idx, new Comparator() {
+            public int compare(Object a, Object b) {
+                int x = mapWords[((Integer) a).intValue() * MAP_WORDS];
+                int y = mapWords[((Integer) b).intValue() * MAP_WORDS];
+                if (x != y) return (x < y) ? -1 : 1;
+                return ((Integer) a).intValue() - ((Integer) b).intValue();
+            }
+        });
+        int[] out = new int[mapCount];
+        for (int i = 0; i < mapCount; i++) out[i] = idx[i].intValue();
+        return out;
+    }
+
+    private static long section(BinarySectionWriter w, int[] data, int len) throws IOException {
+        w.align(8);
+        long start = w.position();
+        w.writeInts(data, len);
+        return start;
+    }
+
+    private static int[] inverse(int[] order) {
+        int[] inv = new int[order.length];
+        for (int i = 0; i < order.length; i++) inv[order[i]] = i;
+        return inv;
+    }
+
+    private static byte[][] utf8All(List strings) {
+        byte[][] out = new byte[strings.size()][];
+        for (int i = 0; i < out.length; i++) out[i] = StringTable.utf8((String) strings.get(i));
+        return out;
+    }
+}
@@ -0,0 +1,105 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Buffered little-endian writer for the binary index files.
+ *
+ * Sections are written back to back and 8-byte aligned so readers can map them directly
+ * as int/long views. Little-endian keeps the files readable with numpy without byte swapping.
+ */
+public final class BinarySectionWriter {
+    private final FileChannel channel;
+    private final ByteBuffer buf;
+    private long position;
+
+    public BinarySectionWriter(FileChannel channel, long startPosition) {
+        this.channel = channel;
+        this.position = startPosition;
+        this.buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public long position() {
+        return position + buf.position();
+    }
+
+    public void writeByte(int v) throws IOException {
+        ensure(1);
+        buf.put((byte) v);
+    }
+
+    public void writeInt(int v) throws IOException {
+        ensure(4);
+        buf.putInt(v);
+    }
+
+    public void writeLong(long v) throws IOException {
+        ensure(8);
+        buf.putLong(v);
+    }
+
+    public void writeFloat(float v) throws IOException {
+        ensure(4);
+        buf.putFloat(v);
+    }
+
+    public void writeBytes(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            ensure(1);
+            int n = Math.min(len, buf.remaining());
+            buf.put(b, off, n);
+            off += n;
+            len -= n;
+        }
+    }
+
+    public void writeInts(int[] a, int len) throws IOException {
+        for (int i = 0; i < len; i++) writeInt(a[i]);
+    }
+
+    public void writeLongs(long[] a, int len) throws IOException {
+        for (int i = 0; i < len; i++) writeLong(a[i]);
+    }
+
+    public void writeFloats(float[] a, int len) throws IOException {
+        for (int i = 0; i < len; i++) writeFloat(a[i]);
+    }
+
+    public void align(int n) throws IOException {
+        while (position() % n != 0) writeByte(0);
+    }
+
+    /**
+     * Writes {@code count}, {@code count + 1} byte offsets and the concatenated UTF-8 bytes.
+     * Returns the section start offset. See {@link StringTable} for the reading side.
+     */
+    public long writeStringTable(byte[][] strings, int count) throws IOException {
+        align(8);
+        long start = position();
+        writeInt(count);
+        int off = 0;
+        writeInt(0);
+        for (int i = 0; i < count; i++) {
+            off += strings[i].length;
+            writeInt(off);
+        }
+        for (int i = 0; i < count; i++) writeBytes(strings[i], 0, strings[i].length);
+        align(8);
+        return start;
+    }
+
+    public void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            position += channel.write(buf, position);
+        }
+        buf.clear();
+    }
+
+    private void ensure(int n) throws IOException {
+        if (buf.remaining() < n) flush();
+    }
+}
@@ -0,0 +1,65 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+/**
+ * Growable primitive int array, used instead of {@code List<Integer>} when building indexes.
+ */
+public final class IntArrayList {
+    private int[] data;
+    private int size;
+
+    public IntArrayList() {
+        this(16);
+    }
+
+    public IntArrayList(int capacity) {
+        data = new int[Math.max(4, capacity)];
+    }
+
+    public void add(int v) {
+        if (size == data.length) grow(size + 1);
+        data[size++] = v;
+    }
+
+    public int get(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return data[i];
+    }
+
+    public void set(int i, int v) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        data[i] = v;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Drops every entry from {@code newSize} on; never grows. */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) throw new IndexOutOfBoundsException("size " + newSize + ", was " + size);
+        size = newSize;
+    }
+
+    public int[] toArray() {
+        int[] out = new int[size];
+        System.arraycopy(data, 0, out, 0, size);
+        return out;
+    }
+
+    /** Backing array; only the first {@link #size()} entries are meaningful. */
+    public int[] rawArray() {
+        return data;
+    }
+
+    private void grow(int min) {
+        int cap = data.length + (data.length >> 1);
+        if (cap < min) cap = min;
+        int[] next = new int[cap];
+        System.arraycopy(data, 0, next, 0, size);
+        data = next;
+    }
+}
@@ -0,0 +1,65 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+/**
+ * Growable primitive long array, used instead of {@code List<Long>} when building indexes.
+ */
+public final class LongArrayList {
+    private long[] data;
+    private int size;
+
+    public LongArrayList() {
+        this(16);
+    }
+
+    public LongArrayList(int capacity) {
+        data = new long[Math.max(4, capacity)];
+    }
+
+    public void add(long v) {
+        if (size == data.length) grow(size + 1);
+        data[size++] = v;
+    }
+
+    public long get(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        return data[i];
+    }
+
+    public void set(int i, long v) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("index " + i + ", size " + size);
+        data[i] = v;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /** Drops every entry from {@code newSize} on; never grows. */
+    public void truncate(int newSize) {
+        if (newSize < 0 || newSize > size) throw new IndexOutOfBoundsException("size " + newSize + ", was " + size);
+        size = newSize;
+    }
+
+    public long[] toArray() {
+        long[] out = new long[size];
+        System.arraycopy(data, 0, out, 0, size);
+        return out;
+    }
+
+    /** Backing array; only the first {@link #size()} entries are meaningful. */
+    public long[] rawArray() {
+        return data;
+    }
+
+    private void grow(int min) {
+        int cap = data.length + (data.length >> 1);
+        if (cap < min) cap = min;
+        long[] next = new long[cap];
+        System.arraycopy(data, 0, next, 0, size);
+        data = next;
+    }
+}
@@ -0,0 +1,368 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reader for {@code names.tri}, a trigram inverted index over item, fluid and machine names.
+ *
+ * Layout (little-endian, every section 8-byte aligned):
+ * <pre>
+ *   header       magic "GTNHTRI1", version, entryCount, nameCount, gramCount, postingCount,
+ *                then one long offset per section
+ *   entryKeys    string table sorted by UTF-8 bytes ("item:modid:name@meta", "fluid:water", machineId)
+ *                (entries are unique per key; dump ids already carry their item:/fluid: prefix)
+ *   entryKind    byte[entryCount]     KIND_ITEM / KIND_FLUID / KIND_MACHINE
+ *   entryDisplay string table, entry order (display name, may be empty)
+ *   nameEntry    int[nameCount]      each indexed name (display or unlocalized) -&gt; entry
+ *   nameGrams    int[nameCount]      distinct trigrams in the normalized name
+ *   nameText     string table, name order (normalized text)
+ *   grams        long[gramCount]     sorted packed trigrams
+ *   gramPtr      int[gramCount + 1], gramNames int[postingCount]
+ * </pre>
+ * {@link #search} scores candidates by trigram overlap (Dice coefficient) and boosts exact,
+ * prefix and substring hits, so "tungstensteel" finds "Molten Tungstensteel" and a typo such as
+ * "tungstenstel" still ranks it near the top.
+ */
+public final class NameIndex {
+
+    public static final String FILE_NAME = "names.tri";
+    public static final byte[] MAGIC = new byte[] {'G', 'T', 'N', 'H', 'T', 'R', 'I', '1'};
+    public static final int VERSION = 1;
+
+    public static final int KIND_ITEM = 0;
+    public static final int KIND_FLUID = 1;
+    public static final int KIND_MACHINE = 2;
+    public static final int ALL_KINDS = (1 << KIND_ITEM) | (1 << KIND_FLUID) | (1 << KIND_MACHINE);
+
+    static final int S_ENTRY_KEYS = 0;
+    static final int S_ENTRY_KIND = 1;
+    static final int S_ENTRY_DISPLAY = 2;
+    static final int S_NAME_ENTRY = 3;
+    static final int S_NAME_GRAMS = 4;
+    static final int S_NAME_TEXT = 5;
+    static final int S_GRAMS = 6;
+    static final int S_GRAM_PTR = 7;
+    static final int S_GRAM_NAMES = 8;
+    static final int SECTION_COUNT = 9;
+    static final int HEADER_SIZE = 32 + SECTION_COUNT * 8;
+
+    private final MappedByteBuffer mapped;
+    private final int entryCount;
+    private final int nameCount;
+    private final StringTable entryKeys;
+    private final ByteBuffer entryKind;
+    private final StringTable entryDisplay;
+    private final IntBuffer nameEntry;
+    private final IntBuffer nameGrams;
+    private final StringTable nameText;
+    private final LongBuffer grams;
+    private final IntBuffer gramPtr;
+    private final IntBuffer gramNames;
+    private final ThreadLocal scratch = new ThreadLocal();
+
+    private NameIndex(MappedByteBuffer mapped) throws IOException {
+        this.mapped = mapped;
+        ByteBuffer b = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (b.get(i) != MAGIC[i]) throw new IOException("Not a name index (bad magic)");
+        }
+        int version = b.getInt(8);
+        if (version != VERSION) throw new IOException("Unsupported name index version " + version);
+        entryCount = b.getInt(12);
+        nameCount = b.getInt(16);
+        int gramCount = b.getInt(20);
+        int postingCount = b.getInt(24);
+        long[] off = new long[SECTION_COUNT];
+        for (int i = 0; i < SECTION_COUNT; i++) off[i] = b.getLong(32 + i * 8);
+
+        entryKeys = new StringTable(mapped, off[S_ENTRY_KEYS]);
+        entryKind = slice(off[S_ENTRY_KIND], entryCount);
+        entryDisplay = new StringTable(mapped, off[S_ENTRY_DISPLAY]);
+        nameEntry = ints(off[S_NAME_ENTRY], nameCount);
+        nameGrams = ints(off[S_NAME_GRAMS], nameCount);
+        nameText = new StringTable(mapped, off[S_NAME_TEXT]);
+        grams = slice(off[S_GRAMS], gramCount * 8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+        gramPtr = ints(off[S_GRAM_PTR], gramCount + 1);
+        gramNames = ints(off[S_GRAM_NAMES], postingCount);
+    }
+
+    public static NameIndex open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel ch = raf.getChannel();
+            return new NameIndex(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    public int entryCount() { return entryCount; }
+    public int nameCount() { return nameCount; }
+    public String entryKey(int e) { return entryKeys.get(e); }
+    public int entryKind(int e) { return entryKind.get(e); }
+    public String entryDisplayName(int e) { return entryDisplay.get(e); }
+
+    /** Entry for an exact key, or -1. */
+    public int findEntry(String key) {
+        return entryKeys.find(key);
+    }
+
+    public static final class Hit {
+        public final int entry;
+        public final double score;
+        public final String matchedName; // normalized text of the best-scoring name
+
+        Hit(int entry, double score, String matchedName) {
+            this.entry = entry;
+            this.score = score;
+            this.matchedName = matchedName;
+        }
+    }
+
+    /**
+     * Ranked fuzzy lookup.
+     *
+     * @param kindMask bit set of {@code 1 << KIND_*}, or {@link #ALL_KINDS}
+     * @return at most {@code limit} hits, best first; one hit per entry
+     */
+    public List search(String query, int limit, int kindMask) {
+        String q = normalize(query);
+        List out = new ArrayList();
+        if (q.length() == 0 || limit <= 0) return out;
+        long[] qGrams = trigrams(q);
+        Scratch s = scratch();
+        try {
+            for (int i = 0; i < qGrams.length; i++) {
+                int g = findGram(qGrams[i]);
+                if (g < 0) continue;
+                for (int p = gramPtr.get(g); p < gramPtr.get(g + 1); p++) {
+                    int name = gramNames.get(p);
+                    if (s.shared[name] == 0) s.touched[s.touchedCount++] = name;
+                    s.shared[name]++;
+                }
+            }
+
+            // Cheap Dice score first, then re-rank the best candidates with string checks.
+            int keep = Math.min(s.touchedCount, Math.max(limit * 8, 64));
+            s.ensureHeap(keep);
+            int[] cand = topByDice(s, qGrams.length, keep, kindMask);
+            List hits = new ArrayList();
+            for (int i = 0; i < cand.length; i++) {
+                int name = cand[i];
+                double dice = 2.0 * s.shared[name] / (qGrams.length + nameGrams.get(name));
+                String text = nameText.get(name);
+                double score = dice;
+                if (text.equals(q)) score += 1.0;
+                else if (text.startsWith(q)) score += 0.5;
+                else if (text.indexOf(q) >= 0) score += 0.25;
+                hits.add(new Hit(nameEntry.get(name), score, text));
+            }
+            Collections.sort(hits, BY_SCORE);
+            Set seen = new HashSet();
+            for (int i = 0; i < hits.size() && out.size() < limit; i++) {
+                Hit h = (Hit) hits.get(i);
+                if (seen.add(new Integer(h.entry))) out.add(h);
+            }
+            return out;
+        } finally {
+            s.reset();
+        }
+    }
+
+    public static String kindName(int kind) {
+        if (kind == KIND_ITEM) return "item";
+        if (kind == KIND_FLUID) return "fluid";
+        if (kind == KIND_MACHINE) return "machine";
+        return "unknown";
+    }
+
+    /** Parses "item,fluid,machine" (any subset); null or empty means every kind, -1 means an unknown kind. */
+    public static int kindMask(String kinds) {
+        if (kinds == null || kinds.trim().length() == 0) return ALL_KINDS;
+        int mask = 0;
+        String[] parts = kinds.split(",");
+        for (int i = 0; i < parts.length; i++) {
+            String k = parts[i].trim();
+            if ("item".equals(k)) mask |= 1 << KIND_ITEM;
+            else if ("fluid".equals(k)) mask |= 1 << KIND_FLUID;
+            else if ("machine".equals(k)) mask |= 1 << KIND_MACHINE;
+            else if (k.length() > 0) return -1;
+        }
+        return mask;
+    }
+
+    /* ---------- Normalization (shared with the writer) ---------- */
+
+    /** Lowercase, strip Minecraft formatting codes, collapse everything but letters/digits to single spaces. */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder sb = new StringBuilder(s.length());
+        boolean space = true;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\u00a7' && i + 1 < s.length()) {
+                i++;
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                sb.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                sb.append(' ');
+                space = true;
+            }
+        }
+        int len = sb.length();
+        if (len > 0 && sb.charAt(len - 1) == ' ') sb.setLength(len - 1);
+        return sb.toString();
+    }
+
+    /** Distinct packed trigrams of " " + text + " ", sorted. */
+    public static long[] trigrams(String normalized) {
+        String p = " " + normalized + " ";
+        if (p.length() < 3) return new long[0];
+        long[] out = new long[p.length() - 2];
+        for (int i = 0; i + 3 <= p.length(); i++) {
+            out[i] = ((long) p.charAt(i) << 32) | ((long) p.charAt(i + 1) << 16) | p.charAt(i + 2);
+        }
+        Arrays.sort(out);
+        int n = 0;
+        for (int i = 0; i < out.length; i++) if (n == 0 || out[n - 1] != out[i]) out[n++] = out[i];
+        return Arrays.copyOf(out, n);
+    }
+
+    /* ---------- Internals ---------- */
+
+    private static final Comparator BY_SCORE = new Comparator() {
+        public int compare(Object a, Object b) {
+            double x = ((Hit) a).score;
+            double y = ((Hit) b).score;
+            if (x != y) return (x > y) ? -1 : 1;
+            return ((Hit) a).entry - ((Hit) b).entry;
+        }
+    };
+
+    /** Best {@code keep} touched names by Dice score, via a bounded min-heap (order unspecified). */
+    private int[] topByDice(Scratch s, int queryGrams, int keep, int kindMask) {
+        int[] heap = s.heapNames;
+        double[] score = s.heapScores;
+        int n = 0;
+        for (int i = 0; i < s.touchedCount; i++) {
+            int name = s.touched[i];
+            if ((kindMask & (1 << entryKind.get(nameEntry.get(name)))) == 0) continue;
+            double d = 2.0 * s.shared[name] / (queryGrams + nameGrams.get(name));
+            if (n < keep) {
+                heap[n] = name;
+                score[n] = d;
+                siftUp(heap, score, n++);
+            } else if (d > score[0]) {
+                heap[0] = name;
+                score[0] = d;
+                siftDown(heap, score, n);
+            }
+        }
+        return Arrays.copyOf(heap, n);
+    }
+
+    private static void siftUp(int[] heap, double[] score, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (score[parent] <= score[i]) return;
+            swap(heap, score, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, double[] score, int n) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            if (l >= n) return;
+            int m = (l + 1 < n && score[l + 1] < score[l]) ? l + 1 : l;
+            if (score[i] <= score[m]) return;
+            swap(heap, score, i, m);
+            i = m;
+        }
+    }
+
+    private static void swap(int[] heap, double[] score, int a, int b) {
+        int t = heap[a];
+        heap[a] = heap[b];
+        heap[b] = t;
+        double d = score[a];
+        score[a] = score[b];
+        score[b] = d;
+    }
+
+    private int findGram(long gram) {
+        int lo = 0;
+        int hi = grams.limit() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long v = grams.get(mid);
+            if (v < gram) lo = mid + 1;
+            else if (v > gram) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private static final class Scratch {
+        final int[] shared;
+        final int[] touched;
+        int touchedCount;
+        int[] heapNames = new int[0];
+        double[] heapScores = new double[0];
+
+        Scratch(int names) {
+            shared = new int[names];
+            touched = new int[names];
+        }
+
+        void ensureHeap(int n) {
+            if (heapNames.length >= n) return;
+            heapNames = new int[n];
+            heapScores = new double[n];
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) shared[touched[i]] = 0;
+            touchedCount = 0;
+        }
+    }
+
+    private Scratch scratch() {
+        Scratch s = (Scratch) scratch.get();
+        if (s == null) {
+            s = new Scratch(nameCount);
+            scratch.set(s);
+        }
+        return s;
+    }
+
+    private ByteBuffer slice(long offset, int length) {
+        ByteBuffer d = mapped.duplicate();
+        d.position((int) offset);
+        d.limit((int) offset + length);
+        return d.slice();
+    }
+
+    private IntBuffer ints(long offset, int count) {
+        return slice(offset, count * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+}
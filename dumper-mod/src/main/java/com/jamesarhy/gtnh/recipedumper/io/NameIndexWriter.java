@@ -0,0 +1,179 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds {@code names.tri} (see {@link NameIndex}) from (kind, key, display, unlocalized) sightings.
+ *
+ * The same item or fluid shows up in thousands of recipes; entries are deduplicated by
+ * (kind, key). The first non-empty display name becomes the entry's display name, and every
+ * distinct normalized display / unlocalized name seen for the entry is indexed.
+ */
+public final class NameIndexWriter {
+
+    /** Machines pick up one name per controller; cap so a pathological map cannot dominate the index. */
+    static final int MAX_NAMES_PER_ENTRY = 16;
+
+    private final Map entryByKey = new HashMap(); // kind + "\u0000" + key -> Integer entry
+    private final List keys = new ArrayList();
+    private final IntArrayList kinds = new IntArrayList();
+    private final List displayNames = new ArrayList();
+    private final List names = new ArrayList(); // Set<String> of normalized names per entry
+
+    public void add(int kind, String key, String displayName, String unlocalizedName) {
+        if (key == null || key.length() == 0) return;
+        String k = kind + "\u0000" + key;
+        Integer e = (Integer) entryByKey.get(k);
+        if (e == null) {
+            e = new Integer(keys.size());
+            entryByKey.put(k, e);
+            keys.add(key);
+            kinds.add(kind);
+            displayNames.add(null);
+            names.add(new LinkedHashSet());
+        }
+        int i = e.intValue();
+        if (displayNames.get(i) == null && displayName != null && displayName.length() > 0) displayNames.set(i, displayName);
+        Set entryNames = (Set) names.get(i);
+        addName(entryNames, displayName);
+        addName(entryNames, unlocalizedName);
+    }
+
+    private static void addName(Set entryNames, String name) {
+        String n = NameIndex.normalize(name);
+        if (n.length() > 0 && entryNames.size() < MAX_NAMES_PER_ENTRY) entryNames.add(n);
+    }
+
+    public int entryCount() {
+        return keys.size();
+    }
+
+    /* ---------- Output ---------- */
+
+    public void write(File file) throws IOException {
+        int entryCount = keys.size();
+        byte[][] keyBytes = new byte[entryCount][];
+        for (int i = 0; i < entryCount; i++) keyBytes[i] = StringTable.utf8((String) keys.get(i));
+        int[] order = StringTable.sortUtf8(keyBytes, entryCount); // sorts keyBytes; order[sorted] = build entry
+
+        byte[] kindCol = new byte[entryCount];
+        byte[][] displayCol = new byte[entryCount][];
+
+        List nameTexts = new ArrayList();
+        IntArrayList nameEntry = new IntArrayList(entryCount * 2);
+        for (int s = 0; s < entryCount; s++) {
+            int e = order[s];
+            kindCol[s] = (byte) kinds.get(e);
+            String display = (String) displayNames.get(e);
+            displayCol[s] = StringTable.utf8(display == null ? "" : display);
+
+            Set entryNames = (Set) names.get(e);
+            if (entryNames.isEmpty()) {
+                // Nothing readable; fall back to the key itself so the entry is still findable.
+                nameTexts.add(NameIndex.normalize((String) keys.get(e)));
+                nameEntry.add(s);
+            }
+            for (Iterator it = entryNames.iterator(); it.hasNext(); ) {
+                nameTexts.add(it.next());
+                nameEntry.add(s);
+            }
+        }
+
+        int nameCount = nameTexts.size();
+        byte[][] nameBytes = new byte[nameCount][];
+        int[] nameGramCount = new int[nameCount];
+        long[][] nameGrams = new long[nameCount][];
+        int postingCount = 0;
+        for (int n = 0; n < nameCount; n++) {
+            String t = (String) nameTexts.get(n);
+            nameBytes[n] = StringTable.utf8(t);
+            nameGrams[n] = NameIndex.trigrams(t);
+            nameGramCount[n] = nameGrams[n].length;
+            postingCount += nameGrams[n].length;
+        }
+
+        // Inverted index: collect (gram, name) pairs, sort by gram, emit CSR.
+        long[] all = new long[postingCount];
+        int p = 0;
+        for (int n = 0; n < nameCount; n++) {
+            for (int g = 0; g < nameGrams[n].length; g++) all[p++] = nameGrams[n][g];
+        }
+        Arrays.sort(all);
+        int gramCount = 0;
+        for (int i = 0; i < all.length; i++) if (gramCount == 0 || all[gramCount - 1] != all[i]) all[gramCount++] = all[i];
+        long[] grams = Arrays.copyOf(all, gramCount);
+
+        int[] gramPtr = new int[gramCount + 1];
+        for (int n = 0; n < nameCount; n++) {
+            for (int g = 0; g < nameGrams[n].length; g++) gramPtr[Arrays.binarySearch(grams, nameGrams[n][g]) + 1]++;
+        }
+        for (int g = 0; g < gramCount; g++) gramPtr[g + 1] += gramPtr[g];
+        int[] fill = Arrays.copyOf(gramPtr, gramCount);
+        int[] gramNames = new int[postingCount];
+        for (int n = 0; n < nameCount; n++) { // ascending name order keeps each posting list sorted
+            for (int g = 0; g < nameGrams[n].length; g++) {
+                gramNames[fill[Arrays.binarySearch(grams, nameGrams[n][g])]++] = n;
+            }
+        }
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0);
+            FileChannel ch = raf.getChannel();
+            BinarySectionWriter w = new BinarySectionWriter(ch, NameIndex.HEADER_SIZE);
+            long[] off = new long[NameIndex.SECTION_COUNT];
+
+            off[NameIndex.S_ENTRY_KEYS] = w.writeStringTable(keyBytes, entryCount);
+            w.align(8);
+            off[NameIndex.S_ENTRY_KIND] = w.position();
+            w.writeBytes(kindCol, 0, entryCount);
+            off[NameIndex.S_ENTRY_DISPLAY] = w.writeStringTable(displayCol, entryCount);
+            off[NameIndex.S_NAME_ENTRY] = section(w, nameEntry.toArray(), nameCount);
+            off[NameIndex.S_NAME_GRAMS] = section(w, nameGramCount, nameCount);
+            off[NameIndex.S_NAME_TEXT] = w.writeStringTable(nameBytes, nameCount);
+            w.align(8);
+            off[NameIndex.S_GRAMS] = w.position();
+            w.writeLongs(grams, gramCount);
+            off[NameIndex.S_GRAM_PTR] = section(w, gramPtr, gramPtr.length);
+            off[NameIndex.S_GRAM_NAMES] = section(w, gramNames, postingCount);
+            w.align(8);
+            w.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(NameIndex.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(NameIndex.MAGIC);
+            header.putInt(NameIndex.VERSION);
+            header.putInt(entryCount);
+            header.putInt(nameCount);
+            header.putInt(gramCount);
+            header.putInt(postingCount);
+            header.putInt(0);
+            for (int i = 0; i < off.length; i++) header.putLong(off[i]);
+            header.flip();
+            long pos = 0;
+            while (header.hasRemaining()) pos += ch.write(header, pos);
+            ch.force(false);
+        } finally {
+            raf.close();
+        }
+    }
+
+    private static long section(BinarySectionWriter w, int[] data, int len) throws IOException {
+        w.align(8);
+        long start = w.position();
+        w.writeInts(data, len);
+        return start;
+    }
+}
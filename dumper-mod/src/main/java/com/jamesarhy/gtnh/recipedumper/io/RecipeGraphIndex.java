@@ -0,0 +1,208 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reader for {@code recipe_graph.csr}, the compressed-sparse-row recipe graph written next to the dump.
+ *
+ * Layout (little-endian, every section 8-byte aligned):
+ * <pre>
+ *   header    magic "GTNHCSR1", version, nodeCount, recipeCount, machineCount,
+ *             inputEdgeCount, outputEdgeCount, then one long offset per section
+ *   nodeKeys  string table, sorted by UTF-8 bytes ("item:modid:name@meta", "fluid:water", "ore:ingotIron")
+ *   rids      string table, recipe order
+ *   machines  string table, sorted by UTF-8 bytes
+ *   nodeKind  byte[nodeCount]       KIND_ITEM / KIND_FLUID / KIND_ORE
+ *   recipeMachine int[recipeCount]
+ *   inPtr  int[recipeCount + 1], inNode int[in], inQty int[in]
+ *   outPtr int[recipeCount + 1], outNode int[out], outQty int[out], outChance float[out]
+ *   prodPtr int[nodeCount + 1], prodRecipe int[..]   node -> recipes that output it
+ *   consPtr int[nodeCount + 1], consRecipe int[..]   node -> recipes that consume it
+ * </pre>
+ * The whole file is mapped once; all accessors read straight from the mapping.
+ */
+public final class RecipeGraphIndex {
+
+    public static final String FILE_NAME = "recipe_graph.csr";
+    public static final byte[] MAGIC = new byte[] {'G', 'T', 'N', 'H', 'C', 'S', 'R', '1'};
+    public static final int VERSION = 1;
+
+    public static final int KIND_ITEM = 0;
+    public static final int KIND_FLUID = 1;
+    public static final int KIND_ORE = 2;
+
+    static final int S_NODE_KEYS = 0;
+    static final int S_RIDS = 1;
+    static final int S_MACHINES = 2;
+    static final int S_NODE_KIND = 3;
+    static final int S_RECIPE_MACHINE = 4;
+    static final int S_IN_PTR = 5;
+    static final int S_IN_NODE = 6;
+    static final int S_IN_QTY = 7;
+    static final int S_OUT_PTR = 8;
+    static final int S_OUT_NODE = 9;
+    static final int S_OUT_QTY = 10;
+    static final int S_OUT_CHANCE = 11;
+    static final int S_PROD_PTR = 12;
+    static final int S_PROD_RECIPE = 13;
+    static final int S_CONS_PTR = 14;
+    static final int S_CONS_RECIPE = 15;
+    static final int SECTION_COUNT = 16;
+    static final int HEADER_SIZE = 32 + SECTION_COUNT * 8;
+
+    private final MappedByteBuffer mapped;
+    private final int nodeCount;
+    private final int recipeCount;
+    private final int machineCount;
+    private final StringTable nodeKeys;
+    private final StringTable rids;
+    private final StringTable machines;
+    private final ByteBuffer nodeKind;
+    private final IntBuffer recipeMachine;
+    private final IntBuffer inPtr;
+    private final IntBuffer inNode;
+    private final IntBuffer inQty;
+    private final IntBuffer outPtr;
+    private final IntBuffer outNode;
+    private final IntBuffer outQty;
+    private final FloatBuffer outChance;
+    private final IntBuffer prodPtr;
+    private final IntBuffer prodRecipe;
+    private final IntBuffer consPtr;
+    private final IntBuffer consRecipe;
+
+    private RecipeGraphIndex(MappedByteBuffer mapped) throws IOException {
+        this.mapped = mapped;
+        ByteBuffer b = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (b.get(i) != MAGIC[i]) throw new IOException("Not a recipe graph index (bad magic)");
+        }
+        int version = b.getInt(8);
+        if (version != VERSION) throw new IOException("Unsupported recipe graph index version " + version);
+        nodeCount = b.getInt(12);
+        recipeCount = b.getInt(16);
+        machineCount = b.getInt(20);
+        int inEdges = b.getInt(24);
+        int outEdges = b.getInt(28);
+        long[] off = new long[SECTION_COUNT];
+        for (int i = 0; i < SECTION_COUNT; i++) off[i] = b.getLong(32 + i * 8);
+
+        nodeKeys = new StringTable(mapped, off[S_NODE_KEYS]);
+        rids = new StringTable(mapped, off[S_RIDS]);
+        machines = new StringTable(mapped, off[S_MACHINES]);
+        nodeKind = slice(off[S_NODE_KIND], nodeCount);
+        recipeMachine = ints(off[S_RECIPE_MACHINE], recipeCount);
+        inPtr = ints(off[S_IN_PTR], recipeCount + 1);
+        inNode = ints(off[S_IN_NODE], inEdges);
+        inQty = ints(off[S_IN_QTY], inEdges);
+        outPtr = ints(off[S_OUT_PTR], recipeCount + 1);
+        outNode = ints(off[S_OUT_NODE], outEdges);
+        outQty = ints(off[S_OUT_QTY], outEdges);
+        outChance = slice(off[S_OUT_CHANCE], outEdges * 4).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        prodPtr = ints(off[S_PROD_PTR], nodeCount + 1);
+        prodRecipe = ints(off[S_PROD_RECIPE], prodPtr.get(nodeCount));
+        consPtr = ints(off[S_CONS_PTR], nodeCount + 1);
+        consRecipe = ints(off[S_CONS_RECIPE], consPtr.get(nodeCount));
+    }
+
+    public static RecipeGraphIndex open(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            FileChannel ch = raf.getChannel();
+            return new RecipeGraphIndex(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } finally {
+            raf.close(); // the mapping stays valid after the channel is closed
+        }
+    }
+
+    /* ---------- Node keys ---------- */
+
+    public static String itemNodeKey(String itemId, int meta) {
+        if (itemId != null && itemId.startsWith("ore:")) return itemId;
+        return itemId + "@" + meta;
+    }
+
+    public static int kindForItemId(String itemId) {
+        return (itemId != null && itemId.startsWith("ore:")) ? KIND_ORE : KIND_ITEM;
+    }
+
+    /* ---------- Counts / lookups ---------- */
+
+    public int nodeCount() { return nodeCount; }
+    public int recipeCount() { return recipeCount; }
+    public int machineCount() { return machineCount; }
+
+    /** Node index for a key such as {@code item:minecraft:iron_ingot@0}, or -1. */
+    public int findNode(String key) {
+        return nodeKeys.find(key);
+    }
+
+    public String nodeKey(int node) { return nodeKeys.get(node); }
+    public int nodeKind(int node) { return nodeKind.get(node); }
+
+    public int findMachine(String machineId) {
+        return machines.find(machineId);
+    }
+
+    public String machineId(int machine) { return machines.get(machine); }
+    public String rid(int recipe) { return rids.get(recipe); }
+    public int recipeMachine(int recipe) { return recipeMachine.get(recipe); }
+
+    /* ---------- Recipe -> stacks ---------- */
+
+    public int inputStart(int recipe) { return inPtr.get(recipe); }
+    public int inputEnd(int recipe) { return inPtr.get(recipe + 1); }
+    public int inputNode(int edge) { return inNode.get(edge); }
+    public int inputQty(int edge) { return inQty.get(edge); }
+
+    public int outputStart(int recipe) { return outPtr.get(recipe); }
+    public int outputEnd(int recipe) { return outPtr.get(recipe + 1); }
+    public int outputNode(int edge) { return outNode.get(edge); }
+    public int outputQty(int edge) { return outQty.get(edge); }
+    public float outputChance(int edge) { return outChance.get(edge); }
+
+    /* ---------- Node -> recipes ---------- */
+
+    public int producerStart(int node) { return prodPtr.get(node); }
+    public int producerEnd(int node) { return prodPtr.get(node + 1); }
+    public int producerRecipe(int i) { return prodRecipe.get(i); }
+
+    public int consumerStart(int node) { return consPtr.get(node); }
+    public int consumerEnd(int node) { return consPtr.get(node + 1); }
+    public int consumerRecipe(int i) { return consRecipe.get(i); }
+
+    public int[] producers(int node) {
+        return copy(prodRecipe, producerStart(node), producerEnd(node));
+    }
+
+    public int[] consumers(int node) {
+        return copy(consRecipe, consumerStart(node), consumerEnd(node));
+    }
+
+    /* ---------- Helpers ---------- */
+
+    private static int[] copy(IntBuffer b, int from, int to) {
+        int[] out = new int[to - from];
+        for (int i = 0; i < out.length; i++) out[i] = b.get(from + i);
+        return out;
+    }
+
+    private ByteBuffer slice(long offset, int length) {
+        ByteBuffer d = mapped.duplicate();
+        d.position((int) offset);
+        d.limit((int) offset + length);
+        return d.slice();
+    }
+
+    private IntBuffer ints(long offset, int count) {
+        return slice(offset, count * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+}
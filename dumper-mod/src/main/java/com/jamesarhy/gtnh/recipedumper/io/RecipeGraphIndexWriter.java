@@ -0,0 +1,212 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds {@code recipe_graph.csr} incrementally while recipes are dumped.
+ *
+ * Node keys are interned to dense ids as they are seen; edges are kept in primitive arrays.
+ * {@link #write(File)} sorts the node and machine tables, remaps ids and derives the
+ * node -> producer / consumer adjacency with a counting sort. See {@link RecipeGraphIndex} for the layout.
+ */
+public final class RecipeGraphIndexWriter {
+    private final Map nodeIds = new HashMap();    // key -> Integer
+    private final List nodeKeys = new ArrayList(); // List<String>
+    private final IntArrayList nodeKinds = new IntArrayList();
+    private final Map machineIds = new HashMap();
+    private final List machineKeys = new ArrayList();
+    private final List rids = new ArrayList();
+    private final IntArrayList recipeMachine = new IntArrayList();
+    private final IntArrayList inPtr = new IntArrayList();
+    private final IntArrayList inNode = new IntArrayList();
+    private final IntArrayList inQty = new IntArrayList();
+    private final IntArrayList outPtr = new IntArrayList();
+    private final IntArrayList outNode = new IntArrayList();
+    private final IntArrayList outQty = new IntArrayList();
+    private final IntArrayList outChanceBits = new IntArrayList();
+
+    public RecipeGraphIndexWriter() {
+        inPtr.add(0);
+        outPtr.add(0);
+    }
+
+    public int beginRecipe(String rid, String machineId) {
+        closeRecipe();
+        rids.add(rid == null ? "" : rid);
+        recipeMachine.add(intern(machineIds, machineKeys, machineId == null ? "" : machineId));
+        return rids.size() - 1;
+    }
+
+    public void addInput(String nodeKey, int kind, int qty) {
+        inNode.add(node(nodeKey, kind));
+        inQty.add(qty);
+    }
+
+    public void addOutput(String nodeKey, int kind, int qty, float chance) {
+        outNode.add(node(nodeKey, kind));
+        outQty.add(qty);
+        outChanceBits.add(Float.floatToIntBits(chance));
+    }
+
+    public int recipeCount() {
+        return rids.size();
+    }
+
+    public void write(File file) throws IOException {
+        closeRecipe();
+        int nodeCount = nodeKeys.size();
+        int recipeCount = rids.size();
+
+        byte[][] nodeBytes = utf8All(nodeKeys);
+        int[] nodeOrder = StringTable.sortUtf8(nodeBytes, nodeCount);
+        int[] nodeRemap = inverse(nodeOrder);
+        byte[][] machineBytes = utf8All(machineKeys);
+        int[] machineRemap = inverse(StringTable.sortUtf8(machineBytes, machineBytes.length));
+
+        int[] kinds = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) kinds[i] = nodeKinds.get(nodeOrder[i]);
+        int[] machines = recipeMachine.toArray();
+        for (int i = 0; i < machines.length; i++) machines[i] = machineRemap[machines[i]];
+        int[] ins = remap(inNode, nodeRemap);
+        int[] outs = remap(outNode, nodeRemap);
+        int[] inP = inPtr.toArray();
+        int[] outP = outPtr.toArray();
+
+        int[][] prod = adjacency(outs, outP, nodeCount, recipeCount);
+        int[][] cons = adjacency(ins, inP, nodeCount, recipeCount);
+
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(0);
+            FileChannel ch = raf.getChannel();
+            BinarySectionWriter w = new BinarySectionWriter(ch, RecipeGraphIndex.HEADER_SIZE);
+            long[] off = new long[RecipeGraphIndex.SECTION_COUNT];
+
+            off[RecipeGraphIndex.S_NODE_KEYS] = w.writeStringTable(nodeBytes, nodeCount);
+            off[RecipeGraphIndex.S_RIDS] = w.writeStringTable(utf8All(rids), recipeCount);
+            off[RecipeGraphIndex.S_MACHINES] = w.writeStringTable(machineBytes, machineBytes.length);
+
+            w.align(8);
+            off[RecipeGraphIndex.S_NODE_KIND] = w.position();
+            for (int i = 0; i < nodeCount; i++) w.writeByte(kinds[i]);
+
+            off[RecipeGraphIndex.S_RECIPE_MACHINE] = section(w, machines, machines.length);
+            off[RecipeGraphIndex.S_IN_PTR] = section(w, inP, inP.length);
+            off[RecipeGraphIndex.S_IN_NODE] = section(w, ins, ins.length);
+            off[RecipeGraphIndex.S_IN_QTY] = section(w, inQty.rawArray(), inQty.size());
+            off[RecipeGraphIndex.S_OUT_PTR] = section(w, outP, outP.length);
+            off[RecipeGraphIndex.S_OUT_NODE] = section(w, outs, outs.length);
+            off[RecipeGraphIndex.S_OUT_QTY] = section(w, outQty.rawArray(), outQty.size());
+            off[RecipeGraphIndex.S_OUT_CHANCE] = section(w, outChanceBits.rawArray(), outChanceBits.size());
+            off[RecipeGraphIndex.S_PROD_PTR] = section(w, prod[0], prod[0].length);
+            off[RecipeGraphIndex.S_PROD_RECIPE] = section(w, prod[1], prod[1].length);
+            off[RecipeGraphIndex.S_CONS_PTR] = section(w, cons[0], cons[0].length);
+            off[RecipeGraphIndex.S_CONS_RECIPE] = section(w, cons[1], cons[1].length);
+            w.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(RecipeGraphIndex.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(RecipeGraphIndex.MAGIC);
+            header.putInt(RecipeGraphIndex.VERSION);
+            header.putInt(nodeCount);
+            header.putInt(recipeCount);
+            header.putInt(machineBytes.length);
+            header.putInt(ins.length);
+            header.putInt(outs.length);
+            for (int i = 0; i < off.length; i++) header.putLong(off[i]);
+            header.flip();
+            long pos = 0;
+            while (header.hasRemaining()) pos += ch.write(header, pos);
+        } finally {
+            raf.close();
+        }
+    }
+
+    /* ---------- Internals ---------- */
+
+    private void closeRecipe() {
+        if (inPtr.size() <= rids.size()) inPtr.add(inNode.size());
+        if (outPtr.size() <= rids.size()) outPtr.add(outNode.size());
+    }
+
+    private int node(String key, int kind) {
+        Object id = nodeIds.get(key);
+        if (id != null) return ((Integer) id).intValue();
+        int n = nodeKeys.size();
+        nodeIds.put(key, new Integer(n));
+        nodeKeys.add(key);
+        nodeKinds.add(kind);
+        return n;
+    }
+
+    private static int intern(Map ids, List keys, String key) {
+        Object id = ids.get(key);
+        if (id != null) return ((Integer) id).intValue();
+        int n = keys.size();
+        ids.put(key, new Integer(n));
+        keys.add(key);
+        return n;
+    }
+
+    private static long section(BinarySectionWriter w, int[] data, int len) throws IOException {
+        w.align(8);
+        long start = w.position();
+        w.writeInts(data, len);
+        return start;
+    }
+
+    /** Builds node -> recipe CSR from recipe -> node CSR; a recipe is listed once per node. */
+    private static int[][] adjacency(int[] edgeNode, int[] recipePtr, int nodeCount, int recipeCount) {
+        int[] last = new int[nodeCount];
+        java.util.Arrays.fill(last, -1);
+        int[] ptr = new int[nodeCount + 1];
+        for (int r = 0; r < recipeCount; r++) {
+            for (int e = recipePtr[r]; e < recipePtr[r + 1]; e++) {
+                int n = edgeNode[e];
+                if (last[n] == r) continue;
+                last[n] = r;
+                ptr[n + 1]++;
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) ptr[i + 1] += ptr[i];
+        int[] fill = new int[nodeCount];
+        System.arraycopy(ptr, 0, fill, 0, nodeCount);
+        int[] recipes = new int[ptr[nodeCount]];
+        java.util.Arrays.fill(last, -1);
+        for (int r = 0; r < recipeCount; r++) {
+            for (int e = recipePtr[r]; e < recipePtr[r + 1]; e++) {
+                int n = edgeNode[e];
+                if (last[n] == r) continue;
+                last[n] = r;
+                recipes[fill[n]++] = r;
+            }
+        }
+        return new int[][] { ptr, recipes };
+    }
+
+    private static int[] remap(IntArrayList ids, int[] remap) {
+        int[] out = ids.toArray();
+        for (int i = 0; i < out.length; i++) out[i] = remap[out[i]];
+        return out;
+    }
+
+    private static int[] inverse(int[] order) {
+        int[] inv = new int[order.length];
+        for (int i = 0; i < order.length; i++) inv[order[i]] = i;
+        return inv;
+    }
+
+    private static byte[][] utf8All(List strings) {
+        byte[][] out = new byte[strings.size()][];
+        for (int i = 0; i < out.length; i++) out[i] = StringTable.utf8((String) strings.get(i));
+        return out;
+    }
+}
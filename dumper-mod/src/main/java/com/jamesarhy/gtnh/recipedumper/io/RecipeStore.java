@@ -0,0 +1,465 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Struct-of-arrays recipe store filled during extraction and read by every writer.
+ *
+ * One primitive column per scalar recipe field; stacks and raw chances live in shared pools,
+ * addressed by per-body start offsets (a body's item inputs are followed directly by its item
+ * outputs, and its range ends where the next body's begins). Strings are refs into one
+ * {@link StringInterner}, so a given item id or display name is held once no matter how many
+ * stacks mention it. Optional fields are flagged in {@link #flags(int)} instead of boxed.
+ *
+ * A recipe row is only (rid, machineId, body); everything else is the body. GT registers the
+ * same recipe under several maps, so when a recipe is closed its body is compared with the bodies
+ * already stored (hash, then exact column compare) and a duplicate is dropped in favour of the
+ * existing one. The per-recipe accessors hide this; {@link #body(int)} exposes it.
+ *
+ * Append order per recipe: {@link #beginRecipe}, setters, item inputs, item outputs, fluid
+ * inputs, fluid outputs, chances, {@link #closeRecipe()}. Outputs of one kind may not be followed
+ * by inputs of the same kind. {@link #beginRecipe} closes the previous recipe.
+ */
+public final class RecipeStore {
+
+    public static final int NONE = StringInterner.NONE;
+
+    public static final int F_SPECIAL = 1;
+    public static final int F_EBF_TEMP = 1 << 1;
+    public static final int F_CIRCUIT = 1 << 2;
+    public static final int F_GHOST_PRESENT = 1 << 3;
+    public static final int F_GHOST = 1 << 4;
+    public static final int F_MIN_VOLTAGE = 1 << 5;
+    public static final int F_AMPS = 1 << 6;
+    public static final int F_CHANCE_SCALE = 1 << 7;
+    public static final int F_CHANCES = 1 << 8;
+
+    private static final int GAS_NULL = 0;
+    private static final int GAS_FALSE = 1;
+    private static final int GAS_TRUE = 2;
+
+    private final StringInterner strings = new StringInterner();
+    private final StringInterner oreSets = new StringInterner(); // '\u0000'-joined ore name lists
+
+    // Recipe rows
+    private final List rids = new ArrayList(); // unique per recipe, so not interned
+    private final IntArrayList machine = new IntArrayList();
+    private final IntArrayList body = new IntArrayList();
+
+    // Body columns
+    private final IntArrayList recipeClass = new IntArrayList();
+    private final IntArrayList minTier = new IntArrayList();
+    private final IntArrayList duration = new IntArrayList();
+    private final LongArrayList eut = new LongArrayList();
+    private final IntArrayList special = new IntArrayList();
+    private final IntArrayList ebfTemp = new IntArrayList();
+    private final IntArrayList circuit = new IntArrayList();
+    private final IntArrayList minVoltage = new IntArrayList();
+    private final IntArrayList amps = new IntArrayList();
+    private final IntArrayList chanceScale = new IntArrayList();
+    private final IntArrayList flags = new IntArrayList();
+    private final IntArrayList itemStart = new IntArrayList();
+    private final IntArrayList itemInputs = new IntArrayList();
+    private final IntArrayList fluidStart = new IntArrayList();
+    private final IntArrayList fluidInputs = new IntArrayList();
+    private final IntArrayList chanceStart = new IntArrayList();
+
+    // Item stack pool
+    private final IntArrayList itemId = new IntArrayList();
+    private final IntArrayList itemMeta = new IntArrayList();
+    private final IntArrayList itemCount = new IntArrayList();
+    private final LongArrayList itemChance = new LongArrayList(); // double bits, NaN = none
+    private final IntArrayList itemDisplay = new IntArrayList();
+    private final IntArrayList itemUnloc = new IntArrayList();
+    private final IntArrayList itemOre = new IntArrayList();
+
+    // Fluid stack pool
+    private final IntArrayList fluidId = new IntArrayList();
+    private final IntArrayList fluidMb = new IntArrayList();
+    private final IntArrayList fluidGas = new IntArrayList();
+    private final IntArrayList fluidDisplay = new IntArrayList();
+    private final IntArrayList fluidUnloc = new IntArrayList();
+
+    private final IntArrayList chances = new IntArrayList();
+
+    private final Map bodiesByHash = new HashMap(); // Long -> IntArrayList of bodies
+    private int sharedRecipes;
+
+    private int open = -1;   // open body
+    private int openRow = -1;
+    private boolean openItemOutputs;
+    private boolean openFluidOutputs;
+
+    /* ---------- Append ---------- */
+
+    public int beginRecipe(String rid, String machineId, String recipeClassName, String minTierName, long eutValue, int durationTicks) {
+        closeRecipe();
+        openRow = rids.size();
+        open = duration.size();
+        openItemOutputs = false;
+        openFluidOutputs = false;
+        rids.add(rid);
+        machine.add(strings.id(machineId));
+        body.add(open);
+        recipeClass.add(strings.id(recipeClassName));
+        minTier.add(strings.id(minTierName));
+        duration.add(durationTicks);
+        eut.add(eutValue);
+        special.add(0);
+        ebfTemp.add(0);
+        circuit.add(0);
+        minVoltage.add(0);
+        amps.add(0);
+        chanceScale.add(0);
+        flags.add(0);
+        itemStart.add(itemId.size());
+        itemInputs.add(0);
+        fluidStart.add(fluidId.size());
+        fluidInputs.add(0);
+        chanceStart.add(chances.size());
+        return openRow;
+    }
+
+    /** Finishes the open recipe, folding its body into an identical stored one if there is one. */
+    public void closeRecipe() {
+        if (openRow < 0) return;
+        int b = open;
+        Long hash = new Long(bodyHash(b));
+        IntArrayList same = (IntArrayList) bodiesByHash.get(hash);
+        if (same != null) {
+            for (int i = 0; i < same.size(); i++) {
+                int other = same.get(i);
+                if (!sameBody(other, b)) continue;
+                dropLastBody(b);
+                body.set(openRow, other);
+                sharedRecipes++;
+                openRow = -1;
+                open = -1;
+                return;
+            }
+        } else {
+            same = new IntArrayList(1);
+            bodiesByHash.put(hash, same);
+        }
+        same.add(b);
+        openRow = -1;
+        open = -1;
+    }
+
+    public void setSpecialValue(int v) { setOptional(special, F_SPECIAL, v); }
+    public void setEbfTemp(int v) { setOptional(ebfTemp, F_EBF_TEMP, v); }
+    public void setCircuitConfig(int v) { setOptional(circuit, F_CIRCUIT, v); }
+    public void setMinVoltage(int v) { setOptional(minVoltage, F_MIN_VOLTAGE, v); }
+    public void setAmpsAtMinTier(int v) { setOptional(amps, F_AMPS, v); }
+    public void setChanceScale(int v) { setOptional(chanceScale, F_CHANCE_SCALE, v); }
+
+    public void setCircuitGhost(boolean ghost) {
+        flags.set(open, flags.get(open) | F_GHOST_PRESENT | (ghost ? F_GHOST : 0));
+    }
+
+    /** Marks the raw output chance list as present, even when it is empty. */
+    public void setHasChances() {
+        flags.set(open, flags.get(open) | F_CHANCES);
+    }
+
+    public void addChance(int rawChance) {
+        chances.add(rawChance);
+    }
+
+    /** {@code chance} is the 0..1 output chance, or NaN when the stack has none. */
+    public void addItemInput(String id, int meta, int count, double chance, String displayName, String unlocalizedName, List oreDict) {
+        if (openItemOutputs) throw new IllegalStateException("Item input after item outputs in recipe " + rids.get(openRow));
+        addItem(id, meta, count, chance, displayName, unlocalizedName, oreDict);
+        itemInputs.set(open, itemInputs.get(open) + 1);
+    }
+
+    public void addItemOutput(String id, int meta, int count, double chance, String displayName, String unlocalizedName, List oreDict) {
+        openItemOutputs = true;
+        addItem(id, meta, count, chance, displayName, unlocalizedName, oreDict);
+    }
+
+    public void addFluidInput(String id, int mb, Boolean isGas, String displayName, String unlocalizedName) {
+        if (openFluidOutputs) throw new IllegalStateException("Fluid input after fluid outputs in recipe " + rids.get(openRow));
+        addFluid(id, mb, isGas, displayName, unlocalizedName);
+        fluidInputs.set(open, fluidInputs.get(open) + 1);
+    }
+
+    public void addFluidOutput(String id, int mb, Boolean isGas, String displayName, String unlocalizedName) {
+        openFluidOutputs = true;
+        addFluid(id, mb, isGas, displayName, unlocalizedName);
+    }
+
+    /** Rids are made unique per map after the map is dumped, so they stay writable. */
+    public void setRid(int r, String rid) {
+        rids.set(r, rid);
+    }
+
+    private void setOptional(IntArrayList column, int flag, int v) {
+        column.set(open, v);
+        flags.set(open, flags.get(open) | flag);
+    }
+
+    private void addItem(String id, int meta, int count, double chance, String displayName, String unlocalizedName, List oreDict) {
+        itemId.add(strings.id(id));
+        itemMeta.add(meta);
+        itemCount.add(count);
+        itemChance.add(Double.doubleToLongBits(chance));
+        itemDisplay.add(strings.id(displayName));
+        itemUnloc.add(strings.id(unlocalizedName));
+        itemOre.add(oreSets.id(joinOreNames(oreDict)));
+    }
+
+    private void addFluid(String id, int mb, Boolean isGas, String displayName, String unlocalizedName) {
+        fluidId.add(strings.id(id));
+        fluidMb.add(mb);
+        fluidGas.add(isGas == null ? GAS_NULL : (isGas.booleanValue() ? GAS_TRUE : GAS_FALSE));
+        fluidDisplay.add(strings.id(displayName));
+        fluidUnloc.add(strings.id(unlocalizedName));
+    }
+
+    private static String joinOreNames(List oreDict) {
+        if (oreDict == null) return null;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < oreDict.size(); i++) {
+            if (i > 0) sb.append('\u0000');
+            Object o = oreDict.get(i);
+            sb.append(o == null ? "" : o.toString());
+        }
+        return sb.toString();
+    }
+
+    /* ---------- Body dedupe ---------- */
+
+    private long bodyHash(int b) {
+        long h = 17;
+        h = mix(h, recipeClass.get(b));
+        h = mix(h, minTier.get(b));
+        h = mix(h, duration.get(b));
+        h = mix(h, eut.get(b));
+        h = mix(h, special.get(b));
+        h = mix(h, ebfTemp.get(b));
+        h = mix(h, circuit.get(b));
+        h = mix(h, minVoltage.get(b));
+        h = mix(h, amps.get(b));
+        h = mix(h, chanceScale.get(b));
+        h = mix(h, flags.get(b));
+        h = mix(h, itemInputs.get(b));
+        h = mix(h, fluidInputs.get(b));
+        for (int s = itemStart.get(b); s < itemId.size(); s++) {
+            h = mix(h, itemId.get(s));
+            h = mix(h, itemMeta.get(s));
+            h = mix(h, itemCount.get(s));
+            h = mix(h, itemChance.get(s));
+        }
+        for (int s = fluidStart.get(b); s < fluidId.size(); s++) {
+            h = mix(h, fluidId.get(s));
+            h = mix(h, fluidMb.get(s));
+        }
+        for (int i = chanceStart.get(b); i < chances.size(); i++) h = mix(h, chances.get(i));
+        return h;
+    }
+
+    private static long mix(long h, long v) {
+        h ^= v + 0x9e3779b97f4a7c15L + (h << 6) + (h >>> 2);
+        return h * 0xff51afd7ed558ccdL;
+    }
+
+    /** {@code b} is the open (last) body; {@code a} is a closed one. */
+    private boolean sameBody(int a, int b) {
+        if (recipeClass.get(a) != recipeClass.get(b) || minTier.get(a) != minTier.get(b)
+                || duration.get(a) != duration.get(b) || eut.get(a) != eut.get(b)
+                || special.get(a) != special.get(b) || ebfTemp.get(a) != ebfTemp.get(b)
+                || circuit.get(a) != circuit.get(b) || minVoltage.get(a) != minVoltage.get(b)
+                || amps.get(a) != amps.get(b) || chanceScale.get(a) != chanceScale.get(b)
+                || flags.get(a) != flags.get(b)
+                || itemInputs.get(a) != itemInputs.get(b) || fluidInputs.get(a) != fluidInputs.get(b)) {
+            return false;
+        }
+        int ia = itemStart.get(a);
+        int ib = itemStart.get(b);
+        int n = itemId.size() - ib;
+        if (bodyEnd(itemStart, a, itemId.size()) - ia != n) return false;
+        for (int k = 0; k < n; k++) {
+            int sa = ia + k;
+            int sb = ib + k;
+            if (itemId.get(sa) != itemId.get(sb) || itemMeta.get(sa) != itemMeta.get(sb)
+                    || itemCount.get(sa) != itemCount.get(sb) || itemChance.get(sa) != itemChance.get(sb)
+                    || itemDisplay.get(sa) != itemDisplay.get(sb) || itemUnloc.get(sa) != itemUnloc.get(sb)
+                    || itemOre.get(sa) != itemOre.get(sb)) {
+                return false;
+            }
+        }
+        int fa = fluidStart.get(a);
+        int fb = fluidStart.get(b);
+        n = fluidId.size() - fb;
+        if (bodyEnd(fluidStart, a, fluidId.size()) - fa != n) return false;
+        for (int k = 0; k < n; k++) {
+            int sa = fa + k;
+            int sb = fb + k;
+            if (fluidId.get(sa) != fluidId.get(sb) || fluidMb.get(sa) != fluidMb.get(sb)
+                    || fluidGas.get(sa) != fluidGas.get(sb) || fluidDisplay.get(sa) != fluidDisplay.get(sb)
+                    || fluidUnloc.get(sa) != fluidUnloc.get(sb)) {
+                return false;
+            }
+        }
+        int ca = chanceStart.get(a);
+        int cb = chanceStart.get(b);
+        n = chances.size() - cb;
+        if (bodyEnd(chanceStart, a, chances.size()) - ca != n) return false;
+        for (int k = 0; k < n; k++) {
+            if (chances.get(ca + k) != chances.get(cb + k)) return false;
+        }
+        return true;
+    }
+
+    /** Removes body {@code b} (the last one) and its stacks. */
+    private void dropLastBody(int b) {
+        int items = itemStart.get(b);
+        IntArrayList[] itemCols = new IntArrayList[] {itemId, itemMeta, itemCount, itemDisplay, itemUnloc, itemOre};
+        for (int i = 0; i < itemCols.length; i++) itemCols[i].truncate(items);
+        itemChance.truncate(items);
+        int fluids = fluidStart.get(b);
+        IntArrayList[] fluidCols = new IntArrayList[] {fluidId, fluidMb, fluidGas, fluidDisplay, fluidUnloc};
+        for (int i = 0; i < fluidCols.length; i++) fluidCols[i].truncate(fluids);
+        chances.truncate(chanceStart.get(b));
+        IntArrayList[] bodyCols = new IntArrayList[] {
+                recipeClass, minTier, duration, special, ebfTemp, circuit, minVoltage, amps, chanceScale,
+                flags, itemStart, itemInputs, fluidStart, fluidInputs, chanceStart
+        };
+        for (int i = 0; i < bodyCols.length; i++) bodyCols[i].truncate(b);
+        eut.truncate(b);
+    }
+
+    /* ---------- Recipes ---------- */
+
+    public int recipeCount() {
+        return rids.size();
+    }
+
+    public String rid(int r) { return (String) rids.get(r); }
+    public String machineId(int r) { return strings.get(machine.get(r)); }
+    public int machineRef(int r) { return machine.get(r); }
+
+    /** Body index of recipe {@code r}; recipes with equal content (machineId aside) share one. */
+    public int body(int r) { return body.get(r); }
+
+    public String recipeClass(int r) { return strings.get(recipeClass.get(body.get(r))); }
+    public String minTier(int r) { return strings.get(minTier.get(body.get(r))); }
+    public int durationTicks(int r) { return duration.get(body.get(r)); }
+    public long eut(int r) { return eut.get(body.get(r)); }
+    public int flags(int r) { return flags.get(body.get(r)); }
+    public boolean has(int r, int flag) { return (flags(r) & flag) != 0; }
+    public int specialValue(int r) { return special.get(body.get(r)); }
+    public int ebfTemp(int r) { return ebfTemp.get(body.get(r)); }
+    public int circuitConfig(int r) { return circuit.get(body.get(r)); }
+    public boolean circuitGhost(int r) { return has(r, F_GHOST); }
+    public int minVoltage(int r) { return minVoltage.get(body.get(r)); }
+    public int ampsAtMinTier(int r) { return amps.get(body.get(r)); }
+    public int chanceScale(int r) { return chanceScale.get(body.get(r)); }
+
+    public int itemInputStart(int r) { return itemStart.get(body.get(r)); }
+    public int itemInputCount(int r) { return itemInputs.get(body.get(r)); }
+    public int itemOutputStart(int r) { return itemInputStart(r) + itemInputCount(r); }
+    public int itemOutputCount(int r) { return bodyEnd(itemStart, body.get(r), itemId.size()) - itemOutputStart(r); }
+    public int fluidInputStart(int r) { return fluidStart.get(body.get(r)); }
+    public int fluidInputCount(int r) { return fluidInputs.get(body.get(r)); }
+    public int fluidOutputStart(int r) { return fluidInputStart(r) + fluidInputCount(r); }
+    public int fluidOutputCount(int r) { return bodyEnd(fluidStart, body.get(r), fluidId.size()) - fluidOutputStart(r); }
+    public int chanceStart(int r) { return chanceStart.get(body.get(r)); }
+    public int chanceCount(int r) { return bodyEnd(chanceStart, body.get(r), chances.size()) - chanceStart(r); }
+    public int chance(int i) { return chances.get(i); }
+
+    /** Bodies are appended in order, so a body's pool range ends where the next one's starts. */
+    private static int bodyEnd(IntArrayList starts, int b, int total) {
+        return (b + 1 < starts.size()) ? starts.get(b + 1) : total;
+    }
+
+    /* ---------- Stacks ---------- */
+
+    public String itemId(int s) { return strings.get(itemId.get(s)); }
+    public int itemIdRef(int s) { return itemId.get(s); }
+    public int itemMeta(int s) { return itemMeta.get(s); }
+    public int itemCount(int s) { return itemCount.get(s); }
+    /** 0..1 chance, or NaN when the stack has none. */
+    public double itemChance(int s) { return Double.longBitsToDouble(itemChance.get(s)); }
+    public String itemDisplayName(int s) { return strings.get(itemDisplay.get(s)); }
+    public String itemUnlocalizedName(int s) { return strings.get(itemUnloc.get(s)); }
+
+    /** Ore dictionary names of the stack as a fresh list, or null when the stack had none recorded. */
+    public List itemOreDict(int s) {
+        String joined = oreSets.get(itemOre.get(s));
+        if (joined == null) return null;
+        List out = new ArrayList();
+        if (joined.length() == 0) return out;
+        int from = 0;
+        while (true) {
+            int at = joined.indexOf('\u0000', from);
+            if (at < 0) {
+                out.add(joined.substring(from));
+                return out;
+            }
+            out.add(joined.substring(from, at));
+            from = at + 1;
+        }
+    }
+
+    public String fluidId(int s) { return strings.get(fluidId.get(s)); }
+    public int fluidIdRef(int s) { return fluidId.get(s); }
+    public int fluidMb(int s) { return fluidMb.get(s); }
+    public String fluidDisplayName(int s) { return strings.get(fluidDisplay.get(s)); }
+    public String fluidUnlocalizedName(int s) { return strings.get(fluidUnloc.get(s)); }
+
+    public Boolean fluidIsGas(int s) {
+        int v = fluidGas.get(s);
+        return (v == GAS_NULL) ? null : Boolean.valueOf(v == GAS_TRUE);
+    }
+
+    /* ---------- Strings / sizing ---------- */
+
+    public StringInterner strings() {
+        return strings;
+    }
+
+    public int bodyCount() {
+        return duration.size();
+    }
+
+    /** Recipes whose body was folded into an earlier identical one. */
+    public int sharedRecipeCount() {
+        return sharedRecipes;
+    }
+
+    public int itemStackCount() {
+        return itemId.size();
+    }
+
+    public int fluidStackCount() {
+        return fluidId.size();
+    }
+
+    /**
+     * Approximate retained bytes: column backing arrays plus interned strings and rids.
+     * Used for the extraction heap log; not exact, but comparable between runs.
+     */
+    public long estimatedBytes() {
+        long ints = 0;
+        IntArrayList[] cols = new IntArrayList[] {
+                machine, body, recipeClass, minTier, duration, special, ebfTemp, circuit, minVoltage, amps, chanceScale,
+                flags, itemStart, itemInputs, fluidStart, fluidInputs, chanceStart,
+                itemId, itemMeta, itemCount, itemDisplay, itemUnloc, itemOre,
+                fluidId, fluidMb, fluidGas, fluidDisplay, fluidUnloc, chances
+        };
+        for (int i = 0; i < cols.length; i++) ints += cols[i].rawArray().length;
+        long longs = eut.rawArray().length + itemChance.rawArray().length;
+        long ridBytes = 0;
+        for (int i = 0; i < rids.size(); i++) {
+            String rid = (String) rids.get(i);
+            ridBytes += 8 + ((rid == null) ? 0 : 40 + rid.length() * 2L);
+        }
+        long dedupe = bodiesByHash.size() * 96L; // hash entry + boxed key + one-element list
+        return ints * 4 + longs * 8 + ridBytes + dedupe + strings.estimatedBytes() + oreSets.estimatedBytes();
+    }
+}
@@ -0,0 +1,54 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps strings to dense int refs in first-seen order, keeping one canonical instance of each.
+ *
+ * Item ids, machineIds, recipe classes and display names repeat across tens of thousands of
+ * stacks; {@link RecipeStore} keeps a ref per stack instead of a String. {@code null} is
+ * {@link #NONE}.
+ */
+public final class StringInterner {
+
+    public static final int NONE = -1;
+
+    private final Map ids = new HashMap(); // String -> Integer
+    private final List values = new ArrayList();
+    private long chars;
+
+    public int id(String s) {
+        if (s == null) return NONE;
+        Integer id = (Integer) ids.get(s);
+        if (id == null) {
+            id = new Integer(values.size());
+            ids.put(s, id);
+            values.add(s);
+            chars += s.length();
+        }
+        return id.intValue();
+    }
+
+    /** Ref of {@code s} if already interned, else {@link #NONE}; never adds. */
+    public int find(String s) {
+        if (s == null) return NONE;
+        Integer id = (Integer) ids.get(s);
+        return (id == null) ? NONE : id.intValue();
+    }
+
+    public String get(int id) {
+        return (id == NONE) ? null : (String) values.get(id);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    /** Rough retained size: the strings plus one hash entry and list slot per string. */
+    public long estimatedBytes() {
+        return chars * 2 + values.size() * (40L + 32L + 16L + 8L);
+    }
+}
@@ -0,0 +1,118 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Read-only view over a string table written by {@link BinarySectionWriter#writeStringTable}.
+ *
+ * Strings stay in the mapped buffer; they are only decoded when asked for. Tables written in
+ * unsigned UTF-8 byte order (see {@link #sortUtf8}) support binary search without decoding.
+ */
+public final class StringTable {
+    private final ByteBuffer bytes;
+    private final IntBuffer offsets;
+    private final int count;
+
+    public StringTable(ByteBuffer mapped, long sectionOffset) {
+        ByteBuffer b = mapped.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int start = (int) sectionOffset;
+        count = b.getInt(start);
+        b.position(start + 4);
+        b.limit(start + 4 + (count + 1) * 4);
+        offsets = b.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        int byteStart = start + 4 + (count + 1) * 4;
+        ByteBuffer d = mapped.duplicate();
+        d.position(byteStart);
+        d.limit(byteStart + offsets.get(count));
+        bytes = d.slice();
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String get(int i) {
+        int from = offsets.get(i);
+        int to = offsets.get(i + 1);
+        byte[] b = new byte[to - from];
+        for (int k = 0; k < b.length; k++) b[k] = bytes.get(from + k);
+        try {
+            return new String(b, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Binary search; only valid for tables written in {@link #UTF8_ORDER}. Returns -1 when absent. */
+    public int find(String s) {
+        byte[] key = utf8(s);
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareAt(mid, key);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    private int compareAt(int i, byte[] key) {
+        int from = offsets.get(i);
+        int len = offsets.get(i + 1) - from;
+        int n = Math.min(len, key.length);
+        for (int k = 0; k < n; k++) {
+            int a = bytes.get(from + k) & 0xff;
+            int b = key[k] & 0xff;
+            if (a != b) return a - b;
+        }
+        return len - key.length;
+    }
+
+    public static byte[] utf8(String s) {
+        try {
+            return s.getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static final Comparator UTF8_ORDER = new Comparator() {
+        public int compare(Object oa, Object ob) {
+            byte[] a = (byte[]) oa;
+            byte[] b = (byte[]) ob;
+            int n = Math.min(a.length, b.length);
+            for (int i = 0; i < n; i++) {
+                int x = a[i] & 0xff;
+                int y = b[i] & 0xff;
+                if (x != y) return x - y;
+            }
+            return a.length - b.length;
+        }
+    };
+
+    /** Sorts in place and returns the permutation: {@code order[newIndex] = oldIndex}. */
+    public static int[] sortUtf8(final byte[][] strings, int count) {
+        Integer[] idx = new Integer[count];
+        for (int i = 0; i < count; i++) idx[i] = new Integer(i);
+        Arrays.sort(idx, new Comparator() {
+            public int compare(Object a, Object b) {
+                return UTF8_ORDER.compare(strings[((Integer) a).intValue()], strings[((Integer) b).intValue()]);
+            }
+        });
+        byte[][] copy = new byte[count][];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = idx[i].intValue();
+            copy[i] = strings[order[i]];
+        }
+        System.arraycopy(copy, 0, strings, 0, count);
+        return order;
+    }
+}
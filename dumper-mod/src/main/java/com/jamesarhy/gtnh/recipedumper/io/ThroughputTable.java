@@ -0,0 +1,211 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+/**
+ * Throughput of every recipe at every voltage tier it runs at: parallels, overclocked duration
+ * and EU/t (standard and perfect overclocks), items per second and EU per item.
+ *
+ * Recipes are given as columns (EU/t, duration, min tier, amps, expected items per craft, machine)
+ * and computed one tier at a time into reusable {@link Columns}, so the inner loop runs over
+ * primitive arrays only. Machine bonuses (see {@link #setBonuses} and {@link #addRule}) are
+ * resolved up front into per-(tier, min tier) tables.
+ *
+ * The model, per recipe at tier T with A amps of the tier (A is 1 unless the recipe needs more
+ * than MAX at one amp):
+ * <pre>
+ *   EU/t of one craft   ceil(eut * efficiency)
+ *   parallels           min(machine parallels, V(T) * A / that EU/t), at least 1
+ *   duration            max(1, duration / speed)
+ *   overclocks          while EU/t * 4 fits V(T) * A and duration is above 1 tick:
+ *                       EU/t * 4, duration / 2 (standard) or / 4 (perfect)
+ * </pre>
+ * Bonus rules are only evaluated for the voltage tier sources ("energy_tier": the tier's
+ * ordinal, LV = 1; "energy_tier_delta": tiers above the recipe's min tier); coil, pipe and other
+ * structure tiers depend on how a machine is built and are left out.
+ */
+public final class ThroughputTable {
+
+    public static final int STANDARD = 0;
+    public static final int PERFECT = 1;
+
+    private static final int P = 0; // parallel
+    private static final int S = 1; // speed
+    private static final int E = 2; // efficiency
+    private static final int C = VoltageTiers.COUNT;
+
+    private final long[] eut;
+    private final int[] duration;
+    private final byte[] minTier;
+    private final int[] amps;
+    private final double[] itemsPerCraft;
+    private final int[] machine;
+
+    private final double[][] statics; // machine -> {parallel, speed, efficiency}, NaN when unknown
+    private final double[] maxParallel;
+    private final double[][][] rules; // machine -> metric -> {base, perTier, capMin, capMax, delta}
+    private double[][][] bonus;       // machine -> metric -> [tier * C + minTier]
+
+    /**
+     * @param minTier  VoltageTiers ordinal, or -1 for recipes without one (left out of every tier)
+     * @param machine  index of the recipe's machine, below {@code machineCount}
+     */
+    public ThroughputTable(long[] eut, int[] duration, byte[] minTier, int[] amps, double[] itemsPerCraft,
+                           int[] machine, int machineCount) {
+        this.eut = eut;
+        this.duration = duration;
+        this.minTier = minTier;
+        this.amps = amps;
+        this.itemsPerCraft = itemsPerCraft;
+        this.machine = machine;
+        statics = new double[machineCount][];
+        maxParallel = new double[machineCount];
+        rules = new double[machineCount][3][];
+        for (int m = 0; m < machineCount; m++) {
+            statics[m] = new double[] {Double.NaN, Double.NaN, Double.NaN};
+            maxParallel[m] = Double.NaN;
+        }
+    }
+
+    public int recipeCount() {
+        return eut.length;
+    }
+
+    /**
+     * A machine's flat bonuses (the machine index fields); NaN for the ones it does not have.
+     * {@code speed} multiplies the speed (divides the duration), {@code efficiency} the EU/t.
+     */
+    public void setBonuses(int m, double parallel, double maxParallel, double speed, double efficiency) {
+        statics[m][P] = parallel;
+        statics[m][S] = speed;
+        statics[m][E] = efficiency;
+        this.maxParallel[m] = maxParallel;
+        bonus = null;
+    }
+
+    /**
+     * A per-tier bonus rule of the machine index ({@code base + perTier * tier}, clamped to the
+     * caps, which may be NaN); it replaces the flat bonus of its metric. Returns false, and adds
+     * nothing, for a metric or tier source the table cannot evaluate.
+     */
+    public boolean addRule(int m, String metric, String source, double base, double perTier, double capMin, double capMax) {
+        int k = "parallel".equals(metric) ? P : "speed".equals(metric) ? S : "efficiency".equals(metric) ? E : -1;
+        double delta;
+        if ("energy_tier".equals(source)) {
+            delta = 0.0;
+        } else if ("energy_tier_delta".equals(source)) {
+            delta = 1.0;
+        } else {
+            return false;
+        }
+        if (k < 0 || Double.isNaN(perTier)) return false;
+        rules[m][k] = new double[] {Double.isNaN(base) ? 0.0 : base, perTier, capMin, capMax, delta};
+        bonus = null;
+        return true;
+    }
+
+    private void prepare() {
+        if (bonus != null) return;
+        bonus = new double[statics.length][3][C * C];
+        for (int m = 0; m < statics.length; m++) {
+            for (int k = 0; k < 3; k++) {
+                double flat = statics[m][k];
+                if (k == P && !(flat >= 1.0)) flat = maxParallel[m];
+                if (!(flat > 0.0)) flat = 1.0;
+                double[] rule = rules[m][k];
+                double[] out = bonus[m][k];
+                for (int t = 0; t < C; t++) {
+                    for (int mt = 0; mt <= t; mt++) {
+                        double v = flat;
+                        if (rule != null) {
+                            v = rule[0] + rule[1] * ((rule[4] != 0.0) ? (t - mt) : t);
+                            if (!Double.isNaN(rule[2])) v = Math.max(v, rule[2]);
+                            if (!Double.isNaN(rule[3])) v = Math.min(v, rule[3]);
+                        }
+                        if (k == P) {
+                            double cap = maxParallel[m];
+                            if (cap >= 1.0) v = Math.min(v, cap);
+                            v = Math.max(1.0, Math.floor(v));
+                        } else if (!(v > 0.0)) {
+                            v = 1.0;
+                        }
+                        out[t * C + mt] = v;
+                    }
+                }
+            }
+        }
+    }
+
+    /** The rows of tier {@code t}: every recipe whose min tier is at or below it. */
+    public Columns tier(int t, Columns reuse) {
+        prepare();
+        int n = eut.length;
+        Columns c = (reuse != null && reuse.recipe.length >= n) ? reuse : new Columns(n);
+        c.tier = t;
+        c.size = 0;
+        for (int r = 0; r < n; r++) add(c, r, t);
+        return c;
+    }
+
+    /**
+     * Appends recipe {@code r} at tier {@code t} as a row of {@code c} (which needs room for it);
+     * false, and nothing added, when the recipe has no min tier or does not run at that tier.
+     */
+    public boolean row(Columns c, int r, int t) {
+        prepare();
+        return add(c, r, t);
+    }
+
+    private boolean add(Columns c, int r, int t) {
+        int mt = minTier[r];
+        if (mt < 0 || mt > t || eut[r] <= 0 || duration[r] <= 0) return false;
+        int cell = t * C + mt;
+        double[][] b = bonus[machine[r]];
+
+        long available = VoltageTiers.voltage(t) * amps[r];
+        long one = Math.max(1L, (long) Math.ceil(eut[r] * b[E][cell]));
+        long par = Math.max(1L, Math.min((long) b[P][cell], available / one));
+        long e = one * par;
+        int d = (int) Math.max(1.0, Math.floor(duration[r] / b[S][cell]));
+
+        int i = c.size++;
+        c.recipe[i] = r;
+        c.parallel[i] = (int) Math.min(Integer.MAX_VALUE, par);
+        overclock(c, i, STANDARD, e, d, available, 2);
+        overclock(c, i, PERFECT, e, d, available, 4);
+        return true;
+    }
+
+    private void overclock(Columns c, int i, int mode, long e, int d, long available, int divisor) {
+        while (e <= available / 4 && d > 1) {
+            e *= 4;
+            d = Math.max(1, d / divisor);
+        }
+        int r = c.recipe[i];
+        double crafts = c.parallel[i] * 20.0 / d;
+        double items = itemsPerCraft[r];
+        c.eut[mode][i] = e;
+        c.duration[mode][i] = d;
+        c.itemsPerSecond[mode][i] = crafts * items;
+        c.euPerItem[mode][i] = (items > 0.0) ? (double) e * d / (c.parallel[i] * items) : Double.NaN;
+    }
+
+    /** One tier's rows; the per-mode arrays are indexed [STANDARD or PERFECT][row]. */
+    public static final class Columns {
+        public int tier;
+        public int size;
+        public final int[] recipe;
+        public final int[] parallel;
+        public final long[][] eut;
+        public final int[][] duration;
+        public final double[][] itemsPerSecond;
+        public final double[][] euPerItem; // NaN when the recipe outputs no items
+
+        public Columns(int capacity) {
+            recipe = new int[capacity];
+            parallel = new int[capacity];
+            eut = new long[][] {new long[capacity], new long[capacity]};
+            duration = new int[][] {new int[capacity], new int[capacity]};
+            itemsPerSecond = new double[][] {new double[capacity], new double[capacity]};
+            euPerItem = new double[][] {new double[capacity], new double[capacity]};
+        }
+    }
+}
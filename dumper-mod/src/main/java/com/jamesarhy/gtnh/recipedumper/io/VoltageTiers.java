@@ -0,0 +1,59 @@
+package com.jamesarhy.gtnh.recipedumper.io;
+
+/**
+ * The GTNH voltage tiers, ULV to MAX, with their voltages (EU/t of one amp) as longs. Shared by
+ * the dump (a recipe's minTier) and the readers, so both agree on tier order and caps.
+ */
+public final class VoltageTiers {
+
+    public static final String[] NAMES = new String[] {
+            "ULV", "LV", "MV", "HV", "EV", "IV", "LuV", "ZPM", "UV",
+            "UHV", "UEV", "UIV", "UMV", "UXV", "MAX"
+    };
+
+    /** 8 * 4^tier, except MAX, which GT caps just below Integer.MAX_VALUE. */
+    private static final long[] VOLTAGES = new long[NAMES.length];
+
+    static {
+        long v = 8L;
+        for (int t = 0; t < NAMES.length; t++, v *= 4L) VOLTAGES[t] = v;
+        VOLTAGES[NAMES.length - 1] = Integer.MAX_VALUE - 7;
+    }
+
+    public static final int COUNT = NAMES.length;
+    public static final int MAX = COUNT - 1;
+
+    private VoltageTiers() {
+    }
+
+    public static String name(int tier) {
+        return NAMES[tier];
+    }
+
+    public static long voltage(int tier) {
+        return VOLTAGES[tier];
+    }
+
+    /** Ordinal of {@code name}, or -1 when it is not a tier name. */
+    public static int ordinal(String name) {
+        if (name == null) return -1;
+        for (int t = 0; t < NAMES.length; t++) {
+            if (NAMES[t].equals(name)) return t;
+        }
+        return -1;
+    }
+
+    /** Lowest tier whose voltage covers {@code eut}; MAX (at several amps) for anything above it. */
+    public static int minTier(long eut) {
+        for (int t = 0; t < MAX; t++) {
+            if (eut <= VOLTAGES[t]) return t;
+        }
+        return MAX;
+    }
+
+    /** Amps of {@code tier} needed to supply {@code eut}, at least 1. */
+    public static long amps(long eut, int tier) {
+        long v = VOLTAGES[tier];
+        return Math.max(1L, (eut + v - 1) / v);
+    }
+}
@@ -0,0 +1,326 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import java.util.Arrays;
+
+/**
+ * Cheapest way to make every node of a {@link RecipeGraph}, for every node in one pass.
+ *
+ * The graph is an AND/OR graph: a node is made by any one of its producers (OR), a recipe needs
+ * all of its inputs (AND). The cost of making a node with recipe R is
+ * <pre>
+ *   (euWeight * eut * duration + tickWeight * duration + sum(input amount * input cost)) / output amount
+ * </pre>
+ * with the output amount chance-weighted (see {@link RecipeGraph}); byproducts are not credited.
+ * Base costs are given per node (per item, or per mB of fluid): {@link #setBaseCost} overrides,
+ * else {@link Options#itemCost} / {@link Options#fluidCost} for source nodes (nothing produces
+ * them). Wildcard and ore keys cost what their cheapest item costs.
+ *
+ * Solved as Knuth's generalization of Dijkstra: nodes leave a heap cheapest first, and a recipe is
+ * evaluated once every input has a cost. When each recipe costs at least as much as any of its
+ * inputs every node leaves the heap once. Recipes that split an input into several outputs
+ * (1 log, 4 planks) can break that, so a node whose cost still drops after it left the heap is
+ * queued again, as in a label-correcting search.
+ *
+ * Changing base costs afterwards ({@link #updateBaseCosts}) resets only the nodes whose cheapest
+ * route went through a changed node, recomputes them from their producers and propagates from
+ * there. Not thread safe.
+ */
+public final class MinCost {
+
+    private static final double INF = Double.POSITIVE_INFINITY;
+    /** A new cost must beat the old one by this fraction, so cycles that gain settle. */
+    private static final double EPSILON = 1e-9;
+
+    public static final class Options {
+        public double euWeight = 1.0;
+        public double tickWeight = 0.0;
+        /** Highest recipe min tier to use (RecipeIndex tier ordinal); recipes without a tier always run. */
+        public int maxTier = RecipeIndex.UNKNOWN_TIER;
+        public double itemCost = 0.0;
+        public double fluidCost = 0.0;
+    }
+
+    private final RecipeGraph graph;
+    private final Options options;
+    private final double[] recipeCost; // own cost of one craft, NaN when above maxTier
+    private final double[] base;       // override per node, NaN when none
+    private final double[] cost;
+    private final int[] best;          // recipe the cost comes from, -1 for a base cost or none
+    private final int[] bestItem;      // item a wildcard / ore node's cost comes from, or -1
+    private final int[] missing;       // recipe -> inputs without a cost yet
+    private final Heap heap;
+
+    private long pops;
+    private long evaluations;
+    private int invalidated;
+    private long millis;
+
+    public MinCost(RecipeGraph graph, Options options) {
+        this.graph = graph;
+        this.options = options;
+        RecipeIndex index = graph.index();
+        int n = graph.nodeCount();
+        recipeCost = new double[graph.recipeCount()];
+        for (int r = 0; r < recipeCost.length; r++) {
+            int t = index.tierOf(r);
+            if (t < RecipeIndex.UNKNOWN_TIER && t > options.maxTier) {
+                recipeCost[r] = Double.NaN;
+                continue;
+            }
+            double eut = Math.max(0L, index.dump().eut(r));
+            double ticks = Math.max(0, index.dump().durationTicks(r));
+            recipeCost[r] = options.euWeight * eut * ticks + options.tickWeight * ticks;
+        }
+        base = new double[n];
+        Arrays.fill(base, Double.NaN);
+        cost = new double[n];
+        best = new int[n];
+        bestItem = new int[n];
+        missing = new int[recipeCost.length];
+        heap = new Heap(Math.max(16, n));
+    }
+
+    public RecipeGraph graph() {
+        return graph;
+    }
+
+    /** Fixes a node's cost per unit (NaN clears it); takes effect on the next solve or update. */
+    public void setBaseCost(int node, double c) {
+        base[node] = c;
+    }
+
+    /** Computes every node's cost from scratch. */
+    public void solve() {
+        long start = System.currentTimeMillis();
+        pops = 0;
+        evaluations = 0;
+        invalidated = 0;
+        Arrays.fill(cost, INF);
+        Arrays.fill(best, -1);
+        Arrays.fill(bestItem, -1);
+        for (int r = 0; r < missing.length; r++) missing[r] = graph.inputCount(r);
+        heap.clear();
+        for (int x = 0; x < cost.length; x++) {
+            double b = baseCost(x);
+            if (!Double.isNaN(b)) set(x, b, -1, -1);
+        }
+        for (int r = 0; r < missing.length; r++) {
+            if (missing[r] == 0) fire(r);
+        }
+        drain();
+        millis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Sets the base cost of {@code nodes} to {@code costs} (NaN clears an override) and brings
+     * every cost up to date. Needs a previous {@link #solve}.
+     */
+    public void updateBaseCosts(int[] nodes, double[] costs) {
+        long start = System.currentTimeMillis();
+        pops = 0;
+        evaluations = 0;
+        heap.clear();
+
+        // Everything whose cheapest route runs through a changed node.
+        boolean[] reset = new boolean[cost.length];
+        int[] stack = new int[cost.length];
+        int top = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            base[nodes[i]] = costs[i];
+            if (!reset[nodes[i]]) {
+                reset[nodes[i]] = true;
+                stack[top++] = nodes[i];
+            }
+        }
+        int count = 0;
+        int[] order = new int[cost.length];
+        while (top > 0) {
+            int x = stack[--top];
+            order[count++] = x;
+            for (int e = graph.aliasPtr[x]; e < graph.aliasPtr[x + 1]; e++) {
+                int a = graph.aliasNode[e];
+                if (!reset[a] && bestItem[a] == x) {
+                    reset[a] = true;
+                    stack[top++] = a;
+                }
+            }
+            for (int c = graph.consPtr[x]; c < graph.consPtr[x + 1]; c++) {
+                int r = graph.consRecipe[c];
+                for (int e = graph.outPtr[r]; e < graph.outPtr[r + 1]; e++) {
+                    int o = graph.outNode[e];
+                    if (!reset[o] && best[o] == r) {
+                        reset[o] = true;
+                        stack[top++] = o;
+                    }
+                }
+            }
+        }
+        invalidated = count;
+        for (int i = 0; i < count; i++) clear(order[i]);
+
+        // Re-seed them from their base cost, producers and items, then propagate as usual.
+        for (int i = 0; i < count; i++) {
+            int x = order[i];
+            double b = baseCost(x);
+            if (!Double.isNaN(b)) offer(x, b, -1, -1);
+            for (int p = graph.prodPtr[x]; p < graph.prodPtr[x + 1]; p++) {
+                int r = graph.prodRecipe[p];
+                if (missing[r] != 0 || Double.isNaN(recipeCost[r])) continue;
+                double total = craftCost(r);
+                for (int e = graph.outPtr[r]; e < graph.outPtr[r + 1]; e++) {
+                    if (graph.outNode[e] == x) offer(x, total / graph.outQty[e], r, -1);
+                }
+            }
+            for (int e = graph.heldPtr[x]; e < graph.heldPtr[x + 1]; e++) {
+                int item = graph.heldNode[e];
+                offer(x, cost[item], -1, item);
+            }
+        }
+        drain();
+        millis = System.currentTimeMillis() - start;
+    }
+
+    /* ---------- Results ---------- */
+
+    /** Cost of one unit of the node, or infinity when it cannot be made. */
+    public double cost(int node) { return cost[node]; }
+
+    /** Recipe the node's cost comes from, or -1 (base cost, via an item, or unobtainable). */
+    public int bestRecipe(int node) { return best[node]; }
+
+    /** For a wildcard or ore node: the item its cost comes from, or -1. */
+    public int bestItem(int node) { return bestItem[node]; }
+
+    public boolean isBase(int node) {
+        return cost[node] < INF && best[node] < 0 && bestItem[node] < 0;
+    }
+
+    /** Own cost of one craft of the recipe (energy and time, no inputs); NaN when above maxTier. */
+    public double recipeCost(int recipe) { return recipeCost[recipe]; }
+
+    public double baseCost(int node) {
+        if (!Double.isNaN(base[node])) return base[node];
+        if (!graph.isSource(node)) return Double.NaN;
+        return (graph.kind(node) == RecipeGraph.KIND_FLUID) ? options.fluidCost : options.itemCost;
+    }
+
+    /** Heap pops of the last solve or update. */
+    public long pops() { return pops; }
+    /** Recipe evaluations of the last solve or update. */
+    public long evaluations() { return evaluations; }
+    /** Nodes reset by the last update (0 after a solve). */
+    public int invalidated() { return invalidated; }
+    public long millis() { return millis; }
+
+    /* ---------- Search ---------- */
+
+    private void drain() {
+        while (heap.size() > 0) {
+            double d = heap.minKey();
+            int x = heap.pop();
+            if (d > cost[x]) continue; // stale entry
+            pops++;
+            for (int e = graph.aliasPtr[x]; e < graph.aliasPtr[x + 1]; e++) offer(graph.aliasNode[e], d, -1, x);
+            for (int c = graph.consPtr[x]; c < graph.consPtr[x + 1]; c++) {
+                int r = graph.consRecipe[c];
+                if (missing[r] == 0) fire(r);
+            }
+        }
+    }
+
+    private void fire(int r) {
+        if (Double.isNaN(recipeCost[r])) return;
+        evaluations++;
+        double total = craftCost(r);
+        for (int e = graph.outPtr[r]; e < graph.outPtr[r + 1]; e++) offer(graph.outNode[e], total / graph.outQty[e], r, -1);
+    }
+
+    /** One craft: the recipe's own cost plus its inputs at their current cost. */
+    private double craftCost(int r) {
+        double total = recipeCost[r];
+        for (int e = graph.inPtr[r]; e < graph.inPtr[r + 1]; e++) {
+            if (graph.inQty[e] > 0) total += graph.inQty[e] * cost[graph.inNode[e]];
+        }
+        return total;
+    }
+
+    private void offer(int x, double c, int recipe, int item) {
+        double old = cost[x];
+        if (!(c < old) || (old < INF && old - c <= EPSILON * old)) return;
+        set(x, c, recipe, item);
+    }
+
+    private void set(int x, double c, int recipe, int item) {
+        if (cost[x] == INF) {
+            for (int i = graph.consPtr[x]; i < graph.consPtr[x + 1]; i++) missing[graph.consRecipe[i]]--;
+        }
+        cost[x] = c;
+        best[x] = recipe;
+        bestItem[x] = item;
+        heap.push(c, x);
+    }
+
+    private void clear(int x) {
+        if (cost[x] < INF) {
+            for (int i = graph.consPtr[x]; i < graph.consPtr[x + 1]; i++) missing[graph.consRecipe[i]]++;
+        }
+        cost[x] = INF;
+        best[x] = -1;
+        bestItem[x] = -1;
+    }
+
+    /** Binary min-heap of (cost, node); entries are never decreased, stale ones are skipped on pop. */
+    private static final class Heap {
+        private double[] keys;
+        private int[] nodes;
+        private int size;
+
+        Heap(int capacity) {
+            keys = new double[capacity];
+            nodes = new int[capacity];
+        }
+
+        int size() { return size; }
+        double minKey() { return keys[0]; }
+
+        void clear() {
+            size = 0;
+        }
+
+        void push(double key, int node) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) break;
+                keys[i] = keys[parent];
+                nodes[i] = nodes[parent];
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+        }
+
+        int pop() {
+            int out = nodes[0];
+            double key = keys[--size];
+            int node = nodes[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) break;
+                if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+                if (keys[child] >= key) break;
+                keys[i] = keys[child];
+                nodes[i] = nodes[child];
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            return out;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+import com.jamesarhy.gtnh.recipedumper.io.IntArrayList;
+import com.jamesarhy.gtnh.recipedumper.io.ThroughputTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rate planner: given target rates (items or mB per second), how fast each recipe of the chain
+ * has to run, how many machines of which tier that takes, what has to be brought in, what is
+ * left over and the total EU/t.
+ *
+ * Each node of the chain is made by one recipe: the caller's choice, else the cheapest one from
+ * {@link MinCost}; nodes without one (raw resources, or marked import) are imported. Wildcard and
+ * ore inputs are made as one concrete item, chosen the same way. The rates then solve the sparse
+ * system, one row per made node,
+ * <pre>
+ *   sum over chain recipes of (output - input per craft) * crafts per second  &gt;=  target
+ * </pre>
+ * for the least rates, by projected Gauss-Seidel: each recipe in turn runs just fast enough to
+ * cover what its nodes still lack (never below 0). Recipes are visited consumers first, so a
+ * chain without loops is solved in one sweep; loops (catalysts, recycling) converge over further
+ * sweeps. Byproducts of one recipe that another needs lower the rate of that other one.
+ *
+ * Machines come from {@link ThroughputTable} (flat machine bonuses of the dump's maps, standard or
+ * perfect overclocks) at the plan's tier, or the recipe's min tier when that is higher. Recipes
+ * without a tier (crafting, smelting) get no machine count.
+ */
+public final class ProductionPlanner {
+
+    /** Choice value: import the node instead of making it. */
+    public static final int IMPORT = -1;
+
+    public static final class Options {
+        /** Machine tier (RecipeIndex tier ordinal); -1 runs each recipe at its own min tier. */
+        public int tier = -1;
+        public boolean perfect = false;
+        public int maxSweeps = 10000;
+        /** Sweeps stop when no rate moves by more than this fraction. */
+        public double tolerance = 1e-9;
+    }
+
+    private final RecipeGraph graph;
+    private final MinCost costs;
+    private final BinaryDump dump;
+    private final ThroughputTable throughput;
+    private final byte[] minTier;
+
+    /** {@code costs} (may be null) picks recipes for nodes the caller leaves open. */
+    public ProductionPlanner(RecipeGraph graph, MinCost costs) {
+        this.graph = graph;
+        this.costs = costs;
+        this.dump = graph.index().dump();
+        int n = dump.recipeCount();
+        long[] eut = new long[n];
+        int[] duration = new int[n];
+        int[] amps = new int[n];
+        double[] itemsPerCraft = new double[n];
+        int[] machine = new int[n];
+        minTier = new byte[n];
+        Arrays.fill(machine, dump.mapCount());
+        for (int m = 0; m < dump.mapCount(); m++) {
+            for (int r = dump.mapFirstRecipe(m); r < dump.mapFirstRecipe(m) + dump.mapRecipeCount(m); r++) machine[r] = m;
+        }
+        for (int r = 0; r < n; r++) {
+            eut[r] = dump.eut(r);
+            duration[r] = dump.durationTicks(r);
+            int t = graph.index().tierOf(r);
+            minTier[r] = (byte) ((t < RecipeIndex.UNKNOWN_TIER) ? t : -1);
+            amps[r] = dump.has(r, BinaryDump.RF_AMPS) ? Math.max(1, dump.ampsAtMinTier(r)) : 1;
+            for (int i = 0; i < graph.outputCount(r); i++) {
+                if (graph.kind(graph.outputNode(r, i)) != RecipeGraph.KIND_FLUID) itemsPerCraft[r] += graph.outputQty(r, i);
+            }
+        }
+        throughput = new ThroughputTable(eut, duration, minTier, amps, itemsPerCraft, machine, dump.mapCount() + 1);
+        for (int m = 0; m < dump.mapCount(); m++) {
+            throughput.setBonuses(m, bonus(m, BinaryDump.BONUS_PARALLEL), bonus(m, BinaryDump.BONUS_MAX_PARALLEL),
+                    bonus(m, BinaryDump.BONUS_SPEED), bonus(m, BinaryDump.BONUS_EFFICIENCY));
+        }
+    }
+
+    public RecipeGraph graph() {
+        return graph;
+    }
+
+    private double bonus(int map, int b) {
+        return dump.hasMapBonus(map, b) ? dump.mapBonus(map, b) : Double.NaN;
+    }
+
+    /**
+     * Plans {@code rates[i]} per second of {@code targets[i]}. {@code choices} maps node
+     * (Integer) to a recipe index, {@link #IMPORT}, or for wildcard and ore nodes the item node
+     * that stands in for them; it may be null. A recipe must output its node and an item must be
+     * held by its alias ({@link RecipeGraph#produces}, {@link RecipeGraph#holds}); anything else
+     * is imported, so callers taking choices from users should reject those first.
+     */
+    public Plan plan(int[] targets, double[] rates, Map choices, Options o) {
+        long start = System.currentTimeMillis();
+        int n = graph.nodeCount();
+        Plan p = new Plan(graph);
+        double[] target = new double[n];
+        for (int i = 0; i < targets.length; i++) target[targets[i]] += rates[i];
+
+        // Chain: recipes reachable from the targets through the chosen producers.
+        int[] jOf = new int[dump.recipeCount()];
+        Arrays.fill(jOf, -1);
+        int[] madeBy = new int[n]; // node -> chain recipe, or -1
+        Arrays.fill(madeBy, -1);
+        boolean[] seen = new boolean[n];
+        IntArrayList recipes = new IntArrayList();
+        List primaries = new ArrayList(); // chain recipe -> IntArrayList of the nodes it is chosen for
+        IntArrayList inPtr = new IntArrayList();
+        IntArrayList inNode = new IntArrayList();
+        inPtr.add(0);
+        int[] stk = Arrays.copyOf(targets, Math.max(16, targets.length));
+        int top = targets.length;
+        while (top > 0) {
+            int x = stk[--top];
+            if (seen[x]) continue;
+            seen[x] = true;
+            int r = choose(x, choices);
+            if (r < 0) continue;
+            int j = jOf[r];
+            if (j < 0) {
+                j = recipes.size();
+                jOf[r] = j;
+                recipes.add(r);
+                primaries.add(new IntArrayList());
+                for (int e = 0; e < graph.inputCount(r); e++) {
+                    if (graph.inputQty(r, e) <= 0) continue; // not consumed
+                    int in = resolve(graph.inputNode(r, e), choices);
+                    inNode.add(in);
+                    if (top == stk.length) stk = Arrays.copyOf(stk, stk.length * 2 + 16);
+                    stk[top++] = in;
+                }
+                inPtr.add(inNode.size());
+            }
+            ((IntArrayList) primaries.get(j)).add(x);
+            madeBy[x] = j;
+        }
+
+        int m = recipes.size();
+        int[] rec = recipes.toArray();
+        int[] ip = inPtr.toArray();
+        int[] in = inNode.toArray();
+
+        // Per craft: the resolved inputs (as in[] above) and net amount of each node the recipe is chosen for.
+        double[] inQty = new double[in.length];
+        for (int j = 0; j < m; j++) {
+            int k = ip[j];
+            for (int e = 0; e < graph.inputCount(rec[j]); e++) {
+                if (graph.inputQty(rec[j], e) > 0) inQty[k++] = graph.inputQty(rec[j], e);
+            }
+        }
+        int[][] prim = new int[m][];
+        double[][] coef = new double[m][];
+        for (int j = 0; j < m; j++) {
+            prim[j] = ((IntArrayList) primaries.get(j)).toArray();
+            coef[j] = new double[prim[j].length];
+            for (int k = 0; k < prim[j].length; k++) coef[j][k] = netPerCraft(rec[j], ip[j], ip[j + 1], in, inQty, prim[j][k]);
+        }
+
+        // Consumers before producers: reverse postorder of chain recipe -> recipes making its inputs.
+        int[] order = new int[m];
+        int filled = m;
+        byte[] state = new byte[m];
+        int[] walk = new int[m];
+        int[] edge = new int[m];
+        for (int root = 0; root < m; root++) {
+            if (state[root] != 0) continue;
+            int depth = 0;
+            walk[0] = root;
+            edge[0] = ip[root];
+            state[root] = 1;
+            while (depth >= 0) {
+                int j = walk[depth];
+                if (edge[depth] < ip[j + 1]) {
+                    int k = madeBy[in[edge[depth]++]];
+                    if (k >= 0 && state[k] == 0) {
+                        state[k] = 1;
+                        walk[++depth] = k;
+                        edge[depth] = ip[k];
+                    }
+                } else {
+                    state[j] = 2;
+                    order[--filled] = j;
+                    depth--;
+                }
+            }
+        }
+
+        // net[x] = made - used - target; each recipe runs just fast enough to bring its nodes to 0.
+        double[] rate = new double[m];
+        double[] net = new double[n];
+        for (int x = 0; x < n; x++) net[x] = -target[x];
+        int sweeps = 0;
+        boolean converged = false;
+        while (!converged && sweeps < o.maxSweeps) {
+            sweeps++;
+            converged = true;
+            for (int k = 0; k < m; k++) {
+                int j = order[k];
+                double want = 0.0;
+                for (int i = 0; i < prim[j].length; i++) {
+                    if (coef[j][i] > 0.0) want = Math.max(want, rate[j] - net[prim[j][i]] / coef[j][i]);
+                }
+                double delta = want - rate[j];
+                if (delta == 0.0) continue;
+                if (Math.abs(delta) > o.tolerance * Math.max(want, rate[j])) converged = false;
+                rate[j] = want;
+                int r = rec[j];
+                for (int e = graph.outPtr[r]; e < graph.outPtr[r + 1]; e++) net[graph.outNode[e]] += delta * graph.outQty[e];
+                for (int e = ip[j]; e < ip[j + 1]; e++) net[in[e]] -= delta * inQty[e];
+            }
+        }
+
+        // Machines, EU/t, imports and surplus.
+        ThroughputTable.Columns c = new ThroughputTable.Columns(1);
+        int mode = o.perfect ? ThroughputTable.PERFECT : ThroughputTable.STANDARD;
+        p.recipe = rec;
+        p.rate = rate;
+        p.primaries = prim;
+        p.tier = new int[m];
+        p.parallel = new int[m];
+        p.machines = new double[m];
+        p.eutPerMachine = new long[m];
+        for (int j = 0; j < m; j++) {
+            int r = rec[j];
+            int t = (minTier[r] < 0) ? -1 : Math.max(o.tier, minTier[r]);
+            p.tier[j] = t;
+            p.machines[j] = Double.NaN;
+            c.size = 0;
+            if (t < 0 || !throughput.row(c, r, t)) continue;
+            double craftsPerMachine = c.parallel[0] * 20.0 / c.duration[mode][0];
+            p.parallel[j] = c.parallel[0];
+            p.machines[j] = rate[j] / craftsPerMachine;
+            p.eutPerMachine[j] = c.eut[mode][0];
+            p.totalEut += p.machines[j] * c.eut[mode][0];
+        }
+        IntArrayList imports = new IntArrayList();
+        IntArrayList surplus = new IntArrayList();
+        for (int x = 0; x < n; x++) {
+            // Rounding leaves made nodes a hair off 0; anything short beyond that is brought in.
+            double slack = Math.max(1e-12, o.tolerance * Math.max(Math.abs(net[x]), target[x]));
+            if (net[x] < -slack) imports.add(x);
+            else if (net[x] > slack) surplus.add(x);
+        }
+        p.net = net;
+        p.imports = imports.toArray();
+        p.surplus = surplus.toArray();
+        p.sweeps = sweeps;
+        p.converged = converged;
+        p.millis = System.currentTimeMillis() - start;
+        return p;
+    }
+
+    /** Recipe for a node, or -1 to import it. */
+    private int choose(int x, Map choices) {
+        Integer c = (choices == null) ? null : (Integer) choices.get(new Integer(x));
+        if (c != null) return (graph.isAlias(x) || c.intValue() < 0 || !graph.produces(c.intValue(), x)) ? IMPORT : c.intValue();
+        if (costs == null || graph.isAlias(x)) return IMPORT;
+        int r = costs.bestRecipe(x);
+        return (r >= 0 && graph.produces(r, x)) ? r : IMPORT;
+    }
+
+    /** The concrete item made for a wildcard or ore input; other nodes as they are. */
+    private int resolve(int x, Map choices) {
+        if (!graph.isAlias(x)) return x;
+        Integer c = (choices == null) ? null : (Integer) choices.get(new Integer(x));
+        if (c != null && c.intValue() >= 0 && graph.holds(x, c.intValue())) return c.intValue();
+        if (costs != null && costs.bestItem(x) >= 0) return costs.bestItem(x);
+        int[] held = graph.held(x);
+        return (held.length > 0) ? held[0] : x;
+    }
+
+    private double netPerCraft(int r, int from, int to, int[] in, double[] inQty, int x) {
+        double v = 0.0;
+        for (int i = 0; i < graph.outputCount(r); i++) {
+            if (graph.outputNode(r, i) == x) v += graph.outputQty(r, i);
+        }
+        for (int e = from; e < to; e++) {
+            if (in[e] == x) v -= inQty[e];
+        }
+        return v;
+    }
+
+    /** A solved plan; per-recipe arrays are indexed by chain position. */
+    public static final class Plan {
+        private final RecipeGraph graph;
+        int[] recipe;
+        double[] rate;
+        int[][] primaries;
+        int[] tier;
+        int[] parallel;
+        double[] machines;
+        long[] eutPerMachine;
+        double[] net;
+        int[] imports;
+        int[] surplus;
+        double totalEut;
+        int sweeps;
+        boolean converged;
+        long millis;
+
+        Plan(RecipeGraph graph) {
+            this.graph = graph;
+        }
+
+        public int recipeCount() { return recipe.length; }
+        public int recipe(int j) { return recipe[j]; }
+        /** Crafts per second. */
+        public double rate(int j) { return rate[j]; }
+        /** Nodes the recipe was chosen to make. */
+        public int[] madeFor(int j) { return primaries[j]; }
+        /** Tier the machines run at, or -1 for recipes without one. */
+        public int tier(int j) { return tier[j]; }
+        public int parallel(int j) { return parallel[j]; }
+        /** Machines running full time (fractional), NaN for recipes without a tier. */
+        public double machines(int j) { return machines[j]; }
+        public long eutPerMachine(int j) { return eutPerMachine[j]; }
+
+        /** Nodes brought in from outside; {@link #netRate} is negative for them. */
+        public int[] imports() { return imports; }
+        /** Nodes made beyond their target (byproducts). */
+        public int[] surplus() { return surplus; }
+        /** Made minus used minus target, per second. */
+        public double netRate(int node) { return net[node]; }
+
+        /** Average EU/t of every machine of the plan. */
+        public double totalEut() { return totalEut; }
+        public int sweeps() { return sweeps; }
+        public boolean converged() { return converged; }
+        public long millis() { return millis; }
+        public RecipeGraph graph() { return graph; }
+    }
+}
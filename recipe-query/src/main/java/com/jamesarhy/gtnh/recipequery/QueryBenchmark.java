@@ -0,0 +1,241 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.google.gson.JsonObject;
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Latency / throughput benchmark over a workload sampled from the loaded dump.
+ *
+ * The workload mixes item and fluid producer/consumer lookups, machine listings and tier
+ * scans, with keys drawn uniformly from the index (fixed seed, so runs are comparable).
+ * It is replayed once in-process, which measures the index alone, and optionally over
+ * localhost HTTP with several client threads, which adds JSON rendering and the socket.
+ *
+ * {@link #runMatch} benchmarks {@link RecipeMatcher} over the full recipe set instead: every
+ * recipe becomes an inventory holding its own inputs (a few times over) plus another recipe's
+ * inputs as noise, and the match must find the source recipe.
+ */
+public final class QueryBenchmark {
+
+    public static final class Options {
+        public int queries = 20000;
+        public int warmup = 2000;
+        public int threads = 4;
+        public long seed = 42L;
+        public boolean http = true;
+        public int limit = RecipeQueries.DEFAULT_LIMIT;
+    }
+
+    private QueryBenchmark() {}
+
+    public static void run(RecipeIndex index, Options o) throws Exception {
+        List workload = workload(index, o.queries + o.warmup, o.seed, o.limit);
+        RecipeQueries queries = new RecipeQueries(index);
+
+        for (int i = 0; i < o.warmup; i++) queries.run((Map) workload.get(i));
+        long[] lat = new long[o.queries];
+        long start = System.nanoTime();
+        for (int i = 0; i < o.queries; i++) {
+            long t = System.nanoTime();
+            JsonObject r = queries.run((Map) workload.get(o.warmup + i));
+            lat[i] = System.nanoTime() - t;
+            if (r.has("error")) throw new IllegalStateException("Benchmark query failed: " + r);
+        }
+        report("in-process", lat, System.nanoTime() - start);
+
+        if (!o.http) return;
+        QueryServer server = new QueryServer(index);
+        server.start(QueryServer.DEFAULT_HOST, 0, o.threads);
+        try {
+            httpPhase(server.port(), workload, o);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static void httpPhase(final int port, final List workload, final Options o) throws Exception {
+        final List urls = new ArrayList();
+        for (int i = 0; i < workload.size(); i++) urls.add(url(port, (Map) workload.get(i)));
+        for (int i = 0; i < o.warmup; i++) get((String) urls.get(i));
+
+        final long[] lat = new long[o.queries];
+        final Throwable[] failure = new Throwable[1];
+        Thread[] workers = new Thread[Math.max(1, o.threads)];
+        long start = System.nanoTime();
+        for (int w = 0; w < workers.length; w++) {
+            final int offset = w;
+            final int stride = workers.length;
+            workers[w] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        for (int i = offset; i < o.queries; i += stride) {
+                            long t = System.nanoTime();
+                            get((String) urls.get(o.warmup + i));
+                            lat[i] = System.nanoTime() - t;
+                        }
+                    } catch (Throwable t) {
+                        synchronized (failure) {
+                            failure[0] = t;
+                        }
+                    }
+                }
+            }, "recipequery-bench-" + w);
+            workers[w].start();
+        }
+        for (int w = 0; w < workers.length; w++) workers[w].join();
+        long elapsed = System.nanoTime() - start;
+        if (failure[0] != null) throw new IOException("HTTP benchmark failed", failure[0]);
+        report("http x" + workers.length, lat, elapsed);
+    }
+
+    public static void runMatch(RecipeMatcher matcher, Options o) {
+        BinaryDump d = matcher.index().dump();
+        int n = d.recipeCount();
+        Random rnd = new Random(o.seed);
+        RecipeMatcher.Inventory[] invs = new RecipeMatcher.Inventory[n];
+        for (int r = 0; r < n; r++) {
+            int copies = 1 + rnd.nextInt(4);
+            RecipeMatcher.Inventory inv = new RecipeMatcher.Inventory();
+            addInputs(d, r, copies, inv);
+            int mi = d.findMap(d.machineId(r));
+            if (mi >= 0 && d.mapRecipeCount(mi) > 1) {
+                addInputs(d, d.mapFirstRecipe(mi) + rnd.nextInt(d.mapRecipeCount(mi)), 1, inv);
+            }
+            if (d.has(r, BinaryDump.RF_CIRCUIT) && rnd.nextInt(5) != 0) inv.circuit = new Integer(d.circuitConfig(r));
+            invs[r] = inv;
+        }
+
+        for (int i = 0; i < Math.min(o.warmup, n); i++) matcher.match(d.machineId(i), invs[i], 0);
+        long[] lat = new long[n];
+        long matches = 0;
+        int missed = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < n; r++) {
+            String machine = d.machineId(r);
+            long t = System.nanoTime();
+            List found = matcher.match(machine, invs[r], 0);
+            lat[r] = System.nanoTime() - t;
+            matches += found.size();
+            if (!contains(found, r)) missed++;
+        }
+        report("match", lat, System.nanoTime() - start);
+        System.out.println("[recipequery] match: " + String.format("%.1f", new Object[] {new Double(n == 0 ? 0 : (double) matches / n)})
+                + " matches per inventory, source recipe missed " + missed + " times");
+    }
+
+    private static void addInputs(BinaryDump d, int r, int copies, RecipeMatcher.Inventory inv) {
+        for (int s = d.itemInputStart(r); s < d.itemInputStart(r) + d.itemInputCount(r); s++) {
+            inv.addItem(d.itemId(s), d.itemMeta(s), Math.max(1, d.itemCount(s)) * (long) copies);
+        }
+        for (int s = d.fluidInputStart(r); s < d.fluidInputStart(r) + d.fluidInputCount(r); s++) {
+            inv.addFluid(d.fluidId(s), Math.max(1, d.fluidMb(s)) * (long) copies);
+        }
+    }
+
+    private static boolean contains(List matches, int recipe) {
+        for (int i = 0; i < matches.size(); i++) {
+            if (((RecipeMatcher.Match) matches.get(i)).recipe == recipe) return true;
+        }
+        return false;
+    }
+
+    static List workload(RecipeIndex index, int n, long seed, int limit) {
+        Random rnd = new Random(seed);
+        String[] machines = machineIds(index);
+        List out = new ArrayList(n);
+        for (int i = 0; i < n; i++) {
+            Map q = new HashMap();
+            int kind = rnd.nextInt(10);
+            if (kind < 4 && index.itemKeyCount() > 0) {
+                int k = rnd.nextInt(index.itemKeyCount());
+                q.put("op", (kind < 2) ? "producers" : "consumers");
+                q.put("item", index.itemKeyId(k));
+                q.put("meta", String.valueOf(index.itemKeyMeta(k)));
+            } else if (kind < 6 && index.fluidKeyCount() > 0) {
+                int k = rnd.nextInt(index.fluidKeyCount());
+                q.put("op", (kind < 5) ? "producers" : "consumers");
+                q.put("fluid", index.fluidKeyId(k));
+            } else if (kind < 9 && machines.length > 0) {
+                q.put("op", "machine");
+                q.put("machine", machines[rnd.nextInt(machines.length)]);
+                q.put("tier", RecipeIndex.TIERS[rnd.nextInt(RecipeIndex.TIERS.length)]);
+            } else {
+                q.put("op", "tier");
+                q.put("tier", RecipeIndex.TIERS[rnd.nextInt(4)]);
+            }
+            q.put("limit", String.valueOf(limit));
+            out.add(q);
+        }
+        return out;
+    }
+
+    private static String[] machineIds(RecipeIndex index) {
+        int n = index.dump().mapCount();
+        List ids = new ArrayList();
+        for (int m = 0; m < n; m++) {
+            String id = index.dump().mapMachineId(m);
+            if (id != null && !ids.contains(id)) ids.add(id);
+        }
+        return (String[]) ids.toArray(new String[ids.size()]);
+    }
+
+    private static String url(int port, Map q) throws IOException {
+        StringBuilder sb = new StringBuilder("http://" + QueryServer.DEFAULT_HOST + ":" + port + "/" + q.get("op") + "?");
+        boolean first = true;
+        for (Iterator it = q.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            if ("op".equals(e.getKey())) continue;
+            if (!first) sb.append('&');
+            first = false;
+            sb.append(URLEncoder.encode((String) e.getKey(), "UTF-8")).append('=')
+                    .append(URLEncoder.encode((String) e.getValue(), "UTF-8"));
+        }
+        return sb.toString();
+    }
+
+    private static void get(String url) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) new URL(url).openConnection();
+        int status = c.getResponseCode();
+        InputStream in = (status < 400) ? c.getInputStream() : c.getErrorStream();
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) > 0) buf.write(chunk, 0, n);
+        in.close(); // keep-alive: the connection goes back to the pool
+        if (status != 200) throw new IOException("HTTP " + status + " for " + url + ": " + buf.toString("UTF-8"));
+    }
+
+    private static void report(String label, long[] latNanos, long elapsedNanos) {
+        long[] sorted = (long[]) latNanos.clone();
+        Arrays.sort(sorted);
+        double qps = sorted.length / (elapsedNanos / 1e9);
+        System.out.println("[recipequery] " + label + ": " + sorted.length + " queries, "
+                + String.format("%.0f", new Object[] {new Double(qps)}) + " q/s, p50 " + micros(pct(sorted, 0.50))
+                + ", p90 " + micros(pct(sorted, 0.90)) + ", p99 " + micros(pct(sorted, 0.99))
+                + ", max " + micros(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    private static long pct(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, i))];
+    }
+
+    private static String micros(long nanos) {
+        return String.format("%.1f us", new Object[] {new Double(nanos / 1000.0)});
+    }
+}
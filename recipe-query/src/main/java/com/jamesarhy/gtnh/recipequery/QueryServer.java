@@ -0,0 +1,391 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.jamesarhy.gtnh.recipedumper.io.NameIndex;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Localhost HTTP/JSON front end for {@link RecipeQueries}, on the JDK's built-in server.
+ *
+ * <pre>
+ *   GET  /producers?item=...&amp;meta=...&amp;tier=...   (or fluid=...)
+ *   GET  /consumers?item=...                     (or fluid=...)
+ *   GET  /machine?machine=...&amp;tier=...
+ *   GET  /tier?tier=HV
+ *   GET  /recipe?rid=...
+ *   POST /batch   [{"op":"producers","item":"..."}, ...]  -&gt;  [result, ...]
+ *   POST /match   {"machine":..., "items":[...], "fluids":[...], "circuit":n}  (or an array of them)
+ *   POST /reach   {"items":[...], "fluids":[...], "nodes":[...], "raw":bool, "report":[...]}  (or an array)
+ *   GET  /reach?item=...&amp;meta=...                (or fluid=..., node=...; earliest tier from raw resources)
+ *   GET  /cost?item=...&amp;meta=...&amp;limit=20        (or fluid=..., node=...; cheapest route)
+ *   POST /cost    {"costs": {nodeId: cost or null}, "report": [...]}  (changes base costs)
+ *   POST /plan    {"targets": {nodeId: perSecond}, "choices": {...}, "tier": "HV"}  (recipe rates, machines)
+ *   GET  /search?q=...&amp;kind=item,fluid&amp;limit=20   (needs names.tri, see {@link #setNameIndex})
+ *   GET  /stats
+ * </pre>
+ * Every recipe query endpoint also takes {@code limit} and {@code full}.
+ */
+public final class QueryServer {
+
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final int DEFAULT_PORT = 8765;
+    private static final int MAX_BATCH = 10000;
+
+    private static final Gson GSON = new GsonBuilder().disableHtmlEscaping().create();
+
+    private final RecipeIndex index;
+    private final RecipeQueries queries;
+    private final RecipeMatcher matcher;
+    private NameIndex names;
+    private Reachability reach;         // built on the first /reach
+    private Reachability.Result rawReach;
+    private MinCost costs;              // solved on the first /cost, updated in place by POST
+    private ProductionPlanner planner;  // picks recipes from costs
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public QueryServer(RecipeIndex index) {
+        this.index = index;
+        this.queries = new RecipeQueries(index);
+        this.matcher = new RecipeMatcher(index);
+    }
+
+    /** Enables {@code /search}; without a name index the endpoint answers 404. */
+    public void setNameIndex(NameIndex names) {
+        this.names = names;
+    }
+
+    public void start(String host, int port, int threads) throws IOException {
+        // The JDK server writes headers and body separately; without TCP_NODELAY every small
+        // response waits out the client's delayed ACK (~40 ms).
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        String[] ops = new String[] {"producers", "consumers", "machine", "tier", "recipe"};
+        for (int i = 0; i < ops.length; i++) server.createContext("/" + ops[i], new QueryHandler(ops[i]));
+        server.createContext("/batch", new BatchHandler());
+        server.createContext("/match", new MatchHandler());
+        server.createContext("/reach", new ReachHandler());
+        server.createContext("/cost", new CostHandler());
+        server.createContext("/plan", new PlanHandler());
+        server.createContext("/search", new SearchHandler());
+        server.createContext("/stats", new StatsHandler());
+        executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /** Actual bound port (useful when started on port 0). */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (executor != null) executor.shutdownNow();
+    }
+
+    /* ---------- Handlers ---------- */
+
+    private final class QueryHandler implements HttpHandler {
+        private final String op;
+
+        QueryHandler(String op) {
+            this.op = op;
+        }
+
+        public void handle(HttpExchange ex) throws IOException {
+            try {
+                Map params = parseQuery(ex.getRequestURI().getRawQuery());
+                params.put("op", op);
+                JsonObject result = queries.run(params);
+                send(ex, result.has("error") ? 400 : 200, result);
+            } catch (Throwable t) {
+                sendError(ex, t);
+            }
+        }
+    }
+
+    private final class BatchHandler implements HttpHandler {
+        public void handle(HttpExchange ex) throws IOException {
+            try {
+                if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+                    send(ex, 405, errorJson("POST a JSON array of queries"));
+                    return;
+                }
+                JsonElement body = JsonParser.parseString(readBody(ex.getRequestBody()));
+                if (!body.isJsonArray()) {
+                    send(ex, 400, errorJson("Body must be a JSON array"));
+                    return;
+                }
+                JsonArray in = body.getAsJsonArray();
+                if (in.size() > MAX_BATCH) {
+                    send(ex, 400, errorJson("Batch too large (max " + MAX_BATCH + ")"));
+                    return;
+                }
+                JsonArray out = new JsonArray();
+                for (int i = 0; i < in.size(); i++) {
+                    JsonElement q = in.get(i);
+                    if (!q.isJsonObject()) {
+                        out.add(errorJson("Query must be an object"));
+                        continue;
+                    }
+                    out.add(queries.run(toParams(q.getAsJsonObject())));
+                }
+                send(ex, 200, out);
+            } catch (Throwable t) {
+                sendError(ex, t);
+            }
+        }
+    }
+
+    private final class MatchHandler implements HttpHandler {
+        public void handle(HttpExchange ex) throws IOException {
+            try {
+                if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+                    send(ex, 405, errorJson("POST an inventory object or an array of them"));
+                    return;
+                }
+                JsonElement body = JsonParser.parseString(readBody(ex.getRequestBody()));
+                if (body.isJsonObject()) {
+                    JsonObject result = queries.match(matcher, body.getAsJsonObject());
+                    send(ex, result.has("error") ? 400 : 200, result);
+                    return;
+                }
+                if (!body.isJsonArray() || body.getAsJsonArray().size() > MAX_BATCH) {
+                    send(ex, 400, errorJson("Body must be an object or an array of at most " + MAX_BATCH));
+                    return;
+                }
+                JsonArray in = body.getAsJsonArray();
+                JsonArray out = new JsonArray();
+                for (int i = 0; i < in.size(); i++) {
+                    JsonElement q = in.get(i);
+                    out.add(q.isJsonObject() ? queries.match(matcher, q.getAsJsonObject()) : errorJson("Inventory must be an object"));
+                }
+                send(ex, 200, out);
+            } catch (Throwable t) {
+                sendError(ex, t);
+            }
+        }
+    }
+
+    private final class ReachHandler implements HttpHandler {
+        public void handle(HttpExchange ex) throws IOException {
+            try {
+                Reachability r = reachability();
+                if ("GET".equalsIgnoreCase(ex.getRequestMethod())) {
+                    JsonObject result = RecipeQueries.earliest(r.graph(), rawReachability(), parseQuery(ex.getRequestURI().getRawQuery()));
+                    send(ex, result.has("error") ? 400 : 200, result);
+                    return;
+                }
+                if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+                    send(ex, 405, errorJson("GET a node or POST an inventory object or an array of them"));
+                    return;
+                }
+                JsonElement body = JsonParser.parseString(readBody(ex.getRequestBody()));
+                if (body.isJsonObject()) {
+                    send(ex, 200, RecipeQueries.reach(r, body.getAsJsonObject()));
+                    return;
+                }
+                if (!body.isJsonArray() || body.getAsJsonArray().size() > MAX_BATCH) {
+                    send(ex, 400, errorJson("Body must be an object or an array of at most " + MAX_BATCH));
+                    return;
+                }
+                JsonArray in = body.getAsJsonArray();
+                JsonArray out = new JsonArray();
+                for (int i = 0; i < in.size(); i++) {
+                    JsonElement q = in.get(i);
+                    out.add(q.isJsonObject() ? RecipeQueries.reach(r, q.getAsJsonObject()) : errorJson("Inventory must be an object"));
+                }
+                send(ex, 200, out);
+            } catch (Throwable t) {
+                sendError(ex, t);
+            }
+        }
+    }
+
+    private synchronized Reachability reachability() {
+        if (reach == null) reach = new Reachability(new RecipeGraph(index));
+        return reach;
+    }
+
+    private synchronized Reachability.Result rawReachability() {
+        if (rawReach == null) rawReach = reachability().run(new int[0], true);
+        return rawReach;
+    }
+
+    private final class CostHandler implements HttpHandler {
+        public void handle(HttpExchange ex) throws IOException {
+            try {
+                MinCost c = minCost();
+                JsonObject result;
+                if ("GET".equalsIgnoreCase(ex.getRequestMethod())) {
+                    Map params = parseQuery(ex.getRequestURI().getRawQuery());
+                    synchronized (c) {
+                        result = RecipeQueries.cost(c, params);
+                    }
+                } else if ("POST".equalsIgnoreCase(ex.getRequestMethod())) {
+                    JsonElement body = JsonParser.parseString(readBody(ex.getRequestBody()));
+                    if (!body.isJsonObject()) {
+                        send(ex, 400, errorJson("Body must be an object"));
+                        return;
+                    }
+                    synchronized (c) {
+                        result = RecipeQueries.setCosts(c, body.getAsJsonObject());
+                    }
+                } else {
+                    send(ex, 405, errorJson("GET a node or POST base costs"));
+                    return;
+                }
+                send(ex, result.has("error") ? 400 : 200, result);
+            } catch (Throwable t) {
+                sendError(ex, t);
+            }
+        }
+    }
+
+    private synchronized MinCost minCost() {
+        if (costs == null) {
+            costs = new MinCost(reachability().graph(), new MinCost.Options());
+            costs.solve();
+        }
+        return costs;
+    }
+
+    private final class PlanHandler implements HttpHandler {
+        public void handle(HttpExchange ex) throws IOException {
+            try {
+                if (!"POST".equalsIgnoreCase(ex.getRequestMethod())) {
+                    send(ex, 405, errorJson("POST a plan request"));
+                    return;
+                }
+                JsonElement body = JsonParser.parseString(readBody(ex.getRequestBody()));
+                if (!body.isJsonObject()) {
+                    send(ex, 400, errorJson("Body must be an object"));
+                    return;
+                }
+                ProductionPlanner p = planner();
+                JsonObject result;
+                synchronized (minCost()) {
+                    result = RecipeQueries.plan(p, body.getAsJsonObject());
+                }
+                send(ex, result.has("error") ? 400 : 200, result);
+            } catch (Throwable t) {
+                sendError(ex, t);
+            }
+        }
+    }
+
+    private synchronized ProductionPlanner planner() {
+        if (planner == null) planner = new ProductionPlanner(reachability().graph(), minCost());
+        return planner;
+    }
+
+    private final class SearchHandler implements HttpHandler {
+        public void handle(HttpExchange ex) throws IOException {
+            try {
+                if (names == null) {
+                    send(ex, 404, errorJson("No name index loaded (" + NameIndex.FILE_NAME + " not found next to the dump)"));
+                    return;
+                }
+                JsonObject result = RecipeQueries.search(names, parseQuery(ex.getRequestURI().getRawQuery()));
+                send(ex, result.has("error") ? 400 : 200, result);
+            } catch (Throwable t) {
+                sendError(ex, t);
+            }
+        }
+    }
+
+    private final class StatsHandler implements HttpHandler {
+        public void handle(HttpExchange ex) throws IOException {
+            JsonObject o = new JsonObject();
+            o.addProperty("recipes", new Integer(index.recipeCount()));
+            o.addProperty("maps", new Integer(index.dump().mapCount()));
+            o.addProperty("itemKeys", new Integer(index.itemKeyCount()));
+            o.addProperty("fluidKeys", new Integer(index.fluidKeyCount()));
+            o.addProperty("indexBuildMillis", new Long(index.buildMillis()));
+            if (reach != null) o.addProperty("graphBuildMillis", new Long(reach.graph().buildMillis()));
+            if (names != null) o.addProperty("nameEntries", new Integer(names.entryCount()));
+            o.addProperty("generatedAt", index.dump().generatedAt());
+            send(ex, 200, o);
+        }
+    }
+
+    /* ---------- Helpers ---------- */
+
+    private static void send(HttpExchange ex, int status, JsonElement body) throws IOException {
+        byte[] bytes = GSON.toJson(body).getBytes("UTF-8");
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        OutputStream os = ex.getResponseBody();
+        try {
+            os.write(bytes);
+        } finally {
+            os.close();
+        }
+    }
+
+    private static void sendError(HttpExchange ex, Throwable t) throws IOException {
+        send(ex, 500, errorJson(t.getClass().getSimpleName() + ": " + t.getMessage()));
+    }
+
+    private static JsonObject errorJson(String message) {
+        JsonObject o = new JsonObject();
+        o.addProperty("error", message);
+        return o;
+    }
+
+    static Map toParams(JsonObject q) {
+        Map out = new HashMap();
+        for (Iterator it = q.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            JsonElement v = (JsonElement) e.getValue();
+            if (v instanceof JsonPrimitive) out.put(e.getKey(), v.getAsString());
+        }
+        return out;
+    }
+
+    static Map parseQuery(String raw) throws UnsupportedEncodingException {
+        Map out = new HashMap();
+        if (raw == null || raw.length() == 0) return out;
+        String[] parts = raw.split("&");
+        for (int i = 0; i < parts.length; i++) {
+            String p = parts[i];
+            int eq = p.indexOf('=');
+            String key = (eq < 0) ? p : p.substring(0, eq);
+            String value = (eq < 0) ? "true" : p.substring(eq + 1);
+            out.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+        return out;
+    }
+
+    private static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        int n;
+        while ((n = in.read(chunk)) > 0) buf.write(chunk, 0, n);
+        return buf.toString("UTF-8");
+    }
+}
@@ -0,0 +1,191 @@
+package com.jamesarhy.gtnh.recipequery;
+
+/**
+ * Forward chaining over a {@link RecipeGraph}: which nodes can be obtained, and from which
+ * voltage tier on, starting from a set of held nodes.
+ *
+ * Every tier is solved at once. A node carries a bit mask with bit T set when it is obtainable
+ * using only recipes whose min tier is at most T; a recipe runs in the tiers of its own mask
+ * (its min tier and above; every tier for recipes without one, e.g. crafting) that all its
+ * inputs share, and adds those bits to its outputs. Masks only grow, so a worklist of nodes
+ * whose mask changed reaches the fixpoint; each node is requeued at most once per tier. A
+ * node's earliest tier is its lowest bit.
+ *
+ * Seeds are held at every tier: an inventory, and with {@code raw} every source node (nothing
+ * produces it: ores, mob drops, pumped fluids, which the game provides). Holding an item also
+ * holds the wildcard and ore keys it satisfies.
+ */
+public final class Reachability {
+
+    /** Bits of every tier, ULV..MAX. */
+    public static final int ALL_TIERS = (1 << RecipeIndex.TIERS.length) - 1;
+
+    private final RecipeGraph graph;
+    private final short[] tierMask; // recipe -> tiers it may run at
+
+    public Reachability(RecipeGraph graph) {
+        this.graph = graph;
+        RecipeIndex index = graph.index();
+        tierMask = new short[graph.recipeCount()];
+        for (int r = 0; r < tierMask.length; r++) {
+            int t = index.tierOf(r);
+            tierMask[r] = (short) ((t >= RecipeIndex.TIERS.length) ? ALL_TIERS : ALL_TIERS & ~((1 << t) - 1));
+        }
+    }
+
+    public RecipeGraph graph() {
+        return graph;
+    }
+
+    /** Runs the fixpoint from {@code seeds} (node ids), plus every source node when {@code raw}. */
+    public Result run(int[] seeds, boolean raw) {
+        long start = System.currentTimeMillis();
+        int n = graph.nodeCount();
+        Result res = new Result(n, tierMask.length);
+        short[] node = res.nodeMask;
+        short[] fired = res.recipeMask;
+        int[] queue = new int[n + 1];
+        boolean[] queued = new boolean[n];
+        int head = 0;
+        int tail = 0;
+
+        for (int i = 0; i < seeds.length; i++) {
+            int s = seeds[i];
+            if (s < 0 || s >= n || node[s] != 0) continue;
+            node[s] = (short) ALL_TIERS;
+            res.seeded[s] = true;
+            queue[tail++] = s;
+            queued[s] = true;
+        }
+        if (raw) {
+            for (int s = 0; s < n; s++) {
+                if (node[s] != 0 || !graph.isSource(s)) continue;
+                node[s] = (short) ALL_TIERS;
+                queue[tail++] = s;
+                queued[s] = true;
+            }
+        }
+        // Recipes without inputs (pumps, drills, void miners) run from the start.
+        for (int r = 0; r < tierMask.length; r++) {
+            if (graph.inPtr[r] != graph.inPtr[r + 1]) continue;
+            fired[r] = tierMask[r];
+            for (int e = graph.outPtr[r]; e < graph.outPtr[r + 1]; e++) {
+                int o = graph.outNode[e];
+                int add = tierMask[r] & ~node[o];
+                if (add == 0) continue;
+                node[o] |= add;
+                if (!queued[o]) {
+                    queue[tail] = o;
+                    tail = (tail + 1) % queue.length;
+                    queued[o] = true;
+                }
+            }
+        }
+
+        long pops = 0;
+        while (head != tail) {
+            int x = queue[head];
+            head = (head + 1) % queue.length;
+            queued[x] = false;
+            pops++;
+            int mask = node[x];
+
+            for (int e = graph.aliasPtr[x]; e < graph.aliasPtr[x + 1]; e++) {
+                int a = graph.aliasNode[e];
+                int add = mask & ~node[a];
+                if (add == 0) continue;
+                node[a] |= add;
+                if (!queued[a]) {
+                    queue[tail] = a;
+                    tail = (tail + 1) % queue.length;
+                    queued[a] = true;
+                }
+            }
+
+            for (int c = graph.consPtr[x]; c < graph.consPtr[x + 1]; c++) {
+                int r = graph.consRecipe[c];
+                int runs = tierMask[r] & mask & ~fired[r];
+                for (int e = graph.inPtr[r]; runs != 0 && e < graph.inPtr[r + 1]; e++) runs &= node[graph.inNode[e]];
+                if (runs == 0) continue;
+                fired[r] |= runs;
+                for (int e = graph.outPtr[r]; e < graph.outPtr[r + 1]; e++) {
+                    int o = graph.outNode[e];
+                    int add = runs & ~node[o];
+                    if (add == 0) continue;
+                    node[o] |= add;
+                    if (!queued[o]) {
+                        queue[tail] = o;
+                        tail = (tail + 1) % queue.length;
+                        queued[o] = true;
+                    }
+                }
+            }
+        }
+        res.pops = pops;
+        res.millis = System.currentTimeMillis() - start;
+        return res;
+    }
+
+    /** Node and recipe tier masks of one run. */
+    public static final class Result {
+        final short[] nodeMask;
+        final short[] recipeMask;
+        final boolean[] seeded;
+        long pops;
+        long millis;
+
+        Result(int nodes, int recipes) {
+            nodeMask = new short[nodes];
+            recipeMask = new short[recipes];
+            seeded = new boolean[nodes];
+        }
+
+        /** Lowest tier at which the node is obtainable, or -1 when it is not. */
+        public int earliestTier(int node) {
+            return lowestBit(nodeMask[node]);
+        }
+
+        /** Lowest tier at which the recipe can run, or -1 when its inputs are never all obtainable. */
+        public int recipeEarliestTier(int recipe) {
+            return lowestBit(recipeMask[recipe]);
+        }
+
+        public boolean reachable(int node, int tier) {
+            return (nodeMask[node] & (1 << tier)) != 0;
+        }
+
+        public boolean seeded(int node) {
+            return seeded[node];
+        }
+
+        /** Obtainable nodes per tier (index = tier ordinal). */
+        public int[] reachableCounts() {
+            int[] out = new int[RecipeIndex.TIERS.length];
+            for (int i = 0; i < nodeMask.length; i++) {
+                for (int t = 0; t < out.length; t++) {
+                    if ((nodeMask[i] & (1 << t)) != 0) out[t]++;
+                }
+            }
+            return out;
+        }
+
+        /** Runnable recipes per tier (index = tier ordinal). */
+        public int[] runnableCounts() {
+            int[] out = new int[RecipeIndex.TIERS.length];
+            for (int i = 0; i < recipeMask.length; i++) {
+                for (int t = 0; t < out.length; t++) {
+                    if ((recipeMask[i] & (1 << t)) != 0) out[t]++;
+                }
+            }
+            return out;
+        }
+
+        /** Node pops from the worklist. */
+        public long pops() { return pops; }
+        public long millis() { return millis; }
+
+        private static int lowestBit(short mask) {
+            return (mask == 0) ? -1 : Integer.numberOfTrailingZeros(mask & 0xffff);
+        }
+    }
+}
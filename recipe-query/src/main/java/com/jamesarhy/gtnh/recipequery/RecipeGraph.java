@@ -0,0 +1,290 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+import com.jamesarhy.gtnh.recipedumper.io.IntArrayList;
+import com.jamesarhy.gtnh.recipedumper.io.LongArrayList;
+
+import java.util.Arrays;
+
+/**
+ * The dump as a directed hypergraph: nodes are the index's item keys followed by its fluid keys,
+ * each recipe an edge from its input nodes to its output nodes. Built once from a
+ * {@link RecipeIndex}, all as primitive CSR arrays:
+ * <pre>
+ *   inPtr/inNode/inQty      recipe -&gt; distinct input nodes, amounts summed (count or mB; 0 for
+ *                           inputs that are not consumed)
+ *   outPtr/outNode/outQty   recipe -&gt; distinct output nodes, expected amount per craft (chance
+ *                           applied); outputs that can never drop are left out
+ *   consPtr/consRecipe      node -&gt; recipes that need it
+ *   prodPtr/prodRecipe      node -&gt; recipes that output it
+ *   aliasPtr/aliasNode      item node -&gt; the input nodes it also satisfies: the wildcard-meta
+ *                           (32767) key of its id and the "ore:" keys of its ore names
+ *   heldPtr/heldNode        wildcard or ore node -&gt; the item nodes that satisfy it
+ * </pre>
+ * Holding an item therefore holds its aliases too, as GT's input check treats them.
+ */
+public final class RecipeGraph {
+
+    public static final int KIND_ITEM = 0;
+    public static final int KIND_FLUID = 1;
+    public static final int KIND_ORE = 2;
+
+    private final RecipeIndex index;
+    private final BinaryDump dump;
+    private final int itemNodes;
+    private final int nodeCount;
+
+    final int[] inPtr;
+    final int[] inNode;
+    final long[] inQty;
+    final int[] outPtr;
+    final int[] outNode;
+    final double[] outQty;
+    final int[] consPtr;
+    final int[] consRecipe;
+    final int[] prodPtr;
+    final int[] prodRecipe;
+    final int[] aliasPtr;
+    final int[] aliasNode;
+    final int[] heldPtr;
+    final int[] heldNode;
+    private final long buildMillis;
+
+    public RecipeGraph(RecipeIndex index) {
+        long start = System.currentTimeMillis();
+        this.index = index;
+        this.dump = index.dump();
+        itemNodes = index.itemKeyCount();
+        nodeCount = itemNodes + index.fluidKeyCount();
+        int recipes = dump.recipeCount();
+
+        // Recipe -> inputs / outputs, duplicates within a recipe merged.
+        int[] node = new int[16];
+        long[] inAmount = new long[16];
+        double[] outAmount = new double[16];
+        inPtr = new int[recipes + 1];
+        outPtr = new int[recipes + 1];
+        IntArrayList inN = new IntArrayList();
+        LongArrayList inQ = new LongArrayList();
+        IntArrayList outN = new IntArrayList();
+        LongArrayList outQ = new LongArrayList(); // double bits
+        for (int r = 0; r < recipes; r++) {
+            int n = Math.max(dump.itemInputCount(r) + dump.fluidInputCount(r), dump.itemOutputCount(r) + dump.fluidOutputCount(r));
+            if (node.length < n) {
+                node = new int[n * 2];
+                inAmount = new long[n * 2];
+                outAmount = new double[n * 2];
+            }
+            int c = 0;
+            for (int s = dump.itemInputStart(r); s < dump.itemInputStart(r) + dump.itemInputCount(r); s++) {
+                c = addIn(node, inAmount, c, index.itemKeyIndex(dump.itemIdRef(s), dump.itemMeta(s)), dump.itemCount(s));
+            }
+            for (int s = dump.fluidInputStart(r); s < dump.fluidInputStart(r) + dump.fluidInputCount(r); s++) {
+                c = addIn(node, inAmount, c, itemNodes + index.fluidKeyIndex(dump.fluidIdRef(s)), dump.fluidMb(s));
+            }
+            for (int i = 0; i < c; i++) {
+                inN.add(node[i]);
+                inQ.add(inAmount[i]);
+            }
+            inPtr[r + 1] = inN.size();
+
+            c = 0;
+            for (int s = dump.itemOutputStart(r); s < dump.itemOutputStart(r) + dump.itemOutputCount(r); s++) {
+                double chance = dump.itemChance(s);
+                double qty = dump.itemCount(s) * (Double.isNaN(chance) ? 1.0 : chance);
+                if (qty > 0.0) c = addOut(node, outAmount, c, index.itemKeyIndex(dump.itemIdRef(s), dump.itemMeta(s)), qty);
+            }
+            for (int s = dump.fluidOutputStart(r); s < dump.fluidOutputStart(r) + dump.fluidOutputCount(r); s++) {
+                if (dump.fluidMb(s) > 0) c = addOut(node, outAmount, c, itemNodes + index.fluidKeyIndex(dump.fluidIdRef(s)), dump.fluidMb(s));
+            }
+            for (int i = 0; i < c; i++) {
+                outN.add(node[i]);
+                outQ.add(Double.doubleToLongBits(outAmount[i]));
+            }
+            outPtr[r + 1] = outN.size();
+        }
+        inNode = inN.toArray();
+        inQty = inQ.toArray();
+        outNode = outN.toArray();
+        outQty = new double[outQ.size()];
+        for (int i = 0; i < outQty.length; i++) outQty[i] = Double.longBitsToDouble(outQ.get(i));
+
+        int[][] csr = invert(inPtr, inNode, nodeCount);
+        consPtr = csr[0];
+        consRecipe = csr[1];
+        csr = invert(outPtr, outNode, nodeCount);
+        prodPtr = csr[0];
+        prodRecipe = csr[1];
+
+        // Item -> wildcard and ore keys it satisfies, when some recipe has them as inputs.
+        IntArrayList from = new IntArrayList();
+        IntArrayList to = new IntArrayList();
+        int[] oreNode = new int[dump.dictionarySize()];
+        Arrays.fill(oreNode, -2);
+        boolean[] seen = new boolean[itemNodes];
+        for (int s = 0; s < dump.itemStackCount(); s++) {
+            int k = index.itemKeyIndex(dump.itemIdRef(s), dump.itemMeta(s));
+            if (seen[k]) continue;
+            seen[k] = true;
+            if (dump.itemMeta(s) != RecipeMatcher.WILDCARD_META) {
+                int w = index.itemKeyIndex(dump.itemIdRef(s), RecipeMatcher.WILDCARD_META);
+                if (w >= 0 && consPtr[w + 1] > consPtr[w]) {
+                    from.add(k);
+                    to.add(w);
+                }
+            }
+            for (int o = 0; o < dump.itemOreCount(s); o++) {
+                int nameRef = dump.itemOreRef(s, o);
+                if (oreNode[nameRef] == -2) {
+                    int ref = dump.findString("ore:" + dump.string(nameRef));
+                    oreNode[nameRef] = (ref < 0) ? -1 : index.itemKeyIndex(ref, 0);
+                }
+                int ore = oreNode[nameRef];
+                if (ore >= 0 && ore != k && consPtr[ore + 1] > consPtr[ore]) {
+                    from.add(k);
+                    to.add(ore);
+                }
+            }
+        }
+        aliasPtr = new int[nodeCount + 1];
+        int[] f = from.toArray();
+        for (int i = 0; i < f.length; i++) aliasPtr[f[i] + 1]++;
+        for (int i = 0; i < nodeCount; i++) aliasPtr[i + 1] += aliasPtr[i];
+        aliasNode = new int[f.length];
+        int[] fill = Arrays.copyOf(aliasPtr, nodeCount);
+        int[] t = to.toArray();
+        for (int i = 0; i < f.length; i++) aliasNode[fill[f[i]]++] = t[i];
+        csr = invert(aliasPtr, aliasNode, nodeCount);
+        heldPtr = csr[0];
+        heldNode = csr[1];
+
+        buildMillis = System.currentTimeMillis() - start;
+    }
+
+    public RecipeIndex index() { return index; }
+    public int nodeCount() { return nodeCount; }
+    public int recipeCount() { return inPtr.length - 1; }
+    public long buildMillis() { return buildMillis; }
+
+    /* ---------- Nodes ---------- */
+
+    public int kind(int node) {
+        if (node >= itemNodes) return KIND_FLUID;
+        return dump.string(index.itemKeyIdRef(node)).startsWith("ore:") ? KIND_ORE : KIND_ITEM;
+    }
+
+    /** The node's id: "item:modid:name@meta", "ore:name" or "fluid:name", as in recipe_graph.csr. */
+    public String nodeId(int node) {
+        if (node >= itemNodes) return index.fluidKeyId(node - itemNodes);
+        String id = index.itemKeyId(node);
+        return id.startsWith("ore:") ? id : id + "@" + index.itemKeyMeta(node);
+    }
+
+    /** Node of an item id and meta (an "ore:" id takes meta 0), or -1. */
+    public int findItem(String id, int meta) {
+        int ref = dump.findString(id);
+        return (ref < 0) ? -1 : index.itemKeyIndex(ref, meta);
+    }
+
+    public int findFluid(String id) {
+        int ref = dump.findString(id);
+        if (ref < 0) return -1;
+        int k = index.fluidKeyIndex(ref);
+        return (k < 0) ? -1 : itemNodes + k;
+    }
+
+    /** Node of a {@link #nodeId} string; "item:...@meta", "ore:..." or "fluid:...". -1 when unknown. */
+    public int findNode(String nodeId) {
+        if (nodeId == null) return -1;
+        if (nodeId.startsWith("fluid:")) return findFluid(nodeId);
+        if (nodeId.startsWith("ore:")) return findItem(nodeId, 0);
+        int at = nodeId.lastIndexOf('@');
+        if (at < 0) return findItem(nodeId, 0);
+        try {
+            return findItem(nodeId.substring(0, at), Integer.parseInt(nodeId.substring(at + 1)));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    public int[] producers(int node) { return Arrays.copyOfRange(prodRecipe, prodPtr[node], prodPtr[node + 1]); }
+    public int[] consumers(int node) { return Arrays.copyOfRange(consRecipe, consPtr[node], consPtr[node + 1]); }
+
+    /** Items that satisfy a wildcard or ore node (empty for other nodes). */
+    public int[] held(int node) { return Arrays.copyOfRange(heldNode, heldPtr[node], heldPtr[node + 1]); }
+
+    /** True when {@code item} satisfies the wildcard or ore node {@code alias}. */
+    public boolean holds(int alias, int item) {
+        for (int e = heldPtr[alias]; e < heldPtr[alias + 1]; e++) {
+            if (heldNode[e] == item) return true;
+        }
+        return false;
+    }
+
+    /** True for nodes nothing produces: raw resources (mined, pumped, dropped) or unobtainable. */
+    public boolean isSource(int node) {
+        return prodPtr[node] == prodPtr[node + 1] && !isAlias(node);
+    }
+
+    /** True for wildcard and ore keys, which are held through the items they stand for. */
+    public boolean isAlias(int node) {
+        if (node >= itemNodes) return false;
+        return index.itemKeyMeta(node) == RecipeMatcher.WILDCARD_META || kind(node) == KIND_ORE;
+    }
+
+    /* ---------- Recipes ---------- */
+
+    public int inputCount(int r) { return inPtr[r + 1] - inPtr[r]; }
+    public int inputNode(int r, int i) { return inNode[inPtr[r] + i]; }
+    public long inputQty(int r, int i) { return inQty[inPtr[r] + i]; }
+    public int outputCount(int r) { return outPtr[r + 1] - outPtr[r]; }
+    public int outputNode(int r, int i) { return outNode[outPtr[r] + i]; }
+    public double outputQty(int r, int i) { return outQty[outPtr[r] + i]; }
+
+    /** True when recipe {@code r} outputs {@code node}. */
+    public boolean produces(int r, int node) {
+        for (int e = outPtr[r]; e < outPtr[r + 1]; e++) {
+            if (outNode[e] == node) return true;
+        }
+        return false;
+    }
+
+    /* ---------- Build helpers ---------- */
+
+    private static int addIn(int[] node, long[] amount, int count, int n, long qty) {
+        for (int i = 0; i < count; i++) {
+            if (node[i] == n) {
+                amount[i] += qty;
+                return count;
+            }
+        }
+        node[count] = n;
+        amount[count] = qty;
+        return count + 1;
+    }
+
+    private static int addOut(int[] node, double[] amount, int count, int n, double qty) {
+        for (int i = 0; i < count; i++) {
+            if (node[i] == n) {
+                amount[i] += qty;
+                return count;
+            }
+        }
+        node[count] = n;
+        amount[count] = qty;
+        return count + 1;
+    }
+
+    /** row -&gt; nodes CSR (recipe -&gt; nodes, node -&gt; aliases) turned into node -&gt; rows, rows ascending. */
+    private static int[][] invert(int[] ptr, int[] nodes, int nodeCount) {
+        int[] out = new int[nodeCount + 1];
+        for (int i = 0; i < nodes.length; i++) out[nodes[i] + 1]++;
+        for (int i = 0; i < nodeCount; i++) out[i + 1] += out[i];
+        int[] recipes = new int[nodes.length];
+        int[] fill = Arrays.copyOf(out, nodeCount);
+        for (int r = 0; r + 1 < ptr.length; r++) {
+            for (int e = ptr[r]; e < ptr[r + 1]; e++) recipes[fill[nodes[e]]++] = r;
+        }
+        return new int[][] {out, recipes};
+    }
+}
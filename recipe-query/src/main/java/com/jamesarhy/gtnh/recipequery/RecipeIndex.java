@@ -0,0 +1,358 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+import com.jamesarhy.gtnh.recipedumper.io.VoltageTiers;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * In-memory query indexes over a memory-mapped {@code recipes.bin}.
+ *
+ * Recipe data stays in the mapping; only the lookup structures live on the heap, all as
+ * primitive arrays:
+ * <pre>
+ *   itemKeys  long[]  sorted (idRef &lt;&lt; 32 | meta), with CSR producer / consumer recipe lists
+ *   fluidKeys int[]   sorted idRef, with CSR producer / consumer recipe lists
+ *   byTier    int[]   recipes ordered by min tier; tierPtr[t] .. tierPtr[t + 1] run at tier t,
+ *                     untiered recipes (UNKNOWN_TIER) last
+ *   recipeTier byte[] tier ordinal per recipe
+ * </pre>
+ * Machine lookups use the dump's own machineId index. Every query returns recipe indices.
+ */
+public final class RecipeIndex {
+
+    /**
+     * GT voltage tiers in order; "fits tier T" means minTier ordinal &lt;= T. With {@code untiered}
+     * the queries also count recipes without a min tier as fitting every tier, the rule
+     * Reachability and MinCost use for crafting and smelting.
+     */
+    public static final String[] TIERS = VoltageTiers.NAMES;
+    /** Bucket for recipes whose min tier is missing or not in {@link #TIERS}. */
+    public static final int UNKNOWN_TIER = TIERS.length;
+
+    private static final int[] NONE = new int[0];
+
+    private final BinaryDump dump;
+    private final long[] itemKeys;
+    private final int[] itemProdPtr;
+    private final int[] itemProdRecipe;
+    private final int[] itemConsPtr;
+    private final int[] itemConsRecipe;
+    private final int[] fluidKeys;
+    private final int[] fluidProdPtr;
+    private final int[] fluidProdRecipe;
+    private final int[] fluidConsPtr;
+    private final int[] fluidConsRecipe;
+    private final byte[] recipeTier;
+    private final int[] tierPtr;
+    private final int[] byTier;
+    private final long buildMillis;
+
+    private RecipeIndex(BinaryDump dump) {
+        long start = System.currentTimeMillis();
+        this.dump = dump;
+        int recipeCount = dump.recipeCount();
+
+        // Item keys: every distinct (id, meta) seen in any stack.
+        long[] keys = new long[dump.itemStackCount()];
+        for (int s = 0; s < keys.length; s++) keys[s] = itemKey(dump.itemIdRef(s), dump.itemMeta(s));
+        itemKeys = uniqueSorted(keys);
+        int[][] prod = new int[2][];
+        int[][] cons = new int[2][];
+        buildItemAdjacency(prod, true);
+        buildItemAdjacency(cons, false);
+        itemProdPtr = prod[0];
+        itemProdRecipe = prod[1];
+        itemConsPtr = cons[0];
+        itemConsRecipe = cons[1];
+
+        int[] fk = new int[dump.fluidStackCount()];
+        for (int s = 0; s < fk.length; s++) fk[s] = dump.fluidIdRef(s);
+        fluidKeys = uniqueSorted(fk);
+        buildFluidAdjacency(prod, true);
+        buildFluidAdjacency(cons, false);
+        fluidProdPtr = prod[0];
+        fluidProdRecipe = prod[1];
+        fluidConsPtr = cons[0];
+        fluidConsRecipe = cons[1];
+
+        // Tier buckets, counting sort keeps dump order inside a tier.
+        int[] tierOfRef = new int[dump.dictionarySize()];
+        Arrays.fill(tierOfRef, UNKNOWN_TIER);
+        for (int t = 0; t < TIERS.length; t++) {
+            int ref = dump.findString(TIERS[t]);
+            if (ref >= 0) tierOfRef[ref] = t;
+        }
+        recipeTier = new byte[recipeCount];
+        tierPtr = new int[TIERS.length + 2];
+        for (int r = 0; r < recipeCount; r++) {
+            int ref = dump.minTierRef(r);
+            int t = (ref < 0) ? UNKNOWN_TIER : tierOfRef[ref];
+            recipeTier[r] = (byte) t;
+            tierPtr[t + 1]++;
+        }
+        for (int t = 0; t < tierPtr.length - 1; t++) tierPtr[t + 1] += tierPtr[t];
+        int[] fill = new int[tierPtr.length];
+        System.arraycopy(tierPtr, 0, fill, 0, tierPtr.length);
+        byTier = new int[recipeCount];
+        for (int r = 0; r < recipeCount; r++) byTier[fill[recipeTier[r]]++] = r;
+
+        buildMillis = System.currentTimeMillis() - start;
+    }
+
+    public static RecipeIndex load(File recipesBin) throws IOException {
+        return new RecipeIndex(BinaryDump.open(recipesBin));
+    }
+
+    public BinaryDump dump() { return dump; }
+    public long buildMillis() { return buildMillis; }
+    public int recipeCount() { return dump.recipeCount(); }
+    public int itemKeyCount() { return itemKeys.length; }
+    public int fluidKeyCount() { return fluidKeys.length; }
+    public String itemKeyId(int k) { return dump.string((int) (itemKeys[k] >> 32)); }
+    public int itemKeyMeta(int k) { return ((int) itemKeys[k]) ^ 0x80000000; }
+    public String fluidKeyId(int k) { return dump.string(fluidKeys[k]); }
+    public int itemKeyIdRef(int k) { return (int) (itemKeys[k] >> 32); }
+    public int fluidKeyIdRef(int k) { return fluidKeys[k]; }
+
+    /** Position of (idRef, meta) among the item keys, or -1 when no stack has it. */
+    public int itemKeyIndex(int idRef, int meta) {
+        int k = Arrays.binarySearch(itemKeys, itemKey(idRef, meta));
+        return (k < 0) ? -1 : k;
+    }
+
+    /** Position of the fluid among the fluid keys, or -1 when no stack has it. */
+    public int fluidKeyIndex(int idRef) {
+        int k = Arrays.binarySearch(fluidKeys, idRef);
+        return (k < 0) ? -1 : k;
+    }
+
+    /* ---------- Queries ---------- */
+
+    /** Recipes that output the item; {@code meta < 0} matches every meta. */
+    public int[] itemProducers(String itemId, int meta, int maxTier) {
+        return itemProducers(itemId, meta, maxTier, false);
+    }
+
+    /** As {@link #itemProducers(String, int, int)}; {@code untiered} keeps recipes without a min tier. */
+    public int[] itemProducers(String itemId, int meta, int maxTier, boolean untiered) {
+        return itemRecipes(itemId, meta, maxTier, untiered, itemProdPtr, itemProdRecipe);
+    }
+
+    public int[] itemConsumers(String itemId, int meta, int maxTier) {
+        return itemConsumers(itemId, meta, maxTier, false);
+    }
+
+    public int[] itemConsumers(String itemId, int meta, int maxTier, boolean untiered) {
+        return itemRecipes(itemId, meta, maxTier, untiered, itemConsPtr, itemConsRecipe);
+    }
+
+    public int[] fluidProducers(String fluidId, int maxTier) {
+        return fluidProducers(fluidId, maxTier, false);
+    }
+
+    public int[] fluidProducers(String fluidId, int maxTier, boolean untiered) {
+        return fluidRecipes(fluidId, maxTier, untiered, fluidProdPtr, fluidProdRecipe);
+    }
+
+    public int[] fluidConsumers(String fluidId, int maxTier) {
+        return fluidConsumers(fluidId, maxTier, false);
+    }
+
+    public int[] fluidConsumers(String fluidId, int maxTier, boolean untiered) {
+        return fluidRecipes(fluidId, maxTier, untiered, fluidConsPtr, fluidConsRecipe);
+    }
+
+    /** Recipes of every map registered under the machineId, in dump order. */
+    public int[] machineRecipes(String machineId, int maxTier) {
+        return machineRecipes(machineId, maxTier, false);
+    }
+
+    public int[] machineRecipes(String machineId, int maxTier, boolean untiered) {
+        int[] maps = dump.findMaps(machineId);
+        int n = 0;
+        for (int i = 0; i < maps.length; i++) n += dump.mapRecipeCount(maps[i]);
+        int[] out = new int[n];
+        int k = 0;
+        for (int i = 0; i < maps.length; i++) {
+            int end = dump.mapFirstRecipe(maps[i]) + dump.mapRecipeCount(maps[i]);
+            for (int r = dump.mapFirstRecipe(maps[i]); r < end; r++) {
+                if (fits(r, maxTier, untiered)) out[k++] = r;
+            }
+        }
+        return (k == n) ? out : Arrays.copyOf(out, k);
+    }
+
+    /** Recipes whose min tier is at most {@code maxTier}, a prefix of the tier-ordered array. Negative means all. */
+    public int[] recipesUpToTier(int maxTier) {
+        return recipesUpToTier(maxTier, false);
+    }
+
+    /** As {@link #recipesUpToTier(int)}; {@code untiered} appends the recipes without a min tier. */
+    public int[] recipesUpToTier(int maxTier, boolean untiered) {
+        if (maxTier < 0) return (int[]) byTier.clone();
+        int t = Math.min(maxTier, TIERS.length - 1);
+        int prefix = tierPtr[t + 1];
+        int extra = untiered ? tierPtr[UNKNOWN_TIER + 1] - tierPtr[UNKNOWN_TIER] : 0;
+        int[] out = Arrays.copyOf(byTier, prefix + extra);
+        System.arraycopy(byTier, tierPtr[UNKNOWN_TIER], out, prefix, extra);
+        return out;
+    }
+
+    public int findRecipe(String rid) {
+        return dump.findRecipe(rid);
+    }
+
+    public int tierOf(int recipe) {
+        return recipeTier[recipe];
+    }
+
+    /** Tier ordinal for a name (case-insensitive), or -1. */
+    public static int tierOrdinal(String name) {
+        if (name == null) return -1;
+        for (int i = 0; i < TIERS.length; i++) {
+            if (TIERS[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+
+    /* ---------- Internals ---------- */
+
+    private boolean fits(int recipe, int maxTier, boolean untiered) {
+        return maxTier < 0 || recipeTier[recipe] <= maxTier || (untiered && recipeTier[recipe] == UNKNOWN_TIER);
+    }
+
+    private int[] itemRecipes(String itemId, int meta, int maxTier, boolean untiered, int[] ptr, int[] recipes) {
+        int ref = dump.findString(itemId);
+        if (ref < 0) return NONE;
+        int from;
+        int to;
+        if (meta >= 0) {
+            from = Arrays.binarySearch(itemKeys, itemKey(ref, meta));
+            if (from < 0) return NONE;
+            to = from + 1;
+        } else {
+            from = lowerBound(itemKeys, itemKey(ref, Integer.MIN_VALUE));
+            to = lowerBound(itemKeys, itemKey(ref + 1, Integer.MIN_VALUE));
+            if (from >= to) return NONE;
+        }
+        if (to == from + 1) return filter(recipes, ptr[from], ptr[to], maxTier, untiered);
+        // Several metas: merge their (sorted) lists, dropping duplicates.
+        int[] all = filter(recipes, ptr[from], ptr[to], maxTier, untiered);
+        Arrays.sort(all);
+        return dedupeSorted(all);
+    }
+
+    private int[] fluidRecipes(String fluidId, int maxTier, boolean untiered, int[] ptr, int[] recipes) {
+        int ref = dump.findString(fluidId);
+        if (ref < 0) return NONE;
+        int k = Arrays.binarySearch(fluidKeys, ref);
+        if (k < 0) return NONE;
+        return filter(recipes, ptr[k], ptr[k + 1], maxTier, untiered);
+    }
+
+    private int[] filter(int[] recipes, int from, int to, int maxTier, boolean untiered) {
+        if (maxTier < 0) return Arrays.copyOfRange(recipes, from, to);
+        int[] out = new int[to - from];
+        int k = 0;
+        for (int i = from; i < to; i++) {
+            if (fits(recipes[i], maxTier, untiered)) out[k++] = recipes[i];
+        }
+        return (k == out.length) ? out : Arrays.copyOf(out, k);
+    }
+
+    private void buildItemAdjacency(int[][] out, boolean outputs) {
+        int[] ptr = new int[itemKeys.length + 1];
+        int[] last = new int[itemKeys.length];
+        Arrays.fill(last, -1);
+        for (int pass = 0; pass < 2; pass++) {
+            int[] recipes = (pass == 0) ? null : new int[ptr[itemKeys.length]];
+            int[] fill = (pass == 0) ? null : Arrays.copyOf(ptr, itemKeys.length);
+            Arrays.fill(last, -1);
+            for (int r = 0; r < dump.recipeCount(); r++) {
+                int start = outputs ? dump.itemOutputStart(r) : dump.itemInputStart(r);
+                int end = start + (outputs ? dump.itemOutputCount(r) : dump.itemInputCount(r));
+                for (int s = start; s < end; s++) {
+                    int k = Arrays.binarySearch(itemKeys, itemKey(dump.itemIdRef(s), dump.itemMeta(s)));
+                    if (last[k] == r) continue;
+                    last[k] = r;
+                    if (pass == 0) ptr[k + 1]++;
+                    else recipes[fill[k]++] = r;
+                }
+            }
+            if (pass == 0) {
+                for (int i = 0; i < itemKeys.length; i++) ptr[i + 1] += ptr[i];
+            } else {
+                out[0] = ptr;
+                out[1] = recipes;
+            }
+        }
+    }
+
+    private void buildFluidAdjacency(int[][] out, boolean outputs) {
+        int[] ptr = new int[fluidKeys.length + 1];
+        int[] last = new int[fluidKeys.length];
+        for (int pass = 0; pass < 2; pass++) {
+            int[] recipes = (pass == 0) ? null : new int[ptr[fluidKeys.length]];
+            int[] fill = (pass == 0) ? null : Arrays.copyOf(ptr, fluidKeys.length);
+            Arrays.fill(last, -1);
+            for (int r = 0; r < dump.recipeCount(); r++) {
+                int start = outputs ? dump.fluidOutputStart(r) : dump.fluidInputStart(r);
+                int end = start + (outputs ? dump.fluidOutputCount(r) : dump.fluidInputCount(r));
+                for (int s = start; s < end; s++) {
+                    int k = Arrays.binarySearch(fluidKeys, dump.fluidIdRef(s));
+                    if (last[k] == r) continue;
+                    last[k] = r;
+                    if (pass == 0) ptr[k + 1]++;
+                    else recipes[fill[k]++] = r;
+                }
+            }
+            if (pass == 0) {
+                for (int i = 0; i < fluidKeys.length; i++) ptr[i + 1] += ptr[i];
+            } else {
+                out[0] = ptr;
+                out[1] = recipes;
+            }
+        }
+    }
+
+    /** Sorts by id ref, then by signed meta (the sign bit is flipped so wildcard metas stay in order). */
+    static long itemKey(int idRef, int meta) {
+        return ((long) idRef << 32) | ((meta ^ 0x80000000) & 0xffffffffL);
+    }
+
+    private static int lowerBound(long[] a, long key) {
+        int lo = 0;
+        int hi = a.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static long[] uniqueSorted(long[] a) {
+        Arrays.sort(a);
+        int n = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (n == 0 || a[n - 1] != a[i]) a[n++] = a[i];
+        }
+        return Arrays.copyOf(a, n);
+    }
+
+    private static int[] uniqueSorted(int[] a) {
+        Arrays.sort(a);
+        return dedupeSorted(a);
+    }
+
+    private static int[] dedupeSorted(int[] a) {
+        int n = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (n == 0 || a[n - 1] != a[i]) a[n++] = a[i];
+        }
+        return (n == a.length) ? a : Arrays.copyOf(a, n);
+    }
+}
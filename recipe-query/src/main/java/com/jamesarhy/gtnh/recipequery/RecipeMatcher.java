@@ -0,0 +1,458 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline equivalent of GT's {@code findRecipe}: given bus / hatch contents, which recipes of a
+ * machine can start, with which circuit, and how many times in parallel.
+ *
+ * Per machineId the matcher keeps:
+ * <pre>
+ *   keys        long[]  sorted requirement keys (item id+meta, wildcard item, ore tag, fluid)
+ *   postings    key -&gt; local recipe ids (sorted)
+ *   reqPtr/reqKey/reqAmount  each recipe's inputs, aggregated per key (multiset)
+ *   buckets     local ids are ordered by circuitConfig, so a given circuit only scans the
+ *               "no circuit" bucket plus its own bucket of every posting list
+ * </pre>
+ * Matching counts, per recipe, how many of its requirement keys the inventory touches; a recipe
+ * whose count reaches its key total is a candidate and its parallel is the minimum of
+ * available / required over its keys. Like GT's input check, each requirement is tested on its
+ * own, so one stack can satisfy two requirements that both accept it.
+ */
+public final class RecipeMatcher {
+
+    /** GT's wildcard damage value (OreDictionary.WILDCARD_VALUE). */
+    public static final int WILDCARD_META = 32767;
+    /** Circuit value for recipes without a programmed circuit. */
+    public static final int NO_CIRCUIT = -1;
+
+    private final RecipeIndex index;
+    private final BinaryDump dump;
+    private final Map machines = new HashMap(); // machineId -> MachineMatcher
+    private final long[] oreItemKeys;           // (idRef, meta) of items that carry ore names
+    private final int[] oreItemPtr;
+    private final int[] oreItemRefs;            // dictionary refs of "ore:<name>"
+    private final int maxLocal;
+    private final int maxKeys;
+    private final ThreadLocal scratch = new ThreadLocal();
+
+    public RecipeMatcher(RecipeIndex index) {
+        this.index = index;
+        this.dump = index.dump();
+
+        long[][] ores = buildOreExpansion();
+        oreItemKeys = ores[0];
+        oreItemPtr = toInts(ores[1]);
+        oreItemRefs = toInts(ores[2]);
+
+        int local = 0;
+        int keys = 0;
+        for (int m = 0; m < dump.mapCount(); m++) {
+            String id = dump.mapMachineId(m);
+            if (id == null || machines.containsKey(id)) continue;
+            MachineMatcher mm = new MachineMatcher(index.machineRecipes(id, -1));
+            machines.put(id, mm);
+            local = Math.max(local, mm.recipes.length);
+            keys = Math.max(keys, mm.keys.length);
+        }
+        maxLocal = local;
+        maxKeys = keys;
+    }
+
+    public RecipeIndex index() {
+        return index;
+    }
+
+    public boolean hasMachine(String machineId) {
+        return machines.containsKey(machineId);
+    }
+
+    /** Contents of a machine's input buses and hatches. */
+    public static final class Inventory {
+        final List itemIds = new ArrayList();
+        final List fluidIds = new ArrayList();
+        int[] itemMeta = new int[8];
+        long[] itemCount = new long[8];
+        long[] fluidMb = new long[4];
+        /** Programmed circuit in the bus, or null to match any circuit (the match reports which). */
+        public Integer circuit;
+
+        public Inventory addItem(String id, int meta, long count) {
+            int i = itemIds.size();
+            if (i == itemMeta.length) {
+                itemMeta = Arrays.copyOf(itemMeta, i * 2);
+                itemCount = Arrays.copyOf(itemCount, i * 2);
+            }
+            itemIds.add(id);
+            itemMeta[i] = meta;
+            itemCount[i] = count;
+            return this;
+        }
+
+        public Inventory addFluid(String id, long mb) {
+            int i = fluidIds.size();
+            if (i == fluidMb.length) fluidMb = Arrays.copyOf(fluidMb, i * 2);
+            fluidIds.add(id);
+            fluidMb[i] = mb;
+            return this;
+        }
+    }
+
+    public static final class Match {
+        public final int recipe;
+        public final int parallel;
+        public final int circuitConfig;
+
+        Match(int recipe, int parallel, int circuitConfig) {
+            this.recipe = recipe;
+            this.parallel = parallel;
+            this.circuitConfig = circuitConfig;
+        }
+    }
+
+    /**
+     * Recipes of {@code machineId} the inventory can start, in dump order.
+     *
+     * @param parallelLimit cap on the reported parallel (e.g. the machine's maxParallel), or &lt;= 0 for none
+     */
+    public List match(String machineId, Inventory inv, int parallelLimit) {
+        MachineMatcher mm = (MachineMatcher) machines.get(machineId);
+        List out = new ArrayList();
+        if (mm == null) return out;
+        Scratch s = scratch();
+        try {
+            mm.probe(inv, s);
+            mm.collect(inv.circuit, s, parallelLimit <= 0 ? Integer.MAX_VALUE : parallelLimit, out);
+        } finally {
+            s.reset();
+        }
+        return out;
+    }
+
+    /* ---------- Per machine ---------- */
+
+    private final class MachineMatcher {
+        final int[] recipes;     // local id -> global recipe index
+        final int[] circuit;     // local id -> circuitConfig or NO_CIRCUIT
+        final int[] bucketValue; // distinct circuit values, ascending (NO_CIRCUIT first)
+        final int[] bucketStart; // bucketValue.length + 1
+        final long[] keys;
+        final int[] postPtr;
+        final int[] postRecipe;
+        final int[] reqPtr;
+        final int[] reqKey;
+        final long[] reqAmount;
+        final int[] alwaysRunnable; // local ids with no inputs at all
+
+        MachineMatcher(int[] globalRecipes) {
+            int n = globalRecipes.length;
+
+            // Order local ids by circuit so each circuit is a contiguous range.
+            Integer[] order = new Integer[n];
+            final int[] circ = new int[n];
+            for (int i = 0; i < n; i++) {
+                order[i] = new Integer(i);
+                int r = globalRecipes[i];
+                circ[i] = dump.has(r, BinaryDump.RF_CIRCUIT) ? dump.circuitConfig(r) : NO_CIRCUIT;
+            }
+            Arrays.sort(order, new Comparator() {
+                public int compare(Object a, Object b) {
+                    int x = circ[((Integer) a).intValue()];
+                    int y = circ[((Integer) b).intValue()];
+                    if (x != y) return (x < y) ? -1 : 1;
+                    return ((Integer) a).intValue() - ((Integer) b).intValue();
+                }
+            });
+            recipes = new int[n];
+            circuit = new int[n];
+            for (int i = 0; i < n; i++) {
+                recipes[i] = globalRecipes[order[i].intValue()];
+                circuit[i] = circ[order[i].intValue()];
+            }
+            int buckets = 0;
+            for (int i = 0; i < n; i++) if (i == 0 || circuit[i] != circuit[i - 1]) buckets++;
+            bucketValue = new int[buckets];
+            bucketStart = new int[buckets + 1];
+            int b = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || circuit[i] != circuit[i - 1]) {
+                    bucketValue[b] = circuit[i];
+                    bucketStart[b++] = i;
+                }
+            }
+            bucketStart[buckets] = n;
+
+            // Requirement keys, aggregated per recipe.
+            long[][] perRecipeKeys = new long[n][];
+            long[][] perRecipeAmounts = new long[n][];
+            int total = 0;
+            for (int i = 0; i < n; i++) {
+                int r = recipes[i];
+                int items = dump.itemInputCount(r);
+                int fluids = dump.fluidInputCount(r);
+                long[] k = new long[items + fluids];
+                long[] a = new long[items + fluids];
+                int c = 0;
+                for (int s = dump.itemInputStart(r); s < dump.itemInputStart(r) + items; s++) {
+                    c = accumulate(k, a, c, RecipeIndex.itemKey(dump.itemIdRef(s), dump.itemMeta(s)), dump.itemCount(s));
+                }
+                for (int s = dump.fluidInputStart(r); s < dump.fluidInputStart(r) + fluids; s++) {
+                    c = accumulate(k, a, c, fluidKey(dump.fluidIdRef(s)), dump.fluidMb(s));
+                }
+                perRecipeKeys[i] = Arrays.copyOf(k, c);
+                perRecipeAmounts[i] = Arrays.copyOf(a, c);
+                total += c;
+            }
+            long[] all = new long[total];
+            int p = 0;
+            for (int i = 0; i < n; i++) {
+                System.arraycopy(perRecipeKeys[i], 0, all, p, perRecipeKeys[i].length);
+                p += perRecipeKeys[i].length;
+            }
+            Arrays.sort(all);
+            int u = 0;
+            for (int i = 0; i < all.length; i++) if (u == 0 || all[u - 1] != all[i]) all[u++] = all[i];
+            keys = Arrays.copyOf(all, u);
+
+            reqPtr = new int[n + 1];
+            reqKey = new int[total];
+            reqAmount = new long[total];
+            postPtr = new int[keys.length + 1];
+            List always = new ArrayList();
+            p = 0;
+            for (int i = 0; i < n; i++) {
+                reqPtr[i] = p;
+                if (perRecipeKeys[i].length == 0) always.add(new Integer(i));
+                for (int j = 0; j < perRecipeKeys[i].length; j++) {
+                    int k = Arrays.binarySearch(keys, perRecipeKeys[i][j]);
+                    reqKey[p] = k;
+                    reqAmount[p] = perRecipeAmounts[i][j];
+                    postPtr[k + 1]++;
+                    p++;
+                }
+            }
+            reqPtr[n] = p;
+            for (int k = 0; k < keys.length; k++) postPtr[k + 1] += postPtr[k];
+            postRecipe = new int[total];
+            int[] fill = Arrays.copyOf(postPtr, keys.length);
+            for (int i = 0; i < n; i++) {
+                for (int e = reqPtr[i]; e < reqPtr[i + 1]; e++) postRecipe[fill[reqKey[e]]++] = i;
+            }
+            alwaysRunnable = new int[always.size()];
+            for (int i = 0; i < alwaysRunnable.length; i++) alwaysRunnable[i] = ((Integer) always.get(i)).intValue();
+        }
+
+        /** Adds the inventory's amounts to every requirement key it can satisfy. */
+        void probe(Inventory inv, Scratch s) {
+            for (int i = 0; i < inv.itemIds.size(); i++) {
+                long count = inv.itemCount[i];
+                if (count <= 0) continue;
+                int ref = dump.findString((String) inv.itemIds.get(i));
+                if (ref < 0) continue;
+                int meta = inv.itemMeta[i];
+                long exact = RecipeIndex.itemKey(ref, meta);
+                add(s, exact, count);
+                if (meta != WILDCARD_META) add(s, RecipeIndex.itemKey(ref, WILDCARD_META), count);
+                int o = Arrays.binarySearch(oreItemKeys, exact);
+                if (o >= 0) {
+                    for (int e = oreItemPtr[o]; e < oreItemPtr[o + 1]; e++) {
+                        add(s, RecipeIndex.itemKey(oreItemRefs[e], 0), count);
+                    }
+                }
+            }
+            for (int i = 0; i < inv.fluidIds.size(); i++) {
+                long mb = inv.fluidMb[i];
+                if (mb <= 0) continue;
+                int ref = dump.findString((String) inv.fluidIds.get(i));
+                if (ref >= 0) add(s, fluidKey(ref), mb);
+            }
+        }
+
+        private void add(Scratch s, long key, long amount) {
+            int k = Arrays.binarySearch(keys, key);
+            if (k < 0) return;
+            if (s.avail[k] == 0) s.touchedKeys[s.touchedKeyCount++] = k;
+            s.avail[k] += amount;
+        }
+
+        void collect(Integer inventoryCircuit, Scratch s, int parallelLimit, List out) {
+            int[] ranges = circuitRanges(inventoryCircuit);
+            for (int t = 0; t < s.touchedKeyCount; t++) {
+                int k = s.touchedKeys[t];
+                for (int q = 0; q < ranges.length; q += 2) {
+                    int from = lowerBound(postRecipe, postPtr[k], postPtr[k + 1], ranges[q]);
+                    for (int e = from; e < postPtr[k + 1]; e++) {
+                        int local = postRecipe[e];
+                        if (local >= ranges[q + 1]) break;
+                        if (s.hits[local] == 0) s.touchedRecipes[s.touchedRecipeCount++] = local;
+                        s.hits[local]++;
+                    }
+                }
+            }
+
+            int start = out.size();
+            for (int t = 0; t < s.touchedRecipeCount; t++) {
+                int local = s.touchedRecipes[t];
+                if (s.hits[local] != reqPtr[local + 1] - reqPtr[local]) continue;
+                long parallel = parallelLimit;
+                for (int e = reqPtr[local]; e < reqPtr[local + 1]; e++) {
+                    long need = reqAmount[e];
+                    if (need > 0) parallel = Math.min(parallel, s.avail[reqKey[e]] / need);
+                }
+                if (parallel >= 1) out.add(new Match(recipes[local], (int) parallel, circuit[local]));
+            }
+            for (int i = 0; i < alwaysRunnable.length; i++) {
+                int local = alwaysRunnable[i];
+                if (inRanges(local, ranges)) out.add(new Match(recipes[local], parallelLimit, circuit[local]));
+            }
+            sortByRecipe(out, start);
+        }
+
+        /** [from, to) local-id ranges to scan: every bucket, or "no circuit" plus the inventory's circuit. */
+        private int[] circuitRanges(Integer inventoryCircuit) {
+            int n = recipes.length;
+            if (inventoryCircuit == null) return new int[] {0, n};
+            int[] out = new int[4];
+            int c = 0;
+            for (int b = 0; b < bucketValue.length; b++) {
+                if (bucketValue[b] == NO_CIRCUIT || bucketValue[b] == inventoryCircuit.intValue()) {
+                    out[c++] = bucketStart[b];
+                    out[c++] = bucketStart[b + 1];
+                }
+            }
+            return Arrays.copyOf(out, c);
+        }
+    }
+
+    /* ---------- Scratch ---------- */
+
+    private static final class Scratch {
+        final long[] avail;
+        final int[] touchedKeys;
+        int touchedKeyCount;
+        final int[] hits;
+        final int[] touchedRecipes;
+        int touchedRecipeCount;
+
+        Scratch(int keys, int recipes) {
+            avail = new long[keys];
+            touchedKeys = new int[keys];
+            hits = new int[recipes];
+            touchedRecipes = new int[recipes];
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedKeyCount; i++) avail[touchedKeys[i]] = 0;
+            for (int i = 0; i < touchedRecipeCount; i++) hits[touchedRecipes[i]] = 0;
+            touchedKeyCount = 0;
+            touchedRecipeCount = 0;
+        }
+    }
+
+    private Scratch scratch() {
+        Scratch s = (Scratch) scratch.get();
+        if (s == null) {
+            s = new Scratch(maxKeys, maxLocal);
+            scratch.set(s);
+        }
+        return s;
+    }
+
+    /* ---------- Build helpers ---------- */
+
+    /** (idRef, meta) of every dumped item with ore names -> refs of the matching "ore:" ids. */
+    private long[][] buildOreExpansion() {
+        Map byItem = new HashMap(); // Long key -> List<Integer> refs
+        Map oreRefCache = new HashMap();
+        for (int s = 0; s < dump.itemStackCount(); s++) {
+            int n = dump.itemOreCount(s);
+            if (n == 0) continue;
+            Long key = new Long(RecipeIndex.itemKey(dump.itemIdRef(s), dump.itemMeta(s)));
+            if (byItem.containsKey(key)) continue;
+            List refs = new ArrayList();
+            for (int k = 0; k < n; k++) {
+                Integer nameRef = new Integer(dump.itemOreRef(s, k));
+                Integer oreRef = (Integer) oreRefCache.get(nameRef);
+                if (oreRef == null) {
+                    oreRef = new Integer(dump.findString("ore:" + dump.string(nameRef.intValue())));
+                    oreRefCache.put(nameRef, oreRef);
+                }
+                if (oreRef.intValue() >= 0) refs.add(oreRef);
+            }
+            byItem.put(key, refs);
+        }
+        long[] keys = new long[byItem.size()];
+        int i = 0;
+        for (Iterator it = byItem.keySet().iterator(); it.hasNext(); ) keys[i++] = ((Long) it.next()).longValue();
+        Arrays.sort(keys);
+        long[] ptr = new long[keys.length + 1];
+        List flat = new ArrayList();
+        for (i = 0; i < keys.length; i++) {
+            List refs = (List) byItem.get(new Long(keys[i]));
+            flat.addAll(refs);
+            ptr[i + 1] = flat.size();
+        }
+        long[] refs = new long[flat.size()];
+        for (i = 0; i < refs.length; i++) refs[i] = ((Integer) flat.get(i)).intValue();
+        return new long[][] {keys, ptr, refs};
+    }
+
+    private static int accumulate(long[] keys, long[] amounts, int count, long key, long amount) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == key) {
+                amounts[i] += amount;
+                return count;
+            }
+        }
+        keys[count] = key;
+        amounts[count] = amount;
+        return count + 1;
+    }
+
+    /** Fluid ids never share a dictionary ref with item ids, so they can live in the same key space. */
+    static long fluidKey(int fluidRef) {
+        return RecipeIndex.itemKey(fluidRef, 0);
+    }
+
+    private static int[] toInts(long[] a) {
+        int[] out = new int[a.length];
+        for (int i = 0; i < a.length; i++) out[i] = (int) a[i];
+        return out;
+    }
+
+    private static int lowerBound(int[] a, int from, int to, int key) {
+        int lo = from;
+        int hi = to;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static boolean inRanges(int local, int[] ranges) {
+        for (int q = 0; q < ranges.length; q += 2) {
+            if (local >= ranges[q] && local < ranges[q + 1]) return true;
+        }
+        return false;
+    }
+
+    private static void sortByRecipe(List out, int start) {
+        List tail = out.subList(start, out.size());
+        Collections.sort(tail, new Comparator() {
+            public int compare(Object a, Object b) {
+                return ((Match) a).recipe - ((Match) b).recipe;
+            }
+        });
+    }
+}
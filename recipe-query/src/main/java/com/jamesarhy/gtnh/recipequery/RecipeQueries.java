@@ -0,0 +1,635 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+import com.jamesarhy.gtnh.recipedumper.io.NameIndex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a flat parameter map into an index query and renders the result as JSON.
+ *
+ * Shared by the HTTP handlers, the batch endpoint and the benchmark so all three measure the
+ * same code path. Parameters:
+ * <pre>
+ *   op       producers | consumers | machine | tier | recipe
+ *   item     item id (with meta, or meta=-1 / omitted for every meta)
+ *   fluid    fluid id
+ *   machine  machineId
+ *   tier     max tier name (ULV..MAX); filters every op except recipe
+ *   untiered "true" to let recipes without a min tier (crafting, smelting) pass the tier filter
+ *   rid      recipe id
+ *   limit    max recipes returned (default 100, 0 = all)
+ *   full     "true" to include stacks
+ * </pre>
+ */
+public final class RecipeQueries {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+
+    private final RecipeIndex index;
+    private final BinaryDump dump;
+
+    public RecipeQueries(RecipeIndex index) {
+        this.index = index;
+        this.dump = index.dump();
+    }
+
+    /** Runs one query; bad input is reported as an {@code error} member, never thrown. */
+    public JsonObject run(Map params) {
+        String op = param(params, "op");
+        JsonObject out = new JsonObject();
+        out.addProperty("op", op);
+
+        int maxTier = -1;
+        String tier = param(params, "tier");
+        if (tier != null) {
+            maxTier = RecipeIndex.tierOrdinal(tier);
+            if (maxTier < 0) return error(out, "Unknown tier: " + tier);
+        }
+        boolean untiered = "true".equals(param(params, "untiered"));
+
+        int[] recipes;
+        if ("producers".equals(op) || "consumers".equals(op)) {
+            boolean producers = "producers".equals(op);
+            String item = param(params, "item");
+            String fluid = param(params, "fluid");
+            if (item != null) {
+                int meta = intParam(params, "meta", -1);
+                recipes = producers ? index.itemProducers(item, meta, maxTier, untiered) : index.itemConsumers(item, meta, maxTier, untiered);
+            } else if (fluid != null) {
+                recipes = producers ? index.fluidProducers(fluid, maxTier, untiered) : index.fluidConsumers(fluid, maxTier, untiered);
+            } else {
+                return error(out, "Missing item or fluid");
+            }
+        } else if ("machine".equals(op)) {
+            String machine = param(params, "machine");
+            if (machine == null) return error(out, "Missing machine");
+            recipes = index.machineRecipes(machine, maxTier, untiered);
+        } else if ("tier".equals(op)) {
+            if (tier == null) return error(out, "Missing tier");
+            recipes = index.recipesUpToTier(maxTier, untiered);
+        } else if ("recipe".equals(op)) {
+            String rid = param(params, "rid");
+            if (rid == null) return error(out, "Missing rid");
+            int r = index.findRecipe(rid);
+            recipes = (r < 0) ? new int[0] : new int[] {r};
+        } else {
+            return error(out, "Unknown op: " + op);
+        }
+
+        int limit = intParam(params, "limit", DEFAULT_LIMIT);
+        boolean full = "true".equalsIgnoreCase(param(params, "full")) || "recipe".equals(op);
+        int n = (limit <= 0) ? recipes.length : Math.min(limit, recipes.length);
+        JsonArray arr = new JsonArray();
+        for (int i = 0; i < n; i++) arr.add(recipeJson(recipes[i], full));
+        out.addProperty("count", new Integer(recipes.length));
+        out.addProperty("truncated", Boolean.valueOf(n < recipes.length));
+        out.add("recipes", arr);
+        return out;
+    }
+
+    /**
+     * Runs one inventory match:
+     * {@code {"machine": id, "items": [{"id", "meta", "count"}], "fluids": [{"id", "mb"}],
+     * "circuit": n, "parallelLimit": n, "limit": n}}. Omitting {@code circuit} matches every circuit.
+     */
+    public JsonObject match(RecipeMatcher matcher, JsonObject req) {
+        JsonObject out = new JsonObject();
+        String machine = string(req, "machine");
+        if (machine == null) return error(out, "Missing machine");
+        if (!matcher.hasMachine(machine)) return error(out, "Unknown machine: " + machine);
+        out.addProperty("machine", machine);
+
+        RecipeMatcher.Inventory inv = new RecipeMatcher.Inventory();
+        JsonArray items = array(req, "items");
+        for (int i = 0; i < items.size(); i++) {
+            if (!items.get(i).isJsonObject()) continue;
+            JsonObject it = items.get(i).getAsJsonObject();
+            String id = string(it, "id");
+            if (id != null) inv.addItem(id, (int) number(it, "meta", 0L), number(it, "count", 1L));
+        }
+        JsonArray fluids = array(req, "fluids");
+        for (int i = 0; i < fluids.size(); i++) {
+            if (!fluids.get(i).isJsonObject()) continue;
+            JsonObject fl = fluids.get(i).getAsJsonObject();
+            String id = string(fl, "id");
+            if (id != null) inv.addFluid(id, number(fl, "mb", 0L));
+        }
+        if (req.has("circuit") && !req.get("circuit").isJsonNull()) inv.circuit = new Integer((int) number(req, "circuit", 0L));
+
+        List matches = matcher.match(machine, inv, (int) number(req, "parallelLimit", 0L));
+        int limit = (int) number(req, "limit", DEFAULT_LIMIT);
+        int n = (limit <= 0) ? matches.size() : Math.min(limit, matches.size());
+        JsonArray arr = new JsonArray();
+        for (int i = 0; i < n; i++) {
+            RecipeMatcher.Match m = (RecipeMatcher.Match) matches.get(i);
+            JsonObject o = recipeJson(m.recipe, false);
+            o.addProperty("parallel", new Integer(m.parallel));
+            if (m.circuitConfig != RecipeMatcher.NO_CIRCUIT) o.addProperty("circuitConfig", new Integer(m.circuitConfig));
+            arr.add(o);
+        }
+        out.addProperty("count", new Integer(matches.size()));
+        out.addProperty("truncated", Boolean.valueOf(n < matches.size()));
+        out.add("matches", arr);
+        return out;
+    }
+
+    /**
+     * Forward reachability from an inventory:
+     * {@code {"items": [{"id", "meta"}], "fluids": [{"id"}], "nodes": [nodeId], "raw": bool,
+     * "report": [nodeId], "limit": n}}. Seeds are held at every tier; {@code raw} also holds every
+     * node nothing produces. Reports the earliest tier of each {@code report} node, or else of
+     * every obtainable node that was not a seed (up to {@code limit}, 0 = all).
+     */
+    public static JsonObject reach(Reachability reach, JsonObject req) {
+        JsonObject out = new JsonObject();
+        RecipeGraph graph = reach.graph();
+        JsonArray unknown = new JsonArray();
+        int[] seedNodes = seeds(graph, req, unknown);
+        boolean raw = req.has("raw") ? req.get("raw").getAsBoolean() : seedNodes.length == 0;
+
+        Reachability.Result res = reach.run(seedNodes, raw);
+        out.addProperty("seeds", new Integer(seedNodes.length));
+        out.addProperty("raw", Boolean.valueOf(raw));
+        if (unknown.size() > 0) out.add("unknown", unknown);
+        out.add("reachable", tierCounts(res.reachableCounts()));
+        out.add("runnable", tierCounts(res.runnableCounts()));
+        out.addProperty("millis", new Long(res.millis()));
+
+        JsonArray report = array(req, "report");
+        JsonArray arr = new JsonArray();
+        if (report.size() > 0) {
+            for (int i = 0; i < report.size(); i++) {
+                if (!report.get(i).isJsonPrimitive()) continue;
+                String id = report.get(i).getAsString();
+                int node = graph.findNode(id);
+                JsonObject o = new JsonObject();
+                o.addProperty("id", id);
+                if (node < 0) {
+                    o.addProperty("error", "Unknown node");
+                } else {
+                    int t = res.earliestTier(node);
+                    o.addProperty("reachable", Boolean.valueOf(t >= 0));
+                    if (t >= 0) o.addProperty("earliestTier", RecipeIndex.TIERS[t]);
+                }
+                arr.add(o);
+            }
+            out.add("nodes", arr);
+            return out;
+        }
+        int limit = (int) number(req, "limit", DEFAULT_LIMIT);
+        int count = 0;
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            int t = res.earliestTier(node);
+            if (t < 0 || res.seeded(node) || graph.isAlias(node)) continue;
+            count++;
+            if (limit > 0 && arr.size() >= limit) continue;
+            JsonObject o = new JsonObject();
+            o.addProperty("id", graph.nodeId(node));
+            o.addProperty("earliestTier", RecipeIndex.TIERS[t]);
+            arr.add(o);
+        }
+        out.addProperty("count", new Integer(count));
+        out.addProperty("truncated", Boolean.valueOf(arr.size() < count));
+        out.add("nodes", arr);
+        return out;
+    }
+
+    /**
+     * Seed nodes of a {@link #reach} request ({@code items}, {@code fluids} and {@code nodes});
+     * ids the graph does not know are added to {@code unknown}.
+     */
+    static int[] seeds(RecipeGraph graph, JsonObject req, JsonArray unknown) {
+        List seeds = new ArrayList();
+        JsonArray items = array(req, "items");
+        for (int i = 0; i < items.size(); i++) {
+            if (!items.get(i).isJsonObject()) continue;
+            JsonObject it = items.get(i).getAsJsonObject();
+            String id = string(it, "id");
+            if (id == null) continue;
+            int meta = (int) number(it, "meta", 0L);
+            addSeed(seeds, unknown, graph.findItem(id, meta), id + "@" + meta);
+        }
+        JsonArray fluids = array(req, "fluids");
+        for (int i = 0; i < fluids.size(); i++) {
+            if (!fluids.get(i).isJsonObject()) continue;
+            String id = string(fluids.get(i).getAsJsonObject(), "id");
+            if (id != null) addSeed(seeds, unknown, graph.findFluid(id), id);
+        }
+        JsonArray nodes = array(req, "nodes");
+        for (int i = 0; i < nodes.size(); i++) {
+            if (!nodes.get(i).isJsonPrimitive()) continue;
+            String id = nodes.get(i).getAsString();
+            addSeed(seeds, unknown, graph.findNode(id), id);
+        }
+        int[] out = new int[seeds.size()];
+        for (int i = 0; i < out.length; i++) out[i] = ((Integer) seeds.get(i)).intValue();
+        return out;
+    }
+
+    /**
+     * Earliest tier of one node ({@code item} + {@code meta}, {@code fluid} or {@code node})
+     * in {@code raw}, a run seeded with every source node.
+     */
+    public static JsonObject earliest(RecipeGraph graph, Reachability.Result raw, Map params) {
+        JsonObject out = new JsonObject();
+        int node = nodeParam(graph, params, out);
+        if (node < 0) return out;
+        int t = raw.earliestTier(node);
+        out.addProperty("reachable", Boolean.valueOf(t >= 0));
+        if (t >= 0) out.addProperty("earliestTier", RecipeIndex.TIERS[t]);
+        out.addProperty("source", Boolean.valueOf(graph.isSource(node)));
+        int first = -1;
+        int[] producers = graph.producers(node);
+        for (int i = 0; t >= 0 && i < producers.length; i++) {
+            if (raw.recipeEarliestTier(producers[i]) == t) {
+                first = producers[i];
+                break;
+            }
+        }
+        out.addProperty("producers", new Integer(producers.length));
+        if (first >= 0) out.addProperty("viaRid", graph.index().dump().rid(first));
+        return out;
+    }
+
+    /**
+     * Cheapest route to one node ({@code item} + {@code meta}, {@code fluid} or {@code node}):
+     * its cost and how it is made, then the inputs of that recipe and so on, breadth first, up to
+     * {@code limit} nodes (default 20).
+     */
+    public static JsonObject cost(MinCost costs, Map params) {
+        JsonObject out = new JsonObject();
+        RecipeGraph graph = costs.graph();
+        int node = nodeParam(graph, params, out);
+        if (node < 0) return out;
+        describeCost(costs, node, out);
+        int limit = intParam(params, "limit", 20);
+        JsonArray route = new JsonArray();
+        boolean[] seen = new boolean[graph.nodeCount()];
+        int[] queue = new int[graph.nodeCount()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = node;
+        seen[node] = true;
+        while (head < tail && route.size() < limit) {
+            int x = queue[head++];
+            int r = costs.bestRecipe(x);
+            int item = costs.bestItem(x);
+            if (x != node) {
+                JsonObject step = new JsonObject();
+                step.addProperty("id", graph.nodeId(x));
+                describeCost(costs, x, step);
+                route.add(step);
+            }
+            if (item >= 0 && !seen[item]) {
+                seen[item] = true;
+                queue[tail++] = item;
+            }
+            for (int i = 0; r >= 0 && i < graph.inputCount(r); i++) {
+                int in = graph.inputNode(r, i);
+                if (seen[in]) continue;
+                seen[in] = true;
+                queue[tail++] = in;
+            }
+        }
+        out.add("route", route);
+        return out;
+    }
+
+    /**
+     * Changes base costs and updates every cost incrementally:
+     * {@code {"costs": {nodeId: costPerUnit or null}, "report": [nodeId]}}. A null clears the
+     * node's override. Reports the update's size and the {@code report} nodes' new costs.
+     */
+    public static JsonObject setCosts(MinCost costs, JsonObject req) {
+        JsonObject out = new JsonObject();
+        RecipeGraph graph = costs.graph();
+        if (!req.has("costs") || !req.get("costs").isJsonObject()) return error(out, "Missing costs object");
+        JsonArray unknown = new JsonArray();
+        List nodes = new ArrayList();
+        List values = new ArrayList();
+        for (Iterator it = req.getAsJsonObject("costs").entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            String id = (String) e.getKey();
+            JsonElement v = (JsonElement) e.getValue();
+            int node = graph.findNode(id);
+            if (node < 0) {
+                unknown.add(new JsonPrimitive(id));
+                continue;
+            }
+            if (!v.isJsonNull() && !(v.isJsonPrimitive() && v.getAsJsonPrimitive().isNumber())) {
+                return error(out, "Cost of " + id + " must be a number or null");
+            }
+            nodes.add(new Integer(node));
+            values.add(new Double(v.isJsonNull() ? Double.NaN : v.getAsDouble()));
+        }
+        int[] n = new int[nodes.size()];
+        double[] c = new double[n.length];
+        for (int i = 0; i < n.length; i++) {
+            n[i] = ((Integer) nodes.get(i)).intValue();
+            c[i] = ((Double) values.get(i)).doubleValue();
+        }
+        costs.updateBaseCosts(n, c);
+        out.addProperty("updated", new Integer(n.length));
+        if (unknown.size() > 0) out.add("unknown", unknown);
+        out.addProperty("invalidated", new Integer(costs.invalidated()));
+        out.addProperty("pops", new Long(costs.pops()));
+        out.addProperty("evaluations", new Long(costs.evaluations()));
+        out.addProperty("millis", new Long(costs.millis()));
+        JsonArray report = array(req, "report");
+        JsonArray arr = new JsonArray();
+        for (int i = 0; i < report.size(); i++) {
+            if (!report.get(i).isJsonPrimitive()) continue;
+            String id = report.get(i).getAsString();
+            JsonObject o = new JsonObject();
+            o.addProperty("id", id);
+            int node = graph.findNode(id);
+            if (node < 0) o.addProperty("error", "Unknown node");
+            else describeCost(costs, node, o);
+            arr.add(o);
+        }
+        out.add("nodes", arr);
+        return out;
+    }
+
+    /**
+     * Production plan: {@code {"targets": {nodeId: perSecond}, "choices": {nodeId: rid, "import" or
+     * (for wildcard / ore nodes) an item nodeId}, "tier": "HV", "perfect": bool}}. Nodes without a
+     * choice use the cheapest recipe of {@code costs}' current solve. A recipe choice must output
+     * its node and an item choice must be one its wildcard / ore node holds; either mistake is an
+     * error rather than a silent import.
+     */
+    public static JsonObject plan(ProductionPlanner planner, JsonObject req) {
+        JsonObject out = new JsonObject();
+        RecipeGraph graph = planner.graph();
+        BinaryDump dump = graph.index().dump();
+        if (!req.has("targets") || !req.get("targets").isJsonObject()) return error(out, "Missing targets object");
+        JsonArray unknown = new JsonArray();
+        List nodes = new ArrayList();
+        List rates = new ArrayList();
+        for (Iterator it = req.getAsJsonObject("targets").entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry e = (Map.Entry) it.next();
+            int node = graph.findNode((String) e.getKey());
+            JsonElement v = (JsonElement) e.getValue();
+            if (node < 0) {
+                unknown.add(new JsonPrimitive((String) e.getKey()));
+            } else if (!v.isJsonPrimitive() || !v.getAsJsonPrimitive().isNumber() || !(v.getAsDouble() > 0.0)) {
+                return error(out, "Rate of " + e.getKey() + " must be a positive number");
+            } else {
+                nodes.add(new Integer(node));
+                rates.add(new Double(v.getAsDouble()));
+            }
+        }
+        Map choices = new HashMap();
+        if (req.has("choices") && req.get("choices").isJsonObject()) {
+            for (Iterator it = req.getAsJsonObject("choices").entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry e = (Map.Entry) it.next();
+                int node = graph.findNode((String) e.getKey());
+                String v = ((JsonElement) e.getValue()).getAsString();
+                int choice = ProductionPlanner.IMPORT;
+                if (node >= 0 && !"import".equals(v)) choice = graph.isAlias(node) ? graph.findNode(v) : dump.findRecipe(v);
+                if (node < 0 || (choice < 0 && !"import".equals(v))) {
+                    unknown.add(new JsonPrimitive(e.getKey() + "=" + v));
+                    continue;
+                }
+                if (choice >= 0 && graph.isAlias(node) && !graph.holds(node, choice)) {
+                    return error(out, "Choice for " + e.getKey() + ": " + v + " is not an item it holds");
+                }
+                if (choice >= 0 && !graph.isAlias(node) && !graph.produces(choice, node)) {
+                    return error(out, "Choice for " + e.getKey() + ": recipe " + v + " does not output it");
+                }
+                choices.put(new Integer(node), new Integer(choice));
+            }
+        }
+        ProductionPlanner.Options o = new ProductionPlanner.Options();
+        if (string(req, "tier") != null) {
+            o.tier = RecipeIndex.tierOrdinal(string(req, "tier"));
+            if (o.tier < 0) return error(out, "Unknown tier: " + string(req, "tier"));
+        }
+        o.perfect = req.has("perfect") && req.get("perfect").getAsBoolean();
+
+        int[] targets = new int[nodes.size()];
+        double[] r = new double[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = ((Integer) nodes.get(i)).intValue();
+            r[i] = ((Double) rates.get(i)).doubleValue();
+        }
+        ProductionPlanner.Plan plan = planner.plan(targets, r, choices, o);
+
+        if (unknown.size() > 0) out.add("unknown", unknown);
+        out.addProperty("totalEut", new Double(plan.totalEut()));
+        out.addProperty("sweeps", new Integer(plan.sweeps()));
+        out.addProperty("converged", Boolean.valueOf(plan.converged()));
+        out.addProperty("millis", new Long(plan.millis()));
+        JsonArray arr = new JsonArray();
+        for (int j = 0; j < plan.recipeCount(); j++) {
+            int rec = plan.recipe(j);
+            JsonObject row = new JsonObject();
+            row.addProperty("rid", dump.rid(rec));
+            row.addProperty("machine", dump.machineId(rec));
+            JsonArray made = new JsonArray();
+            int[] madeFor = plan.madeFor(j);
+            for (int i = 0; i < madeFor.length; i++) made.add(new JsonPrimitive(graph.nodeId(madeFor[i])));
+            row.add("for", made);
+            row.addProperty("craftsPerSecond", new Double(plan.rate(j)));
+            if (plan.tier(j) >= 0) {
+                row.addProperty("tier", RecipeIndex.TIERS[plan.tier(j)]);
+                if (!Double.isNaN(plan.machines(j))) {
+                    row.addProperty("machines", new Double(plan.machines(j)));
+                    row.addProperty("machinesRounded", new Long((long) Math.ceil(plan.machines(j) - 1e-9)));
+                    row.addProperty("parallel", new Integer(plan.parallel(j)));
+                    row.addProperty("eutPerMachine", new Long(plan.eutPerMachine(j)));
+                }
+            }
+            arr.add(row);
+        }
+        out.add("recipes", arr);
+        out.add("imports", rateList(plan, plan.imports(), -1.0));
+        out.add("surplus", rateList(plan, plan.surplus(), 1.0));
+        return out;
+    }
+
+    private static JsonArray rateList(ProductionPlanner.Plan plan, int[] nodes, double sign) {
+        JsonArray arr = new JsonArray();
+        for (int i = 0; i < nodes.length; i++) {
+            JsonObject o = new JsonObject();
+            o.addProperty("id", plan.graph().nodeId(nodes[i]));
+            o.addProperty("perSecond", new Double(sign * plan.netRate(nodes[i])));
+            arr.add(o);
+        }
+        return arr;
+    }
+
+    private static void describeCost(MinCost costs, int node, JsonObject o) {
+        double c = costs.cost(node);
+        o.addProperty("obtainable", Boolean.valueOf(c < Double.POSITIVE_INFINITY));
+        if (!(c < Double.POSITIVE_INFINITY)) return;
+        o.addProperty("cost", new Double(c));
+        int r = costs.bestRecipe(node);
+        if (r >= 0) {
+            BinaryDump dump = costs.graph().index().dump();
+            o.addProperty("rid", dump.rid(r));
+            o.addProperty("machine", dump.machineId(r));
+        } else if (costs.bestItem(node) >= 0) {
+            o.addProperty("viaItem", costs.graph().nodeId(costs.bestItem(node)));
+        } else {
+            o.addProperty("base", Boolean.TRUE);
+        }
+    }
+
+    /** Node named by {@code item} (+ {@code meta}), {@code fluid} or {@code node}; -1 with an error in {@code out}. */
+    private static int nodeParam(RecipeGraph graph, Map params, JsonObject out) {
+        int node;
+        String id;
+        if (param(params, "item") != null) {
+            int meta = intParam(params, "meta", 0);
+            id = param(params, "item") + "@" + meta;
+            node = graph.findItem(param(params, "item"), meta);
+        } else if (param(params, "fluid") != null) {
+            id = param(params, "fluid");
+            node = graph.findFluid(id);
+        } else if (param(params, "node") != null) {
+            id = param(params, "node");
+            node = graph.findNode(id);
+        } else {
+            error(out, "Missing item, fluid or node");
+            return -1;
+        }
+        out.addProperty("id", id);
+        if (node < 0) error(out, "Unknown node: " + id);
+        return node;
+    }
+
+    private static void addSeed(List seeds, JsonArray unknown, int node, String id) {
+        if (node < 0) unknown.add(new JsonPrimitive(id));
+        else seeds.add(new Integer(node));
+    }
+
+    private static JsonObject tierCounts(int[] counts) {
+        JsonObject o = new JsonObject();
+        for (int t = 0; t < counts.length; t++) o.addProperty(RecipeIndex.TIERS[t], new Integer(counts[t]));
+        return o;
+    }
+
+    /** Ranked name lookup: {@code q} (text), {@code kind} (item,fluid,machine subset), {@code limit} (default 20). */
+    public static JsonObject search(NameIndex names, Map params) {
+        JsonObject out = new JsonObject();
+        String q = param(params, "q");
+        if (q == null) return error(out, "Missing q");
+        int mask = NameIndex.kindMask(param(params, "kind"));
+        if (mask < 0) return error(out, "Unknown kind: " + param(params, "kind"));
+        out.addProperty("q", q);
+        List hits = names.search(q, intParam(params, "limit", DEFAULT_SEARCH_LIMIT), mask);
+        JsonArray arr = new JsonArray();
+        for (int i = 0; i < hits.size(); i++) {
+            NameIndex.Hit h = (NameIndex.Hit) hits.get(i);
+            JsonObject o = new JsonObject();
+            o.addProperty("kind", NameIndex.kindName(names.entryKind(h.entry)));
+            o.addProperty("key", names.entryKey(h.entry));
+            String display = names.entryDisplayName(h.entry);
+            if (display.length() > 0) o.addProperty("displayName", display);
+            o.addProperty("matched", h.matchedName);
+            o.addProperty("score", new Double(Math.round(h.score * 1000.0) / 1000.0));
+            arr.add(o);
+        }
+        out.add("hits", arr);
+        return out;
+    }
+
+    public JsonObject recipeJson(int r, boolean full) {
+        JsonObject o = new JsonObject();
+        o.addProperty("rid", dump.rid(r));
+        o.addProperty("machineId", dump.machineId(r));
+        o.addProperty("minTier", dump.minTier(r));
+        o.addProperty("eut", new Long(dump.eut(r)));
+        o.addProperty("durationTicks", new Integer(dump.durationTicks(r)));
+        if (!full) return o;
+        if (dump.has(r, BinaryDump.RF_SPECIAL)) o.addProperty("specialValue", new Integer(dump.specialValue(r)));
+        if (dump.has(r, BinaryDump.RF_CIRCUIT)) o.addProperty("circuitConfig", new Integer(dump.circuitConfig(r)));
+        o.add("itemInputs", items(dump.itemInputStart(r), dump.itemInputCount(r)));
+        o.add("itemOutputs", items(dump.itemOutputStart(r), dump.itemOutputCount(r)));
+        o.add("fluidInputs", fluids(dump.fluidInputStart(r), dump.fluidInputCount(r)));
+        o.add("fluidOutputs", fluids(dump.fluidOutputStart(r), dump.fluidOutputCount(r)));
+        return o;
+    }
+
+    private JsonArray items(int start, int count) {
+        JsonArray arr = new JsonArray();
+        for (int s = start; s < start + count; s++) {
+            JsonObject o = new JsonObject();
+            o.addProperty("id", dump.itemId(s));
+            o.addProperty("meta", new Integer(dump.itemMeta(s)));
+            o.addProperty("count", new Integer(dump.itemCount(s)));
+            double chance = dump.itemChance(s);
+            if (!Double.isNaN(chance)) o.addProperty("chance", new Double(chance));
+            String name = dump.itemDisplayName(s);
+            if (name != null) o.addProperty("displayName", name);
+            arr.add(o);
+        }
+        return arr;
+    }
+
+    private JsonArray fluids(int start, int count) {
+        JsonArray arr = new JsonArray();
+        for (int s = start; s < start + count; s++) {
+            JsonObject o = new JsonObject();
+            o.addProperty("id", dump.fluidId(s));
+            o.addProperty("mb", new Integer(dump.fluidMb(s)));
+            String name = dump.fluidDisplayName(s);
+            if (name != null) o.addProperty("displayName", name);
+            arr.add(o);
+        }
+        return arr;
+    }
+
+    private static JsonObject error(JsonObject out, String message) {
+        out.addProperty("error", message);
+        return out;
+    }
+
+    private static String string(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        return (e == null || !e.isJsonPrimitive()) ? null : e.getAsString();
+    }
+
+    private static long number(JsonObject o, String key, long fallback) {
+        JsonElement e = o.get(key);
+        if (e == null || !e.isJsonPrimitive()) return fallback;
+        try {
+            return e.getAsLong();
+        } catch (NumberFormatException ex) {
+            return fallback;
+        }
+    }
+
+    private static JsonArray array(JsonObject o, String key) {
+        JsonElement e = o.get(key);
+        return (e != null && e.isJsonArray()) ? e.getAsJsonArray() : new JsonArray();
+    }
+
+    static String param(Map params, String key) {
+        Object v = params.get(key);
+        if (v == null) return null;
+        String s = v.toString();
+        return (s.length() == 0) ? null : s;
+    }
+
+    static int intParam(Map params, String key, int fallback) {
+        String v = param(params, key);
+        if (v == null) return fallback;
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.jamesarhy.gtnh.recipequery;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.jamesarhy.gtnh.recipedumper.io.NameIndex;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Command line entry point for the recipe query service.
+ *
+ * Usage: {@code java -jar RecipeQuery.jar <serve|bench|match-bench|reach|cost|plan> --dump <recipes.bin|dump dir> [--option value ...]}
+ */
+public final class RecipeQueryMain {
+
+    private RecipeQueryMain() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            System.exit(2);
+        }
+        String cmd = args[0];
+        Map opts = parseOptions(args, 1);
+
+        if ("serve".equals(cmd)) {
+            RecipeIndex index = load(opts);
+            String host = opts.containsKey("host") ? (String) opts.get("host") : QueryServer.DEFAULT_HOST;
+            int port = intOption(opts, "port", QueryServer.DEFAULT_PORT);
+            QueryServer server = new QueryServer(index);
+            File namesFile = new File(dumpFile(opts).getParentFile(), NameIndex.FILE_NAME);
+            if (namesFile.isFile()) {
+                server.setNameIndex(NameIndex.open(namesFile));
+                System.out.println("[recipequery] name search enabled (" + namesFile.getName() + ")");
+            }
+            server.start(host, port, intOption(opts, "threads", 4));
+            System.out.println("[recipequery] listening on http://" + host + ":" + server.port());
+        } else if ("bench".equals(cmd)) {
+            RecipeIndex index = load(opts);
+            QueryBenchmark.Options o = new QueryBenchmark.Options();
+            o.queries = intOption(opts, "queries", o.queries);
+            o.warmup = intOption(opts, "warmup", o.warmup);
+            o.threads = intOption(opts, "threads", o.threads);
+            o.limit = intOption(opts, "limit", o.limit);
+            o.seed = intOption(opts, "seed", (int) o.seed);
+            o.http = !"false".equals(opts.get("http"));
+            QueryBenchmark.run(index, o);
+        } else if ("match-bench".equals(cmd)) {
+            RecipeIndex index = load(opts);
+            long start = System.currentTimeMillis();
+            RecipeMatcher matcher = new RecipeMatcher(index);
+            System.out.println("[recipequery] matcher built in " + (System.currentTimeMillis() - start) + " ms");
+            QueryBenchmark.Options o = new QueryBenchmark.Options();
+            o.warmup = intOption(opts, "warmup", o.warmup);
+            o.seed = intOption(opts, "seed", (int) o.seed);
+            QueryBenchmark.runMatch(matcher, o);
+        } else if ("reach".equals(cmd)) {
+            reach(load(opts), opts);
+        } else if ("cost".equals(cmd)) {
+            cost(load(opts), opts);
+        } else if ("plan".equals(cmd)) {
+            plan(load(opts), opts);
+        } else {
+            System.out.println("[recipequery] Unknown command: " + cmd);
+            usage();
+            System.exit(2);
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: RecipeQuery <command> [options]");
+        System.out.println("  serve --dump <recipes.bin|dump dir> [--host 127.0.0.1] [--port " + QueryServer.DEFAULT_PORT + "] [--threads 4]");
+        System.out.println("  bench --dump <recipes.bin|dump dir> [--queries n] [--warmup n] [--threads n] [--limit n] [--http false]");
+        System.out.println("  match-bench --dump <recipes.bin|dump dir> [--warmup n] [--seed n]");
+        System.out.println("  cost --dump <recipes.bin|dump dir> [--costs costs.json] [--eu-weight 1] [--tick-weight 0] [--max-tier HV]"
+                + " [--item-cost 0] [--fluid-cost 0] [--out min_cost.csv]");
+        System.out.println("  plan --dump <recipes.bin|dump dir> --request plan.json [--out plan-result.json]");
+        System.out.println("  reach --dump <recipes.bin|dump dir> [--inventory inv.json] [--seed nodeId,...] [--raw true|false] [--out reachability.csv]");
+    }
+
+    /**
+     * Forward reachability from an inventory file (a /reach request body) and/or {@code --seed}
+     * node ids, written as a CSV of every obtainable node and its earliest tier.
+     */
+    private static void reach(RecipeIndex index, Map opts) throws Exception {
+        JsonObject req = new JsonObject();
+        if (opts.get("inventory") instanceof String) {
+            Reader in = new InputStreamReader(new FileInputStream((String) opts.get("inventory")), "UTF-8");
+            try {
+                JsonElement e = JsonParser.parseReader(in);
+                if (e.isJsonObject()) req = e.getAsJsonObject();
+            } finally {
+                in.close();
+            }
+        }
+        if (opts.get("seed") instanceof String) {
+            JsonArray nodes = req.has("nodes") ? req.getAsJsonArray("nodes") : new JsonArray();
+            String[] ids = ((String) opts.get("seed")).split(",");
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i].trim().length() > 0) nodes.add(new JsonPrimitive(ids[i].trim()));
+            }
+            req.add("nodes", nodes);
+        }
+
+        RecipeGraph graph = new RecipeGraph(index);
+        System.out.println("[recipequery] graph built in " + graph.buildMillis() + " ms (" + graph.nodeCount() + " nodes)");
+        JsonArray unknown = new JsonArray();
+        int[] seeds = RecipeQueries.seeds(graph, req, unknown);
+        boolean raw = opts.containsKey("raw") ? "true".equals(opts.get("raw")) : seeds.length == 0;
+        for (int i = 0; i < unknown.size(); i++) {
+            System.out.println("[recipequery] unknown seed: " + unknown.get(i).getAsString());
+        }
+        Reachability.Result res = new Reachability(graph).run(seeds, raw);
+        int[] counts = res.reachableCounts();
+        int[] runnable = res.runnableCounts();
+        System.out.println("[recipequery] reachability from " + seeds.length + " seeds" + (raw ? " + raw resources" : "")
+                + " in " + res.millis() + " ms (" + res.pops() + " pops)");
+        for (int t = 0; t < counts.length; t++) {
+            System.out.println("[recipequery]   " + RecipeIndex.TIERS[t] + ": " + counts[t] + " nodes, " + runnable[t] + " recipes");
+        }
+
+        File out = new File(opts.containsKey("out") ? (String) opts.get("out") : "reachability.csv");
+        Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), "UTF-8"));
+        int rows = 0;
+        try {
+            w.write("node_id,kind,earliest_tier,seeded\n");
+            String[] kinds = new String[] {"item", "fluid", "ore"};
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                int t = res.earliestTier(node);
+                if (t < 0) continue;
+                w.write(csv(graph.nodeId(node)) + "," + kinds[graph.kind(node)] + "," + RecipeIndex.TIERS[t] + ","
+                        + res.seeded(node) + "\n");
+                rows++;
+            }
+        } finally {
+            w.close();
+        }
+        System.out.println("[recipequery] wrote " + rows + " rows to " + out.getPath());
+    }
+
+    /**
+     * Cheapest recipe and cost of every node, written as a CSV. {@code --costs} is a JSON object of
+     * node id to base cost per unit; the first of them is then changed again to time the
+     * incremental update.
+     */
+    private static void cost(RecipeIndex index, Map opts) throws Exception {
+        MinCost.Options o = new MinCost.Options();
+        o.euWeight = doubleOption(opts, "eu-weight", o.euWeight);
+        o.tickWeight = doubleOption(opts, "tick-weight", o.tickWeight);
+        o.itemCost = doubleOption(opts, "item-cost", o.itemCost);
+        o.fluidCost = doubleOption(opts, "fluid-cost", o.fluidCost);
+        if (opts.get("max-tier") instanceof String) {
+            o.maxTier = RecipeIndex.tierOrdinal((String) opts.get("max-tier"));
+            if (o.maxTier < 0) {
+                System.out.println("[recipequery] Unknown tier: " + opts.get("max-tier"));
+                System.exit(2);
+            }
+        }
+        RecipeGraph graph = new RecipeGraph(index);
+        System.out.println("[recipequery] graph built in " + graph.buildMillis() + " ms (" + graph.nodeCount() + " nodes)");
+        MinCost costs = new MinCost(graph, o);
+
+        int first = -1;
+        if (opts.get("costs") instanceof String) {
+            Reader in = new InputStreamReader(new FileInputStream((String) opts.get("costs")), "UTF-8");
+            try {
+                JsonElement e = JsonParser.parseReader(in);
+                if (e.isJsonObject()) {
+                    for (Iterator it = e.getAsJsonObject().entrySet().iterator(); it.hasNext(); ) {
+                        Map.Entry en = (Map.Entry) it.next();
+                        int node = graph.findNode((String) en.getKey());
+                        if (node < 0) {
+                            System.out.println("[recipequery] unknown node: " + en.getKey());
+                            continue;
+                        }
+                        costs.setBaseCost(node, ((JsonElement) en.getValue()).getAsDouble());
+                        if (first < 0) first = node;
+                    }
+                }
+            } finally {
+                in.close();
+            }
+        }
+        costs.solve();
+        System.out.println("[recipequery] costs solved in " + costs.millis() + " ms (" + costs.pops() + " pops, "
+                + costs.evaluations() + " recipe evaluations)");
+        if (first >= 0) {
+            double c = costs.baseCost(first);
+            costs.updateBaseCosts(new int[] {first}, new double[] {c * 2.0});
+            System.out.println("[recipequery] update of " + graph.nodeId(first) + " in " + costs.millis() + " ms ("
+                    + costs.invalidated() + " nodes reset, " + costs.pops() + " pops)");
+            costs.updateBaseCosts(new int[] {first}, new double[] {c});
+        }
+
+        File out = new File(opts.containsKey("out") ? (String) opts.get("out") : "min_cost.csv");
+        Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(out), "UTF-8"));
+        int rows = 0;
+        try {
+            w.write("node_id,kind,cost,rid,via_item\n");
+            String[] kinds = new String[] {"item", "fluid", "ore"};
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                double c = costs.cost(node);
+                if (!(c < Double.POSITIVE_INFINITY)) continue;
+                int r = costs.bestRecipe(node);
+                int item = costs.bestItem(node);
+                w.write(csv(graph.nodeId(node)) + "," + kinds[graph.kind(node)] + "," + c + ","
+                        + ((r >= 0) ? csv(index.dump().rid(r)) : "") + "," + ((item >= 0) ? csv(graph.nodeId(item)) : "") + "\n");
+                rows++;
+            }
+        } finally {
+            w.close();
+        }
+        System.out.println("[recipequery] wrote " + rows + " rows to " + out.getPath());
+    }
+
+    /**
+     * Production plan for a request file (a POST /plan body), recipes chosen by the default
+     * {@link MinCost} solve where the request leaves them open.
+     */
+    private static void plan(RecipeIndex index, Map opts) throws Exception {
+        if (!(opts.get("request") instanceof String)) {
+            System.out.println("[recipequery] Missing required option --request");
+            usage();
+            System.exit(2);
+        }
+        JsonObject req;
+        Reader in = new InputStreamReader(new FileInputStream((String) opts.get("request")), "UTF-8");
+        try {
+            req = JsonParser.parseReader(in).getAsJsonObject();
+        } finally {
+            in.close();
+        }
+        RecipeGraph graph = new RecipeGraph(index);
+        MinCost costs = new MinCost(graph, new MinCost.Options());
+        costs.solve();
+        ProductionPlanner planner = new ProductionPlanner(graph, costs);
+        System.out.println("[recipequery] graph, costs and planner ready (costs solved in " + costs.millis() + " ms)");
+        JsonObject result = RecipeQueries.plan(planner, req);
+        if (result.has("error")) {
+            System.out.println("[recipequery] " + result.get("error").getAsString());
+            System.exit(1);
+        }
+        System.out.println("[recipequery] planned " + result.getAsJsonArray("recipes").size() + " recipes in "
+                + result.get("millis").getAsLong() + " ms (" + result.get("sweeps").getAsInt() + " sweeps), "
+                + result.get("totalEut").getAsDouble() + " EU/t");
+        String json = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(result);
+        if (opts.get("out") instanceof String) {
+            Writer w = new OutputStreamWriter(new FileOutputStream((String) opts.get("out")), "UTF-8");
+            try {
+                w.write(json);
+            } finally {
+                w.close();
+            }
+            System.out.println("[recipequery] wrote " + opts.get("out"));
+        } else {
+            System.out.println(json);
+        }
+    }
+
+    private static String csv(String s) {
+        if (s.indexOf(',') < 0 && s.indexOf('"') < 0) return s;
+        return "\"" + s.replace("\"", "\"\"") + "\"";
+    }
+
+    private static File dumpFile(Map opts) {
+        Object v = opts.get("dump");
+        if (!(v instanceof String)) {
+            System.out.println("[recipequery] Missing required option --dump");
+            usage();
+            System.exit(2);
+        }
+        File f = new File((String) v).getAbsoluteFile();
+        return f.isDirectory() ? new File(f, "recipes.bin") : f;
+    }
+
+    private static RecipeIndex load(Map opts) throws Exception {
+        File f = dumpFile(opts);
+        long start = System.currentTimeMillis();
+        RecipeIndex index = RecipeIndex.load(f);
+        System.out.println("[recipequery] loaded " + index.recipeCount() + " recipes (" + index.itemKeyCount()
+                + " items, " + index.fluidKeyCount() + " fluids) in " + (System.currentTimeMillis() - start) + " ms");
+        return index;
+    }
+
+    static Map parseOptions(String[] args, int start) {
+        Map out = new HashMap();
+        for (int i = start; i < args.length; i++) {
+            String a = args[i];
+            if (!a.startsWith("--")) continue;
+            String key = a.substring(2);
+            String value = "true";
+            int eq = key.indexOf('=');
+            if (eq >= 0) {
+                value = key.substring(eq + 1);
+                key = key.substring(0, eq);
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                value = args[++i];
+            }
+            out.put(key, value);
+        }
+        return out;
+    }
+
+    static double doubleOption(Map opts, String key, double fallback) {
+        Object v = opts.get(key);
+        if (!(v instanceof String)) return fallback;
+        try {
+            return Double.parseDouble((String) v);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    static int intOption(Map opts, String key, int fallback) {
+        Object v = opts.get(key);
+        if (!(v instanceof String)) return fallback;
+        try {
+            return Integer.parseInt((String) v);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.jamesarhy.gtnh.recipetools;
+
+import com.google.gson.JsonObject;
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+import com.jamesarhy.gtnh.recipedumper.io.NameIndex;
+import com.jamesarhy.gtnh.recipedumper.io.RecipeGraphIndex;
+import com.jamesarhy.gtnh.recipetools.diff.RecipeDiff;
+import com.jamesarhy.gtnh.recipetools.dump.RecipeDumpReader;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point for the offline recipe tools.
+ *
+ * Usage: {@code java -jar RecipeTools.jar <command> [--option value ...]}
+ */
+public final class RecipeToolsMain {
+
+    private RecipeToolsMain() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage();
+            System.exit(2);
+        }
+        String cmd = args[0];
+        Map opts = parseOptions(args, 1);
+
+        if ("diff".equals(cmd)) {
+            runDiff(opts);
+        } else if ("graph".equals(cmd)) {
+            runGraph(opts);
+        } else if ("bin".equals(cmd)) {
+            runBin(opts);
+        } else if ("names".equals(cmd)) {
+            runNames(opts);
+        } else {
+            System.out.println("[recipetools] Unknown command: " + cmd);
+            usage();
+            System.exit(2);
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage: RecipeTools <command> [options]");
+        System.out.println("  diff --old <dump dir|recipes.json> --new <dump dir|recipes.json> --out <dir>");
+        System.out.println("       [--old-machine-index <file>] [--new-machine-index <file>] [--run-size <n>] [--tmp <dir>]");
+        System.out.println("  graph --index <recipe_graph.csr> [--node <item:modid:name@meta|fluid:name|ore:name>]");
+        System.out.println("  bin --dump <recipes.bin> [--rid <rid>] [--machine <machineId>]");
+        System.out.println("  names --index <names.tri|dump dir> [--query <text>] [--kind item,fluid,machine] [--limit 20]");
+    }
+
+    private static void runDiff(Map opts) throws Exception {
+        RecipeDiff.Options o = new RecipeDiff.Options();
+        o.oldDump = dumpFile(required(opts, "old"));
+        o.newDump = dumpFile(required(opts, "new"));
+        o.oldMachineIndex = machineIndexFile(opts, "old-machine-index", o.oldDump);
+        o.newMachineIndex = machineIndexFile(opts, "new-machine-index", o.newDump);
+        o.outDir = new File(required(opts, "out"));
+        if (opts.containsKey("tmp")) o.tmpDir = new File((String) opts.get("tmp"));
+        o.runSize = intOption(opts, "run-size", RecipeDiff.DEFAULT_RUN_SIZE);
+
+        JsonObject summary = RecipeDiff.run(o);
+        RecipeDiff.printSummary(summary);
+        System.out.println("[recipetools] wrote " + new File(o.outDir, "recipe_diff.jsonl").getAbsolutePath());
+    }
+
+    private static void runGraph(Map opts) throws Exception {
+        long start = System.nanoTime();
+        RecipeGraphIndex g = RecipeGraphIndex.open(new File(required(opts, "index")));
+        long openedUs = (System.nanoTime() - start) / 1000L;
+        System.out.println("[recipetools] " + g.nodeCount() + " nodes, " + g.recipeCount() + " recipes, "
+                + g.machineCount() + " machines (opened in " + openedUs + " us)");
+
+        Object key = opts.get("node");
+        if (!(key instanceof String)) return;
+        int node = g.findNode((String) key);
+        if (node < 0) {
+            System.out.println("[recipetools] Node not found: " + key);
+            return;
+        }
+        System.out.println("Produced by:");
+        for (int i = g.producerStart(node); i < g.producerEnd(node); i++) {
+            int r = g.producerRecipe(i);
+            System.out.println("  " + g.rid(r) + "  [" + g.machineId(g.recipeMachine(r)) + "]");
+        }
+        System.out.println("Consumed by:");
+        for (int i = g.consumerStart(node); i < g.consumerEnd(node); i++) {
+            int r = g.consumerRecipe(i);
+            System.out.println("  " + g.rid(r) + "  [" + g.machineId(g.recipeMachine(r)) + "]");
+        }
+    }
+
+    private static void runBin(Map opts) throws Exception {
+        long start = System.nanoTime();
+        BinaryDump d = BinaryDump.open(new File(required(opts, "dump")));
+        long openedUs = (System.nanoTime() - start) / 1000L;
+        System.out.println("[recipetools] " + d.recipeCount() + " recipes in " + d.mapCount() + " maps, "
+                + d.dictionarySize() + " strings (opened in " + openedUs + " us)");
+
+        Object rid = opts.get("rid");
+        if (rid instanceof String) {
+            int r = d.findRecipe((String) rid);
+            if (r < 0) {
+                System.out.println("[recipetools] Recipe not found: " + rid);
+            } else {
+                printBinaryRecipe(d, r);
+            }
+        }
+        Object machine = opts.get("machine");
+        if (machine instanceof String) {
+            int[] maps = d.findMaps((String) machine);
+            if (maps.length == 0) {
+                System.out.println("[recipetools] Machine not found: " + machine);
+                return;
+            }
+            for (int i = 0; i < maps.length; i++) {
+                int m = maps[i];
+                System.out.println(d.mapMachineId(m) + " (" + d.mapDisplayName(m) + "): " + d.mapRecipeCount(m) + " recipes");
+                int end = d.mapFirstRecipe(m) + d.mapRecipeCount(m);
+                for (int r = d.mapFirstRecipe(m); r < end; r++) {
+                    System.out.println("  " + d.rid(r) + "  " + d.eut(r) + " EU/t x " + d.durationTicks(r) + " t");
+                }
+            }
+        }
+    }
+
+    private static void runNames(Map opts) throws Exception {
+        File f = new File(required(opts, "index"));
+        if (f.isDirectory()) f = new File(f, NameIndex.FILE_NAME);
+        long start = System.nanoTime();
+        NameIndex idx = NameIndex.open(f);
+        long openedUs = (System.nanoTime() - start) / 1000L;
+        System.out.println("[recipetools] " + idx.entryCount() + " entries, " + idx.nameCount() + " names (opened in " + openedUs + " us)");
+
+        Object query = opts.get("query");
+        if (!(query instanceof String)) return;
+        int mask = NameIndex.kindMask((String) opts.get("kind"));
+        if (mask < 0) {
+            System.out.println("[recipetools] Unknown --kind: " + opts.get("kind"));
+            return;
+        }
+        start = System.nanoTime();
+        List hits = idx.search((String) query, intOption(opts, "limit", 20), mask);
+        long searchUs = (System.nanoTime() - start) / 1000L;
+        for (int i = 0; i < hits.size(); i++) {
+            NameIndex.Hit h = (NameIndex.Hit) hits.get(i);
+            System.out.println(String.format("%6.3f  %-8s %s  (%s)", new Object[] {new Double(h.score),
+                    NameIndex.kindName(idx.entryKind(h.entry)), idx.entryKey(h.entry), idx.entryDisplayName(h.entry)}));
+        }
+        System.out.println("[recipetools] " + hits.size() + " hits in " + searchUs + " us");
+    }
+
+    private static void printBinaryRecipe(BinaryDump d, int r) {
+        RecipeDumpReader.RecipeRecord rec = RecipeDumpReader.binaryRecipe(d, r);
+        System.out.println(rec.rid + "  [" + rec.machineId + "]  " + rec.eut + " EU/t x " + rec.durationTicks + " t"
+                + (rec.minTier != null ? "  (" + rec.minTier + ")" : ""));
+        printStacks("in ", rec.itemInputs);
+        printStacks("in ", rec.fluidInputs);
+        printStacks("out", rec.itemOutputs);
+        printStacks("out", rec.fluidOutputs);
+    }
+
+    private static void printStacks(String label, RecipeDumpReader.StackRecord[] stacks) {
+        for (int i = 0; i < stacks.length; i++) {
+            RecipeDumpReader.StackRecord s = stacks[i];
+            String key = s.fluid ? s.id : s.id + "@" + s.meta;
+            String chance = (s.chance != null) ? "  @" + s.chance : "";
+            System.out.println("  " + label + "  " + s.amount + (s.fluid ? " mB " : " x ") + key + chance);
+        }
+    }
+
+    /* ---------- Option helpers ---------- */
+
+    static Map parseOptions(String[] args, int start) {
+        Map out = new HashMap();
+        for (int i = start; i < args.length; i++) {
+            String a = args[i];
+            if (!a.startsWith("--")) continue;
+            String key = a.substring(2);
+            String value = "true";
+            int eq = key.indexOf('=');
+            if (eq >= 0) {
+                value = key.substring(eq + 1);
+                key = key.substring(0, eq);
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                value = args[++i];
+            }
+            out.put(key, value);
+        }
+        return out;
+    }
+
+    static String required(Map opts, String key) {
+        Object v = opts.get(key);
+        if (!(v instanceof String) || ((String) v).length() == 0) {
+            System.out.println("[recipetools] Missing required option --" + key);
+            usage();
+            System.exit(2);
+        }
+        return (String) v;
+    }
+
+    static int intOption(Map opts, String key, int fallback) {
+        Object v = opts.get(key);
+        if (!(v instanceof String)) return fallback;
+        try {
+            return Integer.parseInt((String) v);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /** Accepts a dump directory (as copied to out/), recipes.json or recipes.bin; directories prefer the binary dump. */
+    static File dumpFile(String path) {
+        File f = new File(path);
+        if (!f.isDirectory()) return f;
+        File bin = new File(f, BinaryDump.FILE_NAME);
+        if (BinaryDump.isBinaryDump(bin)) return bin;
+        return new File(f, "recipes.json");
+    }
+
+    private static File machineIndexFile(Map opts, String key, File dump) {
+        Object v = opts.get(key);
+        if (v instanceof String) return new File((String) v);
+        return new File(dump.getParentFile(), "machine_index.json");
+    }
+}
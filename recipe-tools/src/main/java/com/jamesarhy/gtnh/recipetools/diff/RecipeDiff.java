@@ -0,0 +1,697 @@
+package com.jamesarhy.gtnh.recipetools.diff;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.jamesarhy.gtnh.recipetools.dump.JsonLineWriter;
+import com.jamesarhy.gtnh.recipetools.dump.RecipeDumpReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Cross-version recipe diff over two {@code recipes.json} dumps.
+ *
+ * Each dump is streamed once and reduced to small key records which are sorted externally by
+ * (machineId, input signature, rid) in bounded-size runs. The two sorted streams are then
+ * merge-joined group by group:
+ * <ul>
+ *   <li>same rid on both sides: unchanged (the rid already hashes the full body)</li>
+ *   <li>same machine + inputs, different rid: modified (EU/t, duration, special value or outputs)</li>
+ *   <li>anything left over: added or removed</li>
+ * </ul>
+ * Groups are streamed in rid order, so heap use is bounded by the run size and the pairing window
+ * ({@link #PAIR_WINDOW} unmatched records per side), not by the dump or group size. Within a
+ * window, leftover old and new bodies are paired greedily by similarity; past it, the oldest
+ * leftover is paired with the best candidate seen so far (or reported alone).
+ */
+public final class RecipeDiff {
+
+    public static final int DEFAULT_RUN_SIZE = 100000;
+    /** Unmatched records held per side of a group while waiting to be paired. */
+    public static final int PAIR_WINDOW = 1024;
+
+    private static final String[] BONUS_FIELDS = new String[] {
+            "parallelBonus", "maxParallel", "coilBonus", "speedBonus", "efficiencyBonus", "tooltipDerived", "bonusRules"
+    };
+
+    private static final Gson GSON = new GsonBuilder()
+            .setPrettyPrinting()
+            .disableHtmlEscaping()
+            .create();
+
+    private RecipeDiff() {}
+
+    public static final class Options {
+        public File oldDump;
+        public File newDump;
+        public File oldMachineIndex;
+        public File newMachineIndex;
+        public File outDir;
+        public File tmpDir;
+        public int runSize = DEFAULT_RUN_SIZE;
+    }
+
+    public static JsonObject run(Options opts) throws IOException {
+        long start = System.currentTimeMillis();
+        if (!opts.outDir.exists()) opts.outDir.mkdirs();
+        File tmpDir = (opts.tmpDir != null) ? opts.tmpDir : new File(opts.outDir, ".diff-tmp");
+        if (!tmpDir.exists()) tmpDir.mkdirs();
+
+        List runFiles = new ArrayList();
+        try {
+            List oldRuns = new ArrayList();
+            List newRuns = new ArrayList();
+            RecipeDumpReader.DumpInfo oldInfo = sortIntoRuns(opts.oldDump, tmpDir, "old", opts.runSize, oldRuns);
+            runFiles.addAll(oldRuns);
+            RecipeDumpReader.DumpInfo newInfo = sortIntoRuns(opts.newDump, tmpDir, "new", opts.runSize, newRuns);
+            runFiles.addAll(newRuns);
+            long sortedAt = System.currentTimeMillis();
+
+            Map perMachine = new TreeMap(); // machineId -> long[] {added, removed, modified, unchanged}
+            JsonLineWriter rows = new JsonLineWriter(new File(opts.outDir, "recipe_diff.jsonl"));
+            MergedCursor a = new MergedCursor(oldRuns);
+            MergedCursor b = new MergedCursor(newRuns);
+            try {
+                mergeJoin(a, b, rows, perMachine);
+            } finally {
+                a.close();
+                b.close();
+                rows.close();
+            }
+            long joinedAt = System.currentTimeMillis();
+
+            long[] miCounts = diffMachineIndex(opts.oldMachineIndex, opts.newMachineIndex,
+                    new File(opts.outDir, "machine_index_diff.jsonl"));
+
+            JsonObject summary = buildSummary(opts, oldInfo, newInfo, perMachine, miCounts);
+            JsonObject timing = new JsonObject();
+            timing.addProperty("sortMs", sortedAt - start);
+            timing.addProperty("joinMs", joinedAt - sortedAt);
+            timing.addProperty("totalMs", System.currentTimeMillis() - start);
+            summary.add("timing", timing);
+            writeJson(new File(opts.outDir, "diff_summary.json"), summary);
+            return summary;
+        } finally {
+            for (int i = 0; i < runFiles.size(); i++) ((File) runFiles.get(i)).delete();
+            if (opts.tmpDir == null) tmpDir.delete();
+        }
+    }
+
+    /* ---------- Key records ---------- */
+
+    static final class KeyRecord {
+        String machineId;
+        long inputKey;
+        String inputs;
+        String rid;
+        long eut;
+        int duration;
+        Integer special;
+        String outputs;
+
+        static KeyRecord of(RecipeDumpReader.RecipeRecord r) {
+            KeyRecord k = new KeyRecord();
+            k.machineId = nullSafe(r.machineId);
+            k.inputs = canonInputs(r);
+            k.inputKey = hash64(k.machineId + "|" + k.inputs);
+            k.rid = nullSafe(r.rid);
+            k.eut = r.eut;
+            k.duration = r.durationTicks;
+            k.special = r.specialValue;
+            k.outputs = canonOutputs(r);
+            return k;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            writeString(out, machineId);
+            out.writeLong(inputKey);
+            writeString(out, inputs);
+            writeString(out, rid);
+            out.writeLong(eut);
+            out.writeInt(duration);
+            out.writeBoolean(special != null);
+            if (special != null) out.writeInt(special.intValue());
+            writeString(out, outputs);
+        }
+
+        static KeyRecord read(DataInputStream in) throws IOException {
+            KeyRecord k = new KeyRecord();
+            try {
+                k.machineId = readString(in);
+            } catch (EOFException eof) {
+                return null;
+            }
+            k.inputKey = in.readLong();
+            k.inputs = readString(in);
+            k.rid = readString(in);
+            k.eut = in.readLong();
+            k.duration = in.readInt();
+            if (in.readBoolean()) k.special = new Integer(in.readInt());
+            k.outputs = readString(in);
+            return k;
+        }
+    }
+
+    private static final Comparator RECORD_ORDER = new Comparator() {
+        public int compare(Object oa, Object ob) {
+            KeyRecord a = (KeyRecord) oa;
+            KeyRecord b = (KeyRecord) ob;
+            int c = compareGroup(a, b);
+            if (c != 0) return c;
+            return a.rid.compareTo(b.rid);
+        }
+    };
+
+    private static int compareGroup(KeyRecord a, KeyRecord b) {
+        int c = a.machineId.compareTo(b.machineId);
+        if (c != 0) return c;
+        if (a.inputKey != b.inputKey) return (a.inputKey < b.inputKey) ? -1 : 1;
+        return a.inputs.compareTo(b.inputs);
+    }
+
+    static String canonInputs(RecipeDumpReader.RecipeRecord r) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("items=").append(canonStacks(r.itemInputs, false));
+        sb.append("|fluids=").append(canonStacks(r.fluidInputs, false));
+        sb.append("|circuit=").append(r.circuitConfig != null ? r.circuitConfig.intValue() : -1);
+        return sb.toString();
+    }
+
+    static String canonOutputs(RecipeDumpReader.RecipeRecord r) {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("items=").append(canonStacks(r.itemOutputs, true));
+        sb.append("|fluids=").append(canonStacks(r.fluidOutputs, true));
+        return sb.toString();
+    }
+
+    private static String canonStacks(RecipeDumpReader.StackRecord[] stacks, boolean withChance) {
+        if (stacks == null || stacks.length == 0) return "[]";
+        String[] parts = new String[stacks.length];
+        int n = 0;
+        for (int i = 0; i < stacks.length; i++) {
+            RecipeDumpReader.StackRecord s = stacks[i];
+            if (s == null) continue;
+            StringBuilder p = new StringBuilder(48);
+            p.append(nullSafe(s.id));
+            if (!s.fluid) p.append('@').append(s.meta);
+            p.append('x').append(s.amount);
+            if (withChance && s.chance != null) p.append('%').append(s.chance.doubleValue());
+            parts[n++] = p.toString();
+        }
+        parts = (String[]) Arrays.copyOf(parts, n);
+        Arrays.sort(parts);
+        return Arrays.toString(parts);
+    }
+
+    /* ---------- External sort ---------- */
+
+    private static RecipeDumpReader.DumpInfo sortIntoRuns(File dump, final File tmpDir, final String tag,
+                                                          final int runSize, final List runsOut) throws IOException {
+        final List buffer = new ArrayList(Math.min(runSize, 1 << 16));
+        RecipeDumpReader.DumpInfo info = RecipeDumpReader.read(dump, new RecipeDumpReader.Visitor() {
+            public void onRoot(RecipeDumpReader.DumpInfo info) {}
+
+            public void onRecipeMap(RecipeDumpReader.MapInfo map) {}
+
+            public void onRecipe(RecipeDumpReader.RecipeRecord r) throws IOException {
+                buffer.add(KeyRecord.of(r));
+                if (buffer.size() >= runSize) flushRun(buffer, tmpDir, tag, runsOut);
+            }
+        });
+        if (buffer.size() > 0 || runsOut.isEmpty()) flushRun(buffer, tmpDir, tag, runsOut);
+        return info;
+    }
+
+    private static void flushRun(List buffer, File tmpDir, String tag, List runsOut) throws IOException {
+        Collections.sort(buffer, RECORD_ORDER);
+        File f = new File(tmpDir, tag + "-run-" + runsOut.size() + ".bin");
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 1 << 16));
+        try {
+            for (int i = 0; i < buffer.size(); i++) ((KeyRecord) buffer.get(i)).write(out);
+        } finally {
+            out.close();
+        }
+        runsOut.add(f);
+        buffer.clear();
+    }
+
+    private static final class RunCursor {
+        final DataInputStream in;
+        KeyRecord head;
+
+        RunCursor(File f) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), 1 << 16));
+            head = KeyRecord.read(in);
+        }
+
+        void advance() throws IOException {
+            head = KeyRecord.read(in);
+        }
+    }
+
+    /** K-way merge over sorted runs; only one record per run is held in memory. */
+    private static final class MergedCursor {
+        private final PriorityQueue queue;
+        private final List cursors = new ArrayList();
+
+        MergedCursor(List runs) throws IOException {
+            queue = new PriorityQueue(Math.max(1, runs.size()), new Comparator() {
+                public int compare(Object a, Object b) {
+                    return RECORD_ORDER.compare(((RunCursor) a).head, ((RunCursor) b).head);
+                }
+            });
+            for (int i = 0; i < runs.size(); i++) {
+                RunCursor c = new RunCursor((File) runs.get(i));
+                cursors.add(c);
+                if (c.head != null) queue.add(c);
+            }
+        }
+
+        KeyRecord peek() {
+            RunCursor c = (RunCursor) queue.peek();
+            return (c == null) ? null : c.head;
+        }
+
+        KeyRecord next() throws IOException {
+            RunCursor c = (RunCursor) queue.poll();
+            if (c == null) return null;
+            KeyRecord out = c.head;
+            c.advance();
+            if (c.head != null) queue.add(c);
+            return out;
+        }
+
+        /** Head record when it belongs to {@code group}'s group, else null. */
+        KeyRecord peekIn(KeyRecord group) {
+            KeyRecord h = peek();
+            return (h != null && compareGroup(group, h) == 0) ? h : null;
+        }
+
+        void close() {
+            for (int i = 0; i < cursors.size(); i++) {
+                try { ((RunCursor) cursors.get(i)).in.close(); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /* ---------- Merge-join ---------- */
+
+    private static final int ADDED = 0;
+    private static final int REMOVED = 1;
+    private static final int MODIFIED = 2;
+    private static final int UNCHANGED = 3;
+
+    private static void mergeJoin(MergedCursor a, MergedCursor b, JsonLineWriter rows, Map perMachine) throws IOException {
+        while (true) {
+            KeyRecord x = a.peek();
+            KeyRecord y = b.peek();
+            if (x == null && y == null) return;
+            int c;
+            if (x == null) c = 1;
+            else if (y == null) c = -1;
+            else c = compareGroup(x, y);
+
+            if (c < 0) {
+                while (a.peekIn(x) != null) emitOneSided(rows, perMachine, a.next(), REMOVED);
+            } else if (c > 0) {
+                while (b.peekIn(y) != null) emitOneSided(rows, perMachine, b.next(), ADDED);
+            } else {
+                joinGroup(a, b, x, rows, perMachine);
+            }
+        }
+    }
+
+    /** Joins one (machine, inputs) group of both sides, streaming both in rid order. */
+    private static void joinGroup(MergedCursor a, MergedCursor b, KeyRecord group, JsonLineWriter rows, Map perMachine)
+            throws IOException {
+        List leftRest = new ArrayList();
+        List rightRest = new ArrayList();
+        while (true) {
+            KeyRecord l = a.peekIn(group);
+            KeyRecord r = b.peekIn(group);
+            if (l == null && r == null) break;
+            int c = (l == null) ? 1 : (r == null) ? -1 : l.rid.compareTo(r.rid);
+            if (c == 0) {
+                a.next();
+                b.next();
+                if (changedFields(l, r).length() == 0) {
+                    count(perMachine, l.machineId, UNCHANGED);
+                } else {
+                    emitModified(rows, perMachine, l, r);
+                }
+            } else if (c < 0) {
+                leftRest.add(a.next());
+                if (leftRest.size() > PAIR_WINDOW) pairOldest(leftRest, rightRest, true, rows, perMachine);
+            } else {
+                rightRest.add(b.next());
+                if (rightRest.size() > PAIR_WINDOW) pairOldest(rightRest, leftRest, false, rows, perMachine);
+            }
+        }
+
+        // Pair remaining old/new bodies greedily by how many fields still agree.
+        while (leftRest.size() > 0 && rightRest.size() > 0) {
+            KeyRecord l = (KeyRecord) leftRest.remove(0);
+            int best = 0;
+            int bestScore = -1;
+            for (int k = 0; k < rightRest.size(); k++) {
+                int score = similarity(l, (KeyRecord) rightRest.get(k));
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = k;
+                }
+            }
+            emitModified(rows, perMachine, l, (KeyRecord) rightRest.remove(best));
+        }
+        for (int k = 0; k < leftRest.size(); k++) emitOneSided(rows, perMachine, (KeyRecord) leftRest.get(k), REMOVED);
+        for (int k = 0; k < rightRest.size(); k++) emitOneSided(rows, perMachine, (KeyRecord) rightRest.get(k), ADDED);
+    }
+
+    /** Window overflow: the oldest leftover of {@code from} is paired now, or reported alone. */
+    private static void pairOldest(List from, List other, boolean fromLeft, JsonLineWriter rows, Map perMachine)
+            throws IOException {
+        KeyRecord k = (KeyRecord) from.remove(0);
+        if (other.isEmpty()) {
+            emitOneSided(rows, perMachine, k, fromLeft ? REMOVED : ADDED);
+            return;
+        }
+        int best = 0;
+        int bestScore = -1;
+        for (int i = 0; i < other.size(); i++) {
+            int score = similarity(k, (KeyRecord) other.get(i));
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        KeyRecord o = (KeyRecord) other.remove(best);
+        if (fromLeft) emitModified(rows, perMachine, k, o);
+        else emitModified(rows, perMachine, o, k);
+    }
+
+    private static int similarity(KeyRecord a, KeyRecord b) {
+        int s = 0;
+        if (a.eut == b.eut) s++;
+        if (a.duration == b.duration) s++;
+        if (equalsNullable(a.special, b.special)) s++;
+        if (a.outputs.equals(b.outputs)) s += 2;
+        return s;
+    }
+
+    private static String changedFields(KeyRecord a, KeyRecord b) {
+        StringBuilder sb = new StringBuilder();
+        if (a.eut != b.eut) appendCsv(sb, "eut");
+        if (a.duration != b.duration) appendCsv(sb, "duration");
+        if (!equalsNullable(a.special, b.special)) appendCsv(sb, "special");
+        if (!a.outputs.equals(b.outputs)) appendCsv(sb, "outputs");
+        return sb.toString();
+    }
+
+    private static void emitModified(JsonLineWriter rows, Map perMachine, KeyRecord l, KeyRecord r) throws IOException {
+        count(perMachine, l.machineId, MODIFIED);
+        rows.beginRow()
+                .field("change", "modified")
+                .field("machine_id", l.machineId)
+                .field("rid_old", l.rid)
+                .field("rid_new", r.rid)
+                .field("changed_fields", changedFields(l, r))
+                .field("eut_old", l.eut)
+                .field("eut_new", r.eut)
+                .field("duration_old", l.duration)
+                .field("duration_new", r.duration)
+                .field("special_old", l.special)
+                .field("special_new", r.special)
+                .field("inputs", l.inputs)
+                .field("outputs_old", l.outputs)
+                .field("outputs_new", r.outputs)
+                .endRow();
+    }
+
+    private static void emitOneSided(JsonLineWriter rows, Map perMachine, KeyRecord k, int kind) throws IOException {
+        count(perMachine, k.machineId, kind);
+        boolean added = (kind == ADDED);
+        rows.beginRow()
+                .field("change", added ? "added" : "removed")
+                .field("machine_id", k.machineId)
+                .field("rid_old", added ? null : k.rid)
+                .field("rid_new", added ? k.rid : null)
+                .field("changed_fields", (String) null)
+                .field("eut_old", added ? null : new Long(k.eut))
+                .field("eut_new", added ? new Long(k.eut) : null)
+                .field("duration_old", added ? null : new Integer(k.duration))
+                .field("duration_new", added ? new Integer(k.duration) : null)
+                .field("special_old", added ? null : k.special)
+                .field("special_new", added ? k.special : null)
+                .field("inputs", k.inputs)
+                .field("outputs_old", added ? null : k.outputs)
+                .field("outputs_new", added ? k.outputs : null)
+                .endRow();
+    }
+
+    private static void count(Map perMachine, String machineId, int kind) {
+        long[] c = (long[]) perMachine.get(machineId);
+        if (c == null) {
+            c = new long[4];
+            perMachine.put(machineId, c);
+        }
+        c[kind]++;
+    }
+
+    /* ---------- Machine index ---------- */
+
+    private static long[] diffMachineIndex(File oldFile, File newFile, File outFile) throws IOException {
+        long[] counts = new long[3]; // added, removed, modified
+        Map oldEntries = loadMachineIndex(oldFile);
+        Map newEntries = loadMachineIndex(newFile);
+        JsonLineWriter rows = new JsonLineWriter(outFile);
+        try {
+            Iterator it = oldEntries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry e = (Map.Entry) it.next();
+                JsonObject o = (JsonObject) e.getValue();
+                JsonObject n = (JsonObject) newEntries.get(e.getKey());
+                if (n == null) {
+                    counts[1]++;
+                    writeMachineRow(rows, "removed", (String) e.getKey(), o, null, null, null);
+                    continue;
+                }
+                boolean changed = false;
+                for (int i = 0; i < BONUS_FIELDS.length; i++) {
+                    String ov = memberString(o, BONUS_FIELDS[i]);
+                    String nv = memberString(n, BONUS_FIELDS[i]);
+                    if (ov == null ? nv == null : ov.equals(nv)) continue;
+                    changed = true;
+                    writeMachineRow(rows, "modified", (String) e.getKey(), n, BONUS_FIELDS[i], ov, nv);
+                }
+                if (changed) counts[2]++;
+            }
+            it = newEntries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry e = (Map.Entry) it.next();
+                if (oldEntries.containsKey(e.getKey())) continue;
+                counts[0]++;
+                writeMachineRow(rows, "added", (String) e.getKey(), (JsonObject) e.getValue(), null, null, null);
+            }
+        } finally {
+            rows.close();
+        }
+        return counts;
+    }
+
+    private static void writeMachineRow(JsonLineWriter rows, String change, String key, JsonObject entry,
+                                        String field, String oldValue, String newValue) throws IOException {
+        rows.beginRow()
+                .field("change", change)
+                .field("key", key)
+                .field("machine_id", memberString(entry, "machineId"))
+                .field("meta_tile_name", memberString(entry, "metaTileName"))
+                .field("field", field)
+                .field("value_old", oldValue)
+                .field("value_new", newValue)
+                .endRow();
+    }
+
+    /** Keyed by machineId + metaTileName; meta tile ids are less stable across pack versions than names. */
+    private static Map loadMachineIndex(File f) throws IOException {
+        Map out = new LinkedHashMap();
+        if (f == null || !f.exists()) return out;
+        Reader r = new InputStreamReader(new BufferedInputStream(new FileInputStream(f)), "UTF-8");
+        JsonElement root;
+        try {
+            root = JsonParser.parseReader(r);
+        } finally {
+            r.close();
+        }
+        JsonArray arr = null;
+        if (root != null && root.isJsonArray()) {
+            arr = root.getAsJsonArray();
+        } else if (root != null && root.isJsonObject() && root.getAsJsonObject().has("machineIndex")) {
+            JsonElement mi = root.getAsJsonObject().get("machineIndex");
+            if (mi.isJsonArray()) arr = mi.getAsJsonArray();
+        }
+        if (arr == null) return out;
+        for (int i = 0; i < arr.size(); i++) {
+            if (!arr.get(i).isJsonObject()) continue;
+            JsonObject o = arr.get(i).getAsJsonObject();
+            String base = nullSafe(memberString(o, "machineId")) + "|" + nullSafe(memberString(o, "metaTileName"));
+            String key = base;
+            int dup = 1;
+            while (out.containsKey(key)) key = base + "#" + (dup++);
+            out.put(key, o);
+        }
+        return out;
+    }
+
+    private static String memberString(JsonObject o, String name) {
+        if (o == null || !o.has(name)) return null;
+        JsonElement e = o.get(name);
+        if (e == null || e.isJsonNull()) return null;
+        if (e.isJsonPrimitive()) return e.getAsString();
+        return e.toString();
+    }
+
+    /* ---------- Summary ---------- */
+
+    private static JsonObject buildSummary(Options opts, RecipeDumpReader.DumpInfo oldInfo, RecipeDumpReader.DumpInfo newInfo,
+                                           Map perMachine, long[] miCounts) {
+        JsonObject root = new JsonObject();
+        root.add("old", dumpSummary(opts.oldDump, oldInfo));
+        root.add("new", dumpSummary(opts.newDump, newInfo));
+
+        long[] totals = new long[4];
+        JsonArray machines = new JsonArray();
+        Iterator it = perMachine.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry e = (Map.Entry) it.next();
+            long[] c = (long[]) e.getValue();
+            for (int i = 0; i < totals.length; i++) totals[i] += c[i];
+            if (c[ADDED] == 0 && c[REMOVED] == 0 && c[MODIFIED] == 0) continue;
+            JsonObject m = new JsonObject();
+            m.addProperty("machineId", (String) e.getKey());
+            m.addProperty("added", c[ADDED]);
+            m.addProperty("removed", c[REMOVED]);
+            m.addProperty("modified", c[MODIFIED]);
+            m.addProperty("unchanged", c[UNCHANGED]);
+            machines.add(m);
+        }
+
+        JsonObject t = new JsonObject();
+        t.addProperty("added", totals[ADDED]);
+        t.addProperty("removed", totals[REMOVED]);
+        t.addProperty("modified", totals[MODIFIED]);
+        t.addProperty("unchanged", totals[UNCHANGED]);
+        root.add("recipes", t);
+
+        JsonObject mi = new JsonObject();
+        mi.addProperty("added", miCounts[0]);
+        mi.addProperty("removed", miCounts[1]);
+        mi.addProperty("modified", miCounts[2]);
+        root.add("machineIndex", mi);
+
+        root.add("changedMachines", machines);
+        return root;
+    }
+
+    private static JsonObject dumpSummary(File f, RecipeDumpReader.DumpInfo info) {
+        JsonObject o = new JsonObject();
+        o.addProperty("path", f.getPath());
+        o.addProperty("generatedAt", info.generatedAt);
+        o.addProperty("maps", info.maps);
+        o.addProperty("recipes", info.recipes);
+        return o;
+    }
+
+    public static void printSummary(JsonObject summary) {
+        JsonObject t = summary.getAsJsonObject("recipes");
+        JsonObject mi = summary.getAsJsonObject("machineIndex");
+        System.out.println("[recipetools] recipes: +" + t.get("added").getAsLong()
+                + " -" + t.get("removed").getAsLong()
+                + " ~" + t.get("modified").getAsLong()
+                + " =" + t.get("unchanged").getAsLong());
+        System.out.println("[recipetools] machine index: +" + mi.get("added").getAsLong()
+                + " -" + mi.get("removed").getAsLong()
+                + " ~" + mi.get("modified").getAsLong());
+        JsonArray machines = summary.getAsJsonArray("changedMachines");
+        for (int i = 0; i < machines.size(); i++) {
+            JsonObject m = machines.get(i).getAsJsonObject();
+            System.out.println("  " + m.get("machineId").getAsString()
+                    + "  +" + m.get("added").getAsLong()
+                    + " -" + m.get("removed").getAsLong()
+                    + " ~" + m.get("modified").getAsLong());
+        }
+        System.out.println("[recipetools] diff took " + summary.getAsJsonObject("timing").get("totalMs").getAsLong() + " ms");
+    }
+
+    /* ---------- Helpers ---------- */
+
+    private static void writeJson(File f, JsonObject o) throws IOException {
+        Writer w = new OutputStreamWriter(new FileOutputStream(f), "UTF-8");
+        try {
+            w.write(GSON.toJson(o));
+        } finally {
+            w.close();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] b = s.getBytes("UTF-8");
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, "UTF-8");
+    }
+
+    private static long hash64(String s) {
+        try {
+            java.security.MessageDigest md = java.security.MessageDigest.getInstance("SHA-1");
+            byte[] b = md.digest(s.getBytes("UTF-8"));
+            long v = 0L;
+            for (int i = 0; i < 8; i++) v = (v << 8) | (b[i] & 0xffL);
+            return v;
+        } catch (Throwable t) {
+            return s.hashCode();
+        }
+    }
+
+    private static boolean equalsNullable(Object a, Object b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+
+    private static void appendCsv(StringBuilder sb, String s) {
+        if (sb.length() > 0) sb.append(',');
+        sb.append(s);
+    }
+
+    private static String nullSafe(String s) {
+        return (s == null) ? "" : s;
+    }
+}
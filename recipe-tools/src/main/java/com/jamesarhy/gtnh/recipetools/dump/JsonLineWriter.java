@@ -0,0 +1,117 @@
+package com.jamesarhy.gtnh.recipetools.dump;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Minimal newline-delimited JSON writer for flat rows.
+ *
+ * Rows are written straight to disk; the runner turns these files into Parquet with pyarrow.
+ */
+public final class JsonLineWriter {
+    private final Writer out;
+    private boolean firstField;
+    private long rows;
+
+    public JsonLineWriter(File file) throws IOException {
+        this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"), 1 << 16);
+    }
+
+    public JsonLineWriter beginRow() throws IOException {
+        out.write('{');
+        firstField = true;
+        return this;
+    }
+
+    public JsonLineWriter field(String name, String value) throws IOException {
+        name(name);
+        if (value == null) {
+            out.write("null");
+        } else {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public JsonLineWriter field(String name, long value) throws IOException {
+        name(name);
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    public JsonLineWriter field(String name, double value) throws IOException {
+        name(name);
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            out.write("null");
+        } else {
+            out.write(Double.toString(value));
+        }
+        return this;
+    }
+
+    public JsonLineWriter field(String name, boolean value) throws IOException {
+        name(name);
+        out.write(value ? "true" : "false");
+        return this;
+    }
+
+    public JsonLineWriter field(String name, Number value) throws IOException {
+        if (value == null) return nullField(name);
+        if (value instanceof Double || value instanceof Float) return field(name, value.doubleValue());
+        return field(name, value.longValue());
+    }
+
+    public JsonLineWriter nullField(String name) throws IOException {
+        name(name);
+        out.write("null");
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        out.write("}\n");
+        rows++;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void name(String name) throws IOException {
+        if (!firstField) out.write(',');
+        firstField = false;
+        writeString(name);
+        out.write(':');
+    }
+
+    private void writeString(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20 || c == 0x2028 || c == 0x2029) {
+                        String hex = Integer.toHexString(c);
+                        out.write("\\u");
+                        for (int p = hex.length(); p < 4; p++) out.write('0');
+                        out.write(hex);
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
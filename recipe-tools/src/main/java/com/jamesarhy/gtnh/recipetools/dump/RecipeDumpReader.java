@@ -0,0 +1,374 @@
+package com.jamesarhy.gtnh.recipetools.dump;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.jamesarhy.gtnh.recipedumper.io.BinaryDump;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for the mod's {@code recipes.json} (or its binary twin {@code recipes.bin}).
+ *
+ * The dump is walked token by token, so memory use does not depend on the dump size:
+ * each recipe is materialized, handed to the visitor and then dropped. Binary dumps are
+ * detected by their magic and walked straight from the mapping.
+ */
+public final class RecipeDumpReader {
+
+    public interface Visitor {
+        void onRoot(DumpInfo info) throws IOException;
+        void onRecipeMap(MapInfo map) throws IOException;
+        void onRecipe(RecipeRecord r) throws IOException;
+    }
+
+    private RecipeDumpReader() {}
+
+    public static DumpInfo read(File file, Visitor visitor) throws IOException {
+        if (BinaryDump.isBinaryDump(file)) return readBinary(BinaryDump.open(file), visitor);
+        JsonReader in = new JsonReader(new InputStreamReader(
+                new BufferedInputStream(new FileInputStream(file), 1 << 16), "UTF-8"));
+        try {
+            DumpInfo info = new DumpInfo();
+            boolean rootAnnounced = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("generatedAt".equals(name)) {
+                    info.generatedAt = nextStringOrNull(in);
+                } else if ("minecraft".equals(name)) {
+                    info.minecraft = nextStringOrNull(in);
+                } else if ("mod".equals(name)) {
+                    info.mod = nextStringOrNull(in);
+                } else if ("recipeMaps".equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                    if (!rootAnnounced) {
+                        visitor.onRoot(info);
+                        rootAnnounced = true;
+                    }
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        readMap(in, info, visitor);
+                    }
+                    in.endArray();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            if (!rootAnnounced) visitor.onRoot(info);
+            return info;
+        } finally {
+            try { in.close(); } catch (IOException ignored) {}
+        }
+    }
+
+    private static void readMap(JsonReader in, DumpInfo info, Visitor visitor) throws IOException {
+        MapInfo map = new MapInfo();
+        boolean announced = false;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("machineId".equals(name)) {
+                map.machineId = nextStringOrNull(in);
+            } else if ("displayName".equals(name)) {
+                map.displayName = nextStringOrNull(in);
+            } else if ("declaringField".equals(name)) {
+                map.declaringField = nextStringOrNull(in);
+            } else if ("recipeCount".equals(name)) {
+                map.recipeCount = (int) nextLong(in, 0L);
+            } else if ("parallelBonus".equals(name)) {
+                map.parallelBonus = nextDoubleOrNull(in);
+            } else if ("maxParallel".equals(name)) {
+                map.maxParallel = nextDoubleOrNull(in);
+            } else if ("coilBonus".equals(name)) {
+                map.coilBonus = nextDoubleOrNull(in);
+            } else if ("speedBonus".equals(name)) {
+                map.speedBonus = nextDoubleOrNull(in);
+            } else if ("efficiencyBonus".equals(name)) {
+                map.efficiencyBonus = nextDoubleOrNull(in);
+            } else if ("recipes".equals(name) && in.peek() == JsonToken.BEGIN_ARRAY) {
+                if (!announced) {
+                    visitor.onRecipeMap(map);
+                    announced = true;
+                }
+                in.beginArray();
+                while (in.hasNext()) {
+                    RecipeRecord r = readRecipe(in);
+                    if (r.machineId == null) r.machineId = map.machineId;
+                    info.recipes++;
+                    visitor.onRecipe(r);
+                }
+                in.endArray();
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        if (!announced) visitor.onRecipeMap(map);
+        info.maps++;
+    }
+
+    private static RecipeRecord readRecipe(JsonReader in) throws IOException {
+        RecipeRecord r = new RecipeRecord();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if ("rid".equals(name)) {
+                r.rid = nextStringOrNull(in);
+            } else if ("machineId".equals(name)) {
+                r.machineId = nextStringOrNull(in);
+            } else if ("recipeClass".equals(name)) {
+                r.recipeClass = nextStringOrNull(in);
+            } else if ("minTier".equals(name)) {
+                r.minTier = nextStringOrNull(in);
+            } else if ("durationTicks".equals(name)) {
+                r.durationTicks = (int) nextLong(in, 0L);
+            } else if ("eut".equals(name)) {
+                r.eut = nextLong(in, 0L);
+            } else if ("specialValue".equals(name)) {
+                r.specialValue = nextIntegerOrNull(in);
+            } else if ("circuitConfig".equals(name)) {
+                r.circuitConfig = nextIntegerOrNull(in);
+            } else if ("chanceScale".equals(name)) {
+                r.chanceScale = nextIntegerOrNull(in);
+            } else if ("itemInputs".equals(name)) {
+                r.itemInputs = readStacks(in, false);
+            } else if ("itemOutputs".equals(name)) {
+                r.itemOutputs = readStacks(in, false);
+            } else if ("fluidInputs".equals(name)) {
+                r.fluidInputs = readStacks(in, true);
+            } else if ("fluidOutputs".equals(name)) {
+                r.fluidOutputs = readStacks(in, true);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return r;
+    }
+
+    private static StackRecord[] readStacks(JsonReader in, boolean fluid) throws IOException {
+        if (in.peek() != JsonToken.BEGIN_ARRAY) {
+            in.skipValue();
+            return StackRecord.NONE;
+        }
+        List out = new ArrayList();
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() != JsonToken.BEGIN_OBJECT) {
+                in.skipValue();
+                continue;
+            }
+            StackRecord s = new StackRecord();
+            s.fluid = fluid;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if ("id".equals(name)) {
+                    s.id = nextStringOrNull(in);
+                } else if ("count".equals(name) || "mb".equals(name)) {
+                    s.amount = nextLong(in, 0L);
+                } else if ("meta".equals(name)) {
+                    s.meta = (int) nextLong(in, 0L);
+                } else if ("chance".equals(name)) {
+                    s.chance = nextDoubleOrNull(in);
+                } else if ("displayName".equals(name)) {
+                    s.displayName = nextStringOrNull(in);
+                } else if ("unlocalizedName".equals(name)) {
+                    s.unlocalizedName = nextStringOrNull(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            out.add(s);
+        }
+        in.endArray();
+        return (StackRecord[]) out.toArray(new StackRecord[out.size()]);
+    }
+
+    /* ---------- Binary dumps ---------- */
+
+    static DumpInfo readBinary(BinaryDump d, Visitor visitor) throws IOException {
+        DumpInfo info = new DumpInfo();
+        info.generatedAt = d.generatedAt();
+        info.minecraft = d.minecraft();
+        info.mod = d.mod();
+        visitor.onRoot(info);
+        for (int m = 0; m < d.mapCount(); m++) {
+            MapInfo map = new MapInfo();
+            map.machineId = d.mapMachineId(m);
+            map.displayName = d.mapDisplayName(m);
+            map.declaringField = d.mapDeclaringField(m);
+            map.recipeCount = d.mapDeclaredRecipeCount(m);
+            map.parallelBonus = bonus(d, m, BinaryDump.BONUS_PARALLEL);
+            map.maxParallel = bonus(d, m, BinaryDump.BONUS_MAX_PARALLEL);
+            map.coilBonus = bonus(d, m, BinaryDump.BONUS_COIL);
+            map.speedBonus = bonus(d, m, BinaryDump.BONUS_SPEED);
+            map.efficiencyBonus = bonus(d, m, BinaryDump.BONUS_EFFICIENCY);
+            visitor.onRecipeMap(map);
+            int end = d.mapFirstRecipe(m) + d.mapRecipeCount(m);
+            for (int r = d.mapFirstRecipe(m); r < end; r++) {
+                info.recipes++;
+                visitor.onRecipe(binaryRecipe(d, r));
+            }
+            info.maps++;
+        }
+        return info;
+    }
+
+    /** Materializes one recipe of a binary dump in the same shape the JSON path produces. */
+    public static RecipeRecord binaryRecipe(BinaryDump d, int r) {
+        RecipeRecord out = new RecipeRecord();
+        out.rid = d.rid(r);
+        out.machineId = d.machineId(r);
+        out.recipeClass = d.recipeClass(r);
+        out.minTier = d.minTier(r);
+        out.durationTicks = d.durationTicks(r);
+        out.eut = d.eut(r);
+        if (d.has(r, BinaryDump.RF_SPECIAL)) out.specialValue = new Integer(d.specialValue(r));
+        if (d.has(r, BinaryDump.RF_CIRCUIT)) out.circuitConfig = new Integer(d.circuitConfig(r));
+        if (d.has(r, BinaryDump.RF_CHANCE_SCALE)) out.chanceScale = new Integer(d.chanceScale(r));
+        out.itemInputs = binaryItems(d, d.itemInputStart(r), d.itemInputCount(r));
+        out.itemOutputs = binaryItems(d, d.itemOutputStart(r), d.itemOutputCount(r));
+        out.fluidInputs = binaryFluids(d, d.fluidInputStart(r), d.fluidInputCount(r));
+        out.fluidOutputs = binaryFluids(d, d.fluidOutputStart(r), d.fluidOutputCount(r));
+        return out;
+    }
+
+    private static StackRecord[] binaryItems(BinaryDump d, int start, int count) {
+        if (count == 0) return StackRecord.NONE;
+        StackRecord[] out = new StackRecord[count];
+        for (int i = 0; i < count; i++) {
+            int s = start + i;
+            StackRecord st = new StackRecord();
+            st.id = d.itemId(s);
+            st.amount = d.itemCount(s);
+            st.meta = d.itemMeta(s);
+            double chance = d.itemChance(s);
+            if (!Double.isNaN(chance)) st.chance = new Double(chance);
+            st.displayName = d.itemDisplayName(s);
+            st.unlocalizedName = d.itemUnlocalizedName(s);
+            out[i] = st;
+        }
+        return out;
+    }
+
+    private static StackRecord[] binaryFluids(BinaryDump d, int start, int count) {
+        if (count == 0) return StackRecord.NONE;
+        StackRecord[] out = new StackRecord[count];
+        for (int i = 0; i < count; i++) {
+            int s = start + i;
+            StackRecord st = new StackRecord();
+            st.id = d.fluidId(s);
+            st.fluid = true;
+            st.amount = d.fluidMb(s);
+            st.displayName = d.fluidDisplayName(s);
+            st.unlocalizedName = d.fluidUnlocalizedName(s);
+            out[i] = st;
+        }
+        return out;
+    }
+
+    private static Double bonus(BinaryDump d, int map, int bonus) {
+        return d.hasMapBonus(map, bonus) ? new Double(d.mapBonus(map, bonus)) : null;
+    }
+
+    /* ---------- Token helpers ---------- */
+
+    static String nextStringOrNull(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (in.peek() == JsonToken.BEGIN_ARRAY || in.peek() == JsonToken.BEGIN_OBJECT) {
+            in.skipValue();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    static long nextLong(JsonReader in, long fallback) throws IOException {
+        if (in.peek() != JsonToken.NUMBER) {
+            in.skipValue();
+            return fallback;
+        }
+        String raw = in.nextString();
+        try {
+            return Long.parseLong(raw);
+        } catch (NumberFormatException e) {
+            return (long) Double.parseDouble(raw);
+        }
+    }
+
+    static Integer nextIntegerOrNull(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.NUMBER) {
+            in.skipValue();
+            return null;
+        }
+        return new Integer((int) nextLong(in, 0L));
+    }
+
+    static Double nextDoubleOrNull(JsonReader in) throws IOException {
+        if (in.peek() != JsonToken.NUMBER) {
+            in.skipValue();
+            return null;
+        }
+        return new Double(in.nextDouble());
+    }
+
+    /* ---------- Records ---------- */
+
+    public static final class DumpInfo {
+        public String generatedAt;
+        public String minecraft;
+        public String mod;
+        public int maps;
+        public long recipes;
+    }
+
+    public static final class MapInfo {
+        public String machineId;
+        public String displayName;
+        public String declaringField;
+        public int recipeCount;
+        public Double parallelBonus;
+        public Double maxParallel;
+        public Double coilBonus;
+        public Double speedBonus;
+        public Double efficiencyBonus;
+    }
+
+    public static final class RecipeRecord {
+        public String rid;
+        public String machineId;
+        public String recipeClass;
+        public String minTier;
+        public int durationTicks;
+        public long eut;
+        public Integer specialValue;
+        public Integer circuitConfig;
+        public Integer chanceScale;
+        public StackRecord[] itemInputs = StackRecord.NONE;
+        public StackRecord[] itemOutputs = StackRecord.NONE;
+        public StackRecord[] fluidInputs = StackRecord.NONE;
+        public StackRecord[] fluidOutputs = StackRecord.NONE;
+    }
+
+    public static final class StackRecord {
+        static final StackRecord[] NONE = new StackRecord[0];
+
+        public String id;
+        public boolean fluid;
+        public long amount;   // item count or fluid mB
+        public int meta;
+        public Double chance; // already scaled to 0..1 by the mod
+        public String displayName;
+        public String unlocalizedName;
+    }
+}
@@ -0,0 +1,60 @@
+import os
+from pathlib import Path
+
+import pyarrow as pa
+import pyarrow.json as pj
+import pyarrow.parquet as pq
+
+
+RECIPE_DIFF_SCHEMA = pa.schema([
+    ("change", pa.string()),
+    ("machine_id", pa.string()),
+    ("rid_old", pa.string()),
+    ("rid_new", pa.string()),
+    ("changed_fields", pa.string()),
+    ("eut_old", pa.int64()),
+    ("eut_new", pa.int64()),
+    ("duration_old", pa.int32()),
+    ("duration_new", pa.int32()),
+    ("special_old", pa.int32()),
+    ("special_new", pa.int32()),
+    ("inputs", pa.string()),
+    ("outputs_old", pa.string()),
+    ("outputs_new", pa.string()),
+])
+
+MACHINE_INDEX_DIFF_SCHEMA = pa.schema([
+    ("change", pa.string()),
+    ("key", pa.string()),
+    ("machine_id", pa.string()),
+    ("meta_tile_name", pa.string()),
+    ("field", pa.string()),
+    ("value_old", pa.string()),
+    ("value_new", pa.string()),
+])
+
+
+def _read_jsonl(path: Path, schema: pa.Schema) -> pa.Table:
+    if not path.exists() or path.stat().st_size == 0:
+        return schema.empty_table()
+    return pj.read_json(path, parse_options=pj.ParseOptions(explicit_schema=schema))
+
+
+def main():
+    diff_dir = Path(os.environ.get("DIFF_DIR", "/work/out/diff"))
+    out_dir = Path(os.environ.get("DIFF_PARQUET_OUT_DIR", str(diff_dir)))
+    out_dir.mkdir(parents=True, exist_ok=True)
+
+    recipes = _read_jsonl(diff_dir / "recipe_diff.jsonl", RECIPE_DIFF_SCHEMA)
+    # Group rows by machine so per-machine queries hit few row groups.
+    recipes = recipes.sort_by([("machine_id", "ascending"), ("change", "ascending")])
+    pq.write_table(recipes, out_dir / "recipe_diff.parquet", compression="zstd")
+
+    machines = _read_jsonl(diff_dir / "machine_index_diff.jsonl", MACHINE_INDEX_DIFF_SCHEMA)
+    pq.write_table(machines, out_dir / "machine_index_diff.parquet", compression="zstd")
+
+    print(f"Diff Parquet written to: {out_dir} ({recipes.num_rows} recipe rows, {machines.num_rows} machine rows)")
+
+
+if __name__ == "__main__":
+    main()
@@ -1,12 +1,288 @@
 import json
 import os
+import shutil
 from pathlib import Path
+from urllib.parse import quote
 
 import pandas as pd
 import pyarrow as pa
 import pyarrow.parquet as pq
 
 
+# Fact tables carry dense int32 surrogate keys only; the string ids live in the dimension tables
+# (recipes: rid, recipe_maps / machine_index: machine_id, nodes: item / ore / fluid ids).
+RECIPES_SCHEMA = pa.schema([
+    ("recipe_key", pa.int32()),
+    ("rid", pa.string()),
+    ("machine_key", pa.int32()),
+    ("recipe_class", pa.string()),
+    ("duration_ticks", pa.int32()),
+    ("eut", pa.int64()),
+    ("chance_scale", pa.int32()),
+    ("output_chances_json", pa.string()),
+])
+ITEM_INPUTS_SCHEMA = pa.schema([
+    ("recipe_key", pa.int32()),
+    ("machine_key", pa.int32()),
+    ("node_key", pa.int32()),
+    ("count", pa.int32()),
+])
+ITEM_OUTPUTS_SCHEMA = pa.schema([
+    ("recipe_key", pa.int32()),
+    ("machine_key", pa.int32()),
+    ("node_key", pa.int32()),
+    ("count", pa.int32()),
+    ("chance", pa.float64()),
+])
+FLUID_STACKS_SCHEMA = pa.schema([
+    ("recipe_key", pa.int32()),
+    ("machine_key", pa.int32()),
+    ("node_key", pa.int32()),
+    ("mb", pa.int32()),
+])
+EDGES_SCHEMA = pa.schema([
+    ("recipe_key", pa.int32()),
+    ("machine_key", pa.int32()),
+    ("direction", pa.string()),
+    ("kind", pa.string()),
+    ("node_key", pa.int32()),
+    ("qty", pa.int64()),
+    ("chance", pa.float64()),
+])
+# recipe_membership.json from the mod: recipes with identical content (machineId aside) share the
+# body_key of the first one, so each body can be stored once and joined back per machine.
+RECIPE_MEMBERSHIP_SCHEMA = pa.schema([
+    ("recipe_key", pa.int32()),
+    ("machine_key", pa.int32()),
+    ("body_key", pa.int32()),
+])
+# ore_dictionary.json from the mod: every (ore, item, meta) registration, including items and ores
+# that never appear in a recipe. Node keys are filled where the node exists; meta is null for
+# wildcard registrations (any meta of the item).
+ORE_DICTIONARY_SCHEMA = pa.schema([
+    ("ore_name", pa.string()),
+    ("ore_id", pa.int32()),
+    ("ore_node_key", pa.int32()),
+    ("item_id", pa.string()),
+    ("meta", pa.int32()),
+    ("item_node_key", pa.int32()),
+])
+# localized_names.json from the mod: one row per (node or machine, language) with a translation.
+LOCALIZED_NAMES_SCHEMA = pa.schema([
+    ("kind", pa.string()),
+    ("node_key", pa.int32()),
+    ("machine_key", pa.int32()),
+    ("lang", pa.string()),
+    ("translation_key", pa.string()),
+    ("name", pa.string()),
+])
+# recipe_throughput.json from the mod: one row per (recipe, voltage tier at or above its min tier)
+# with parallels, overclocked EU/t and duration, items per second and EU per item, for standard
+# and perfect overclocks. eu_per_item is null for recipes without item outputs.
+RECIPE_THROUGHPUT_SCHEMA = pa.schema([
+    ("recipe_key", pa.int32()),
+    ("machine_key", pa.int32()),
+    ("tier", pa.string()),
+    ("voltage", pa.int64()),
+    ("parallel", pa.int32()),
+    ("eut", pa.int64()),
+    ("duration_ticks", pa.int32()),
+    ("items_per_second", pa.float64()),
+    ("eu_per_item", pa.float64()),
+    ("perfect_eut", pa.int64()),
+    ("perfect_duration_ticks", pa.int32()),
+    ("perfect_items_per_second", pa.float64()),
+    ("perfect_eu_per_item", pa.float64()),
+])
+NODES_SCHEMA = pa.schema([
+    ("node_key", pa.int32()),
+    ("kind", pa.string()),
+    ("node_id", pa.string()),
+    ("meta", pa.int32()),
+    ("display_name", pa.string()),
+    ("unlocalized_name", pa.string()),
+    ("is_gas", pa.bool_()),
+])
+# Low-cardinality strings stored as Arrow dictionaries (Parquet dictionary pages, int codes in memory).
+DICTIONARY_COLUMNS = ("direction", "kind", "recipe_class", "lang", "tier")
+EDGES_ROW_GROUP_SIZE = 256 * 1024
+
+# PARQUET_LAYOUT=partitioned writes the recipe, stack and edge tables as Hive-style datasets
+# (<table>/machine_key=<n>/part-0.parquet), sorted by key inside each partition. Smaller row groups
+# plus min/max statistics and page indexes let readers skip everything but the matching keys.
+LAYOUT_FLAT = "flat"
+LAYOUT_PARTITIONED = "partitioned"
+PARTITION_COLUMN = "machine_key"
+PARTITION_ROW_GROUP_SIZE = 64 * 1024
+HIVE_DEFAULT_PARTITION = "__HIVE_DEFAULT_PARTITION__"
+# table -> sort keys inside a partition
+PARTITIONED_TABLES = {
+    "recipes": ["recipe_key"],
+    "item_inputs": ["node_key", "recipe_key"],
+    "item_outputs": ["node_key", "recipe_key"],
+    "fluid_inputs": ["node_key", "recipe_key"],
+    "fluid_outputs": ["node_key", "recipe_key"],
+    "edges": ["node_key", "direction", "recipe_key"],
+}
+
+
+class _Keys:
+    """Dense int32 surrogate keys, assigned in first-seen order (stable for a given dump)."""
+
+    def __init__(self) -> None:
+        self.keys = {}
+        self.values = []
+
+    def __len__(self) -> int:
+        return len(self.values)
+
+    def key(self, value) -> int:
+        k = self.keys.get(value)
+        if k is None:
+            k = len(self.values)
+            self.keys[value] = k
+            self.values.append(value)
+        return k
+
+
+class _ColumnBuffer:
+    """Rows appended column-wise against a fixed schema; no per-row dicts, no pandas."""
+
+    def __init__(self, schema: pa.Schema) -> None:
+        self.schema = schema
+        self.columns = {f.name: [] for f in schema}
+        self._ordered = [self.columns[f.name] for f in schema]
+
+    def __len__(self) -> int:
+        return len(self._ordered[0])
+
+    def add(self, *values) -> None:
+        for col, v in zip(self._ordered, values):
+            col.append(v)
+
+    def to_table(self) -> pa.Table:
+        table = pa.table(self.columns, schema=self.schema)
+        self.columns = None
+        self._ordered = None
+        return table
+
+
+class _Nodes:
+    """The nodes dimension: one key per item (id, meta), ore tag or fluid, with the first names seen."""
+
+    def __init__(self) -> None:
+        self.ids = _Keys()
+        self.display = []
+        self.unlocalized = []
+        self.is_gas = []
+
+    def __len__(self) -> int:
+        return len(self.ids)
+
+    def key(self, kind: str, node_id, meta, stack: dict) -> int:
+        k = self.ids.key((kind, node_id, meta))
+        if k == len(self.display):
+            self.display.append(None)
+            self.unlocalized.append(None)
+            self.is_gas.append(None)
+        if self.display[k] is None:
+            self.display[k] = stack.get("displayName")
+        if self.unlocalized[k] is None:
+            self.unlocalized[k] = stack.get("unlocalizedName")
+        if self.is_gas[k] is None and kind == "fluid":
+            self.is_gas[k] = stack.get("isGas")
+        return k
+
+    def find(self, kind: str, node_id, meta):
+        """Existing node key, or None; never adds a node."""
+        return self.ids.keys.get((kind, node_id, meta))
+
+    def item(self, stack: dict) -> tuple:
+        """(kind, node_key) for an item stack; "ore:" ids are ore dictionary tags without meta."""
+        node_id = stack.get("id")
+        if node_id and node_id.startswith("ore:"):
+            return "ore", self.key("ore", node_id, None, stack)
+        return "item", self.key("item", node_id, int(stack.get("meta") or 0), stack)
+
+    def fluid(self, stack: dict) -> int:
+        return self.key("fluid", stack.get("id"), None, stack)
+
+    def to_table(self) -> pa.Table:
+        kinds, node_ids, metas = [], [], []
+        for kind, node_id, meta in self.ids.values:
+            kinds.append(kind)
+            node_ids.append(node_id)
+            metas.append(meta)
+        return pa.table({
+            "node_key": list(range(len(self.ids))),
+            "kind": kinds,
+            "node_id": node_ids,
+            "meta": metas,
+            "display_name": self.display,
+            "unlocalized_name": self.unlocalized,
+            "is_gas": self.is_gas,
+        }, schema=NODES_SCHEMA)
+
+
+class _EdgeStream(_ColumnBuffer):
+    """Edges appended column-wise while recipes are walked."""
+
+    def __init__(self) -> None:
+        super().__init__(EDGES_SCHEMA)
+
+    def to_table(self, sort: bool = True) -> pa.Table:
+        table = super().to_table()
+        if not sort:
+            return table
+        # Node-major order keeps each node's edges in few row groups with tight min/max statistics.
+        return table.sort_by([
+            ("node_key", "ascending"),
+            ("direction", "ascending"),
+            ("recipe_key", "ascending"),
+        ])
+
+
+def _dictionary_encode(table: pa.Table, columns) -> pa.Table:
+    for name in columns:
+        i = table.schema.get_field_index(name)
+        if i >= 0:
+            table = table.set_column(i, name, table.column(name).dictionary_encode())
+    return table
+
+
+def _write_partitioned(table: pa.Table, root: Path, sort_keys: list) -> int:
+    """Writes root/machine_key=<n>/part-0.parquet per machine; returns the number of partitions."""
+    if root.exists():
+        shutil.rmtree(root)
+    _ensure_dir(root)
+    if table.num_rows == 0:
+        return 0
+    table = table.sort_by([(PARTITION_COLUMN, "ascending")] + [(k, "ascending") for k in sort_keys])
+    machines = table.column(PARTITION_COLUMN).to_pylist()
+    data = table.drop([PARTITION_COLUMN])
+    partitions = 0
+    start = 0
+    while start < len(machines):
+        end = start
+        while end < len(machines) and machines[end] == machines[start]:
+            end += 1
+        value = machines[start]
+        name = HIVE_DEFAULT_PARTITION if value is None else quote(str(value), safe="._-")
+        part_dir = root / f"{PARTITION_COLUMN}={name}"
+        _ensure_dir(part_dir)
+        pq.write_table(
+            _dictionary_encode(data.slice(start, end - start), DICTIONARY_COLUMNS),
+            part_dir / "part-0.parquet",
+            compression="zstd",
+            row_group_size=PARTITION_ROW_GROUP_SIZE,
+            write_statistics=True,
+            write_page_index=True,
+        )
+        partitions += 1
+        start = end
+    return partitions
+
+
 def _ensure_dir(p: Path) -> None:
     p.mkdir(parents=True, exist_ok=True)
 
@@ -16,9 +292,54 @@ def _write_parquet(df: pd.DataFrame, path: Path) -> None:
     pq.write_table(table, path, compression="zstd")
 
 
-def _write_datapackage(out_dir: Path, root: dict) -> None:
+def _write_table(table: pa.Table, path: Path, row_group_size=None) -> None:
+    pq.write_table(
+        _dictionary_encode(table, DICTIONARY_COLUMNS),
+        path,
+        compression="zstd",
+        row_group_size=row_group_size,
+        write_statistics=True,
+    )
+
+
+def _written_files(out_dir: Path, name: str, layout: str) -> list:
+    """The Parquet files of one written table: name.parquet, or every partition of the name/ dataset."""
+    if layout == LAYOUT_PARTITIONED:
+        return sorted((out_dir / name).glob("*/part-0.parquet"))
+    return [out_dir / f"{name}.parquet"]
+
+
+def _check_edges(out_dir: Path, layout: str) -> None:
+    """Edge rows per (direction, kind) as written, against the row counts of the written per-kind tables."""
+    got = {}
+    for f in _written_files(out_dir, "edges", layout):
+        df = pq.read_table(f, columns=["direction", "kind"]).to_pandas()
+        df["kind"] = df["kind"].astype(str).where(df["kind"].astype(str) == "fluid", "item")
+        for (direction, kind), n in df.groupby([df["direction"].astype(str), "kind"]).size().items():
+            got[(direction, kind)] = got.get((direction, kind), 0) + int(n)
+    tables = {
+        ("in", "item"): "item_inputs",
+        ("out", "item"): "item_outputs",
+        ("in", "fluid"): "fluid_inputs",
+        ("out", "fluid"): "fluid_outputs",
+    }
+    for key, name in tables.items():
+        want = sum(pq.read_metadata(f).num_rows for f in _written_files(out_dir, name, layout))
+        if got.get(key, 0) != want:
+            raise SystemExit(f"edges row count mismatch for {key[0]}/{key[1]}: {got.get(key, 0)} edges vs {want} {name} rows")
+
+
+def _write_datapackage(
+    out_dir: Path,
+    root: dict,
+    layout: str = LAYOUT_FLAT,
+    has_membership: bool = False,
+    has_ore_dictionary: bool = False,
+    has_localized_names: bool = False,
+    has_throughput: bool = False,
+) -> None:
     def resource(name: str, path: str, description: str, fields: list) -> dict:
-        return {
+        res = {
             "name": name,
             "path": path,
             "profile": "tabular-data-resource",
@@ -27,6 +348,10 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
             "description": description,
             "schema": {"fields": fields},
         }
+        if layout == LAYOUT_PARTITIONED and name in PARTITIONED_TABLES:
+            res["path"] = name + "/"
+            res["partitioning"] = {"style": "hive", "fields": [PARTITION_COLUMN]}
+        return res
 
     resources = [
         resource(
@@ -34,6 +359,7 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
             "recipe_maps.parquet",
             "One row per recipe source (GregTech RecipeMaps + non-GT providers) with machine identity and counts.",
             [
+                {"name": "machine_key", "type": "integer", "description": "Dense machine surrogate key."},
                 {"name": "machine_id", "type": "string", "description": "Machine or recipe source ID."},
                 {"name": "display_name", "type": "string", "description": "Friendly machine name."},
                 {"name": "declaring_field", "type": "string", "description": "Declaring RecipeMaps field name."},
@@ -45,6 +371,7 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
             "machine_index.parquet",
             "Machine index merged from recipe sources and MetaTileEntities, including bonuses when available.",
             [
+                {"name": "machine_key", "type": "integer", "description": "Dense machine surrogate key."},
                 {"name": "machine_id", "type": "string", "description": "Machine or recipe source ID."},
                 {"name": "display_name", "type": "string", "description": "Friendly machine name."},
                 {"name": "declaring_field", "type": "string", "description": "Declaring RecipeMaps field name."},
@@ -75,8 +402,9 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
             "recipes.parquet",
             "One row per recipe variant with power and duration metadata (non-GT values may be 0).",
             [
+                {"name": "recipe_key", "type": "integer", "description": "Dense recipe surrogate key (dump order)."},
                 {"name": "rid", "type": "string", "description": "Stable unique recipe ID."},
-                {"name": "machine_id", "type": "string", "description": "Machine or recipe source ID for this recipe."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
                 {"name": "recipe_class", "type": "string", "description": "Underlying Java class name."},
                 {"name": "duration_ticks", "type": "integer", "description": "Recipe duration in ticks."},
                 {"name": "eut", "type": "integer", "description": "EU per tick."},
@@ -88,17 +416,29 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
                 },
             ],
         ),
+        resource(
+            "nodes",
+            "nodes.parquet",
+            "One row per item (id + meta), ore dictionary tag or fluid referenced by any recipe.",
+            [
+                {"name": "node_key", "type": "integer", "description": "Dense node surrogate key."},
+                {"name": "kind", "type": "string", "description": "\"item\", \"ore\" or \"fluid\"."},
+                {"name": "node_id", "type": "string", "description": "Item registry ID, \"ore:<name>\" or fluid ID."},
+                {"name": "meta", "type": "integer", "description": "Item metadata / damage value; null for ores and fluids."},
+                {"name": "display_name", "type": "string", "description": "Localized name when available."},
+                {"name": "unlocalized_name", "type": "string", "description": "Unlocalized name when available."},
+                {"name": "is_gas", "type": "boolean", "description": "Fluids only: true if gaseous; null if unknown."},
+            ],
+        ),
         resource(
             "item_inputs",
             "item_inputs.parquet",
             "Normalized item inputs per recipe.",
             [
-                {"name": "rid", "type": "string", "description": "Recipe ID."},
-                {"name": "item_id", "type": "string", "description": "Item registry ID."},
+                {"name": "recipe_key", "type": "integer", "description": "Recipe surrogate key (recipes.recipe_key)."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
+                {"name": "node_key", "type": "integer", "description": "Item or ore tag surrogate key (nodes.node_key)."},
                 {"name": "count", "type": "integer", "description": "Item count per craft."},
-                {"name": "meta", "type": "integer", "description": "Item metadata / damage value."},
-                {"name": "display_name", "type": "string", "description": "Localized item name when available."},
-                {"name": "unlocalized_name", "type": "string", "description": "Unlocalized item name when available."},
             ],
         ),
         resource(
@@ -106,13 +446,11 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
             "item_outputs.parquet",
             "Normalized item outputs per recipe.",
             [
-                {"name": "rid", "type": "string", "description": "Recipe ID."},
-                {"name": "item_id", "type": "string", "description": "Item registry ID."},
+                {"name": "recipe_key", "type": "integer", "description": "Recipe surrogate key (recipes.recipe_key)."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
+                {"name": "node_key", "type": "integer", "description": "Item or ore tag surrogate key (nodes.node_key)."},
                 {"name": "count", "type": "integer", "description": "Item count per craft."},
-                {"name": "meta", "type": "integer", "description": "Item metadata / damage value."},
                 {"name": "chance", "type": "number", "description": "Chance multiplier (0-1 typical) if available."},
-                {"name": "display_name", "type": "string", "description": "Localized item name when available."},
-                {"name": "unlocalized_name", "type": "string", "description": "Unlocalized item name when available."},
             ],
         ),
         resource(
@@ -120,12 +458,10 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
             "fluid_inputs.parquet",
             "Normalized fluid inputs per recipe.",
             [
-                {"name": "rid", "type": "string", "description": "Recipe ID."},
-                {"name": "fluid_id", "type": "string", "description": "Fluid ID."},
+                {"name": "recipe_key", "type": "integer", "description": "Recipe surrogate key (recipes.recipe_key)."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
+                {"name": "node_key", "type": "integer", "description": "Fluid surrogate key (nodes.node_key)."},
                 {"name": "mb", "type": "integer", "description": "Fluid amount in millibuckets."},
-                {"name": "is_gas", "type": "boolean", "description": "True if fluid is gaseous; null if unknown."},
-                {"name": "display_name", "type": "string", "description": "Localized fluid name when available."},
-                {"name": "unlocalized_name", "type": "string", "description": "Unlocalized fluid name when available."},
             ],
         ),
         resource(
@@ -133,15 +469,90 @@ def _write_datapackage(out_dir: Path, root: dict) -> None:
             "fluid_outputs.parquet",
             "Normalized fluid outputs per recipe.",
             [
-                {"name": "rid", "type": "string", "description": "Recipe ID."},
-                {"name": "fluid_id", "type": "string", "description": "Fluid ID."},
+                {"name": "recipe_key", "type": "integer", "description": "Recipe surrogate key (recipes.recipe_key)."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
+                {"name": "node_key", "type": "integer", "description": "Fluid surrogate key (nodes.node_key)."},
                 {"name": "mb", "type": "integer", "description": "Fluid amount in millibuckets."},
-                {"name": "is_gas", "type": "boolean", "description": "True if fluid is gaseous; null if unknown."},
-                {"name": "display_name", "type": "string", "description": "Localized fluid name when available."},
-                {"name": "unlocalized_name", "type": "string", "description": "Unlocalized fluid name when available."},
+            ],
+        ),
+        resource(
+            "edges",
+            "edges.parquet",
+            "One row per recipe input or output, sorted by node_key; enough to build the full recipe graph.",
+            [
+                {"name": "recipe_key", "type": "integer", "description": "Recipe surrogate key (recipes.recipe_key)."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
+                {"name": "direction", "type": "string", "description": "\"in\" or \"out\"."},
+                {"name": "kind", "type": "string", "description": "\"item\", \"ore\" (ore dictionary input) or \"fluid\"."},
+                {"name": "node_key", "type": "integer", "description": "Item, ore tag or fluid surrogate key (nodes.node_key)."},
+                {"name": "qty", "type": "integer", "description": "Item count or fluid mB per craft."},
+                {"name": "chance", "type": "number", "description": "Output chance when available (raw GT semantics)."},
             ],
         ),
     ]
+    if has_membership:
+        resources.append(resource(
+            "recipe_membership",
+            "recipe_membership.parquet",
+            "Recipe -> machine membership; recipes with identical bodies share body_key.",
+            [
+                {"name": "recipe_key", "type": "integer", "description": "Recipe surrogate key (recipes.recipe_key)."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
+                {"name": "body_key", "type": "integer", "description": "recipe_key of the first recipe with the same body."},
+            ],
+        ))
+
+    if has_ore_dictionary:
+        resources.append(resource(
+            "ore_dictionary",
+            "ore_dictionary.parquet",
+            "Ore dictionary membership: one row per (ore, item, meta) registration.",
+            [
+                {"name": "ore_name", "type": "string", "description": "Ore dictionary name (without the \"ore:\" prefix)."},
+                {"name": "ore_id", "type": "integer", "description": "Forge ore id for this run."},
+                {"name": "ore_node_key", "type": "integer", "description": "nodes.node_key of the ore tag; null if no recipe uses it."},
+                {"name": "item_id", "type": "string", "description": "Item ID (item:modid:name)."},
+                {"name": "meta", "type": "integer", "description": "Item meta; null for wildcard registrations (any meta)."},
+                {"name": "item_node_key", "type": "integer", "description": "nodes.node_key of the item; null if no recipe uses it or meta is a wildcard."},
+            ],
+        ))
+
+    if has_localized_names:
+        resources.append(resource(
+            "localized_names",
+            "localized_names.parquet",
+            "Names per language (long format) for items, fluids and machines.",
+            [
+                {"name": "kind", "type": "string", "description": "\"item\", \"fluid\" or \"machine\"."},
+                {"name": "node_key", "type": "integer", "description": "nodes.node_key for items and fluids."},
+                {"name": "machine_key", "type": "integer", "description": "machine_index.machine_key for machines."},
+                {"name": "lang", "type": "string", "description": "Minecraft language code (en_US, zh_CN, ...)."},
+                {"name": "translation_key", "type": "string", "description": "Unlocalized name or machine ID the name was looked up from."},
+                {"name": "name", "type": "string", "description": "Translated name."},
+            ],
+        ))
+
+    if has_throughput:
+        resources.append(resource(
+            "recipe_throughput",
+            "recipe_throughput.parquet",
+            "Per recipe and voltage tier: parallels, overclocked EU/t and duration, items/sec and EU per item.",
+            [
+                {"name": "recipe_key", "type": "integer", "description": "Recipe surrogate key (recipes.recipe_key)."},
+                {"name": "machine_key", "type": "integer", "description": "Machine surrogate key (recipe_maps.machine_key)."},
+                {"name": "tier", "type": "string", "description": "Voltage tier the machine runs at (ULV..MAX)."},
+                {"name": "voltage", "type": "integer", "description": "EU/t of one amp of the tier."},
+                {"name": "parallel", "type": "integer", "description": "Parallel crafts per run (machine bonuses, limited by the tier's power)."},
+                {"name": "eut", "type": "integer", "description": "Overclocked EU/t of a run (standard overclock)."},
+                {"name": "duration_ticks", "type": "integer", "description": "Overclocked duration of a run (standard overclock)."},
+                {"name": "items_per_second", "type": "number", "description": "Expected item outputs per second, chances applied (standard overclock)."},
+                {"name": "eu_per_item", "type": "number", "description": "EU per expected output item; null without item outputs (standard overclock)."},
+                {"name": "perfect_eut", "type": "integer", "description": "Overclocked EU/t of a run (perfect overclock)."},
+                {"name": "perfect_duration_ticks", "type": "integer", "description": "Overclocked duration of a run (perfect overclock)."},
+                {"name": "perfect_items_per_second", "type": "number", "description": "Expected item outputs per second (perfect overclock)."},
+                {"name": "perfect_eu_per_item", "type": "number", "description": "EU per expected output item (perfect overclock)."},
+            ],
+        ))
 
     package = {
         "name": "gtnh-recipe-extractor",
@@ -166,7 +577,34 @@ def main():
             str(raw_path.with_name("machine_index.json")),
         )
     )
+    membership_path = Path(
+        os.environ.get(
+            "MEMBERSHIP_JSON_PATH",
+            str(raw_path.with_name("recipe_membership.json")),
+        )
+    )
+    ore_dictionary_path = Path(
+        os.environ.get(
+            "ORE_DICTIONARY_JSON_PATH",
+            str(raw_path.with_name("ore_dictionary.json")),
+        )
+    )
+    localized_names_path = Path(
+        os.environ.get(
+            "LOCALIZED_NAMES_JSON_PATH",
+            str(raw_path.with_name("localized_names.json")),
+        )
+    )
+    throughput_path = Path(
+        os.environ.get(
+            "THROUGHPUT_JSON_PATH",
+            str(raw_path.with_name("recipe_throughput.json")),
+        )
+    )
     out_dir = Path(os.environ.get("PARQUET_OUT_DIR", "/work/out/parquet"))
+    layout = os.environ.get("PARQUET_LAYOUT", LAYOUT_FLAT).strip().lower()
+    if layout not in (LAYOUT_FLAT, LAYOUT_PARTITIONED):
+        raise SystemExit(f"Unknown PARQUET_LAYOUT: {layout} (expected {LAYOUT_FLAT} or {LAYOUT_PARTITIONED})")
 
     if not raw_path.exists():
         raise SystemExit(f"Raw dump not found: {raw_path}")
@@ -186,15 +624,21 @@ def main():
     map_rows = []
     machine_index_rows = []
     meta_index_rows = []
-    recipe_rows = []
-    in_item_rows = []
-    out_item_rows = []
-    in_fluid_rows = []
-    out_fluid_rows = []
+    machines = _Keys()
+    nodes = _Nodes()
+    recipes = _ColumnBuffer(RECIPES_SCHEMA)
+    in_items = _ColumnBuffer(ITEM_INPUTS_SCHEMA)
+    out_items = _ColumnBuffer(ITEM_OUTPUTS_SCHEMA)
+    in_fluids = _ColumnBuffer(FLUID_STACKS_SCHEMA)
+    out_fluids = _ColumnBuffer(FLUID_STACKS_SCHEMA)
+    edges = _EdgeStream()
+    recipe_keys = {}
 
     for m in maps:
         machine_id = m.get("machineId")
+        machine_key = machines.key(machine_id)
         map_rows.append({
+            "machine_key": machine_key,
             "machine_id": machine_id,
             "display_name": m.get("displayName"),
             "declaring_field": m.get("declaringField"),
@@ -219,58 +663,44 @@ def main():
         })
 
         for r in (m.get("recipes") or []):
-            rid = r.get("rid")
-            recipe_rows.append({
-                "rid": rid,
-                "machine_id": machine_id,
-                "recipe_class": r.get("recipeClass"),
-                "duration_ticks": int(r.get("durationTicks") or 0),
-                "eut": int(r.get("eut") or 0),
-                "chance_scale": int(r["chanceScale"]) if r.get("chanceScale") is not None else None,
+            recipe_key = len(recipes)
+            recipe_keys[r.get("rid")] = recipe_key
+            recipes.add(
+                recipe_key,
+                r.get("rid"),
+                machine_key,
+                r.get("recipeClass"),
+                int(r.get("durationTicks") or 0),
+                int(r.get("eut") or 0),
+                int(r["chanceScale"]) if r.get("chanceScale") is not None else None,
                 # store raw list as JSON string for compactness; you can normalize later if you want
-                "output_chances_json": json.dumps(r.get("outputChances")) if r.get("outputChances") is not None else None,
-            })
+                json.dumps(r.get("outputChances")) if r.get("outputChances") is not None else None,
+            )
 
             for s in (r.get("itemInputs") or []):
-                in_item_rows.append({
-                    "rid": rid,
-                    "item_id": s.get("id"),
-                    "count": int(s.get("count") or 0),
-                    "meta": int(s.get("meta") or 0),
-                    "display_name": s.get("displayName"),
-                    "unlocalized_name": s.get("unlocalizedName"),
-                })
+                kind, node_key = nodes.item(s)
+                count = int(s.get("count") or 0)
+                in_items.add(recipe_key, machine_key, node_key, count)
+                edges.add(recipe_key, machine_key, "in", kind, node_key, count, None)
 
             for s in (r.get("itemOutputs") or []):
-                out_item_rows.append({
-                    "rid": rid,
-                    "item_id": s.get("id"),
-                    "count": int(s.get("count") or 0),
-                    "meta": int(s.get("meta") or 0),
-                    "chance": float(s.get("chance")) if s.get("chance") is not None else None,
-                    "display_name": s.get("displayName"),
-                    "unlocalized_name": s.get("unlocalizedName"),
-                })
+                kind, node_key = nodes.item(s)
+                count = int(s.get("count") or 0)
+                chance = float(s.get("chance")) if s.get("chance") is not None else None
+                out_items.add(recipe_key, machine_key, node_key, count, chance)
+                edges.add(recipe_key, machine_key, "out", kind, node_key, count, chance)
 
             for s in (r.get("fluidInputs") or []):
-                in_fluid_rows.append({
-                    "rid": rid,
-                    "fluid_id": s.get("id"),
-                    "mb": int(s.get("mb") or 0),
-                    "is_gas": s.get("isGas"),
-                    "display_name": s.get("displayName"),
-                    "unlocalized_name": s.get("unlocalizedName"),
-                })
+                node_key = nodes.fluid(s)
+                mb = int(s.get("mb") or 0)
+                in_fluids.add(recipe_key, machine_key, node_key, mb)
+                edges.add(recipe_key, machine_key, "in", "fluid", node_key, mb, None)
 
             for s in (r.get("fluidOutputs") or []):
-                out_fluid_rows.append({
-                    "rid": rid,
-                    "fluid_id": s.get("id"),
-                    "mb": int(s.get("mb") or 0),
-                    "is_gas": s.get("isGas"),
-                    "display_name": s.get("displayName"),
-                    "unlocalized_name": s.get("unlocalizedName"),
-                })
+                node_key = nodes.fluid(s)
+                mb = int(s.get("mb") or 0)
+                out_fluids.add(recipe_key, machine_key, node_key, mb)
+                edges.add(recipe_key, machine_key, "out", "fluid", node_key, mb, None)
 
     machine_index_list = []
     if isinstance(machine_index_root, list):
@@ -336,17 +766,154 @@ def main():
             if row.get(key) is None and meta.get(key) is not None:
                 row[key] = meta.get(key)
 
+    # Machines that only exist in the machine index get keys after the recipe maps.
+    for row in machine_index_by_id.values():
+        row["machine_key"] = machines.key(row["machine_id"])
+
     _write_parquet(pd.DataFrame(map_rows), out_dir / "recipe_maps.parquet")
     machine_index_df = pd.DataFrame(list(machine_index_by_id.values()))
     for col in ("parallel_bonus", "max_parallel", "coil_bonus", "speed_bonus", "efficiency_bonus", "meta_tile_id"):
         if col in machine_index_df.columns:
             machine_index_df[col] = pd.to_numeric(machine_index_df[col], errors="coerce")
+    if "machine_key" in machine_index_df.columns:
+        machine_index_df["machine_key"] = machine_index_df["machine_key"].astype("int32")
+        machine_index_df = machine_index_df[["machine_key"] + [c for c in machine_index_df.columns if c != "machine_key"]]
     _write_parquet(machine_index_df, out_dir / "machine_index.parquet")
-    _write_parquet(pd.DataFrame(recipe_rows), out_dir / "recipes.parquet")
-    _write_parquet(pd.DataFrame(in_item_rows), out_dir / "item_inputs.parquet")
-    _write_parquet(pd.DataFrame(out_item_rows), out_dir / "item_outputs.parquet")
-    _write_parquet(pd.DataFrame(in_fluid_rows), out_dir / "fluid_inputs.parquet")
-    _write_parquet(pd.DataFrame(out_fluid_rows), out_dir / "fluid_outputs.parquet")
+    node_count = len(nodes)
+    _write_table(nodes.to_table(), out_dir / "nodes.parquet")
+
+    recipe_count = len(recipes)
+    edge_count = len(edges)
+    facts = {
+        "recipes": recipes,
+        "item_inputs": in_items,
+        "item_outputs": out_items,
+        "fluid_inputs": in_fluids,
+        "fluid_outputs": out_fluids,
+    }
+
+    for name in PARTITIONED_TABLES:
+        # Drop what a previous run in the other layout left behind so readers never see both.
+        stale = out_dir / (f"{name}.parquet" if layout == LAYOUT_PARTITIONED else name)
+        if stale.is_dir():
+            shutil.rmtree(stale)
+        elif stale.exists():
+            stale.unlink()
+
+    if layout == LAYOUT_PARTITIONED:
+        for name, buf in facts.items():
+            table = buf.to_table()
+            n = _write_partitioned(table, out_dir / name, PARTITIONED_TABLES[name])
+            print(f"{name}: {table.num_rows} rows in {n} partitions")
+        n = _write_partitioned(edges.to_table(sort=False), out_dir / "edges", PARTITIONED_TABLES["edges"])
+        print(f"edges: {edge_count} rows in {n} partitions")
+    else:
+        for name, buf in facts.items():
+            _write_table(buf.to_table(), out_dir / f"{name}.parquet")
+        _write_table(edges.to_table(), out_dir / "edges.parquet", EDGES_ROW_GROUP_SIZE)
+    _check_edges(out_dir, layout)
+
+    membership_out = out_dir / "recipe_membership.parquet"
+    has_membership = membership_path.exists()
+    if has_membership:
+        with membership_path.open("r", encoding="utf-8") as f:
+            membership_root = json.load(f)
+        membership = _ColumnBuffer(RECIPE_MEMBERSHIP_SCHEMA)
+        for row in membership_root.get("memberships") or []:
+            recipe_key = recipe_keys.get(row.get("rid"))
+            body_key = recipe_keys.get(row.get("bodyRid"))
+            if recipe_key is None or body_key is None:
+                continue
+            membership.add(recipe_key, machines.key(row.get("machineId")), body_key)
+        membership_count = len(membership)
+        _write_table(membership.to_table(), membership_out)
+        print(f"recipe_membership: {membership_count} rows, {membership_root.get('bodyCount')} distinct bodies")
+    elif membership_out.exists():
+        membership_out.unlink()
+
+    ore_dictionary_out = out_dir / "ore_dictionary.parquet"
+    has_ore_dictionary = ore_dictionary_path.exists()
+    if has_ore_dictionary:
+        with ore_dictionary_path.open("r", encoding="utf-8") as f:
+            ore_root = json.load(f)
+        ores = _ColumnBuffer(ORE_DICTIONARY_SCHEMA)
+        for row in ore_root.get("entries") or []:
+            ore_name = row.get("ore")
+            item_id = row.get("id")
+            meta = None if row.get("wildcard") else int(row.get("meta") or 0)
+            ores.add(
+                ore_name,
+                int(row["oreId"]) if row.get("oreId") is not None else None,
+                nodes.find("ore", f"ore:{ore_name}", None),
+                item_id,
+                meta,
+                nodes.find("item", item_id, meta) if meta is not None else None,
+            )
+        ore_count = len(ores)
+        _write_table(ores.to_table(), ore_dictionary_out)
+        print(f"ore_dictionary: {ore_count} rows, {ore_root.get('oreCount')} ores")
+    elif ore_dictionary_out.exists():
+        ore_dictionary_out.unlink()
+
+    localized_out = out_dir / "localized_names.parquet"
+    has_localized_names = localized_names_path.exists()
+    if has_localized_names:
+        with localized_names_path.open("r", encoding="utf-8") as f:
+            localized_root = json.load(f)
+        localized = _ColumnBuffer(LOCALIZED_NAMES_SCHEMA)
+        for row in localized_root.get("names") or []:
+            kind = row.get("kind")
+            node_key = None
+            machine_key = None
+            if kind == "item":
+                node_key = nodes.find("item", row.get("id"), int(row.get("meta") or 0))
+            elif kind == "fluid":
+                node_key = nodes.find("fluid", row.get("id"), None)
+            elif kind == "machine":
+                machine_key = machines.keys.get(row.get("id"))
+            if node_key is None and machine_key is None:
+                continue
+            localized.add(kind, node_key, machine_key, row.get("lang"), row.get("key"), row.get("name"))
+        localized_count = len(localized)
+        _write_table(localized.to_table(), localized_out)
+        print(f"localized_names: {localized_count} rows in {len(localized_root.get('languages') or [])} languages")
+    elif localized_out.exists():
+        localized_out.unlink()
+
+    throughput_out = out_dir / "recipe_throughput.parquet"
+    has_throughput = throughput_path.exists()
+    if has_throughput:
+        with throughput_path.open("r", encoding="utf-8") as f:
+            throughput_root = json.load(f)
+        cols = throughput_root.get("recipes") or {}
+        # Rows name recipes by index into the "recipes" columns.
+        row_recipe = [recipe_keys.get(rid) for rid in cols.get("rid") or []]
+        row_machine = [machines.keys.get(m) for m in cols.get("machineId") or []]
+        throughput = _ColumnBuffer(RECIPE_THROUGHPUT_SCHEMA)
+        for t in throughput_root.get("tiers") or []:
+            for i, r in enumerate(t.get("recipe") or []):
+                if row_recipe[r] is None:
+                    continue
+                throughput.add(
+                    row_recipe[r],
+                    row_machine[r],
+                    t.get("tier"),
+                    t.get("voltage"),
+                    t["parallel"][i],
+                    t["eut"][i],
+                    t["durationTicks"][i],
+                    t["itemsPerSecond"][i],
+                    t["euPerItem"][i],
+                    t["perfectEut"][i],
+                    t["perfectDurationTicks"][i],
+                    t["perfectItemsPerSecond"][i],
+                    t["perfectEuPerItem"][i],
+                )
+        throughput_count = len(throughput)
+        _write_table(throughput.to_table(), throughput_out)
+        print(f"recipe_throughput: {throughput_count} rows")
+    elif throughput_out.exists():
+        throughput_out.unlink()
 
     # Optional: also write a tiny metadata file
     meta = {
@@ -354,10 +921,21 @@ def main():
         "minecraft": root.get("minecraft"),
         "mod": root.get("mod"),
         "maps": len(map_rows),
-        "recipes": len(recipe_rows),
+        "recipes": recipe_count,
+        "nodes": node_count,
+        "edges": edge_count,
+        "layout": layout,
     }
+    if root.get("scope") is not None:
+        # Scoped or sampled dump: keep the settings with the tables built from it.
+        meta["scope"] = root.get("scope")
+    if root.get("abandoned") is not None:
+        # Units the dump's watchdog gave up on: these tables are missing their recipes.
+        meta["abandoned"] = root.get("abandoned")
     (out_dir / "_meta.json").write_text(json.dumps(meta, indent=2), encoding="utf-8")
-    _write_datapackage(out_dir, root)
+    _write_datapackage(
+        out_dir, root, layout, has_membership, has_ore_dictionary, has_localized_names, has_throughput
+    )
 
     print(f"Parquet written to: {out_dir}")
 
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+set -euo pipefail
+
+# Compares two dumps previously copied to out/ (e.g. out/2.7.4 and out/2.8.0).
+: "${DIFF_OLD_DIR:?Set DIFF_OLD_DIR to the older dump directory (containing recipes.json)}"
+: "${DIFF_NEW_DIR:?Set DIFF_NEW_DIR to the newer dump directory (containing recipes.json)}"
+: "${TOOLS_JAR_PATH:=/tools/RecipeTools.jar}"
+
+DIFF_OUT_DIR="${DIFF_OUT_DIR:-/work/out/diff}"
+DIFF_RUN_SIZE="${DIFF_RUN_SIZE:-100000}"
+JAVA_XMX="${JAVA_XMX:-6G}"
+
+mkdir -p "$DIFF_OUT_DIR"
+
+echo "==> Diffing $DIFF_OLD_DIR -> $DIFF_NEW_DIR"
+java -Xmx${JAVA_XMX} -jar "$TOOLS_JAR_PATH" diff \
+  --old "$DIFF_OLD_DIR" \
+  --new "$DIFF_NEW_DIR" \
+  --out "$DIFF_OUT_DIR" \
+  --run-size "$DIFF_RUN_SIZE"
+
+echo "==> Converting diff to Parquet..."
+DIFF_DIR="$DIFF_OUT_DIR" python /convert_diff_to_parquet.py
+
+echo "==> Done."
@@ -10,9 +10,21 @@ JAVA_XMX="${JAVA_XMX:-6G}"
 DUMP_PATH_REL="${DUMP_PATH_REL:-config/recipedumper/recipes.json}"
 DUMP_MACHINE_INDEX_REL="${DUMP_MACHINE_INDEX_REL:-config/recipedumper/machine_index.json}"
 DUMP_MACHINE_INDEX_DEBUG_REL="${DUMP_MACHINE_INDEX_DEBUG_REL:-config/recipedumper/machine_index_debug.json}"
+DUMP_GRAPH_INDEX_REL="${DUMP_GRAPH_INDEX_REL:-config/recipedumper/recipe_graph.csr}"
+DUMP_BINARY_REL="${DUMP_BINARY_REL:-config/recipedumper/recipes.bin}"
+DUMP_NAME_INDEX_REL="${DUMP_NAME_INDEX_REL:-config/recipedumper/names.tri}"
+DUMP_MEMBERSHIP_REL="${DUMP_MEMBERSHIP_REL:-config/recipedumper/recipe_membership.json}"
+DUMP_ORE_DICT_REL="${DUMP_ORE_DICT_REL:-config/recipedumper/ore_dictionary.json}"
+DUMP_LOCALIZED_REL="${DUMP_LOCALIZED_REL:-config/recipedumper/localized_names.json}"
+DUMP_THROUGHPUT_REL="${DUMP_THROUGHPUT_REL:-config/recipedumper/recipe_throughput.json}"
+DUMP_SNAPSHOT_REL="${DUMP_SNAPSHOT_REL:-config/recipedumper/registry_snapshot.bin}"
+# Written after every other file of a dump; its presence means the dump is complete.
+DUMP_RUN_REL="${DUMP_RUN_REL:-config/recipedumper/run.json}"
 DUMP_MACHINE_INDEX_REQUIRED="${DUMP_MACHINE_INDEX_REQUIRED:-1}"
 DUMP_TIMEOUT_SEC="${DUMP_TIMEOUT_SEC:-2400}"     # 40 min
+DUMP_RESUME_ATTEMPTS="${DUMP_RESUME_ATTEMPTS:-2}" # restarts after the server dies mid-dump
 FORCE_KILL_AFTER_SEC="${FORCE_KILL_AFTER_SEC:-60}"
+RECIPE_DUMP_KEEP_ALIVE="${RECIPE_DUMP_KEEP_ALIVE:-false}"   # true: keep the server up for /recipedump
 
 # ---- Paths / caching ----
 SERVER_DIR="${SERVER_DIR:-/work/server}"          # extracted server
@@ -78,15 +90,83 @@ fi
 DUMP_ABS="$SERVER_DIR/$DUMP_PATH_REL"
 MACHINE_INDEX_ABS="$SERVER_DIR/$DUMP_MACHINE_INDEX_REL"
 MACHINE_INDEX_DEBUG_ABS="$SERVER_DIR/$DUMP_MACHINE_INDEX_DEBUG_REL"
+GRAPH_INDEX_ABS="$SERVER_DIR/$DUMP_GRAPH_INDEX_REL"
+BINARY_DUMP_ABS="$SERVER_DIR/$DUMP_BINARY_REL"
+NAME_INDEX_ABS="$SERVER_DIR/$DUMP_NAME_INDEX_REL"
+MEMBERSHIP_ABS="$SERVER_DIR/$DUMP_MEMBERSHIP_REL"
+ORE_DICT_ABS="$SERVER_DIR/$DUMP_ORE_DICT_REL"
+LOCALIZED_ABS="$SERVER_DIR/$DUMP_LOCALIZED_REL"
+THROUGHPUT_ABS="$SERVER_DIR/$DUMP_THROUGHPUT_REL"
+SNAPSHOT_ABS="$SERVER_DIR/$DUMP_SNAPSHOT_REL"
+RUN_ABS="$SERVER_DIR/$DUMP_RUN_REL"
 OUT_ABS="$OUT_DIR/recipes.json"
 OUT_MACHINE_INDEX_ABS="$OUT_DIR/machine_index.json"
 OUT_MACHINE_INDEX_DEBUG_ABS="$OUT_DIR/machine_index_debug.json"
+OUT_GRAPH_INDEX_ABS="$OUT_DIR/recipe_graph.csr"
+OUT_BINARY_DUMP_ABS="$OUT_DIR/recipes.bin"
+OUT_NAME_INDEX_ABS="$OUT_DIR/names.tri"
+OUT_MEMBERSHIP_ABS="$OUT_DIR/recipe_membership.json"
+OUT_ORE_DICT_ABS="$OUT_DIR/ore_dictionary.json"
+OUT_LOCALIZED_ABS="$OUT_DIR/localized_names.json"
+OUT_THROUGHPUT_ABS="$OUT_DIR/recipe_throughput.json"
+OUT_SNAPSHOT_ABS="$OUT_DIR/registry_snapshot.bin"
+OUT_RUN_ABS="$OUT_DIR/run.json"
 
-if [ -f "$DUMP_ABS" ] && [ -f "$MACHINE_INDEX_ABS" ] && [ -f "$MACHINE_INDEX_DEBUG_ABS" ]; then
-  echo "==> Found existing dump; copying to out/ and exiting."
-  cp "$DUMP_ABS" "$OUT_ABS"
-  cp "$MACHINE_INDEX_ABS" "$OUT_MACHINE_INDEX_ABS"
-  cp "$MACHINE_INDEX_DEBUG_ABS" "$OUT_MACHINE_INDEX_DEBUG_ABS"
+MISSING_ARTIFACTS=0   # core dump files: without them there is nothing to convert
+MISSING_DERIVED=0     # files derived from the dump (run.json lists why in derivedErrors)
+
+# copy_artifact <src> <dst> <label> <required: 1|derived|0>
+copy_artifact() {
+  if [ -f "$1" ]; then
+    cp "$1" "$2"
+    echo "==> Copied $3 to $2"
+  elif [ "$4" = "1" ]; then
+    echo "ERROR: expected $3 missing: $1"
+    MISSING_ARTIFACTS=1
+  elif [ "$4" = "derived" ]; then
+    echo "ERROR: $3 was not written: $1"
+    MISSING_DERIVED=1
+  else
+    echo "==> No $3 ($1); skipping."
+  fi
+}
+
+# Copies every artifact of a completed dump. A missing core file fails the run before Parquet;
+# a missing derived file fails it afterwards, so one broken secondary writer does not cost the rest.
+copy_artifacts() {
+  local snapshot_required=0
+  if [ "${RECIPE_DUMP_SNAPSHOT:-false}" = "true" ]; then snapshot_required=1; fi
+  local machine_index_required=1
+  if [ "$DUMP_MACHINE_INDEX_REQUIRED" = "0" ]; then machine_index_required=0; fi
+  copy_artifact "$DUMP_ABS" "$OUT_ABS" "dump" 1
+  copy_artifact "$MACHINE_INDEX_ABS" "$OUT_MACHINE_INDEX_ABS" "machine index" "$machine_index_required"
+  copy_artifact "$MACHINE_INDEX_DEBUG_ABS" "$OUT_MACHINE_INDEX_DEBUG_ABS" "machine index debug" "$machine_index_required"
+  copy_artifact "$GRAPH_INDEX_ABS" "$OUT_GRAPH_INDEX_ABS" "recipe graph index" derived
+  copy_artifact "$BINARY_DUMP_ABS" "$OUT_BINARY_DUMP_ABS" "binary dump" derived
+  copy_artifact "$NAME_INDEX_ABS" "$OUT_NAME_INDEX_ABS" "name index" derived
+  copy_artifact "$MEMBERSHIP_ABS" "$OUT_MEMBERSHIP_ABS" "recipe membership" derived
+  copy_artifact "$ORE_DICT_ABS" "$OUT_ORE_DICT_ABS" "ore dictionary" derived
+  copy_artifact "$LOCALIZED_ABS" "$OUT_LOCALIZED_ABS" "localized names" derived
+  copy_artifact "$THROUGHPUT_ABS" "$OUT_THROUGHPUT_ABS" "throughput table" derived
+  copy_artifact "$SNAPSHOT_ABS" "$OUT_SNAPSHOT_ABS" "registry snapshot" "$snapshot_required"
+  copy_artifact "$RUN_ABS" "$OUT_RUN_ABS" "run report" 1
+  if [ -f "$RUN_ABS" ]; then
+    # Writers that failed report why; a listed file is missing even if an old copy is still around.
+    local errors
+    errors="$(python -c 'import json, sys
+for e in json.load(open(sys.argv[1])).get("derivedErrors") or []: print(e)' "$RUN_ABS" 2>/dev/null || true)"
+    if [ -n "$errors" ]; then
+      echo "ERROR: derived outputs failed (run.json derivedErrors):"
+      echo "$errors" | sed 's/^/    /'
+      MISSING_DERIVED=1
+    fi
+  fi
+}
+
+if [ "$RECIPE_DUMP_KEEP_ALIVE" != "true" ] && [ -f "$RUN_ABS" ]; then
+  echo "==> Found existing complete dump; copying to out/ and exiting."
+  copy_artifacts
+  if [ "$MISSING_ARTIFACTS" != "0" ] || [ "$MISSING_DERIVED" != "0" ]; then exit 4; fi
   exit 0
 fi
 
@@ -104,61 +184,90 @@ else
   exit 2
 fi
 
-echo "==> Starting server: $SERVER_CMD"
-set +e
-bash -lc "$SERVER_CMD" &
-SERVER_PID=$!
-set -e
-
-START_TS=$(date +%s)
-echo "==> Server PID: $SERVER_PID"
-echo "==> Waiting for dump: $DUMP_ABS"
+if [ "$RECIPE_DUMP_KEEP_ALIVE" = "true" ]; then
+  # Server console on a FIFO, held open on fd 3 so the server never sees EOF.
+  CONSOLE_FIFO="$SERVER_DIR/console.in"
+  rm -f "$CONSOLE_FIFO"
+  mkfifo "$CONSOLE_FIFO"
+  exec 3<>"$CONSOLE_FIFO"
+fi
 
+# A server that dies part way (OOM, crash) is started again; the dump resumes from its journal.
+ATTEMPT=0
 while true; do
-  if [ -f "$DUMP_ABS" ]; then
-    if [ "$DUMP_MACHINE_INDEX_REQUIRED" = "0" ] || [ -f "$MACHINE_INDEX_ABS" ]; then
+  echo "==> Starting server: $SERVER_CMD"
+  set +e
+  if [ "$RECIPE_DUMP_KEEP_ALIVE" = "true" ]; then
+    bash -lc "$SERVER_CMD" <"$CONSOLE_FIFO" &
+  else
+    bash -lc "$SERVER_CMD" &
+  fi
+  SERVER_PID=$!
+  set -e
+
+  START_TS=$(date +%s)
+  SERVER_EXITED=0
+  echo "==> Server PID: $SERVER_PID"
+  echo "==> Waiting for dump to complete: $RUN_ABS"
+
+  # recipes.json lands before the files derived from it; run.json is written last.
+  while true; do
+    if [ -f "$RUN_ABS" ]; then
       echo "==> Dump generated!"
       break
     fi
-  fi
 
-  if ! kill -0 "$SERVER_PID" >/dev/null 2>&1; then
-    echo "ERROR: server exited before dump appeared."
-    break
-  fi
+    if ! kill -0 "$SERVER_PID" >/dev/null 2>&1; then
+      echo "ERROR: server exited before the dump completed."
+      SERVER_EXITED=1
+      break
+    fi
 
-  NOW=$(date +%s)
-  if [ $((NOW - START_TS)) -gt "$DUMP_TIMEOUT_SEC" ]; then
-    echo "ERROR: timed out waiting for dump after ${DUMP_TIMEOUT_SEC}s"
+    NOW=$(date +%s)
+    if [ $((NOW - START_TS)) -gt "$DUMP_TIMEOUT_SEC" ]; then
+      echo "ERROR: timed out waiting for dump after ${DUMP_TIMEOUT_SEC}s"
+      break
+    fi
+
+    sleep 2
+  done
+
+  if [ "$SERVER_EXITED" != "1" ] || [ "${RECIPE_DUMP_JOURNAL:-true}" = "false" ] \
+      || [ "$ATTEMPT" -ge "$DUMP_RESUME_ATTEMPTS" ]; then
     break
   fi
-
-  sleep 2
+  ATTEMPT=$((ATTEMPT + 1))
+  echo "==> Restarting the server to resume the dump (attempt $ATTEMPT of $DUMP_RESUME_ATTEMPTS)..."
 done
 
-if [ -f "$DUMP_ABS" ]; then
-  cp "$DUMP_ABS" "$OUT_ABS"
-  echo "==> Copied dump to $OUT_ABS"
-  if [ -f "$MACHINE_INDEX_ABS" ]; then
-    cp "$MACHINE_INDEX_ABS" "$OUT_MACHINE_INDEX_ABS"
-    echo "==> Copied machine index to $OUT_MACHINE_INDEX_ABS"
-  fi
-  if [ -f "$MACHINE_INDEX_DEBUG_ABS" ]; then
-    cp "$MACHINE_INDEX_DEBUG_ABS" "$OUT_MACHINE_INDEX_DEBUG_ABS"
-    echo "==> Copied machine index debug to $OUT_MACHINE_INDEX_DEBUG_ABS"
-  fi
+if [ -f "$RUN_ABS" ]; then
+  copy_artifacts
+fi
 
+if [ -f "$RUN_ABS" ] && [ "$MISSING_ARTIFACTS" = "0" ]; then
   echo "==> Converting raw dump to Parquet..."
-  RAW_JSON_PATH="$DUMP_ABS" MACHINE_INDEX_JSON_PATH="$MACHINE_INDEX_ABS" PARQUET_OUT_DIR="$OUT_DIR/parquet" python /convert_to_parquet.py
+  RAW_JSON_PATH="$DUMP_ABS" MACHINE_INDEX_JSON_PATH="$MACHINE_INDEX_ABS" MEMBERSHIP_JSON_PATH="$MEMBERSHIP_ABS" ORE_DICTIONARY_JSON_PATH="$ORE_DICT_ABS" LOCALIZED_NAMES_JSON_PATH="$LOCALIZED_ABS" THROUGHPUT_JSON_PATH="$THROUGHPUT_ABS" PARQUET_OUT_DIR="$OUT_DIR/parquet" python /convert_to_parquet.py
 
   # Optional: remove raw json from out to keep artifacts lean
   #rm -f "$OUT_ABS" || true
 else
-  echo "==> Dump missing. Copying logs for debugging..."
+  echo "==> Dump missing or incomplete. Copying logs for debugging..."
   find . -maxdepth 3 -type f \( -name "latest.log" -o -name "*.log" \) -print0 \
     | xargs -0 -I{} cp "{}" "$OUT_DIR/" || true
 fi
 
+if [ "$RECIPE_DUMP_KEEP_ALIVE" = "true" ] && kill -0 "$SERVER_PID" >/dev/null 2>&1; then
+  echo "==> Keep-alive: server stays up. Send console commands with e.g."
+  echo "      docker compose exec gtnh-dump sh -c 'echo \"recipedump machine gt.recipe.blastfurnace\" > $CONSOLE_FIFO'"
+  echo "    Runs land in ${RECIPE_DUMP_RUNS_DIR:-$SERVER_DIR/config/recipedumper/runs}; send 'stop' to shut down."
+  set +e
+  wait "$SERVER_PID"
+  set -e
+  echo "==> Done."
+  if [ "$MISSING_ARTIFACTS" != "0" ] || [ "$MISSING_DERIVED" != "0" ]; then exit 4; fi
+  exit 0
+fi
+
 echo "==> Stopping server..."
 kill -TERM "$SERVER_PID" >/dev/null 2>&1 || true
 
@@ -174,3 +283,7 @@ while kill -0 "$SERVER_PID" >/dev/null 2>&1; do
 done
 
 echo "==> Done."
+if [ ! -f "$RUN_ABS" ] || [ "$MISSING_ARTIFACTS" != "0" ] || [ "$MISSING_DERIVED" != "0" ]; then
+  echo "ERROR: dump did not complete with every expected artifact."
+  exit 4
+fi